@@ -102,6 +102,46 @@ public final class LogId {
      * <strong>DAL025055 = This job status at the job control table is already updated by another worker. It will be skip. jobSequenceId:{0} expectedCurAppStatus:{1} actualCurAppStatus:{2} changeTo:{3}</strong>
      */
     public static final String DAL025055 = "DAL025055";
+    /**
+     * <strong>DAL025056 = Admin connection circuit half-opened. A probe call will be attempted. thread:{0}</strong>
+     */
+    public static final String DAL025056 = "DAL025056";
+    /**
+     * <strong>DAL025057 = Job lease acquired. jobSequenceId:{0} leaseOwner:{1} leaseExpireTime:{2}</strong>
+     */
+    public static final String DAL025057 = "DAL025057";
+    /**
+     * <strong>DAL025058 = Job leases renewed. leaseOwner:{0} count:{1} leaseExpireTime:{2}</strong>
+     */
+    public static final String DAL025058 = "DAL025058";
+    /**
+     * <strong>DAL025059 = Job start was delayed by the rate limiter. jobSequenceId:{0} resource:{1} waitTime:{2} ms</strong>
+     */
+    public static final String DAL025059 = "DAL025059";
+    /**
+     * <strong>DAL025060 = Job submitted to the in-memory job queue. jobSequenceId:{0} jobAppCd:{1} priority:{2}</strong>
+     */
+    public static final String DAL025060 = "DAL025060";
+    /**
+     * <strong>DAL025061 = Archived a batch of processed jobs. count:{0} lastJobSequenceId:{1}</strong>
+     */
+    public static final String DAL025061 = "DAL025061";
+    /**
+     * <strong>DAL025062 = Released successor jobs whose predecessors have all succeeded. jobSequenceId:{0} successors:{1}</strong>
+     */
+    public static final String DAL025062 = "DAL025062";
+    /**
+     * <strong>DAL025063 = Job lease released. jobSequenceId:{0} leaseOwner:{1}</strong>
+     */
+    public static final String DAL025063 = "DAL025063";
+    /**
+     * <strong>DAL025064 = Compacted the in-memory job journal. journal:{0} pending:{1} ended:{2}</strong>
+     */
+    public static final String DAL025064 = "DAL025064";
+    /**
+     * <strong>DAL025065 = The number of deferred jobs has reached the limit, so the job is left unexecuted until the next polling. jobSequenceId:{0}</strong>
+     */
+    public static final String DAL025065 = "DAL025065";
     /**
      * <strong>IAL025001 = An async batch processing START. jobSequenceId:{0}</strong>
      */
@@ -158,6 +198,30 @@ public final class LogId {
      * <strong>IAL025025 = It will be checked to stop AsyncBatchExecutor at a certain interval. the end monitoring file path:{0}</strong>
      */
     public static final String IAL025025 = "IAL025025";
+    /**
+     * <strong>IAL025026 = Admin connection circuit opened. consecutiveOpenCount:{0}, waitTime:{1} ms</strong>
+     */
+    public static final String IAL025026 = "IAL025026";
+    /**
+     * <strong>IAL025027 = Admin connection circuit closed.</strong>
+     */
+    public static final String IAL025027 = "IAL025027";
+    /**
+     * <strong>IAL025028 = Job lease heartbeat started. leaseOwner:{0} leaseDuration:{1} ms heartbeatInterval:{2} ms</strong>
+     */
+    public static final String IAL025028 = "IAL025028";
+    /**
+     * <strong>IAL025029 = Job start rate limiter statistics. resource:{0} started:{1} delayed:{2} totalWaitTime:{3} ms maxWaitTime:{4} ms</strong>
+     */
+    public static final String IAL025029 = "IAL025029";
+    /**
+     * <strong>IAL025030 = In-memory job journal recovered. journal:{0} requeued:{1} nextJobSequenceId:{2}</strong>
+     */
+    public static final String IAL025030 = "IAL025030";
+    /**
+     * <strong>IAL025031 = Archived processed jobs to the history table. count:{0} thresholdTime:{1}</strong>
+     */
+    public static final String IAL025031 = "IAL025031";
     /**
      * <strong>WAL025008 = MessageAccessor setting is not specified. it will be skipped. {0}</strong>
      */
@@ -166,6 +230,26 @@ public final class LogId {
      * <strong>WAL025010 = The BLogic execution continues without an ExceptionHandler.</strong>
      */
     public static final String WAL025010 = "WAL025010";
+    /**
+     * <strong>WAL025011 = Reclaimed jobs whose lease has expired. count:{0} reclaimAppStatus:{1}</strong>
+     */
+    public static final String WAL025011 = "WAL025011";
+    /**
+     * <strong>WAL025012 = Could not resolve the job to apply the start rate limit, so the job starts without limit. jobSequenceId:{0}</strong>
+     */
+    public static final String WAL025012 = "WAL025012";
+    /**
+     * <strong>WAL025013 = Ignored a broken record in the in-memory job journal. journal:{0} lineNumber:{1}</strong>
+     */
+    public static final String WAL025013 = "WAL025013";
+    /**
+     * <strong>WAL025014 = Requeued a job that was dispatched but not started. jobSequenceId:{0}</strong>
+     */
+    public static final String WAL025014 = "WAL025014";
+    /**
+     * <strong>WAL025015 = The deferred job could not be started, so it was returned to unexecuted status. jobSequenceId:{0}</strong>
+     */
+    public static final String WAL025015 = "WAL025015";
     /**
      * <strong>EAL025003 = Bean definition default file name is not set. please confirm batch.properties.</strong>
      */
@@ -238,4 +322,40 @@ public final class LogId {
      * <strong>EAL025064 = Failed to rollback transaction. jobSequenceId:{0}</strong>
      */
     public static final String EAL025064 = "EAL025064";
+    /**
+     * <strong>EAL025065 = Failed to acquire the job lease. jobSequenceId:{0} leaseOwner:{1}</strong>
+     */
+    public static final String EAL025065 = "EAL025065";
+    /**
+     * <strong>EAL025066 = Failed to renew or reclaim job leases. leaseOwner:{0}</strong>
+     */
+    public static final String EAL025066 = "EAL025066";
+    /**
+     * <strong>EAL025067 = Invalid job lease settings. leaseDuration:{0} ms must be greater than leaseHeartbeatInterval:{1} ms.</strong>
+     */
+    public static final String EAL025067 = "EAL025067";
+    /**
+     * <strong>EAL025068 = Invalid job start rate limit. resource:{0} permitsPerSecond:{1} burstSize:{2}</strong>
+     */
+    public static final String EAL025068 = "EAL025068";
+    /**
+     * <strong>EAL025070 = Failed to access the in-memory job journal. journal:{0}</strong>
+     */
+    public static final String EAL025070 = "EAL025070";
+    /**
+     * <strong>EAL025071 = The number of archived jobs does not match, so the batch was rolled back. selected:{0} inserted:{1} deleted:{2}</strong>
+     */
+    public static final String EAL025071 = "EAL025071";
+    /**
+     * <strong>EAL025072 = Failed to release successor jobs. They will be found by the next polling. jobSequenceId:{0}</strong>
+     */
+    public static final String EAL025072 = "EAL025072";
+    /**
+     * <strong>EAL025073 = Failed to release the job lease because the job is not leased by this owner. jobSequenceId:{0} leaseOwner:{1}</strong>
+     */
+    public static final String EAL025073 = "EAL025073";
+    /**
+     * <strong>EAL025074 = The deferred job could not be started and could not be returned to unexecuted status. jobSequenceId:{0}</strong>
+     */
+    public static final String EAL025074 = "EAL025074";
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * 管理用データベースへのアクセスを制御するサーキットブレーカー。
+ * <p>
+ * {@link AdminConnectionRetryInterceptor}がインターセプトする全ての呼び出しで状態を共有する。<br>
+ * サーキットがオープンしている間は全てのスレッドを待機させ、待機時間の経過後は1つのスレッドのみに
+ * アクセスを許可する(ハーフオープン)。そのアクセスが成功した時点でクローズし、待機中のスレッドを直ちに再開させる。
+ * </p>
+ * @see AdminConnectionRetryInterceptor
+ * @since 3.6
+ */
+public class AdminConnectionCircuitBreaker {
+
+    private static final TLogger LOGGER = TLogger
+            .getLogger(AdminConnectionCircuitBreaker.class);
+
+    /**
+     * サーキットの状態。
+     */
+    public enum State {
+        /**
+         * クローズ(データベースにアクセス可能)
+         */
+        CLOSED,
+        /**
+         * オープン(待機時間の経過まで全てのアクセスを待機させる)
+         */
+        OPEN,
+        /**
+         * ハーフオープン(1つのスレッドのみがアクセスし、他は結果を待つ)
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * 状態を保護するロック
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 状態変化を通知するコンディション
+     */
+    private final Condition stateChanged = lock.newCondition();
+
+    /**
+     * サーキットの状態
+     */
+    private volatile State state = State.CLOSED;
+
+    /**
+     * ハーフオープンにする時刻(ミリ秒)
+     */
+    private long openUntil = 0L;
+
+    /**
+     * 連続してオープンした回数
+     */
+    private int consecutiveOpenCount = 0;
+
+    /**
+     * サーキットがデータベースへのアクセスを許可するまで待機する。
+     * <p>
+     * オープン中は待機時間が経過するまで待機し、経過後に最初に到達したスレッドがハーフオープンの試行者となる。
+     * ハーフオープン中は試行者の結果が出るまで待機する。
+     * </p>
+     * @return ハーフオープンの試行者となった場合は{@code true}
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    public boolean await() throws InterruptedException {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                switch (state) {
+                case CLOSED:
+                    return false;
+                case OPEN:
+                    long waitTime = openUntil - System.currentTimeMillis();
+                    if (waitTime <= 0L) {
+                        state = State.HALF_OPEN;
+                        LOGGER.debug(LogId.DAL025056, Thread.currentThread()
+                                .getName());
+                        return true;
+                    }
+                    stateChanged.await(waitTime, TimeUnit.MILLISECONDS);
+                    break;
+                default:
+                    stateChanged.await();
+                    break;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * サーキットをオープンする。
+     * <p>
+     * 既に他のスレッドによってオープンされている場合や、ハーフオープン中に試行者以外が失敗した場合は状態を変えない。
+     * </p>
+     * @param probe ハーフオープンの試行者による失敗であれば{@code true}
+     * @param retryInterval リトライ実施前の待機時間(ミリ秒)
+     * @param maxRetryInterval リトライ実施前の待機時間の上限(ミリ秒)
+     */
+    public void open(boolean probe, long retryInterval,
+            long maxRetryInterval) {
+        lock.lock();
+        try {
+            if (!probe && state != State.CLOSED) {
+                return;
+            }
+            consecutiveOpenCount++;
+            long waitTime = nextWaitTime(consecutiveOpenCount, retryInterval,
+                    maxRetryInterval);
+            openUntil = System.currentTimeMillis() + waitTime;
+            state = State.OPEN;
+            LOGGER.info(LogId.IAL025026, consecutiveOpenCount, waitTime);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * サーキットをクローズし、待機中の全てのスレッドを再開させる。
+     */
+    public void close() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (state == State.CLOSED) {
+                return;
+            }
+            state = State.CLOSED;
+            consecutiveOpenCount = 0;
+            LOGGER.info(LogId.IAL025027);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * サーキットの状態を取得する。
+     * @return サーキットの状態
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 次にハーフオープンにするまでの待機時間を算出する。
+     * <p>
+     * "リトライ実施前の待機時間"を連続オープン回数に応じて倍増させ、上限で切り詰めた値を{@code d}としたとき、
+     * {@code d}以上{@code d*1.5}以下の範囲でランダムな値を返す。
+     * 下限を{@code d}とすることで、"リトライ実施前の待機時間"より短く待機することはない。
+     * </p>
+     * @param openCount 連続オープン回数
+     * @param retryInterval リトライ実施前の待機時間(ミリ秒)
+     * @param maxRetryInterval リトライ実施前の待機時間の上限(ミリ秒)
+     * @return 待機時間(ミリ秒)
+     */
+    protected long nextWaitTime(int openCount, long retryInterval,
+            long maxRetryInterval) {
+        long base = Math.max(retryInterval, 0L);
+        long cap = Math.max(maxRetryInterval, base);
+        long waitTime = base;
+        for (int i = 1; i < openCount && waitTime < cap; i++) {
+            waitTime <<= 1;
+        }
+        waitTime = Math.min(waitTime, cap);
+        return waitTime + ThreadLocalRandom.current().nextLong(waitTime / 2L
+                + 1L);
+    }
+}
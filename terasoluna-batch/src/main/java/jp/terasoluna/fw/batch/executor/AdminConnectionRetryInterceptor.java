@@ -16,8 +16,6 @@
 
 package jp.terasoluna.fw.batch.executor;
 
-import java.util.concurrent.TimeUnit;
-
 import jp.terasoluna.fw.batch.constants.LogId;
 import jp.terasoluna.fw.logger.TLogger;
 
@@ -56,9 +54,23 @@ import org.springframework.transaction.TransactionException;
  * <td>リトライ回数リセットまでの経過時間</td>
  * <td>600000(ミリ秒)</td>
  * </tr>
+ * <tr>
+ * <td>batchTaskExecutor.dbAbnormalRetryIntervalMax</td>
+ * <td>リトライ実施前の待機時間の上限</td>
+ * <td>300000(ミリ秒)</td>
+ * </tr>
  * </table>
  * </p>
  * <p>
+ * 最大リトライ回数が1以上の場合、リトライの待機はインターセプトされる全ての呼び出しで共有するサーキットブレーカーによって行う。<br>
+ * 対象となる例外が発生するとサーキットをオープンし、待機時間が経過するまで全てのスレッドはデータベースにアクセスせずに待機する。
+ * 待機時間は"リトライ実施前の待機時間"を基準に、連続してオープンした回数に応じて"リトライ実施前の待機時間の上限"まで倍増させ、
+ * さらに最大で半分だけランダムに延長して、同じデータベースを使用する複数のプロセスが同時に再接続することを避ける。<br>
+ * 待機時間の経過後は1つのスレッドのみがデータベースにアクセスし(ハーフオープン)、成功すればサーキットをクローズして
+ * 待機中の全てのスレッドを直ちに再開させる。失敗した場合は待機時間を延ばして再度オープンする。<br>
+ * これにより、データベースの復旧後に各スレッドが固定時間待ち続けることや、全スレッドが同時に再接続することを避ける。
+ * </p>
+ * <p>
  * また、本機能を利用するにはBean定義が必要となる。<br>
  * 以下はBean定義に記述される{@code JobStatusChanger}、{@code JobControlFinder}のインタフェースで定義されたメソッドに対して
  * {@code AdminConnectionRetryInterceptor}によるコネクションリトライを行うための設定例である。
@@ -115,6 +127,17 @@ public class AdminConnectionRetryInterceptor implements MethodInterceptor {
     @Value("${batchTaskExecutor.dbAbnormalRetryReset:600000}")
     private volatile long retryReset;
 
+    /**
+     * データベース異常時のリトライ間隔の上限（ミリ秒）
+     */
+    @Value("${batchTaskExecutor.dbAbnormalRetryIntervalMax:300000}")
+    private volatile long maxRetryInterval;
+
+    /**
+     * インターセプトされる全ての呼び出しで共有するサーキットブレーカー
+     */
+    private final AdminConnectionCircuitBreaker circuitBreaker = new AdminConnectionCircuitBreaker();
+
     /**
      * 対象となる例外が発生したときにデータベース接続のリトライを実施する。
      * リトライは、"リトライ実施前の待機時間"の後に、最大リトライ回数を上限に行なう。
@@ -130,12 +153,21 @@ public class AdminConnectionRetryInterceptor implements MethodInterceptor {
         Throwable cause = null;
         Object returnObject = null;
         long lastExceptionTime = System.currentTimeMillis();
+        boolean useCircuit = maxRetryCount > 0L;
         while (true) {
+            boolean probe = useCircuit && circuitBreaker.await();
             try {
                 cause = null;
                 returnObject = invocation.proceed();
+                if (useCircuit) {
+                    circuitBreaker.close();
+                }
                 break;
             } catch (DataAccessException | TransactionException e) {
+                if (useCircuit) {
+                    circuitBreaker.open(probe, retryInterval,
+                            maxRetryInterval);
+                }
                 if (System.currentTimeMillis() - lastExceptionTime > retryReset) {
                     retryCount = 0L;
                 }
@@ -148,10 +180,15 @@ public class AdminConnectionRetryInterceptor implements MethodInterceptor {
                     break;
                 }
 
-                TimeUnit.MILLISECONDS.sleep(retryInterval);
                 retryCount++;
                 LOGGER.info(LogId.IAL025017, retryCount, maxRetryCount,
                         retryReset, retryInterval);
+            } catch (Throwable t) {
+                // 対象外の例外はデータベースが応答したものとみなす
+                if (probe) {
+                    circuitBreaker.close();
+                }
+                throw t;
             }
         }
         if (cause != null) {
@@ -160,4 +197,12 @@ public class AdminConnectionRetryInterceptor implements MethodInterceptor {
         return returnObject;
     }
 
+    /**
+     * サーキットブレーカーを取得する。
+     * @return サーキットブレーカー
+     */
+    protected AdminConnectionCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
 }
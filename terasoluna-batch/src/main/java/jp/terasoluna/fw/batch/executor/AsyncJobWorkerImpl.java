@@ -28,6 +28,7 @@ import jp.terasoluna.fw.batch.exception.handler.BLogicExceptionHandlerResolver;
 import jp.terasoluna.fw.batch.exception.handler.ExceptionHandler;
 import jp.terasoluna.fw.batch.executor.repository.JobControlFinder;
 import jp.terasoluna.fw.batch.executor.repository.JobStatusChanger;
+import jp.terasoluna.fw.batch.executor.repository.RevertibleJobStatusChanger;
 import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
 import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
 import jp.terasoluna.fw.logger.TLogger;
@@ -48,7 +49,7 @@ import jp.terasoluna.fw.logger.TLogger;
  * </p>
  * @since 3.6
  */
-public class AsyncJobWorkerImpl implements AsyncJobWorker {
+public class AsyncJobWorkerImpl implements CancelableAsyncJobWorker {
 
     /**
      * ロガー
@@ -148,6 +149,24 @@ public class AsyncJobWorkerImpl implements AsyncJobWorker {
         return updated;
     }
 
+    /**
+     * ジョブシーケンスコードに該当するジョブの前処理を取り消す<br>
+     * <p>
+     * ジョブシーケンスコードに該当するレコードのジョブステータスを「未実行：０」に戻す。
+     * ジョブステータス更新機能が{@link RevertibleJobStatusChanger}を実装していない場合は取り消さない。
+     * </p>
+     * @param jobSequenceId ジョブシーケンスコード
+     * @return 取り消しの処理結果(true:更新成功、false:更新失敗)
+     */
+    @Override
+    public boolean cancelExecute(final String jobSequenceId) {
+        if (!(jobStatusChanger instanceof RevertibleJobStatusChanger)) {
+            return false;
+        }
+        return ((RevertibleJobStatusChanger) jobStatusChanger)
+                .changeToUnexecutionStatus(jobSequenceId);
+    }
+
     /**
      * ジョブシーケンスコードに該当するジョブの主処理を行う<br>
      * <p>
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor;
+
+/**
+ * 前処理の後、主処理を開始できなかったジョブの前処理を取り消すことができる{@link AsyncJobWorker}。<br>
+ * @since 3.6
+ */
+public interface CancelableAsyncJobWorker extends AsyncJobWorker {
+
+    /**
+     * ジョブの前処理を取り消す。<br>
+     * 前処理で「実行中」に変更したジョブステータスを「未実行」に戻す。
+     *
+     * @param jobSequenceId ジョブシーケンスコード
+     * @return 取り消しの処理結果(true:成功、false:失敗)
+     */
+    boolean cancelExecute(String jobSequenceId);
+}
@@ -19,14 +19,18 @@ package jp.terasoluna.fw.batch.executor.controller;
 import jp.terasoluna.fw.batch.constants.LogId;
 import jp.terasoluna.fw.batch.exception.BatchException;
 import jp.terasoluna.fw.batch.executor.AsyncJobWorker;
+import jp.terasoluna.fw.batch.executor.CancelableAsyncJobWorker;
 import jp.terasoluna.fw.logger.TLogger;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.Assert;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -50,12 +54,27 @@ import java.util.concurrent.TimeUnit;
  * 最大プールサイズ以上のジョブ実行が行われた場合はスレッドプールに空きが生じるまで待ち状態となるが、
  * この待ち状態が公平性（先入れ-先出し） を保ったまま解決されるかを{@code fair}プロパティで設定することができる。
  * （デフォルトは公平性あり：{@code true}であり、DIコンテナの起動後の変更は無効。）
+ * <p>
+ * {@code jobStartRateLimiter}プロパティに{@link JobStartRateLimiter}を設定すると、
+ * スレッドプールに空きがあってもジョブの起動頻度を制限できる。
+ * 制限を超えたジョブはステータスを実行中に変更したうえで、予約した時刻まで起動を遅延させる。
+ * 遅延中のジョブはスレッドプールの枠を占有せず、ジョブを取得するスレッドも待機しないため、
+ * 他のリソースのジョブの起動は妨げられない。
+ * 予約した時刻にスレッドプールに空きがない場合は、スケジューラのスレッドで待機せず、
+ * {@code executor.deferredJobRetryInterval}ミリ秒（デフォルト100ms）後に再試行する。
+ * 遅延中のジョブ数の上限は最大プールサイズとし、上限に達した場合は起動時刻を予約せずにジョブを未実行のまま残し、
+ * 次回以降のジョブリストの取得で改めて起動する。
+ * 遅延中のジョブをスレッドプールに登録できなかった場合（シャットダウン中の再試行など）は、
+ * ワーカスレッド処理が{@link CancelableAsyncJobWorker}を実装していれば、ジョブステータスを未実行に戻す。
+ * 起動待ちの統計情報はシャットダウン時にログに出力される。
+ * </p>
  *
+ * @see JobStartRateLimiter
  * @see org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor
  * @see java.util.concurrent.ThreadPoolExecutor
  * @since 3.6
  */
-public class AsyncJobLauncherImpl implements AsyncJobLauncher,
+public class AsyncJobLauncherImpl implements JobAppCdAwareAsyncJobLauncher,
                                   InitializingBean {
 
     /**
@@ -84,12 +103,33 @@ public class AsyncJobLauncherImpl implements AsyncJobLauncher,
      */
     protected Semaphore taskPoolLimit = null;
 
+    /**
+     * ジョブの起動頻度を制限する機能。未設定の場合は制限しない。
+     */
+    protected JobStartRateLimiter jobStartRateLimiter = null;
+
+    /**
+     * 起動頻度の制限によって遅延させたジョブを、予約した時刻に起動するスケジューラ。
+     */
+    protected ScheduledThreadPoolExecutor deferredJobScheduler = null;
+
+    /**
+     * 遅延中のジョブ数の上限を制御するセマフォ。
+     */
+    protected Semaphore deferredJobLimit = null;
+
     /**
      * 残留ジョブがある場合、シャットダウンを保留する再チェックまでのスリープ時間。
      */
     @Value("${executor.jobTerminateWaitInterval:3000}")
     protected volatile long executorJobTerminateWaitIntervalTime;
 
+    /**
+     * 遅延させたジョブの起動時にスレッドプールに空きがない場合、再試行するまでの間隔（ミリ秒）。
+     */
+    @Value("${executor.deferredJobRetryInterval:100}")
+    protected volatile long deferredJobRetryIntervalTime = 100L;
+
     /**
      * コンストラクタ。<br>
      * @param threadPoolTaskExecutor ワーカスレッドの実行環境であるスレッドプール
@@ -116,16 +156,60 @@ public class AsyncJobLauncherImpl implements AsyncJobLauncher,
         this.fair = fair;
     }
 
+    /**
+     * ジョブの起動頻度を制限する機能を設定する。<br>
+     * @param jobStartRateLimiter ジョブの起動頻度を制限する機能
+     */
+    public void setJobStartRateLimiter(
+            JobStartRateLimiter jobStartRateLimiter) {
+        this.jobStartRateLimiter = jobStartRateLimiter;
+    }
+
     /**
      * スレッドプールから実行タスクを割り当て、ジョブを実行する。<br>
-     * 最大プールサイズの上限に達している場合は待ち受けが行われる。
+     * 起動頻度の制限を設定している場合は、ジョブ業務コードをジョブシーケンスコードから取得する。
      * @param jobSequenceId ジョブのシーケンスコード
+     * @see #executeJob(String, String)
      */
     @Override
     public void executeJob(final String jobSequenceId) {
+        executeJob(jobSequenceId, null);
+    }
+
+    /**
+     * スレッドプールから実行タスクを割り当て、ジョブを実行する。<br>
+     * 起動頻度の制限を設定している場合、制限を超えたジョブは起動を遅延させて即座に返却する。
+     * 遅延中のジョブ数が上限に達している場合は、ジョブを未実行のまま残して即座に返却する。
+     * 最大プールサイズの上限に達している場合は待ち受けが行われる。
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param jobAppCd ジョブ業務コード。不明な場合は{@code null}
+     */
+    @Override
+    public void executeJob(final String jobSequenceId, String jobAppCd) {
 
         Assert.notNull(jobSequenceId);
 
+        if (jobStartRateLimiter != null) {
+            // 遅延中のジョブ数の枠がない場合は、起動時刻を予約せずに次回以降の取得に任せる
+            if (!deferredJobLimit.tryAcquire()) {
+                LOGGER.debug(LogId.DAL025065, jobSequenceId);
+                return;
+            }
+            long waitNanos;
+            try {
+                waitNanos = jobStartRateLimiter.tryAcquire(jobSequenceId,
+                        jobAppCd);
+            } catch (RuntimeException e) {
+                deferredJobLimit.release();
+                throw e;
+            }
+            if (waitNanos > 0L) {
+                deferJob(jobSequenceId, waitNanos);
+                return;
+            }
+            deferredJobLimit.release();
+        }
+
         try {
             taskPoolLimit.acquire();
         } catch (InterruptedException e) {
@@ -142,6 +226,101 @@ public class AsyncJobLauncherImpl implements AsyncJobLauncher,
             return;
         }
 
+        submitWorker(jobSequenceId);
+    }
+
+    /**
+     * 起動頻度の制限を超えたジョブの起動を遅延させる。<br>
+     * ジョブのステータスを実行中に変更して次回以降のジョブリストの取得対象から外し、
+     * 待機時間の経過後にスレッドプールの枠を確保してジョブを実行する。
+     * 呼び出し元で遅延中のジョブ数の枠を確保していること。
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param waitNanos 起動できるまでの待機時間（ナノ秒）
+     */
+    protected void deferJob(final String jobSequenceId, long waitNanos) {
+        boolean started;
+        try {
+            started = asyncJobWorker.beforeExecute(jobSequenceId);
+        } catch (RuntimeException e) {
+            deferredJobLimit.release();
+            throw e;
+        }
+        if (!started) {
+            deferredJobLimit.release();
+            LOGGER.info(LogId.IAL025021, jobSequenceId);
+            return;
+        }
+
+        scheduleDeferredJob(jobSequenceId, waitNanos);
+    }
+
+    /**
+     * 遅延させたジョブの起動をスケジューラに登録する。<br>
+     * スケジューラが登録を拒否した場合は、遅延中のジョブ数の枠を解放してジョブのステータスを未実行に戻す。
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param delayNanos 起動するまでの待機時間（ナノ秒）
+     */
+    protected void scheduleDeferredJob(final String jobSequenceId,
+            long delayNanos) {
+        try {
+            deferredJobScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    startDeferredJob(jobSequenceId);
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            deferredJobLimit.release();
+            cancelDeferredJob(jobSequenceId);
+        }
+    }
+
+    /**
+     * 遅延させたジョブをスレッドプールに登録する。スケジューラのスレッドから呼び出される。<br>
+     * スレッドプールに空きがない場合は待機せず、{@code deferredJobRetryIntervalTime}ミリ秒後に再試行する。
+     * スレッドプールが登録を拒否した場合は、ジョブのステータスを未実行に戻す。
+     * @param jobSequenceId ジョブのシーケンスコード
+     */
+    protected void startDeferredJob(String jobSequenceId) {
+        if (!taskPoolLimit.tryAcquire()) {
+            scheduleDeferredJob(jobSequenceId, TimeUnit.MILLISECONDS.toNanos(
+                    deferredJobRetryIntervalTime));
+            return;
+        }
+        deferredJobLimit.release();
+        if (!submitWorker(jobSequenceId)) {
+            cancelDeferredJob(jobSequenceId);
+        }
+    }
+
+    /**
+     * 実行中に変更した後、起動できなかった遅延中のジョブのステータスを未実行に戻す。<br>
+     * ワーカスレッド処理が{@link CancelableAsyncJobWorker}を実装していない場合、または戻せなかった場合はエラーログを出力する。
+     * @param jobSequenceId ジョブのシーケンスコード
+     */
+    protected void cancelDeferredJob(String jobSequenceId) {
+        if (asyncJobWorker instanceof CancelableAsyncJobWorker) {
+            try {
+                if (((CancelableAsyncJobWorker) asyncJobWorker).cancelExecute(
+                        jobSequenceId)) {
+                    LOGGER.warn(LogId.WAL025015, jobSequenceId);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error(LogId.EAL025074, e, jobSequenceId);
+                return;
+            }
+        }
+        LOGGER.error(LogId.EAL025074, jobSequenceId);
+    }
+
+    /**
+     * スレッドプールにジョブの主処理を登録する。<br>
+     * 呼び出し元でスレッドプールの枠を確保していること。登録を拒否された場合は枠を解放する。
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @return 登録できた場合は{@code true}
+     */
+    protected boolean submitWorker(final String jobSequenceId) {
         try {
             threadPoolTaskExecutor.execute(new Runnable() {
                 @Override
@@ -158,21 +337,39 @@ public class AsyncJobLauncherImpl implements AsyncJobLauncher,
         } catch (TaskRejectedException e) {
             LOGGER.error(LogId.EAL025047, e, jobSequenceId);
             taskPoolLimit.release();
+            return false;
         }
+        return true;
     }
 
     /**
      * スレッドプールをシャットダウンする。<br>
      * プール内の全てのタスクが終了するまで本メソッドは終了しない。
+     * 起動頻度の制限を設定している場合は、遅延中のジョブをスレッドプールに登録し終えるまで待ち受けた後に
+     * スレッドプールをシャットダウンし、起動待ちの統計情報をログに出力する。
      */
     @Override
     public void shutdown() {
+        if (deferredJobScheduler != null) {
+            // 再試行中のジョブの登録が拒否されないよう、遅延中のジョブがなくなってからスケジューラを停止する
+            int maxPoolSize = threadPoolTaskExecutor.getMaxPoolSize();
+            while (!deferredJobsStarted(maxPoolSize)) {
+                LOGGER.info(LogId.IAL025020);
+            }
+            deferredJobScheduler.shutdown();
+            while (!terminated(deferredJobScheduler)) {
+                LOGGER.info(LogId.IAL025020);
+            }
+        }
         ThreadPoolExecutor threadPoolExecutor =
                 threadPoolTaskExecutor.getThreadPoolExecutor();
         threadPoolExecutor.shutdown();
         while (!terminated(threadPoolExecutor)) {
             LOGGER.info(LogId.IAL025020);
         }
+        if (jobStartRateLimiter != null) {
+            jobStartRateLimiter.logStatistics();
+        }
     }
 
     /**
@@ -193,6 +390,27 @@ public class AsyncJobLauncherImpl implements AsyncJobLauncher,
         return false;
     }
 
+    /**
+     * 遅延中のジョブが全てスレッドプールに登録されたら、プロパティファイルで設定された時間以内にtrueを返却する。
+     * 完了待ち状態で割り込みが発生した場合、falseを返却する。
+     *
+     * @param maxPoolSize 遅延中のジョブ数の上限
+     * @return 遅延中のジョブがなくなったらtrue
+     */
+    protected boolean deferredJobsStarted(int maxPoolSize) {
+        try {
+            if (deferredJobLimit.tryAcquire(maxPoolSize,
+                    executorJobTerminateWaitIntervalTime,
+                    TimeUnit.MILLISECONDS)) {
+                deferredJobLimit.release(maxPoolSize);
+                return true;
+            }
+        } catch (InterruptedException e) {
+            // 完了待ち受け中の割り込みは何もしない
+        }
+        return false;
+    }
+
     /**
      * SpringによるDIコンテナ生成時、プロパティ設定後にコールバックされる初期化処理。<br>
      * @throws Exception 予期しない例外
@@ -207,5 +425,17 @@ public class AsyncJobLauncherImpl implements AsyncJobLauncher,
         int maxPoolSize = threadPoolTaskExecutor.getMaxPoolSize();
         LOGGER.debug(LogId.DAL025054, maxPoolSize, fair);
         taskPoolLimit = new Semaphore(maxPoolSize, fair);
+
+        if (jobStartRateLimiter != null) {
+            Assert.state(deferredJobRetryIntervalTime > 0, LOGGER
+                    .getLogMessage(LogId.EAL025056, this.getClass()
+                            .getSimpleName(),
+                            "executor.deferredJobRetryInterval"));
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("DeferredJobStarter-");
+            threadFactory.setDaemon(true);
+            deferredJobScheduler = new ScheduledThreadPoolExecutor(1,
+                    threadFactory);
+            deferredJobLimit = new Semaphore(maxPoolSize, fair);
+        }
     }
 }
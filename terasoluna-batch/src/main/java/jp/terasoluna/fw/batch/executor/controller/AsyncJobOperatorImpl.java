@@ -36,6 +36,9 @@ import java.util.concurrent.TimeUnit;
  * このスリープ時間はプロパティファイルの{@code polling.interval}にて指定することができる。単位はms(ミリ秒)。
  * 指定しなかった場合、デフォルト1000msでスリープする。
  * </p>
+ * <p>
+ * ジョブの起動機能が{@link JobAppCdAwareAsyncJobLauncher}を実装している場合は、検索したジョブのジョブ業務コードも渡す。
+ * </p>
  *
  * @since 3.6
  */
@@ -108,8 +111,14 @@ public class AsyncJobOperatorImpl implements JobOperator {
                     continue;
                 }
                 // ジョブの実行
-                asyncJobLauncher
-                        .executeJob(batchJobListResult.getJobSequenceId());
+                if (asyncJobLauncher instanceof JobAppCdAwareAsyncJobLauncher) {
+                    ((JobAppCdAwareAsyncJobLauncher) asyncJobLauncher)
+                            .executeJob(batchJobListResult.getJobSequenceId(),
+                                    batchJobListResult.getJobAppCd());
+                } else {
+                    asyncJobLauncher.executeJob(batchJobListResult
+                            .getJobSequenceId());
+                }
             }
         } finally {
             asyncJobLauncher.shutdown();
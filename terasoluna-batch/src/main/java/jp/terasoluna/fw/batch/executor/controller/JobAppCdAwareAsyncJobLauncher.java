@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.controller;
+
+/**
+ * ジョブ業務コードを付加情報として受け取る{@link AsyncJobLauncher}。<br>
+ * {@code AsyncJobOperatorImpl}は、起動するジョブの{@link AsyncJobLauncher}が本インタフェースを実装している場合、
+ * ジョブリストの取得結果のジョブ業務コードを{@link #executeJob(String, String)}で渡す。
+ *
+ * @see AsyncJobOperatorImpl
+ * @since 3.6
+ */
+public interface JobAppCdAwareAsyncJobLauncher extends AsyncJobLauncher {
+
+    /**
+     * ジョブシーケンスコードとジョブ業務コードから非同期ジョブを起動する。<br>
+     * ジョブ業務コードは、ジョブの起動を制御するための付加情報として利用する。
+     *
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param jobAppCd ジョブ業務コード。不明な場合は{@code null}
+     */
+    void executeJob(String jobSequenceId, String jobAppCd);
+}
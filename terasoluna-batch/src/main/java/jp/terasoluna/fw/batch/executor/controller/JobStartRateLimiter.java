@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.controller;
+
+/**
+ * 非同期型ジョブの起動頻度を制限するためのインタフェース。<br>
+ * {@code AsyncJobLauncherImpl}はジョブを起動する前に{@link #tryAcquire(String, String)}を呼び出す。
+ * 待機時間が返却された場合はそのジョブの起動だけを遅延させ、他のジョブの起動は待機させない。
+ *
+ * @see AsyncJobLauncherImpl
+ * @since 3.6
+ */
+public interface JobStartRateLimiter {
+
+    /**
+     * ジョブの起動を予約し、起動できるまでの待機時間を返却する。<br>
+     * 本メソッドは待機しない。予約した起動は取り消されないため、呼び出し元は返却された待機時間の経過後にジョブを起動すること。
+     *
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param jobAppCd ジョブ業務コード。{@code null}の場合は実装クラスがジョブシーケンスコードから解決する
+     * @return 起動できるまでの待機時間（ナノ秒）。すぐに起動できる場合は0
+     */
+    long tryAcquire(String jobSequenceId, String jobAppCd);
+
+    /**
+     * 起動待ちの統計情報をログに出力する。
+     */
+    void logStatistics();
+}
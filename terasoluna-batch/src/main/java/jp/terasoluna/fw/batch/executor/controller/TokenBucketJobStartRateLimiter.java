@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.PatternMatchUtils;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.executor.repository.JobControlFinder;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * トークンバケットによって非同期型ジョブの起動頻度をリソースごとに制限する{@link JobStartRateLimiter}の実装クラス。<br>
+ * <p>
+ * ジョブ業務コードをリソース名に対応付け、リソースごとに1秒あたりの起動数とバースト数を設定する。
+ * ジョブ業務コードの対応付けには"*"を含むパターンが利用でき、定義順に最初に一致したリソースが使用される。
+ * 一致するパターンがない場合はジョブ業務コードそのものをリソース名とみなし、
+ * 起動数が設定されていないリソースのジョブは制限なく起動する。
+ * </p>
+ * <p>
+ * 起動の許可はリソースごとに先着順で予約し、予約した時刻までの待機時間を返却する。本クラス自身は待機しない。
+ * ジョブ業務コードはジョブ一覧の取得結果から受け取り、受け取れない場合のみ{@link JobControlFinder}から取得する。
+ * 待機が必要なジョブはデバッグログに待機時間を出力し、リソースごとの起動数・待機数・待機時間の合計と最大値を
+ * {@link #logStatistics()}で出力する。
+ * </p>
+ * 以下はBean定義の設定例である。
+ *
+ * <pre>{@code
+ * <bean id="jobStartRateLimiter" class="jp.terasoluna.fw.batch.executor.controller.TokenBucketJobStartRateLimiter">
+ *   <constructor-arg index="0" ref="jobControlFinder" />
+ *   <property name="resourceMappings">
+ *     <map>
+ *       <entry key="B01*" value="businessDb" />
+ *       <entry key="B02*" value="businessDb" />
+ *     </map>
+ *   </property>
+ *   <property name="permitsPerSecond">
+ *     <map>
+ *       <entry key="businessDb" value="5" />
+ *     </map>
+ *   </property>
+ *   <property name="burstSizes">
+ *     <map>
+ *       <entry key="businessDb" value="10" />
+ *     </map>
+ *   </property>
+ * </bean>
+ *
+ * <bean id="asyncJobLauncher" class="jp.terasoluna.fw.batch.executor.controller.AsyncJobLauncherImpl">
+ *   <constructor-arg index="0" ref="batchTaskExecutor" />
+ *   <constructor-arg index="1" ref="asyncJobWorker" />
+ *   <property name="jobStartRateLimiter" ref="jobStartRateLimiter" />
+ * </bean>
+ * }</pre>
+ *
+ * @see AsyncJobLauncherImpl
+ * @since 3.6
+ */
+public class TokenBucketJobStartRateLimiter implements JobStartRateLimiter,
+                                            InitializingBean {
+
+    /**
+     * ロガー。
+     */
+    private static final TLogger LOGGER = TLogger.getLogger(
+            TokenBucketJobStartRateLimiter.class);
+
+    /**
+     * バースト数のデフォルト値。
+     */
+    private static final int DEFAULT_BURST_SIZE = 1;
+
+    /**
+     * ジョブシーケンスコードに該当するBatchJobDataを取得するためのJobControlFinderオブジェクト。
+     */
+    protected JobControlFinder jobControlFinder;
+
+    /**
+     * ジョブ業務コードのパターンとリソース名の対応付け。
+     */
+    protected Map<String, String> resourceMappings = new LinkedHashMap<String, String>();
+
+    /**
+     * リソースごとの1秒あたりの起動数。
+     */
+    protected Map<String, Double> permitsPerSecond = new LinkedHashMap<String, Double>();
+
+    /**
+     * リソースごとのバースト数（連続して待機なしに起動できる数）。
+     */
+    protected Map<String, Integer> burstSizes = new LinkedHashMap<String, Integer>();
+
+    /**
+     * リソースごとのトークンバケット。
+     */
+    protected Map<String, TokenBucket> buckets = Collections.emptyMap();
+
+    /**
+     * コンストラクタ。<br>
+     * @param jobControlFinder ジョブシーケンスコードに該当するBatchJobDataを取得するためのJobControlFinderオブジェクト
+     */
+    public TokenBucketJobStartRateLimiter(JobControlFinder jobControlFinder) {
+        Assert.notNull(jobControlFinder, LOGGER.getLogMessage(LogId.EAL025056,
+                this.getClass().getSimpleName(), "JobControlFinder"));
+        this.jobControlFinder = jobControlFinder;
+    }
+
+    /**
+     * ジョブ業務コードのパターンとリソース名の対応付けを設定する。<br>
+     * @param resourceMappings キーがジョブ業務コードのパターン、値がリソース名のマップ
+     */
+    public void setResourceMappings(Map<String, String> resourceMappings) {
+        this.resourceMappings = new LinkedHashMap<String, String>(resourceMappings);
+    }
+
+    /**
+     * リソースごとの1秒あたりの起動数を設定する。<br>
+     * @param permitsPerSecond キーがリソース名、値が1秒あたりの起動数のマップ
+     */
+    public void setPermitsPerSecond(Map<String, Double> permitsPerSecond) {
+        this.permitsPerSecond = new LinkedHashMap<String, Double>(permitsPerSecond);
+    }
+
+    /**
+     * リソースごとのバースト数を設定する。未設定のリソースは1となる。<br>
+     * @param burstSizes キーがリソース名、値がバースト数のマップ
+     */
+    public void setBurstSizes(Map<String, Integer> burstSizes) {
+        this.burstSizes = new LinkedHashMap<String, Integer>(burstSizes);
+    }
+
+    /**
+     * SpringによるDIコンテナ生成時、プロパティ設定後にコールバックされる初期化処理。<br>
+     * リソースごとのトークンバケットを生成する。
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Map<String, TokenBucket> created = new LinkedHashMap<String, TokenBucket>();
+        for (Map.Entry<String, Double> entry : permitsPerSecond.entrySet()) {
+            String resource = entry.getKey();
+            Double rate = entry.getValue();
+            Integer burstSize = burstSizes.get(resource);
+            if (burstSize == null) {
+                burstSize = DEFAULT_BURST_SIZE;
+            }
+            Assert.isTrue(rate != null && rate > 0d && burstSize > 0, LOGGER
+                    .getLogMessage(LogId.EAL025068, resource, rate,
+                            burstSize));
+            created.put(resource, new TokenBucket(rate, burstSize));
+        }
+        buckets = created;
+    }
+
+    /**
+     * リソースのトークンバケットで起動時刻を予約し、予約した時刻までの待機時間を返却する。<br>
+     * 起動数が設定されていないリソースのジョブは0を返却する。
+     *
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param jobAppCd ジョブ業務コード。{@code null}の場合はジョブシーケンスコードから取得する
+     * @return 起動できるまでの待機時間（ナノ秒）。すぐに起動できる場合は0
+     */
+    @Override
+    public long tryAcquire(String jobSequenceId, String jobAppCd) {
+        if (buckets.isEmpty()) {
+            return 0L;
+        }
+        String resource = resolveResource(jobSequenceId, jobAppCd);
+        TokenBucket bucket = resource == null ? null : buckets.get(resource);
+        if (bucket == null) {
+            return 0L;
+        }
+        long waitNanos = bucket.reserve(System.nanoTime());
+        if (waitNanos > 0L) {
+            LOGGER.debug(LogId.DAL025059, jobSequenceId, resource,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+        return waitNanos;
+    }
+
+    /**
+     * リソースごとの起動待ちの統計情報をログに出力する。
+     */
+    @Override
+    public void logStatistics() {
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            TokenBucket bucket = entry.getValue();
+            LOGGER.info(LogId.IAL025029, entry.getKey(), bucket
+                    .getStartedCount(), bucket.getDelayedCount(),
+                    TimeUnit.NANOSECONDS.toMillis(bucket
+                            .getTotalWaitNanos()), TimeUnit.NANOSECONDS
+                                    .toMillis(bucket.getMaxWaitNanos()));
+        }
+    }
+
+    /**
+     * リソースのトークンバケットを取得する。<br>
+     * @param resource リソース名
+     * @return トークンバケット。起動数が設定されていない場合は{@code null}
+     */
+    public TokenBucket getBucket(String resource) {
+        return buckets.get(resource);
+    }
+
+    /**
+     * ジョブ業務コードから、起動数を制限するリソース名を解決する。<br>
+     * ジョブ業務コードが渡されない場合はジョブシーケンスコードからジョブを取得する。
+     * ジョブを取得できない場合は警告ログを出力し、{@code null}を返却する。
+     *
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @param jobAppCd ジョブ業務コード
+     * @return リソース名
+     */
+    protected String resolveResource(String jobSequenceId, String jobAppCd) {
+        if (jobAppCd == null) {
+            jobAppCd = resolveJobAppCd(jobSequenceId);
+            if (jobAppCd == null) {
+                return null;
+            }
+        }
+        jobAppCd = jobAppCd.trim();
+        for (Map.Entry<String, String> entry : resourceMappings.entrySet()) {
+            if (PatternMatchUtils.simpleMatch(entry.getKey(), jobAppCd)) {
+                return entry.getValue();
+            }
+        }
+        return jobAppCd;
+    }
+
+    /**
+     * ジョブシーケンスコードからジョブ業務コードを取得する。<br>
+     * ジョブを取得できない場合は警告ログを出力し、{@code null}を返却する。
+     *
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @return ジョブ業務コード
+     */
+    protected String resolveJobAppCd(String jobSequenceId) {
+        BatchJobData batchJobData = null;
+        try {
+            batchJobData = jobControlFinder.resolveBatchJobData(jobSequenceId);
+        } catch (RuntimeException e) {
+            LOGGER.warn(LogId.WAL025012, e, jobSequenceId);
+            return null;
+        }
+        if (batchJobData == null || batchJobData.getJobAppCd() == null) {
+            LOGGER.warn(LogId.WAL025012, jobSequenceId);
+            return null;
+        }
+        return batchJobData.getJobAppCd();
+    }
+
+    /**
+     * 1つのリソースの起動頻度を制限するトークンバケット。<br>
+     * <p>
+     * 次のトークンが補充される理論上の時刻を保持し、呼び出しごとに起動時刻を予約する。
+     * バースト数までのトークンは蓄積され、待機なしに起動できる。
+     * </p>
+     */
+    public static class TokenBucket {
+
+        /**
+         * トークン1つが補充される間隔（ナノ秒）。
+         */
+        private final long intervalNanos;
+
+        /**
+         * 蓄積できるトークンの時間換算値（ナノ秒）。
+         */
+        private final long burstNanos;
+
+        /**
+         * 次のトークンが補充される理論上の時刻（ナノ秒）。
+         */
+        private long theoreticalArrivalTime;
+
+        /**
+         * 未初期化の場合{@code true}。
+         */
+        private boolean fresh = true;
+
+        /**
+         * 起動数。
+         */
+        private final AtomicLong startedCount = new AtomicLong();
+
+        /**
+         * 待機した起動数。
+         */
+        private final AtomicLong delayedCount = new AtomicLong();
+
+        /**
+         * 待機時間の合計（ナノ秒）。
+         */
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+
+        /**
+         * 待機時間の最大値（ナノ秒）。
+         */
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        /**
+         * コンストラクタ。<br>
+         * @param permitsPerSecond 1秒あたりの起動数
+         * @param burstSize バースト数
+         */
+        public TokenBucket(double permitsPerSecond, int burstSize) {
+            this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(
+                    1L) / permitsPerSecond));
+            this.burstNanos = intervalNanos * (burstSize - 1L);
+        }
+
+        /**
+         * 起動時刻を予約し、予約した時刻までの待機時間を返却する。<br>
+         * @param now 現在時刻（ナノ秒）
+         * @return 待機時間（ナノ秒）。待機が不要な場合は0
+         */
+        public long reserve(long now) {
+            long waitNanos;
+            synchronized (this) {
+                if (fresh || theoreticalArrivalTime - now < 0L) {
+                    theoreticalArrivalTime = now;
+                    fresh = false;
+                }
+                waitNanos = Math.max(0L, theoreticalArrivalTime - burstNanos
+                        - now);
+                theoreticalArrivalTime += intervalNanos;
+            }
+            record(waitNanos);
+            return waitNanos;
+        }
+
+        /**
+         * 待機時間を統計情報に記録する。<br>
+         * @param waitNanos 待機時間（ナノ秒）
+         */
+        private void record(long waitNanos) {
+            startedCount.incrementAndGet();
+            if (waitNanos <= 0L) {
+                return;
+            }
+            delayedCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            long max = maxWaitNanos.get();
+            while (waitNanos > max && !maxWaitNanos.compareAndSet(max,
+                    waitNanos)) {
+                max = maxWaitNanos.get();
+            }
+        }
+
+        /**
+         * 起動数を取得する。<br>
+         * @return 起動数
+         */
+        public long getStartedCount() {
+            return startedCount.get();
+        }
+
+        /**
+         * 待機した起動数を取得する。<br>
+         * @return 待機した起動数
+         */
+        public long getDelayedCount() {
+            return delayedCount.get();
+        }
+
+        /**
+         * 待機時間の合計を取得する。<br>
+         * @return 待機時間の合計（ナノ秒）
+         */
+        public long getTotalWaitNanos() {
+            return totalWaitNanos.get();
+        }
+
+        /**
+         * 待機時間の最大値を取得する。<br>
+         * @return 待機時間の最大値（ナノ秒）
+         */
+        public long getMaxWaitNanos() {
+            return maxWaitNanos.get();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.dao;
+
+import java.util.List;
+
+import jp.terasoluna.fw.batch.executor.vo.BatchJobArchiveParam;
+
+/**
+ * ジョブ管理テーブルのジョブを履歴テーブル(JOB_CONTROL_HISTORY)に移動するDAO。
+ * <p>
+ * 履歴テーブルはジョブ管理テーブルと同じ列に、移動日時(ARCHIVE_DATE_TIME)を加えた構成とする。<br>
+ * 本インタフェースの実装クラスは、{@code mybatis-spring}によって生成される。
+ * </p>
+ * @see jp.terasoluna.fw.batch.executor.repository.JobControlArchiverImpl
+ * @since 3.6
+ */
+public interface JobArchiveDao {
+
+    /**
+     * 指定ステータスで、基準時刻より前に更新されたジョブのジョブシーケンスコードを、
+     * 更新日時、ジョブシーケンスコードの順に取得件数まで取得する。
+     * <p>
+     * 取得件数はSQLで絞り込むこと(FETCH FIRST、LIMIT等)。
+     * 更新日時、ジョブシーケンスコードの順は履歴移動用のインデックスの順であり、
+     * ジョブ管理テーブルが大きい場合も対象件数分のみを読み込む。
+     * </p>
+     *
+     * @param batchJobArchiveParam 移動対象とするジョブのステータス、基準時刻、取得件数
+     * @return ジョブシーケンスコードのリスト
+     */
+    List<String> selectArchiveTargets(
+            BatchJobArchiveParam batchJobArchiveParam);
+
+    /**
+     * 指定したジョブを履歴テーブルに登録する。
+     *
+     * @param batchJobArchiveParam 移動対象とするジョブのステータス、ジョブシーケンスコードのリスト
+     * @return 登録件数
+     */
+    int insertJobHistory(BatchJobArchiveParam batchJobArchiveParam);
+
+    /**
+     * 指定したジョブをジョブ管理テーブルから削除する。
+     *
+     * @param batchJobArchiveParam 移動対象とするジョブのステータス、ジョブシーケンスコードのリスト
+     * @return 削除件数
+     */
+    int deleteArchivedJobs(BatchJobArchiveParam batchJobArchiveParam);
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.dao;
+
+import java.util.List;
+
+import jp.terasoluna.fw.batch.executor.vo.BatchJobDependencyParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobListResult;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * ジョブ間の依存関係を考慮してジョブ管理テーブルのジョブを取得するDAO。
+ * <p>
+ * 依存関係は依存関係テーブル(JOB_CONTROL_DEPENDENCY)に、後続ジョブのジョブシーケンスコード(JOB_SEQ_ID)と
+ * 先行ジョブのジョブシーケンスコード(PREDECESSOR_JOB_SEQ_ID)の組として登録する。<br>
+ * 先行ジョブがすべて処理済みかつ正常終了している場合に、後続ジョブが実行可能となる。
+ * 先行ジョブがジョブ管理テーブルに存在しない場合は、履歴テーブル(JOB_CONTROL_HISTORY)を参照し、
+ * 処理済みかつ正常終了したジョブとして移動済みであれば終了済みとみなす。
+ * いずれのテーブルにも存在しない場合は、実行可能とみなさない。<br>
+ * これにより、{@link jp.terasoluna.fw.batch.executor.repository.JobControlArchiverImpl}が先行ジョブを
+ * 履歴テーブルに移動した後も、後続ジョブは実行可能となる。<br>
+ * 本インタフェースの実装クラスは、{@code mybatis-spring}によって生成される。
+ * </p>
+ * @see jp.terasoluna.fw.batch.executor.repository.DependencyJobControlFinderImpl
+ * @see jp.terasoluna.fw.batch.executor.repository.DependencyJobStatusChangerImpl
+ * @since 3.6
+ */
+public interface JobDependencyDao {
+
+    /**
+     * 指定ステータスのジョブのうち、実行可能なジョブをジョブシーケンスコード順に取得する。
+     *
+     * @param rowBounds 取得件数
+     * @param batchJobDependencyParam 取得対象とするジョブのステータス、先行ジョブの終了ステータス
+     * @return ジョブリスト取得用DAOの出力パラメータのリスト
+     */
+    List<BatchJobListResult> selectExecutableJobList(RowBounds rowBounds,
+            BatchJobDependencyParam batchJobDependencyParam);
+
+    /**
+     * 指定した先行ジョブの後続ジョブのうち、指定ステータスかつ実行可能なジョブのジョブシーケンスコードを
+     * ジョブシーケンスコード順に取得する。
+     *
+     * @param batchJobDependencyParam 先行ジョブのジョブシーケンスコード、取得対象とするジョブのステータス、先行ジョブの終了ステータス
+     * @return 後続ジョブのジョブシーケンスコードのリスト
+     */
+    List<String> selectReleasableSuccessors(
+            BatchJobDependencyParam batchJobDependencyParam);
+}
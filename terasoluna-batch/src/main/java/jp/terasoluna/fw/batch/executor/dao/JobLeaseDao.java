@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.dao;
+
+import jp.terasoluna.fw.batch.executor.vo.BatchJobLeaseParam;
+
+/**
+ * ジョブ管理テーブルのリース列を操作するDAO。
+ * <p>
+ * リースを利用する場合、ジョブ管理テーブルにはリース所有者(LEASE_OWNER)とリース期限(LEASE_EXPIRE_TIME)の列を追加する。<br>
+ * 本インタフェースの実装クラスは、{@code mybatis-spring}によって生成される。
+ * </p>
+ * @see jp.terasoluna.fw.batch.executor.repository.LeaseJobStatusChangerImpl
+ * @since 3.6
+ */
+public interface JobLeaseDao {
+
+    /**
+     * 特定のジョブにリース所有者とリース期限を設定する。
+     *
+     * @param batchJobLeaseParam ジョブシーケンスコード、リース所有者、リース期限
+     * @return 更新件数
+     */
+    int acquireJobLease(BatchJobLeaseParam batchJobLeaseParam);
+
+    /**
+     * リース所有者が保持する特定のジョブのリースを解放し、リース所有者とリース期限をクリアする。<br>
+     * リース所有者が一致しない場合は更新しない。
+     * ただし、リース所有者が設定されていない(NULLの)ジョブは、ステータスが指定ステータス(実行中)の場合に限り更新する。
+     * これにより、リースの列を追加する前に実行中となったジョブも終了できる。
+     *
+     * @param batchJobLeaseParam ジョブシーケンスコード、リース所有者、ステータス
+     * @return 更新件数
+     */
+    int releaseJobLease(BatchJobLeaseParam batchJobLeaseParam);
+
+    /**
+     * リース所有者が保持する、指定ステータスの全てのジョブのリース期限を一括で延長する。
+     *
+     * @param batchJobLeaseParam リース所有者、リース期限、リースを保持するジョブのステータス
+     * @return 更新件数
+     */
+    int renewJobLeases(BatchJobLeaseParam batchJobLeaseParam);
+
+    /**
+     * 指定ステータスのままリース期限が現在時刻を過ぎたジョブを回収し、回収後のステータスに戻す。<br>
+     * 回収したジョブのリース所有者とリース期限はクリアする。
+     *
+     * @param batchJobLeaseParam 現在時刻、リースを保持するジョブのステータス、回収後のステータス
+     * @return 回収件数
+     */
+    int reclaimExpiredJobLeases(BatchJobLeaseParam batchJobLeaseParam);
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.Assert;
+
+import jp.terasoluna.fw.batch.constants.JobStatusConstants;
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.executor.dao.JobDependencyDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobDependencyParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobListResult;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * ジョブ間の依存関係を考慮したジョブパラメータ解決の実装クラス。<br>
+ * <p>
+ * 依存関係テーブル(JOB_CONTROL_DEPENDENCY)に登録された先行ジョブが、すべて処理済みかつ
+ * ビジネスロジックの終了ステータスが'0'である未実施のジョブのみを実行対象として返却する。
+ * 先行ジョブが異常終了した場合、後続ジョブは未実施のまま実行対象とならない。
+ * </p>
+ * <p>
+ * {@link DependencyJobStatusChangerImpl}と組み合わせて使用すると、先行ジョブの終了時に実行可能となった後続ジョブが
+ * {@link #release(Collection)}によって本クラスに通知され、次回のポーリングを待たずに返却される。
+ * 通知を待ち受ける時間は{@code jobDependency.releaseWaitTime}(ミリ秒)で指定する。
+ * 0の場合は待ち受けず、実行対象がなければ即座にnullを返却する。
+ * 待ち受ける場合、ポーリング間隔({@code polling.interval})は待ち受け時間を加味して短くしてよい。
+ * </p>
+ * <p>
+ * 通知された後続ジョブが、ポーリングによって既に起動されている場合もある。
+ * この場合はジョブステータスの更新時に起動済みと判定されるため、二重に起動されることはない。
+ * </p>
+ * @see jp.terasoluna.fw.batch.executor.dao.JobDependencyDao
+ * @since 3.6
+ */
+public class DependencyJobControlFinderImpl extends JobControlFinderImpl {
+
+    /**
+     * ロガー。<br>
+     */
+    private static final TLogger LOGGER = TLogger.getLogger(
+            DependencyJobControlFinderImpl.class);
+
+    /**
+     * 先行ジョブが正常終了したとみなすビジネスロジックの終了ステータス。
+     */
+    protected static final String BLOGIC_APP_STATUS_SUCCESS = "0";
+
+    /**
+     * 先頭1行取得指定の条件.
+     */
+    private static final RowBounds LIMIT_ONE_ROWBOUNDS = new RowBounds(
+            RowBounds.NO_ROW_OFFSET, 1);
+
+    /**
+     * ジョブの依存関係用DAO。
+     */
+    protected JobDependencyDao jobDependencyDao;
+
+    /**
+     * 後続ジョブの通知を待ち受ける時間(ミリ秒)。
+     */
+    @Value("${jobDependency.releaseWaitTime:0}")
+    protected long releaseWaitTime;
+
+    /**
+     * 先行ジョブの終了時に実行可能となった後続ジョブのジョブシーケンスコード。
+     */
+    private final BlockingQueue<String> releasedJobs = new LinkedBlockingQueue<>();
+
+    /**
+     * {@code JobDependencyDao#selectExecutableJobList}時のパラメータ
+     */
+    private final BatchJobDependencyParam param;
+
+    /**
+     * コンストラクタ。
+     * @param systemDao システム用DAO
+     * @param jobDependencyDao ジョブの依存関係用DAO
+     */
+    public DependencyJobControlFinderImpl(SystemDao systemDao,
+            JobDependencyDao jobDependencyDao) {
+        super(systemDao);
+        Assert.notNull(jobDependencyDao, LOGGER.getLogMessage(LogId.EAL025056,
+                "DependencyJobControlFinderImpl", "jobDependencyDao"));
+        this.jobDependencyDao = jobDependencyDao;
+        this.param = createParam(null);
+    }
+
+    /**
+     * 実行可能なジョブを1件取得して返却する。
+     * <p>
+     * 先行ジョブの終了時に通知された後続ジョブがあればそれを優先して返却し、なければ{@code #jobDependencyDao}によって検索する。
+     * 検索結果がない場合は、{@code #releaseWaitTime}の間、後続ジョブの通知を待ち受ける。
+     * </p>
+     *
+     * @param args ジョブ起動引数
+     * @return ジョブリスト取得用DAOの出力パラメータ。実行可能なジョブがない場合はnull
+     */
+    @Override
+    public BatchJobListResult resolveBatchJobResult(String[] args) {
+        String released = releasedJobs.poll();
+        if (released != null) {
+            return toResult(released);
+        }
+
+        List<BatchJobListResult> resultList = jobDependencyDao
+                .selectExecutableJobList(LIMIT_ONE_ROWBOUNDS, param);
+        if (resultList != null && !resultList.isEmpty()) {
+            return resultList.get(0);
+        }
+
+        if (releaseWaitTime > 0) {
+            try {
+                released = releasedJobs.poll(releaseWaitTime,
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // 停止要求とみなし、割り込み状態を呼び出し元に引き継ぐ
+                Thread.currentThread().interrupt();
+            }
+            if (released != null) {
+                return toResult(released);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 実行可能となった後続ジョブを通知する。
+     * <p>
+     * 通知されたジョブは、次回の{@link #resolveBatchJobResult(String[])}で通知順に返却される。
+     * </p>
+     * @param jobSequenceIds 後続ジョブのジョブシーケンスコード
+     */
+    public void release(Collection<String> jobSequenceIds) {
+        releasedJobs.addAll(jobSequenceIds);
+    }
+
+    /**
+     * 通知済みで未返却の後続ジョブの件数を取得する。
+     * @return 後続ジョブの件数
+     */
+    public int getReleasedCount() {
+        return releasedJobs.size();
+    }
+
+    /**
+     * 依存関係を考慮したジョブ取得用DAOの入力パラメータを生成する。
+     * @param jobSequenceId 先行ジョブのジョブシーケンスコード
+     * @return 入力パラメータ
+     */
+    static BatchJobDependencyParam createParam(String jobSequenceId) {
+        BatchJobDependencyParam dependencyParam = new BatchJobDependencyParam();
+        dependencyParam.setJobSequenceId(jobSequenceId);
+        dependencyParam.setCurAppStatus(
+                JobStatusConstants.JOB_STATUS_UNEXECUTION);
+        dependencyParam.setProcessedStatus(
+                JobStatusConstants.JOB_STATUS_PROCESSED);
+        dependencyParam.setSuccessAppStatus(BLOGIC_APP_STATUS_SUCCESS);
+        return dependencyParam;
+    }
+
+    private BatchJobListResult toResult(String jobSequenceId) {
+        BatchJobListResult result = new BatchJobListResult();
+        result.setJobSequenceId(jobSequenceId);
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import java.util.List;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.Assert;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.executor.dao.JobDependencyDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * ジョブ間の依存関係を考慮したジョブの実行ステータス更新クラス。<br>
+ * <p>
+ * ジョブを処理済みに更新してコミットした後、ビジネスロジックが正常終了(終了ステータス'0')していれば、
+ * そのジョブを先行ジョブとする後続ジョブのうち実行可能となったものを{@link DependencyJobControlFinderImpl}に通知する。
+ * 通知された後続ジョブは次回のポーリングを待たずに起動される。
+ * </p>
+ * <p>
+ * 後続ジョブの検索に失敗した場合はエラーログを出力するのみで、ジョブの終了処理は成功として扱う。
+ * この場合、後続ジョブは次回のポーリングで実行対象となる。
+ * </p>
+ * @see DependencyJobControlFinderImpl
+ * @since 3.6
+ */
+public class DependencyJobStatusChangerImpl extends JobStatusChangerImpl {
+
+    private static final TLogger LOGGER = TLogger.getLogger(
+            DependencyJobStatusChangerImpl.class);
+
+    /**
+     * ジョブの依存関係用DAO。
+     */
+    protected JobDependencyDao jobDependencyDao;
+
+    /**
+     * 後続ジョブの通知先。
+     */
+    protected DependencyJobControlFinderImpl dependencyJobControlFinder;
+
+    /**
+     * コンストラクタ。
+     * @param systemDao システム用DAO
+     * @param adminTransactionManager 管理用トランザクションマネージャ
+     * @param jobDependencyDao ジョブの依存関係用DAO
+     * @param dependencyJobControlFinder 後続ジョブの通知先
+     */
+    public DependencyJobStatusChangerImpl(SystemDao systemDao,
+            PlatformTransactionManager adminTransactionManager,
+            JobDependencyDao jobDependencyDao,
+            DependencyJobControlFinderImpl dependencyJobControlFinder) {
+        super(systemDao, adminTransactionManager);
+        Assert.notNull(jobDependencyDao, LOGGER.getLogMessage(LogId.EAL025056,
+                "DependencyJobStatusChangerImpl", "jobDependencyDao"));
+        Assert.notNull(dependencyJobControlFinder, LOGGER.getLogMessage(
+                LogId.EAL025056, "DependencyJobStatusChangerImpl",
+                "dependencyJobControlFinder"));
+        this.jobDependencyDao = jobDependencyDao;
+        this.dependencyJobControlFinder = dependencyJobControlFinder;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 更新に成功し、ビジネスロジックが正常終了していれば、実行可能となった後続ジョブを通知する。
+     * </p>
+     */
+    @Override
+    public boolean changeToEndStatus(String jobSequenceId,
+            BLogicResult blogicResult) {
+        if (!super.changeToEndStatus(jobSequenceId, blogicResult)) {
+            return false;
+        }
+        if (DependencyJobControlFinderImpl.BLOGIC_APP_STATUS_SUCCESS.equals(
+                Integer.toString(blogicResult.getBlogicStatus()))) {
+            releaseSuccessors(jobSequenceId);
+        }
+        return true;
+    }
+
+    /**
+     * 指定したジョブの後続ジョブのうち、実行可能となったものを通知する。
+     * @param jobSequenceId 終了したジョブのジョブシーケンスコード
+     */
+    protected void releaseSuccessors(String jobSequenceId) {
+        try {
+            List<String> successors = jobDependencyDao
+                    .selectReleasableSuccessors(DependencyJobControlFinderImpl
+                            .createParam(jobSequenceId));
+            if (successors == null || successors.isEmpty()) {
+                return;
+            }
+            LOGGER.debug(LogId.DAL025062, jobSequenceId, successors);
+            dependencyJobControlFinder.release(successors);
+        } catch (RuntimeException e) {
+            LOGGER.error(LogId.EAL025072, e, jobSequenceId);
+        }
+    }
+}
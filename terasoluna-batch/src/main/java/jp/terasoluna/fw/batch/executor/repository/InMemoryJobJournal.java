@@ -0,0 +1,608 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.exception.BatchException;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * {@link InMemoryJobRepository}のジョブを障害時に復元するための追記型ジャーナルファイル。<br>
+ * <p>
+ * ジョブの登録、開始、終了を1行ずつ追記する。起動時に{@link #recover()}でジャーナルを読み込み、
+ * 終了していないジョブを返却した上で、それらのジョブの登録のみを含むファイルに書き直す。
+ * 開始済みで終了していないジョブも未実施として返却するため、ジョブは再実行可能であることを前提とする。
+ * </p>
+ * <p>
+ * 稼働中も終了していないジョブを保持し、前回の書き直し以降に終了したジョブ数が{@code compactThreshold}以上、
+ * かつ終了していないジョブ数以上となった時点で、ジャーナルを同様に書き直す。
+ * これにより、長時間稼働してもジャーナルのサイズは終了していないジョブ数に比例する範囲に収まる。
+ * </p>
+ * <p>
+ * 書き込みは1行ごとにフラッシュするが、同期書き込み(fsync)は行わない。
+ * OSの異常終了に備える場合は{@code sync}プロパティを{@code true}に設定する。
+ * 書き込み途中で異常終了した末尾の行は読み込み時に無視される。
+ * 書き直しは一時ファイル({@code ジャーナル名.tmp})に書き込んだ後、アトミックな名前の変更で置き換えるため、
+ * 書き直しの途中で異常終了しても書き直し前または後のジャーナルのいずれかが残る。
+ * </p>
+ *
+ * @see InMemoryJobRepository
+ * @since 3.6
+ */
+public class InMemoryJobJournal {
+
+    /**
+     * ロガー。
+     */
+    private static final TLogger LOGGER = TLogger.getLogger(
+            InMemoryJobJournal.class);
+
+    /**
+     * ジャーナルの文字コード。
+     */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * ジョブ登録レコードの種別。
+     */
+    private static final String SUBMIT = "S";
+
+    /**
+     * ジョブ開始レコードの種別。
+     */
+    private static final String START = "B";
+
+    /**
+     * ジョブ終了レコードの種別。
+     */
+    private static final String END = "E";
+
+    /**
+     * nullを表す値。
+     */
+    private static final String NULL = "\\0";
+
+    /**
+     * ジョブ引数の数。
+     */
+    private static final int JOB_ARG_COUNT = 20;
+
+    /**
+     * ジョブ登録レコードの項目数(種別、ジョブシーケンスコード、優先度、ジョブ業務コード、ジョブ引数)。
+     */
+    private static final int SUBMIT_FIELD_COUNT = 4 + JOB_ARG_COUNT;
+
+    /**
+     * ジャーナルファイル。
+     */
+    protected final File file;
+
+    /**
+     * 書き込みごとに同期書き込みを行う場合は{@code true}。
+     */
+    protected boolean sync = false;
+
+    /**
+     * ジャーナルを書き直す契機となる、前回の書き直し以降に終了したジョブ数。0以下の場合は稼働中に書き直さない。
+     */
+    protected int compactThreshold = 10000;
+
+    /**
+     * 終了していないジョブ。キーはジョブシーケンスコード。
+     */
+    private final Map<String, Entry> pending = new LinkedHashMap<String, Entry>();
+
+    /**
+     * 前回の書き直し以降に終了したジョブ数。
+     */
+    private int endedCount;
+
+    /**
+     * ジャーナルの出力ストリーム。
+     */
+    private FileOutputStream outputStream;
+
+    /**
+     * ジャーナルのライタ。
+     */
+    private Writer writer;
+
+    /**
+     * コンストラクタ。<br>
+     * @param file ジャーナルファイル
+     */
+    public InMemoryJobJournal(File file) {
+        Assert.notNull(file, LOGGER.getLogMessage(LogId.EAL025056, this
+                .getClass().getSimpleName(), "file"));
+        this.file = file;
+    }
+
+    /**
+     * 書き込みごとに同期書き込みを行うかを設定する。<br>
+     * @param sync 同期書き込みを行う場合は{@code true}
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * ジャーナルを書き直す契機となる、前回の書き直し以降に終了したジョブ数を設定する。<br>
+     * @param compactThreshold 終了したジョブ数。0以下の場合は稼働中に書き直さない
+     */
+    public void setCompactThreshold(int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * ジャーナルファイルを取得する。<br>
+     * @return ジャーナルファイル
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * ジャーナルを読み込み、終了していないジョブを登録順に返却する。<br>
+     * 読み込み後、ジャーナルは返却したジョブの登録のみを含む内容に書き直され、追記可能な状態となる。
+     * ジャーナルが存在せず書き直し用の一時ファイルのみが存在する場合は、一時ファイルから読み込む。
+     *
+     * @return 終了していないジョブ
+     */
+    public synchronized List<Entry> recover() {
+        pending.clear();
+        File tempFile = getTempFile();
+        if (file.exists()) {
+            read(file, pending);
+        } else if (tempFile.exists()) {
+            // 名前の変更前に異常終了した書き直し後のジャーナル
+            read(tempFile, pending);
+        }
+        List<Entry> entries = new ArrayList<Entry>(pending.values());
+        compact(entries);
+        return entries;
+    }
+
+    /**
+     * ジョブの登録を記録する。<br>
+     * @param batchJobData ジョブパラメータ
+     * @param priority 優先度
+     */
+    public synchronized void appendSubmit(BatchJobData batchJobData,
+            int priority) {
+        writeSubmit(batchJobData, priority);
+        pending.put(batchJobData.getJobSequenceId(), new Entry(batchJobData,
+                priority));
+    }
+
+    /**
+     * ジョブの登録レコードを書き込む。<br>
+     * @param batchJobData ジョブパラメータ
+     * @param priority 優先度
+     */
+    private void writeSubmit(BatchJobData batchJobData, int priority) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(SUBMIT).append('\t').append(escape(batchJobData
+                .getJobSequenceId())).append('\t').append(priority).append(
+                        '\t').append(escape(batchJobData.getJobAppCd()));
+        for (String arg : getJobArgs(batchJobData)) {
+            sb.append('\t').append(escape(arg));
+        }
+        append(sb);
+    }
+
+    /**
+     * ジョブの開始を記録する。<br>
+     * @param jobSequenceId ジョブシーケンスコード
+     */
+    public synchronized void appendStart(String jobSequenceId) {
+        append(new StringBuilder(START).append('\t').append(escape(
+                jobSequenceId)));
+    }
+
+    /**
+     * ジョブの終了を記録する。<br>
+     * 前回の書き直し以降に終了したジョブ数が閾値に達した場合は、ジャーナルを書き直す。
+     * 書き直しに失敗した場合はログを出力し、書き直し前のジャーナルへの追記を継続する。
+     * @param jobSequenceId ジョブシーケンスコード
+     */
+    public synchronized void appendEnd(String jobSequenceId) {
+        append(new StringBuilder(END).append('\t').append(escape(
+                jobSequenceId)));
+        if (pending.remove(jobSequenceId) == null) {
+            return;
+        }
+        endedCount++;
+        if (compactThreshold <= 0 || endedCount < compactThreshold
+                || endedCount < pending.size()) {
+            return;
+        }
+        int ended = endedCount;
+        try {
+            compact(new ArrayList<Entry>(pending.values()));
+            LOGGER.debug(LogId.DAL025064, file, pending.size(), ended);
+        } catch (BatchException e) {
+            LOGGER.error(LogId.EAL025070, e, file);
+            endedCount = 0;
+            reopen();
+        }
+    }
+
+    /**
+     * 前回の書き直し以降に終了したジョブ数を取得する。<br>
+     * @return 終了したジョブ数
+     */
+    public synchronized int getEndedCount() {
+        return endedCount;
+    }
+
+    /**
+     * ジャーナルを閉じる。
+     */
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOGGER.error(LogId.EAL025070, e, file);
+        } finally {
+            writer = null;
+            outputStream = null;
+        }
+    }
+
+    /**
+     * ジャーナルを読み込む。<br>
+     * @param source 読み込むファイル
+     * @param pending 終了していないジョブの格納先
+     */
+    private void read(File source, Map<String, Entry> pending) {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(source), CHARSET));
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!apply(line, pending)) {
+                    LOGGER.warn(LogId.WAL025013, source, lineNumber);
+                }
+            }
+        } catch (IOException e) {
+            throw new BatchException(LOGGER.getLogMessage(LogId.EAL025070,
+                    source), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    // Do nothing
+                }
+            }
+        }
+    }
+
+    /**
+     * ジャーナルの1行を反映する。<br>
+     * @param line ジャーナルの1行
+     * @param pending 終了していないジョブの格納先
+     * @return 正しいレコードであれば{@code true}
+     */
+    private boolean apply(String line, Map<String, Entry> pending) {
+        String[] fields = line.split("\t", -1);
+        try {
+            if (SUBMIT.equals(fields[0]) && fields.length == SUBMIT_FIELD_COUNT) {
+                BatchJobData batchJobData = new BatchJobData();
+                batchJobData.setJobSequenceId(unescape(fields[1]));
+                batchJobData.setJobAppCd(unescape(fields[3]));
+                String[] args = new String[JOB_ARG_COUNT];
+                for (int i = 0; i < JOB_ARG_COUNT; i++) {
+                    args[i] = unescape(fields[4 + i]);
+                }
+                setJobArgs(batchJobData, args);
+                pending.put(batchJobData.getJobSequenceId(), new Entry(
+                        batchJobData, Integer.parseInt(fields[2])));
+                return true;
+            }
+            if (START.equals(fields[0]) && fields.length == 2) {
+                return true;
+            }
+            if (END.equals(fields[0]) && fields.length == 2) {
+                pending.remove(unescape(fields[1]));
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            // 不正なレコードとして扱う
+        }
+        return false;
+    }
+
+    /**
+     * 終了していないジョブの登録のみを含むジャーナルに書き直し、追記用に開く。<br>
+     * @param entries 終了していないジョブ
+     */
+    private void compact(List<Entry> entries) {
+        close();
+        File tempFile = getTempFile();
+        try {
+            openWriter(tempFile, false);
+            for (Entry entry : entries) {
+                writeSubmit(entry.getBatchJobData(), entry.getPriority());
+            }
+            close();
+            Files.move(tempFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            openWriter(file, true);
+            endedCount = 0;
+        } catch (IOException e) {
+            close();
+            throw new BatchException(LOGGER.getLogMessage(LogId.EAL025070,
+                    file), e);
+        }
+    }
+
+    /**
+     * 書き直し用の一時ファイルを取得する。<br>
+     * @return 書き直し用の一時ファイル
+     */
+    private File getTempFile() {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    /**
+     * 書き直しに失敗したジャーナルを追記用に開き直す。<br>
+     * 開き直せない場合はログを出力し、以降の追記で例外をスローさせる。
+     */
+    private void reopen() {
+        try {
+            openWriter(file, true);
+        } catch (IOException e) {
+            close();
+            LOGGER.error(LogId.EAL025070, e, file);
+        }
+    }
+
+    /**
+     * ライタを開く。<br>
+     * @param target 書き込み先
+     * @param append 追記する場合は{@code true}
+     * @throws IOException 入出力例外
+     */
+    private void openWriter(File target, boolean append) throws IOException {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("cannot create " + parent);
+        }
+        outputStream = new FileOutputStream(target, append);
+        writer = new BufferedWriter(new OutputStreamWriter(outputStream,
+                CHARSET));
+    }
+
+    /**
+     * 1行を追記してフラッシュする。<br>
+     * @param record レコード
+     */
+    private void append(CharSequence record) {
+        Assert.state(writer != null, LOGGER.getLogMessage(LogId.EAL025070,
+                file));
+        try {
+            writer.append(record).append('\n');
+            writer.flush();
+            if (sync) {
+                outputStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new BatchException(LOGGER.getLogMessage(LogId.EAL025070,
+                    file), e);
+        }
+    }
+
+    /**
+     * 項目の値をエスケープする。<br>
+     * @param value 値
+     * @return エスケープした値
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+            case '\\':
+                replacement = "\\\\";
+                break;
+            case '\t':
+                replacement = "\\t";
+                break;
+            case '\n':
+                replacement = "\\n";
+                break;
+            case '\r':
+                replacement = "\\r";
+                break;
+            default:
+                replacement = null;
+                break;
+            }
+            if (replacement == null) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(value.length() + 8);
+                sb.append(value, 0, i);
+            }
+            sb.append(replacement);
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    /**
+     * エスケープした項目の値を元に戻す。<br>
+     * @param value エスケープした値
+     * @return 元の値
+     */
+    private static String unescape(String value) {
+        if (NULL.equals(value)) {
+            return null;
+        }
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (++i >= value.length()) {
+                throw new IllegalArgumentException(value);
+            }
+            switch (value.charAt(i)) {
+            case '\\':
+                sb.append('\\');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            default:
+                throw new IllegalArgumentException(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * ジョブ引数を取得する。<br>
+     * @param d ジョブパラメータ
+     * @return ジョブ引数1～20
+     */
+    private static String[] getJobArgs(BatchJobData d) {
+        return new String[] { d.getJobArgNm1(), d.getJobArgNm2(),
+                d.getJobArgNm3(), d.getJobArgNm4(), d.getJobArgNm5(),
+                d.getJobArgNm6(), d.getJobArgNm7(), d.getJobArgNm8(),
+                d.getJobArgNm9(), d.getJobArgNm10(), d.getJobArgNm11(),
+                d.getJobArgNm12(), d.getJobArgNm13(), d.getJobArgNm14(),
+                d.getJobArgNm15(), d.getJobArgNm16(), d.getJobArgNm17(),
+                d.getJobArgNm18(), d.getJobArgNm19(), d.getJobArgNm20() };
+    }
+
+    /**
+     * ジョブ引数を設定する。<br>
+     * @param d ジョブパラメータ
+     * @param args ジョブ引数1～20
+     */
+    private static void setJobArgs(BatchJobData d, String[] args) {
+        d.setJobArgNm1(args[0]);
+        d.setJobArgNm2(args[1]);
+        d.setJobArgNm3(args[2]);
+        d.setJobArgNm4(args[3]);
+        d.setJobArgNm5(args[4]);
+        d.setJobArgNm6(args[5]);
+        d.setJobArgNm7(args[6]);
+        d.setJobArgNm8(args[7]);
+        d.setJobArgNm9(args[8]);
+        d.setJobArgNm10(args[9]);
+        d.setJobArgNm11(args[10]);
+        d.setJobArgNm12(args[11]);
+        d.setJobArgNm13(args[12]);
+        d.setJobArgNm14(args[13]);
+        d.setJobArgNm15(args[14]);
+        d.setJobArgNm16(args[15]);
+        d.setJobArgNm17(args[16]);
+        d.setJobArgNm18(args[17]);
+        d.setJobArgNm19(args[18]);
+        d.setJobArgNm20(args[19]);
+    }
+
+    /**
+     * ジャーナルから復元したジョブ。
+     */
+    public static class Entry {
+
+        /**
+         * ジョブパラメータ。
+         */
+        private final BatchJobData batchJobData;
+
+        /**
+         * 優先度。
+         */
+        private final int priority;
+
+        /**
+         * コンストラクタ。<br>
+         * @param batchJobData ジョブパラメータ
+         * @param priority 優先度
+         */
+        public Entry(BatchJobData batchJobData, int priority) {
+            this.batchJobData = batchJobData;
+            this.priority = priority;
+        }
+
+        /**
+         * ジョブパラメータを取得する。<br>
+         * @return ジョブパラメータ
+         */
+        public BatchJobData getBatchJobData() {
+            return batchJobData;
+        }
+
+        /**
+         * 優先度を取得する。<br>
+         * @return 優先度
+         */
+        public int getPriority() {
+            return priority;
+        }
+    }
+}
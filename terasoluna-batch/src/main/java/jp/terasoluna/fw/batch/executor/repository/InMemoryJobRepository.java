@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static jp.terasoluna.fw.batch.constants.JobStatusConstants.*;
+
+import java.sql.Timestamp;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobListResult;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * ジョブ管理テーブルを使用せず、プロセス内のキューでジョブを管理する{@link JobControlFinder}と{@link JobStatusChanger}の実装クラス。<br>
+ * <p>
+ * {@link #submit(BatchJobData, int)}で登録したジョブを優先度の高い順(同じ優先度では登録順)に払い出す。
+ * ジョブの検索、ステータス更新のいずれもデータベースにアクセスしないため、短時間で終わる大量のジョブを
+ * {@code AsyncJobWorkerImpl}を含む通常の非同期バッチ起動の仕組みでそのまま実行できる。
+ * 処理済みとなったジョブはメモリから削除する。
+ * </p>
+ * <p>
+ * 払い出したジョブが次の払い出しまでに実行中に変更されていない場合は、起動処理が前処理の前に失敗したとみなし、
+ * 元の優先度と登録順で実行待ちのキューに戻す。
+ * 非同期バッチ起動ではジョブの払い出しと起動を同じスレッドで交互に行うため、
+ * スレッドプールの枠の待ち受け中の割り込み等によって、ジョブが未実施のまま取り残されることはない。
+ * </p>
+ * <p>
+ * ジョブはプロセス内にのみ保持されるため、プロセスが終了すると失われる。
+ * {@link InMemoryJobJournal}を設定すると、ジョブの登録、開始、終了をジャーナルファイルに追記し、
+ * 次回起動時に終了していないジョブを未実施として再登録する。
+ * </p>
+ * <p>
+ * 本クラスの同じBeanを{@code jobControlFinder}と{@code jobStatusChanger}の両方に設定する。
+ * ジョブが見つからない場合、{@link #resolveBatchJobResult(String[])}は{@code pollTimeout}ミリ秒まで登録を待ち受けるため、
+ * ポーリング間隔({@code polling.interval})は短く設定してよい。
+ *
+ * <pre>{@code
+ * <bean id="inMemoryJobRepository" class="jp.terasoluna.fw.batch.executor.repository.InMemoryJobRepository">
+ *   <property name="journal">
+ *     <bean class="jp.terasoluna.fw.batch.executor.repository.InMemoryJobJournal">
+ *       <constructor-arg value="/var/batch/journal/jobs.journal" />
+ *     </bean>
+ *   </property>
+ * </bean>
+ * <alias name="inMemoryJobRepository" alias="jobControlFinder" />
+ * <alias name="inMemoryJobRepository" alias="jobStatusChanger" />
+ * }</pre>
+ * </p>
+ *
+ * @see InMemoryJobJournal
+ * @since 3.6
+ */
+public class InMemoryJobRepository implements JobControlFinder,
+                                   RevertibleJobStatusChanger,
+                                   InitializingBean, DisposableBean {
+
+    /**
+     * ロガー。
+     */
+    private static final TLogger LOGGER = TLogger.getLogger(
+            InMemoryJobRepository.class);
+
+    /**
+     * ジョブシーケンスコードの書式。
+     */
+    private static final String JOB_SEQUENCE_ID_FORMAT = "%010d";
+
+    /**
+     * 優先度のデフォルト値。
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * 実行待ちのジョブのキュー。
+     */
+    protected final PriorityBlockingQueue<QueuedJob> queue = new PriorityBlockingQueue<QueuedJob>();
+
+    /**
+     * 処理済みになっていないジョブ。キーはジョブシーケンスコード。
+     */
+    protected final ConcurrentMap<String, BatchJobData> jobs = new ConcurrentHashMap<String, BatchJobData>();
+
+    /**
+     * 払い出した後、実行中に変更されていないジョブ。キーはジョブシーケンスコード。
+     */
+    protected final ConcurrentMap<String, QueuedJob> dispatched = new ConcurrentHashMap<String, QueuedJob>();
+
+    /**
+     * 実行中に変更したジョブ。キーはジョブシーケンスコード。未実施に戻す際に優先度と登録順を引き継ぐ。
+     */
+    protected final ConcurrentMap<String, QueuedJob> started = new ConcurrentHashMap<String, QueuedJob>();
+
+    /**
+     * 採番済みのジョブシーケンスコードの最大値。
+     */
+    protected final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * キューに追加した順序。
+     */
+    private final AtomicLong order = new AtomicLong();
+
+    /**
+     * ジャーナル。未設定の場合は記録しない。
+     */
+    protected InMemoryJobJournal journal;
+
+    /**
+     * ジョブが見つからない場合に登録を待ち受ける時間(ミリ秒)。
+     */
+    protected long pollTimeout = 100L;
+
+    /**
+     * ジャーナルを設定する。<br>
+     * @param journal ジャーナル
+     */
+    public void setJournal(InMemoryJobJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * ジョブが見つからない場合に登録を待ち受ける時間を設定する。<br>
+     * @param pollTimeout 待ち受け時間(ミリ秒)。0の場合は待ち受けない
+     */
+    public void setPollTimeout(long pollTimeout) {
+        this.pollTimeout = pollTimeout;
+    }
+
+    /**
+     * SpringによるDIコンテナ生成時、プロパティ設定後にコールバックされる初期化処理。<br>
+     * ジャーナルが設定されている場合は、終了していないジョブを未実施として再登録する。
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (journal == null) {
+            return;
+        }
+        int requeued = 0;
+        for (InMemoryJobJournal.Entry entry : journal.recover()) {
+            BatchJobData batchJobData = entry.getBatchJobData();
+            String jobSequenceId = batchJobData.getJobSequenceId();
+            try {
+                long seq = Long.parseLong(jobSequenceId);
+                if (seq > sequence.get()) {
+                    sequence.set(seq);
+                }
+            } catch (NumberFormatException e) {
+                // 採番した形式でなければ採番には影響させない
+            }
+            enqueue(batchJobData, entry.getPriority());
+            requeued++;
+        }
+        LOGGER.info(LogId.IAL025030, journal.getFile(), requeued, String
+                .format(JOB_SEQUENCE_ID_FORMAT, sequence.get() + 1L));
+    }
+
+    /**
+     * ジャーナルを閉じる。
+     */
+    @Override
+    public void destroy() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * デフォルトの優先度でジョブを登録する。<br>
+     * @param batchJobData ジョブパラメータ(ジョブ業務コードとジョブ引数)
+     * @return 採番したジョブシーケンスコード
+     * @see #submit(BatchJobData, int)
+     */
+    public String submit(BatchJobData batchJobData) {
+        return submit(batchJobData, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * ジョブを登録する。<br>
+     * <p>
+     * ジョブシーケンスコードを採番し、ジョブステータスを未実施として実行待ちのキューに追加する。
+     * 引数のオブジェクトはそのまま保持されるため、登録後に変更しないこと。
+     * ジャーナルへの記録に失敗した場合は例外をスローし、ジョブは登録されない。
+     * </p>
+     * @param batchJobData ジョブパラメータ(ジョブ業務コードとジョブ引数)
+     * @param priority 優先度。値が大きいほど先に実行される
+     * @return 採番したジョブシーケンスコード
+     */
+    public String submit(BatchJobData batchJobData, int priority) {
+        Assert.notNull(batchJobData, "The parameter is null.");
+        Assert.hasText(batchJobData.getJobAppCd(), "The jobAppCd is empty.");
+
+        String jobSequenceId = String.format(JOB_SEQUENCE_ID_FORMAT, sequence
+                .incrementAndGet());
+        batchJobData.setJobSequenceId(jobSequenceId);
+        if (journal != null) {
+            journal.appendSubmit(batchJobData, priority);
+        }
+        enqueue(batchJobData, priority);
+        LOGGER.debug(LogId.DAL025060, jobSequenceId, batchJobData
+                .getJobAppCd(), priority);
+        return jobSequenceId;
+    }
+
+    /**
+     * 実行待ちのジョブを1件取り出して返却する。<br>
+     * 前回までに払い出したジョブが実行中に変更されていない場合は、実行待ちのキューに戻してから取り出す。
+     * 実行待ちのジョブがない場合は{@code pollTimeout}ミリ秒まで登録を待ち受け、登録されなければ{@code null}を返却する。
+     *
+     * @param args ジョブ起動引数(使用しない)
+     * @return ジョブリスト取得用DAOの出力パラメータ
+     */
+    @Override
+    public BatchJobListResult resolveBatchJobResult(String[] args) {
+        requeueDispatched();
+        QueuedJob queuedJob;
+        try {
+            queuedJob = pollTimeout > 0L ? queue.poll(pollTimeout,
+                    TimeUnit.MILLISECONDS) : queue.poll();
+        } catch (InterruptedException e) {
+            // 割り込みは呼び出し元のスリープで処理させる
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (queuedJob == null) {
+            return null;
+        }
+        dispatched.put(queuedJob.jobSequenceId, queuedJob);
+        BatchJobListResult result = new BatchJobListResult();
+        result.setJobSequenceId(queuedJob.jobSequenceId);
+        BatchJobData batchJobData = jobs.get(queuedJob.jobSequenceId);
+        if (batchJobData != null) {
+            result.setJobAppCd(batchJobData.getJobAppCd());
+        }
+        return result;
+    }
+
+    /**
+     * ジョブシーケンスコードに該当するジョブパラメータを返却する。<br>
+     * @param jobSequenceId ジョブのシーケンスID
+     * @return ジョブパラメータ。処理済み、または登録されていない場合は{@code null}
+     */
+    @Override
+    public BatchJobData resolveBatchJobData(String jobSequenceId) {
+        return jobs.get(jobSequenceId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean changeToStartStatus(String jobSequenceId) {
+        BatchJobData batchJobData = jobs.get(jobSequenceId);
+        if (!changeStatus(jobSequenceId, batchJobData, JOB_STATUS_UNEXECUTION,
+                JOB_STATUS_EXECUTING, null)) {
+            return false;
+        }
+        QueuedJob queuedJob = dispatched.remove(jobSequenceId);
+        if (queuedJob != null) {
+            started.put(jobSequenceId, queuedJob);
+        }
+        if (journal != null) {
+            journal.appendStart(jobSequenceId);
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 未実施に戻したジョブは、実行待ちのキューの元の位置に戻す。
+     * ジャーナルは開始済みで終了していないジョブを未実施として復元するため、記録しない。
+     */
+    @Override
+    public boolean changeToUnexecutionStatus(String jobSequenceId) {
+        BatchJobData batchJobData = jobs.get(jobSequenceId);
+        if (!changeStatus(jobSequenceId, batchJobData, JOB_STATUS_EXECUTING,
+                JOB_STATUS_UNEXECUTION, null)) {
+            return false;
+        }
+        QueuedJob queuedJob = started.remove(jobSequenceId);
+        if (queuedJob == null) {
+            queuedJob = new QueuedJob(jobSequenceId, DEFAULT_PRIORITY, order
+                    .incrementAndGet());
+        }
+        queue.add(queuedJob);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * 処理済みとなったジョブはメモリから削除する。
+     */
+    @Override
+    public boolean changeToEndStatus(String jobSequenceId,
+            BLogicResult blogicResult) {
+        BatchJobData batchJobData = jobs.get(jobSequenceId);
+        String appStatus = Integer.toString(blogicResult.getBlogicStatus());
+        if (!changeStatus(jobSequenceId, batchJobData, JOB_STATUS_EXECUTING,
+                JOB_STATUS_PROCESSED, appStatus)) {
+            return false;
+        }
+        started.remove(jobSequenceId);
+        if (journal != null) {
+            journal.appendEnd(jobSequenceId);
+        }
+        jobs.remove(jobSequenceId, batchJobData);
+        return true;
+    }
+
+    /**
+     * 実行待ちのジョブ数を取得する。<br>
+     * @return 実行待ちのジョブ数
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * 処理済みになっていないジョブ数を取得する。<br>
+     * @return 処理済みになっていないジョブ数
+     */
+    public int getActiveCount() {
+        return jobs.size();
+    }
+
+    /**
+     * ジョブを未実施として実行待ちのキューに追加する。<br>
+     * @param batchJobData ジョブパラメータ
+     * @param priority 優先度
+     */
+    protected void enqueue(BatchJobData batchJobData, int priority) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        batchJobData.setCurAppStatus(JOB_STATUS_UNEXECUTION);
+        batchJobData.setAddDateTime(now);
+        batchJobData.setUpdDateTime(now);
+        jobs.put(batchJobData.getJobSequenceId(), batchJobData);
+        queue.add(new QueuedJob(batchJobData.getJobSequenceId(), priority,
+                order.incrementAndGet()));
+    }
+
+    /**
+     * 払い出した後、実行中に変更されていないジョブを実行待ちのキューに戻す。<br>
+     * 実行中以降に変更されたジョブ、処理済みとなったジョブは払い出し済みの記録から削除するのみとする。
+     */
+    protected void requeueDispatched() {
+        for (QueuedJob queuedJob : dispatched.values()) {
+            if (!dispatched.remove(queuedJob.jobSequenceId, queuedJob)) {
+                continue;
+            }
+            BatchJobData batchJobData = jobs.get(queuedJob.jobSequenceId);
+            if (batchJobData != null && JOB_STATUS_UNEXECUTION.equals(
+                    batchJobData.getCurAppStatus())) {
+                LOGGER.warn(LogId.WAL025014, queuedJob.jobSequenceId);
+                queue.add(queuedJob);
+            }
+        }
+    }
+
+    /**
+     * ジョブステータスを変更する。<br>
+     * @param jobSequenceId ジョブシーケンスコード
+     * @param batchJobData ジョブパラメータ
+     * @param expectJobStatus 期待するジョブのステータス
+     * @param nextStatus 変更後のステータス
+     * @param appStatus blogicAppStatusの更新後の値。{@code null}の場合は変更しない
+     * @return 変更できた場合は{@code true}
+     */
+    private boolean changeStatus(String jobSequenceId,
+            BatchJobData batchJobData, String expectJobStatus,
+            String nextStatus, String appStatus) {
+        if (batchJobData == null) {
+            LOGGER.info(LogId.IAL025024, jobSequenceId);
+            return false;
+        }
+        synchronized (batchJobData) {
+            if (!expectJobStatus.equals(batchJobData.getCurAppStatus())) {
+                LOGGER.debug(LogId.DAL025055, jobSequenceId, expectJobStatus,
+                        batchJobData.getCurAppStatus(), nextStatus);
+                return false;
+            }
+            LOGGER.debug(LogId.DAL025023, jobSequenceId, nextStatus);
+            batchJobData.setCurAppStatus(nextStatus);
+            if (appStatus != null) {
+                batchJobData.setErrAppStatus(appStatus);
+            }
+            batchJobData.setUpdDateTime(new Timestamp(System
+                    .currentTimeMillis()));
+        }
+        return true;
+    }
+
+    /**
+     * 実行待ちのジョブ。優先度の高い順、同じ優先度では登録順に並ぶ。
+     */
+    protected static class QueuedJob implements Comparable<QueuedJob> {
+
+        /**
+         * ジョブシーケンスコード。
+         */
+        private final String jobSequenceId;
+
+        /**
+         * 優先度。
+         */
+        private final int priority;
+
+        /**
+         * 登録順。
+         */
+        private final long order;
+
+        /**
+         * コンストラクタ。<br>
+         * @param jobSequenceId ジョブシーケンスコード
+         * @param priority 優先度
+         * @param order 登録順
+         */
+        QueuedJob(String jobSequenceId, int priority, long order) {
+            this.jobSequenceId = jobSequenceId;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo(QueuedJob o) {
+            if (priority != o.priority) {
+                return priority > o.priority ? -1 : 1;
+            }
+            return order < o.order ? -1 : (order == o.order ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static jp.terasoluna.fw.batch.constants.JobStatusConstants.*;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.util.Assert;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.executor.dao.JobArchiveDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobArchiveParam;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * 処理済みのジョブを履歴テーブルに移動する実装クラス。<br>
+ * <p>
+ * 更新日時が保存期間より前の処理済みジョブを、更新日時の古い順に一定件数ずつ履歴テーブルへ登録し、
+ * ジョブ管理テーブルから削除する。1回の移動単位ごとにトランザクションを確定するため、
+ * ジョブ管理テーブルを長時間ロックすることはなく、非同期バッチ起動の稼働中にも実行できる。<br>
+ * ジョブ管理テーブルに処理済みのジョブが蓄積されると、実行対象ジョブの検索が遅くなるため、
+ * 本クラスを定期的に実行してジョブ管理テーブルを未処理のジョブ中心の小さな状態に保つ。
+ * </p>
+ * <p>
+ * 設定はプロパティファイルの以下の項目で指定する。
+ * <table border>
+ * <tr>
+ * <th>プロパティ名</th>
+ * <th>説明</th>
+ * <th>デフォルト値</th>
+ * </tr>
+ * <tr>
+ * <td>jobControlArchive.retentionDays</td>
+ * <td>処理済みのジョブをジョブ管理テーブルに残す日数</td>
+ * <td>7(日)</td>
+ * </tr>
+ * <tr>
+ * <td>jobControlArchive.batchSize</td>
+ * <td>1回のトランザクションで移動する件数(1以上1000以下)。
+ * 移動対象のジョブシーケンスIDをIN句に列挙するため、OracleのIN句の要素数の上限(1000)を超えて指定することはできない</td>
+ * <td>1000(件)</td>
+ * </tr>
+ * </table>
+ * </p>
+ * <p>
+ * 履歴テーブルのDDL、および実行対象ジョブの検索を高速化するインデックスのDDLは、
+ * {@code META-INF/sql/job_control_history_postgresql.sql}、{@code META-INF/sql/job_control_history_oracle.sql}を参照のこと。
+ * 以下はBean定義の設定例である。業務ロジックやスケジューラから{@link #archive()}を呼び出す。
+ *
+ * <pre>
+ * {@code
+ * <bean id="jobArchiveDao" class="org.mybatis.spring.mapper.MapperFactoryBean">
+ *     <property name="mapperInterface" value="jp.terasoluna.fw.batch.executor.dao.JobArchiveDao" />
+ *     <property name="sqlSessionFactory" ref="sysSqlSessionFactory" />
+ * </bean>
+ *
+ * <bean id="jobControlArchiver"
+ *     class="jp.terasoluna.fw.batch.executor.repository.JobControlArchiverImpl">
+ *     <constructor-arg index="0" ref="systemDao" />
+ *     <constructor-arg index="1" ref="adminTransactionManager" />
+ *     <constructor-arg index="2" ref="jobArchiveDao" />
+ * </bean>
+ * }
+ * </pre>
+ * </p>
+ * @see JobArchiveDao
+ * @since 3.6
+ */
+public class JobControlArchiverImpl implements JobControlArchiver {
+
+    /**
+     * ロガー。
+     */
+    private static final TLogger LOGGER = TLogger.getLogger(
+            JobControlArchiverImpl.class);
+
+    /**
+     * 1回のトランザクションで移動する件数の上限(OracleのIN句の要素数の上限)。
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * システムDAO。
+     */
+    protected SystemDao systemDao;
+
+    /**
+     * トランザクションマネージャ。
+     */
+    protected PlatformTransactionManager adminTransactionManager;
+
+    /**
+     * 履歴移動用DAO。
+     */
+    protected JobArchiveDao jobArchiveDao;
+
+    /**
+     * 処理済みのジョブをジョブ管理テーブルに残す日数。
+     */
+    @Value("${jobControlArchive.retentionDays:7}")
+    protected int retentionDays = 7;
+
+    /**
+     * 1回のトランザクションで移動する件数。1以上{@value #MAX_BATCH_SIZE}以下を指定する。
+     */
+    @Value("${jobControlArchive.batchSize:1000}")
+    protected int batchSize = 1000;
+
+    /**
+     * コンストラクタ。
+     * @param systemDao システムDAO
+     * @param adminTransactionManager トランザクションマネージャ
+     * @param jobArchiveDao 履歴移動用DAO
+     */
+    public JobControlArchiverImpl(SystemDao systemDao,
+            PlatformTransactionManager adminTransactionManager,
+            JobArchiveDao jobArchiveDao) {
+        Assert.notNull(systemDao, LOGGER.getLogMessage(LogId.EAL025056,
+                "JobControlArchiverImpl", "systemDao"));
+        Assert.notNull(adminTransactionManager, LOGGER.getLogMessage(
+                LogId.EAL025056, "JobControlArchiverImpl",
+                "adminTransactionManager"));
+        Assert.notNull(jobArchiveDao, LOGGER.getLogMessage(LogId.EAL025056,
+                "JobControlArchiverImpl", "jobArchiveDao"));
+
+        this.systemDao = systemDao;
+        this.adminTransactionManager = adminTransactionManager;
+        this.jobArchiveDao = jobArchiveDao;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 移動件数が移動単位に満たなくなるまで、移動単位ごとにトランザクションを確定しながら繰り返す。
+     * 登録件数または削除件数が対象件数と一致しない場合は、その移動単位をロールバックして終了する。
+     * </p>
+     */
+    @Override
+    public int archive() {
+        Assert.isTrue(batchSize > 0 && batchSize <= MAX_BATCH_SIZE, LOGGER
+                .getLogMessage(LogId.EAL025056, "JobControlArchiverImpl",
+                        "jobControlArchive.batchSize"));
+
+        Timestamp thresholdTime = thresholdTime(systemDao.readCurrentTime());
+        int total = 0;
+        while (true) {
+            int archived = archiveBatch(thresholdTime);
+            if (archived <= 0) {
+                break;
+            }
+            total += archived;
+            if (archived < batchSize) {
+                break;
+            }
+        }
+        LOGGER.info(LogId.IAL025031, total, String.valueOf(thresholdTime));
+        return total;
+    }
+
+    /**
+     * 1回の移動単位分のジョブを、1つのトランザクションで履歴テーブルに移動する。<br>
+     * @param thresholdTime 基準時刻
+     * @return 移動した件数。件数が一致せずロールバックした場合は-1
+     */
+    protected int archiveBatch(Timestamp thresholdTime) {
+        TransactionStatus transactionStatus = null;
+        try {
+            transactionStatus = adminTransactionManager.getTransaction(
+                    new DefaultTransactionDefinition());
+
+            BatchJobArchiveParam param = new BatchJobArchiveParam();
+            param.setCurAppStatus(JOB_STATUS_PROCESSED);
+            param.setThresholdTime(thresholdTime);
+            param.setBatchSize(batchSize);
+            List<String> targets = jobArchiveDao.selectArchiveTargets(param);
+            if (targets == null || targets.isEmpty()) {
+                adminTransactionManager.commit(transactionStatus);
+                return 0;
+            }
+
+            param.setJobSequenceIdList(targets);
+            int inserted = jobArchiveDao.insertJobHistory(param);
+            int deleted = jobArchiveDao.deleteArchivedJobs(param);
+            if (inserted != targets.size() || deleted != targets.size()) {
+                LOGGER.error(LogId.EAL025071, targets.size(), inserted,
+                        deleted);
+                return -1;
+            }
+            adminTransactionManager.commit(transactionStatus);
+            LOGGER.debug(LogId.DAL025061, targets.size(), targets.get(targets
+                    .size() - 1));
+            return targets.size();
+        } finally {
+            if (transactionStatus != null && !transactionStatus
+                    .isCompleted()) {
+                adminTransactionManager.rollback(transactionStatus);
+            }
+        }
+    }
+
+    /**
+     * 現在時刻から保存期間を差し引いた基準時刻を算出する。<br>
+     * @param currentTime 現在時刻
+     * @return 基準時刻
+     */
+    protected Timestamp thresholdTime(Timestamp currentTime) {
+        long base = currentTime != null ? currentTime.getTime() : System
+                .currentTimeMillis();
+        return new Timestamp(base - TimeUnit.DAYS.toMillis(retentionDays));
+    }
+}
@@ -35,7 +35,7 @@ import jp.terasoluna.fw.logger.TLogger;
  * ジョブの実行ステータス更新クラス。<br>
  * @since 3.6
  */
-public class JobStatusChangerImpl implements JobStatusChanger {
+public class JobStatusChangerImpl implements RevertibleJobStatusChanger {
 
     private static final int EXPECTED_UPDATE_JOB_COUNT = 1;
 
@@ -133,6 +133,40 @@ public class JobStatusChangerImpl implements JobStatusChanger {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean changeToUnexecutionStatus(String jobSequenceId) {
+        TransactionStatus transactionStatus = null;
+        try {
+            transactionStatus = adminTransactionManager.getTransaction(
+                    new DefaultTransactionDefinition());
+
+            BatchJobData batchJobData = getBatchJobData(jobSequenceId);
+            if (!isJobStatusValid(batchJobData, JOB_STATUS_EXECUTING,
+                    JOB_STATUS_UNEXECUTION)) {
+                return false;
+            }
+
+            if (!updateBatchJobStatus(jobSequenceId, batchJobData
+                    .getBLogicAppStatus(), JOB_STATUS_UNEXECUTION)) {
+                return false;
+            }
+            adminTransactionManager.commit(transactionStatus);
+        } finally {
+            if (transactionStatus != null && !transactionStatus.isCompleted()) {
+                LOGGER.info(LogId.IAL025023, jobSequenceId);
+                try {
+                    adminTransactionManager.rollback(transactionStatus);
+                } catch (Exception e) {
+                    LOGGER.error(LogId.EAL025064, e, jobSequenceId);
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * BatchJobData取得
      * 
@@ -185,7 +219,7 @@ public class JobStatusChangerImpl implements JobStatusChanger {
      * @param nextStatus curAppStatusの更新後の値
      * @return 正常に更新できた(更新件数が1)ときはtrue、更新件数が1以外のときはfalse
      */
-    private boolean updateBatchJobStatus(String jobSequenceId, String appStatus,
+    protected boolean updateBatchJobStatus(String jobSequenceId, String appStatus,
             String nextStatus) {
         // ジョブステータス更新
         LOGGER.debug(LogId.DAL025023, jobSequenceId, nextStatus);
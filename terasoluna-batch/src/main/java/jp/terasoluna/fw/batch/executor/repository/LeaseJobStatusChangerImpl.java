@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static jp.terasoluna.fw.batch.constants.JobStatusConstants.*;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import jp.terasoluna.fw.batch.constants.LogId;
+import jp.terasoluna.fw.batch.executor.dao.JobLeaseDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobLeaseParam;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * リースを利用するジョブの実行ステータス更新クラス。<br>
+ * <p>
+ * ジョブを実行中に変更する際、同じトランザクションでリース所有者とリース期限をジョブ管理テーブルに記録する。<br>
+ * ジョブを終了状態に変更する際は、同じトランザクションで本ノードが保持するリースを解放する。
+ * リースが回収されて他のノードが再取得している場合は解放に失敗し、ステータスを更新しない。
+ * ただし、リース所有者が設定されていない実行中のジョブ(本機能の導入前に実行中となったジョブ)は解放できるものとして扱う。<br>
+ * 実行中のジョブのリースは一定間隔のハートビートで延長する。ハートビートはジョブ件数によらず、
+ * リース所有者単位の1回の更新でまとめて行う。<br>
+ * 各ノードはハートビートの際に、リース期限が切れたまま実行中となっているジョブを回収して所定のステータスに戻す。
+ * これにより、非同期バッチ起動が異常終了したノードのジョブが実行中のまま残り続けることを防ぐ。
+ * </p>
+ * <p>
+ * 設定はプロパティファイルの以下の項目で指定する。
+ * <table border>
+ * <tr>
+ * <th>プロパティ名</th>
+ * <th>説明</th>
+ * <th>デフォルト値</th>
+ * </tr>
+ * <tr>
+ * <td>batchTaskExecutor.leaseOwner</td>
+ * <td>リース所有者(ノードを一意に識別する値)</td>
+ * <td>JVMの名前(プロセスID@ホスト名)</td>
+ * </tr>
+ * <tr>
+ * <td>batchTaskExecutor.leaseDuration</td>
+ * <td>リースの有効期間</td>
+ * <td>60000(ミリ秒)</td>
+ * </tr>
+ * <tr>
+ * <td>batchTaskExecutor.leaseHeartbeatInterval</td>
+ * <td>ハートビートの間隔</td>
+ * <td>20000(ミリ秒)</td>
+ * </tr>
+ * <tr>
+ * <td>batchTaskExecutor.leaseReclaimStatus</td>
+ * <td>回収したジョブに設定するステータス</td>
+ * <td>0(未実施)</td>
+ * </tr>
+ * </table>
+ * </p>
+ * <p>
+ * 回収したジョブは未実施に戻すと再実行されるため、ジョブは再実行可能であることを前提とする。
+ * 再実行させない場合は回収後のステータスに失敗("3")を指定する。<br>
+ * ハートビートがリースの有効期間を超えて遅延すると、実行中のジョブが他のノードに回収される。
+ * リースの有効期間はハートビートの間隔より十分に長く設定すること。
+ * </p>
+ * <p>
+ * 本機能を利用するには、{@code JobStatusChangerImpl}の代わりに本クラスをBean定義し、{@link JobLeaseDao}を設定する。
+ *
+ * <pre>
+ * {@code
+ * <bean id="jobStatusChanger"
+ *     class="jp.terasoluna.fw.batch.executor.repository.LeaseJobStatusChangerImpl">
+ *     <constructor-arg index="0" ref="systemDao" />
+ *     <constructor-arg index="1" ref="adminTransactionManager" />
+ *     <constructor-arg index="2" ref="jobLeaseDao" />
+ * </bean>
+ * }
+ * </pre>
+ * </p>
+ * @see JobLeaseDao
+ * @since 3.6
+ */
+public class LeaseJobStatusChangerImpl extends JobStatusChangerImpl implements
+                                       InitializingBean, DisposableBean {
+
+    private static final int EXPECTED_UPDATE_LEASE_COUNT = 1;
+
+    private static final TLogger LOGGER = TLogger.getLogger(
+            LeaseJobStatusChangerImpl.class);
+
+    protected JobLeaseDao jobLeaseDao;
+
+    /**
+     * リース所有者
+     */
+    @Value("${batchTaskExecutor.leaseOwner:}")
+    protected String leaseOwner;
+
+    /**
+     * リースの有効期間(ミリ秒)
+     */
+    @Value("${batchTaskExecutor.leaseDuration:60000}")
+    protected long leaseDuration = 60000L;
+
+    /**
+     * ハートビートの間隔(ミリ秒)
+     */
+    @Value("${batchTaskExecutor.leaseHeartbeatInterval:20000}")
+    protected long heartbeatInterval = 20000L;
+
+    /**
+     * 回収したジョブに設定するステータス
+     */
+    @Value("${batchTaskExecutor.leaseReclaimStatus:0}")
+    protected String reclaimStatus = JOB_STATUS_UNEXECUTION;
+
+    /**
+     * ハートビートを実行するスケジューラ
+     */
+    protected ScheduledExecutorService heartbeatScheduler;
+
+    /**
+     * コンストラクタ。
+     */
+    public LeaseJobStatusChangerImpl(SystemDao systemDao,
+            PlatformTransactionManager adminTransactionManager,
+            JobLeaseDao jobLeaseDao) {
+        super(systemDao, adminTransactionManager);
+
+        this.jobLeaseDao = jobLeaseDao;
+
+        Assert.notNull(jobLeaseDao, LOGGER.getLogMessage(LogId.EAL025056,
+                "LeaseJobStatusChangerImpl", "jobLeaseDao"));
+    }
+
+    /**
+     * リース所有者を決定し、ハートビートを開始する。
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!StringUtils.hasText(leaseOwner)) {
+            leaseOwner = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        Assert.isTrue(heartbeatInterval > 0L
+                && leaseDuration > heartbeatInterval, LOGGER.getLogMessage(
+                        LogId.EAL025067, leaseDuration, heartbeatInterval));
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("JobLeaseHeartbeat-");
+        threadFactory.setDaemon(true);
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
+                threadFactory);
+        heartbeatScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                heartbeat();
+            }
+        }, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        LOGGER.info(LogId.IAL025028, leaseOwner, leaseDuration,
+                heartbeatInterval);
+    }
+
+    /**
+     * ハートビートを停止する。
+     */
+    @Override
+    public void destroy() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * ジョブのステータスを更新する。<br>
+     * 実行中に変更する場合は、同じトランザクションでリースを取得する。リースを取得できなかった場合はfalseを返却する。<br>
+     * 実行中以外に変更する場合は、ステータスの更新に先立ってリースを解放する。
+     * 本ノードがリースを保持していない場合は、ステータスを更新せずにfalseを返却する。
+     *
+     * @param jobSequenceId ジョブシーケンスID
+     * @param appStatus blogicAppStatusの更新後の値
+     * @param nextStatus curAppStatusの更新後の値
+     * @return ステータスの更新とリースの取得または解放に成功したときはtrue
+     */
+    @Override
+    protected boolean updateBatchJobStatus(String jobSequenceId,
+            String appStatus, String nextStatus) {
+        if (!JOB_STATUS_EXECUTING.equals(nextStatus)) {
+            return releaseJobLease(jobSequenceId) && super
+                    .updateBatchJobStatus(jobSequenceId, appStatus,
+                            nextStatus);
+        }
+        if (!super.updateBatchJobStatus(jobSequenceId, appStatus,
+                nextStatus)) {
+            return false;
+        }
+
+        BatchJobLeaseParam param = new BatchJobLeaseParam();
+        param.setJobSequenceId(jobSequenceId);
+        param.setLeaseOwner(leaseOwner);
+        param.setLeaseExpireTime(nextLeaseExpireTime(systemDao
+                .readCurrentTime()));
+        if (jobLeaseDao.acquireJobLease(
+                param) != EXPECTED_UPDATE_LEASE_COUNT) {
+            LOGGER.error(LogId.EAL025065, jobSequenceId, leaseOwner);
+            return false;
+        }
+        LOGGER.debug(LogId.DAL025057, jobSequenceId, leaseOwner, param
+                .getLeaseExpireTime());
+        return true;
+    }
+
+    /**
+     * 本ノードが保持するジョブのリースを解放する。<br>
+     * リースが回収され、他のノードが再取得している場合は解放できない。
+     * リース所有者が設定されていない実行中のジョブは、リースを保持しているものとして解放する。
+     *
+     * @param jobSequenceId ジョブシーケンスID
+     * @return リースを解放できたときはtrue
+     */
+    protected boolean releaseJobLease(String jobSequenceId) {
+        BatchJobLeaseParam param = new BatchJobLeaseParam();
+        param.setJobSequenceId(jobSequenceId);
+        param.setLeaseOwner(leaseOwner);
+        param.setCurAppStatus(JOB_STATUS_EXECUTING);
+        if (jobLeaseDao.releaseJobLease(
+                param) != EXPECTED_UPDATE_LEASE_COUNT) {
+            LOGGER.error(LogId.EAL025073, jobSequenceId, leaseOwner);
+            return false;
+        }
+        LOGGER.debug(LogId.DAL025063, jobSequenceId, leaseOwner);
+        return true;
+    }
+
+    /**
+     * ハートビート。<br>
+     * 本ノードが保持する実行中ジョブのリースを一括で延長した後、リース期限が切れたジョブを回収する。
+     * 例外が発生した場合はログを出力し、次回のハートビートで再試行する。
+     */
+    public void heartbeat() {
+        TransactionStatus transactionStatus = null;
+        try {
+            transactionStatus = adminTransactionManager.getTransaction(
+                    new DefaultTransactionDefinition());
+
+            Timestamp currentTime = systemDao.readCurrentTime();
+
+            BatchJobLeaseParam renewParam = new BatchJobLeaseParam();
+            renewParam.setLeaseOwner(leaseOwner);
+            renewParam.setLeaseExpireTime(nextLeaseExpireTime(currentTime));
+            renewParam.setCurAppStatus(JOB_STATUS_EXECUTING);
+            int renewed = jobLeaseDao.renewJobLeases(renewParam);
+            LOGGER.debug(LogId.DAL025058, leaseOwner, renewed, renewParam
+                    .getLeaseExpireTime());
+
+            BatchJobLeaseParam reclaimParam = new BatchJobLeaseParam();
+            reclaimParam.setCurrentTime(currentTime);
+            reclaimParam.setCurAppStatus(JOB_STATUS_EXECUTING);
+            reclaimParam.setReclaimAppStatus(reclaimStatus);
+            int reclaimed = jobLeaseDao.reclaimExpiredJobLeases(reclaimParam);
+            if (reclaimed > 0) {
+                LOGGER.warn(LogId.WAL025011, reclaimed, reclaimStatus);
+            }
+
+            adminTransactionManager.commit(transactionStatus);
+        } catch (RuntimeException e) {
+            LOGGER.error(LogId.EAL025066, e, leaseOwner);
+        } finally {
+            if (transactionStatus != null && !transactionStatus
+                    .isCompleted()) {
+                try {
+                    adminTransactionManager.rollback(transactionStatus);
+                } catch (RuntimeException e) {
+                    LOGGER.error(LogId.EAL025066, e, leaseOwner);
+                }
+            }
+        }
+    }
+
+    /**
+     * リース所有者を取得する。
+     * @return リース所有者
+     */
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    /**
+     * 基準時刻からリースの有効期間が経過した時刻を算出する。
+     * @param currentTime 基準時刻
+     * @return リース期限
+     */
+    protected Timestamp nextLeaseExpireTime(Timestamp currentTime) {
+        long base = currentTime != null ? currentTime.getTime() : System
+                .currentTimeMillis();
+        return new Timestamp(base + leaseDuration);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+/**
+ * ジョブの実行ステータスを「実行中」から「未実行」に戻すことができる{@link JobStatusChanger}。<br>
+ * 実行中に変更した後、ジョブの主処理を開始できなかった場合に、次回以降のジョブリストの取得対象に戻すために使用する。
+ * @since 3.6
+ */
+public interface RevertibleJobStatusChanger extends JobStatusChanger {
+
+    /**
+     * ジョブの実行ステータスを「実行中」から「未実行」に戻す。<br>
+     * @param jobSequenceId ジョブのシーケンスコード
+     * @return 更新に成功したらtrue。<br>
+     *         BatchJobDataが取得できないとき、ジョブステータスが想定外のとき、ジョブステータスの更新が正常に行えなかったときはfalse。
+     */
+    boolean changeToUnexecutionStatus(String jobSequenceId);
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.vo;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * ジョブ管理テーブルの履歴移動用DAOの入力パラメータ。<br>
+ * @since 3.6
+ */
+public class BatchJobArchiveParam {
+    /**
+     * フィールド [curAppStatus] 項目の型 [java.lang.String]<br>
+     * 移動対象とするジョブのステータス
+     */
+    private String curAppStatus;
+
+    /**
+     * フィールド [thresholdTime] 項目の型 [java.sql.Timestamp]<br>
+     * 基準時刻（この時刻より前に更新されたジョブを移動対象とする）
+     */
+    private Timestamp thresholdTime;
+
+    /**
+     * フィールド [batchSize] 項目の型 [int]<br>
+     * 1回に取得する移動対象の件数
+     */
+    private int batchSize;
+
+    /**
+     * フィールド [jobSequenceIdList] 項目の型 [java.util.List]<br>
+     * 移動するジョブのジョブシーケンスコードのリスト
+     */
+    private List<String> jobSequenceIdList;
+
+    /**
+     * フィールド [curAppStatus]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * 移動対象とするジョブのステータス
+     * @param curAppStatus フィールド[curAppStatus]に格納したい値
+     */
+    public void setCurAppStatus(final String curAppStatus) {
+        this.curAppStatus = curAppStatus;
+    }
+
+    /**
+     * フィールド[curAppStatus]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * 移動対象とするジョブのステータス
+     * @return フィールド[curAppStatus]に格納されている値
+     */
+    public String getCurAppStatus() {
+        return curAppStatus;
+    }
+
+    /**
+     * フィールド [thresholdTime]のセッターメソッド 項目の型 [java.sql.Timestamp]<br>
+     * 基準時刻
+     * @param thresholdTime フィールド[thresholdTime]に格納したい値
+     */
+    public void setThresholdTime(final Timestamp thresholdTime) {
+        this.thresholdTime = thresholdTime;
+    }
+
+    /**
+     * フィールド[thresholdTime]のゲッターメソッド 項目の型 [java.sql.Timestamp]<br>
+     * 基準時刻
+     * @return フィールド[thresholdTime]に格納されている値
+     */
+    public Timestamp getThresholdTime() {
+        return thresholdTime;
+    }
+
+    /**
+     * フィールド [batchSize]のセッターメソッド 項目の型 [int]<br>
+     * 1回に取得する移動対象の件数
+     * @param batchSize フィールド[batchSize]に格納したい値
+     */
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * フィールド[batchSize]のゲッターメソッド 項目の型 [int]<br>
+     * 1回に取得する移動対象の件数
+     * @return フィールド[batchSize]に格納されている値
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * フィールド [jobSequenceIdList]のセッターメソッド 項目の型 [java.util.List]<br>
+     * 移動するジョブのジョブシーケンスコードのリスト
+     * @param jobSequenceIdList フィールド[jobSequenceIdList]に格納したい値
+     */
+    public void setJobSequenceIdList(final List<String> jobSequenceIdList) {
+        this.jobSequenceIdList = jobSequenceIdList;
+    }
+
+    /**
+     * フィールド[jobSequenceIdList]のゲッターメソッド 項目の型 [java.util.List]<br>
+     * 移動するジョブのジョブシーケンスコードのリスト
+     * @return フィールド[jobSequenceIdList]に格納されている値
+     */
+    public List<String> getJobSequenceIdList() {
+        return jobSequenceIdList;
+    }
+
+    /**
+     * このバリューオブジェクトの文字列表現を取得します。 オブジェクトのシャロー範囲でしかtoStringされない点に注意して利用してください。
+     * @return バリューオブジェクトの文字列表現。
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("BatchJobArchiveParam[");
+        sb.append("curAppStatus=" + curAppStatus);
+        sb.append(",thresholdTime=" + thresholdTime);
+        sb.append(",batchSize=" + batchSize);
+        sb.append(",jobSequenceIdList=" + jobSequenceIdList);
+        sb.append("]");
+        return sb.toString();
+    }
+}
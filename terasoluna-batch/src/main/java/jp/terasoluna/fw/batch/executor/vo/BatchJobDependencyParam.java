@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.vo;
+
+/**
+ * ジョブ間の依存関係(JOB_CONTROL_DEPENDENCY)を考慮したジョブ取得用DAOの入力パラメータ。<br>
+ * @since 3.6
+ */
+public class BatchJobDependencyParam {
+    /**
+     * フィールド [jobSequenceId] 項目の型 [java.lang.String]<br>
+     * 先行ジョブのジョブシーケンスコード
+     */
+    private String jobSequenceId;
+
+    /**
+     * フィールド [curAppStatus] 項目の型 [java.lang.String]<br>
+     * 取得対象とするジョブのステータス
+     */
+    private String curAppStatus;
+
+    /**
+     * フィールド [processedStatus] 項目の型 [java.lang.String]<br>
+     * 先行ジョブが終了したとみなすジョブのステータス
+     */
+    private String processedStatus;
+
+    /**
+     * フィールド [successAppStatus] 項目の型 [java.lang.String]<br>
+     * 先行ジョブが正常終了したとみなすビジネスロジックの終了ステータス
+     */
+    private String successAppStatus;
+
+    /**
+     * フィールド [jobSequenceId]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * 先行ジョブのジョブシーケンスコード
+     * @param jobSequenceId フィールド[jobSequenceId]に格納したい値
+     */
+    public void setJobSequenceId(final String jobSequenceId) {
+        this.jobSequenceId = jobSequenceId;
+    }
+
+    /**
+     * フィールド[jobSequenceId]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * 先行ジョブのジョブシーケンスコード
+     * @return フィールド[jobSequenceId]に格納されている値
+     */
+    public String getJobSequenceId() {
+        return jobSequenceId;
+    }
+
+    /**
+     * フィールド [curAppStatus]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * 取得対象とするジョブのステータス
+     * @param curAppStatus フィールド[curAppStatus]に格納したい値
+     */
+    public void setCurAppStatus(final String curAppStatus) {
+        this.curAppStatus = curAppStatus;
+    }
+
+    /**
+     * フィールド[curAppStatus]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * 取得対象とするジョブのステータス
+     * @return フィールド[curAppStatus]に格納されている値
+     */
+    public String getCurAppStatus() {
+        return curAppStatus;
+    }
+
+    /**
+     * フィールド [processedStatus]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * 先行ジョブが終了したとみなすジョブのステータス
+     * @param processedStatus フィールド[processedStatus]に格納したい値
+     */
+    public void setProcessedStatus(final String processedStatus) {
+        this.processedStatus = processedStatus;
+    }
+
+    /**
+     * フィールド[processedStatus]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * 先行ジョブが終了したとみなすジョブのステータス
+     * @return フィールド[processedStatus]に格納されている値
+     */
+    public String getProcessedStatus() {
+        return processedStatus;
+    }
+
+    /**
+     * フィールド [successAppStatus]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * 先行ジョブが正常終了したとみなすビジネスロジックの終了ステータス
+     * @param successAppStatus フィールド[successAppStatus]に格納したい値
+     */
+    public void setSuccessAppStatus(final String successAppStatus) {
+        this.successAppStatus = successAppStatus;
+    }
+
+    /**
+     * フィールド[successAppStatus]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * 先行ジョブが正常終了したとみなすビジネスロジックの終了ステータス
+     * @return フィールド[successAppStatus]に格納されている値
+     */
+    public String getSuccessAppStatus() {
+        return successAppStatus;
+    }
+
+    /**
+     * このバリューオブジェクトの文字列表現を取得します。 オブジェクトのシャロー範囲でしかtoStringされない点に注意して利用してください。
+     * @return バリューオブジェクトの文字列表現。
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("BatchJobDependencyParam[");
+        sb.append("jobSequenceId=" + jobSequenceId);
+        sb.append(",curAppStatus=" + curAppStatus);
+        sb.append(",processedStatus=" + processedStatus);
+        sb.append(",successAppStatus=" + successAppStatus);
+        sb.append("]");
+        return sb.toString();
+    }
+}
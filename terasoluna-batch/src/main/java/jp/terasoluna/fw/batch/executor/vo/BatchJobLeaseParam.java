@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.vo;
+
+import java.sql.Timestamp;
+
+/**
+ * ジョブのリース取得・更新・回収用DAOの入力パラメータ。<br>
+ * @since 3.6
+ */
+public class BatchJobLeaseParam {
+    /**
+     * フィールド [jobSequenceId] 項目の型 [java.lang.String]<br>
+     * ジョブシーケンスコード
+     */
+    private String jobSequenceId;
+
+    /**
+     * フィールド [leaseOwner] 項目の型 [java.lang.String]<br>
+     * リース所有者
+     */
+    private String leaseOwner;
+
+    /**
+     * フィールド [leaseExpireTime] 項目の型 [java.sql.Timestamp]<br>
+     * リース期限
+     */
+    private Timestamp leaseExpireTime;
+
+    /**
+     * フィールド [currentTime] 項目の型 [java.sql.Timestamp]<br>
+     * 現在時刻（この時刻より前にリース期限が切れたジョブを回収対象とする）
+     */
+    private Timestamp currentTime;
+
+    /**
+     * フィールド [curAppStatus] 項目の型 [java.lang.String]<br>
+     * リースを保持するジョブのステータス
+     */
+    private String curAppStatus;
+
+    /**
+     * フィールド [reclaimAppStatus] 項目の型 [java.lang.String]<br>
+     * 回収したジョブに設定するステータス
+     */
+    private String reclaimAppStatus;
+
+    /**
+     * フィールド [jobSequenceId]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * ジョブシーケンスコード
+     * @param jobSequenceId フィールド[jobSequenceId]に格納したい値
+     */
+    public void setJobSequenceId(final String jobSequenceId) {
+        this.jobSequenceId = jobSequenceId;
+    }
+
+    /**
+     * フィールド[jobSequenceId]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * ジョブシーケンスコード
+     * @return フィールド[jobSequenceId]に格納されている値
+     */
+    public String getJobSequenceId() {
+        return jobSequenceId;
+    }
+
+    /**
+     * フィールド [leaseOwner]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * リース所有者
+     * @param leaseOwner フィールド[leaseOwner]に格納したい値
+     */
+    public void setLeaseOwner(final String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    /**
+     * フィールド[leaseOwner]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * リース所有者
+     * @return フィールド[leaseOwner]に格納されている値
+     */
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    /**
+     * フィールド [leaseExpireTime]のセッターメソッド 項目の型 [java.sql.Timestamp]<br>
+     * リース期限
+     * @param leaseExpireTime フィールド[leaseExpireTime]に格納したい値
+     */
+    public void setLeaseExpireTime(final Timestamp leaseExpireTime) {
+        this.leaseExpireTime = leaseExpireTime;
+    }
+
+    /**
+     * フィールド[leaseExpireTime]のゲッターメソッド 項目の型 [java.sql.Timestamp]<br>
+     * リース期限
+     * @return フィールド[leaseExpireTime]に格納されている値
+     */
+    public Timestamp getLeaseExpireTime() {
+        return leaseExpireTime;
+    }
+
+    /**
+     * フィールド [currentTime]のセッターメソッド 項目の型 [java.sql.Timestamp]<br>
+     * 現在時刻
+     * @param currentTime フィールド[currentTime]に格納したい値
+     */
+    public void setCurrentTime(final Timestamp currentTime) {
+        this.currentTime = currentTime;
+    }
+
+    /**
+     * フィールド[currentTime]のゲッターメソッド 項目の型 [java.sql.Timestamp]<br>
+     * 現在時刻
+     * @return フィールド[currentTime]に格納されている値
+     */
+    public Timestamp getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * フィールド [curAppStatus]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * リースを保持するジョブのステータス
+     * @param curAppStatus フィールド[curAppStatus]に格納したい値
+     */
+    public void setCurAppStatus(final String curAppStatus) {
+        this.curAppStatus = curAppStatus;
+    }
+
+    /**
+     * フィールド[curAppStatus]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * リースを保持するジョブのステータス
+     * @return フィールド[curAppStatus]に格納されている値
+     */
+    public String getCurAppStatus() {
+        return curAppStatus;
+    }
+
+    /**
+     * フィールド [reclaimAppStatus]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * 回収したジョブに設定するステータス
+     * @param reclaimAppStatus フィールド[reclaimAppStatus]に格納したい値
+     */
+    public void setReclaimAppStatus(final String reclaimAppStatus) {
+        this.reclaimAppStatus = reclaimAppStatus;
+    }
+
+    /**
+     * フィールド[reclaimAppStatus]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * 回収したジョブに設定するステータス
+     * @return フィールド[reclaimAppStatus]に格納されている値
+     */
+    public String getReclaimAppStatus() {
+        return reclaimAppStatus;
+    }
+
+    /**
+     * このバリューオブジェクトの文字列表現を取得します。 オブジェクトのシャロー範囲でしかtoStringされない点に注意して利用してください。
+     * @return バリューオブジェクトの文字列表現。
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("BatchJobLeaseParam[");
+        sb.append("jobSequenceId=" + jobSequenceId);
+        sb.append(",leaseOwner=" + leaseOwner);
+        sb.append(",leaseExpireTime=" + leaseExpireTime);
+        sb.append(",currentTime=" + currentTime);
+        sb.append(",curAppStatus=" + curAppStatus);
+        sb.append(",reclaimAppStatus=" + reclaimAppStatus);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -26,6 +26,12 @@ public class BatchJobListResult {
      */
     private String jobSequenceId;
 
+    /**
+     * フィールド [jobAppCd] 項目の型 [java.lang.String]<br>
+     * ジョブ業務コード
+     */
+    private String jobAppCd;
+
     /**
      * フィールド [jobSequenceId]のセッターメソッド 項目の型 [java.lang.String]<br>
      * ジョブシーケンスコード
@@ -44,6 +50,24 @@ public class BatchJobListResult {
         return jobSequenceId;
     }
 
+    /**
+     * フィールド [jobAppCd]のセッターメソッド 項目の型 [java.lang.String]<br>
+     * ジョブ業務コード
+     * @param jobAppCd フィールド[jobAppCd]に格納したい値
+     */
+    public void setJobAppCd(final String jobAppCd) {
+        this.jobAppCd = jobAppCd;
+    }
+
+    /**
+     * フィールド[jobAppCd]のゲッターメソッド 項目の型 [java.lang.String]<br>
+     * ジョブ業務コード
+     * @return フィールド[jobAppCd]に格納されている値
+     */
+    public String getJobAppCd() {
+        return jobAppCd;
+    }
+
     /**
      * このバリューオブジェクトの文字列表現を取得します。 オブジェクトのシャロー範囲でしかtoStringされない点に注意して利用してください。
      * @return バリューオブジェクトの文字列表現。
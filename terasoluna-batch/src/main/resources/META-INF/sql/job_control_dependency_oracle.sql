@@ -0,0 +1,27 @@
+-- ============================================================================
+-- JOB_CONTROL dependency table (Oracle)
+--
+-- A row (job_seq_id, predecessor_job_seq_id) makes job_seq_id wait until
+-- predecessor_job_seq_id is PROCESSED ('2') with BLOGIC_APP_STATUS '0'.
+-- Used by DependencyJobControlFinderImpl and DependencyJobStatusChangerImpl.
+-- Register the dependency rows in the same transaction as the JOB_CONTROL
+-- rows, otherwise a successor may be dispatched before its dependencies
+-- are visible.
+--
+-- Apply job_control_history_oracle.sql first. A predecessor that
+-- JobControlArchiverImpl has moved to JOB_CONTROL_HISTORY still counts as
+-- finished, so the predecessor check also queries JOB_CONTROL_HISTORY and
+-- fails if that table does not exist.
+-- ============================================================================
+
+CREATE TABLE job_control_dependency
+(
+  job_seq_id VARCHAR2(10) NOT NULL,
+  predecessor_job_seq_id VARCHAR2(10) NOT NULL,
+  CONSTRAINT pk_job_control_dependency PRIMARY KEY (job_seq_id, predecessor_job_seq_id)
+);
+
+-- Index used by JobDependencyDao#selectReleasableSuccessors to find the
+-- successors of a job that has just finished.
+CREATE INDEX idx_job_control_dependency_pred
+  ON job_control_dependency (predecessor_job_seq_id);
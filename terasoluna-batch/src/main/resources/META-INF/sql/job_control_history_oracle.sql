@@ -0,0 +1,70 @@
+-- ============================================================================
+-- JOB_CONTROL history archival and dispatch index (Oracle)
+--
+-- JobControlArchiverImpl moves PROCESSED ('2') rows older than
+-- jobControlArchive.retentionDays from JOB_CONTROL into JOB_CONTROL_HISTORY.
+-- ============================================================================
+
+CREATE TABLE job_control_history
+(
+  job_seq_id VARCHAR2(10) NOT NULL,
+  job_app_cd VARCHAR2(10),
+  job_arg_nm1 VARCHAR2(100),
+  job_arg_nm2 VARCHAR2(100),
+  job_arg_nm3 VARCHAR2(100),
+  job_arg_nm4 VARCHAR2(100),
+  job_arg_nm5 VARCHAR2(100),
+  job_arg_nm6 VARCHAR2(100),
+  job_arg_nm7 VARCHAR2(100),
+  job_arg_nm8 VARCHAR2(100),
+  job_arg_nm9 VARCHAR2(100),
+  job_arg_nm10 VARCHAR2(100),
+  job_arg_nm11 VARCHAR2(100),
+  job_arg_nm12 VARCHAR2(100),
+  job_arg_nm13 VARCHAR2(100),
+  job_arg_nm14 VARCHAR2(100),
+  job_arg_nm15 VARCHAR2(100),
+  job_arg_nm16 VARCHAR2(100),
+  job_arg_nm17 VARCHAR2(100),
+  job_arg_nm18 VARCHAR2(100),
+  job_arg_nm19 VARCHAR2(100),
+  job_arg_nm20 VARCHAR2(100),
+  blogic_app_status VARCHAR2(10),
+  cur_app_status VARCHAR2(1),
+  add_date_time TIMESTAMP,
+  upd_date_time TIMESTAMP,
+  archive_date_time TIMESTAMP,
+  CONSTRAINT pk_job_control_history PRIMARY KEY (job_seq_id)
+);
+
+CREATE INDEX idx_job_control_history_upd
+  ON job_control_history (upd_date_time);
+
+CREATE INDEX idx_job_control_archive
+  ON job_control (cur_app_status, upd_date_time, job_seq_id);
+
+-- Function-based index used by SystemDao#selectJobList.
+-- Oracle does not store index entries whose keys are all NULL, so only
+-- rows that are not processed are indexed and the index stays small
+-- however many processed rows JOB_CONTROL keeps.
+CREATE INDEX idx_job_control_dispatch
+  ON job_control (
+    CASE WHEN cur_app_status <> '2' THEN cur_app_status END,
+    CASE WHEN cur_app_status <> '2' THEN job_seq_id END
+  );
+
+-- Oracle uses a function-based index only when the query uses the same
+-- expressions. Write the selectJobList statement of the Oracle mapper
+-- as follows to use it:
+--
+--   SELECT
+--       A.JOB_SEQ_ID AS jobSequenceId
+--   FROM
+--       JOB_CONTROL A
+--   WHERE
+--       CASE WHEN A.CUR_APP_STATUS <> '2' THEN A.CUR_APP_STATUS END
+--           IN (<foreach item="curAppStatus" collection="curAppStatusList"
+--                   separator=",">#{curAppStatus}</foreach>)
+--   ORDER BY
+--       CASE WHEN A.CUR_APP_STATUS <> '2' THEN A.CUR_APP_STATUS END DESC,
+--       CASE WHEN A.CUR_APP_STATUS <> '2' THEN A.JOB_SEQ_ID END
@@ -0,0 +1,55 @@
+-- ============================================================================
+-- JOB_CONTROL history archival and dispatch index (PostgreSQL)
+--
+-- JobControlArchiverImpl moves PROCESSED ('2') rows older than
+-- jobControlArchive.retentionDays from JOB_CONTROL into JOB_CONTROL_HISTORY.
+-- ============================================================================
+
+CREATE TABLE job_control_history
+(
+  job_seq_id varchar(10) NOT NULL,
+  job_app_cd varchar(10),
+  job_arg_nm1 varchar(100),
+  job_arg_nm2 varchar(100),
+  job_arg_nm3 varchar(100),
+  job_arg_nm4 varchar(100),
+  job_arg_nm5 varchar(100),
+  job_arg_nm6 varchar(100),
+  job_arg_nm7 varchar(100),
+  job_arg_nm8 varchar(100),
+  job_arg_nm9 varchar(100),
+  job_arg_nm10 varchar(100),
+  job_arg_nm11 varchar(100),
+  job_arg_nm12 varchar(100),
+  job_arg_nm13 varchar(100),
+  job_arg_nm14 varchar(100),
+  job_arg_nm15 varchar(100),
+  job_arg_nm16 varchar(100),
+  job_arg_nm17 varchar(100),
+  job_arg_nm18 varchar(100),
+  job_arg_nm19 varchar(100),
+  job_arg_nm20 varchar(100),
+  blogic_app_status varchar(10),
+  cur_app_status varchar(1),
+  add_date_time timestamp,
+  upd_date_time timestamp,
+  archive_date_time timestamp,
+  CONSTRAINT pk_job_control_history PRIMARY KEY (job_seq_id)
+);
+
+CREATE INDEX idx_job_control_history_upd
+  ON job_control_history (upd_date_time);
+
+-- Index used by JobArchiveDao#selectArchiveTargets.
+CREATE INDEX idx_job_control_archive
+  ON job_control (upd_date_time, job_seq_id)
+  WHERE cur_app_status = '2';
+
+-- Partial index used by SystemDao#selectJobList.
+-- Only rows that are not processed are indexed, so the index stays small
+-- however many processed rows JOB_CONTROL keeps. The planner uses it as
+-- long as the status list of the dispatch query does not contain '2'
+-- (the default list is '0' only).
+CREATE INDEX idx_job_control_dispatch
+  ON job_control (cur_app_status, job_seq_id)
+  WHERE cur_app_status <> '2';
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.batch.executor.AdminConnectionCircuitBreaker.State;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * {@code AdminConnectionCircuitBreaker}のテストケース。<br>
+ * @since 3.6
+ */
+public class AdminConnectionCircuitBreakerTest {
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            AdminConnectionCircuitBreaker.class);
+
+    /**
+     * テスト後処理：ロガーのクリアを行なう。
+     */
+    @After
+    public void tearDown() {
+        logger.clear();
+    }
+
+    /**
+     * await()メソッドのテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・サーキットがクローズしていること
+     * 確認項目
+     * ・待機せずにfalseが返却されること
+     * </pre>
+     * 
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testAwait01() throws Exception {
+        AdminConnectionCircuitBreaker circuitBreaker = new AdminConnectionCircuitBreaker();
+
+        assertFalse(circuitBreaker.await());
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * open()、await()、close()メソッドのテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・リトライ実施前の待機時間 300
+     * 確認項目
+     * ・オープン後、待機時間の経過まで待機し、最初のスレッドが試行者となること
+     * ・試行中は他のスレッドが待機し、クローズで再開されること
+     * ・オープンとクローズのログが出力されること
+     * </pre>
+     * 
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testOpenAndClose01() throws Exception {
+        final AdminConnectionCircuitBreaker circuitBreaker = new AdminConnectionCircuitBreaker();
+        circuitBreaker.open(false, 300L, 300L);
+        assertEquals(State.OPEN, circuitBreaker.getState());
+
+        long start = System.currentTimeMillis();
+        assertTrue(circuitBreaker.await());
+        assertTrue(System.currentTimeMillis() - start >= 300L);
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return circuitBreaker.await();
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertFalse(waiter.isDone());
+
+            circuitBreaker.close();
+            assertFalse(waiter.get(1, TimeUnit.SECONDS));
+            assertEquals(State.CLOSED, circuitBreaker.getState());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Level.INFO, logger.getLoggingEvents().get(0).getLevel());
+        assertTrue(logger.getLoggingEvents().get(0).getMessage().startsWith(
+                "[IAL025026] Admin connection circuit opened. consecutiveOpenCount:1, waitTime:"));
+        assertEquals(Level.INFO, logger.getLoggingEvents().get(logger
+                .getLoggingEvents().size() - 1).getLevel());
+        assertEquals("[IAL025027] Admin connection circuit closed.", logger
+                .getLoggingEvents().get(logger.getLoggingEvents().size() - 1)
+                .getMessage());
+    }
+
+    /**
+     * open()メソッドのテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・サーキットがオープンしていること
+     * 確認項目
+     * ・試行者以外の失敗では状態が変わらないこと
+     * ・試行者の失敗では連続オープン回数が加算されること
+     * </pre>
+     * 
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testOpen01() throws Exception {
+        AdminConnectionCircuitBreaker circuitBreaker = new AdminConnectionCircuitBreaker();
+        circuitBreaker.open(false, 0L, 0L);
+        circuitBreaker.open(false, 0L, 0L);
+        assertEquals(1, logger.getLoggingEvents().size());
+
+        assertTrue(circuitBreaker.await());
+        assertEquals(Level.DEBUG, logger.getLoggingEvents().get(1).getLevel());
+        circuitBreaker.open(true, 0L, 0L);
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertEquals(3, logger.getLoggingEvents().size());
+        assertEquals(
+                "[IAL025026] Admin connection circuit opened. consecutiveOpenCount:2, waitTime:0 ms",
+                logger.getLoggingEvents().get(2).getMessage());
+    }
+
+    /**
+     * nextWaitTime()メソッドのテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・リトライ実施前の待機時間 1000、上限 5000
+     * 確認項目
+     * ・連続オープン回数に応じて待機時間が倍増し、上限で切り詰められること
+     * ・待機時間が基準値以上、基準値の1.5倍以下であること
+     * </pre>
+     */
+    @Test
+    public void testNextWaitTime01() {
+        AdminConnectionCircuitBreaker circuitBreaker = new AdminConnectionCircuitBreaker();
+        long[] expected = { 1000L, 2000L, 4000L, 5000L, 5000L };
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < 100; j++) {
+                long waitTime = circuitBreaker.nextWaitTime(i + 1, 1000L,
+                        5000L);
+                assertTrue(waitTime >= expected[i]);
+                assertTrue(waitTime <= expected[i] * 3 / 2);
+            }
+        }
+    }
+}
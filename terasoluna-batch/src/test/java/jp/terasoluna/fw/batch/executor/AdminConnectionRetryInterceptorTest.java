@@ -19,19 +19,33 @@ package jp.terasoluna.fw.batch.executor;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.annotation.Resource;
 
+import jp.terasoluna.fw.batch.executor.AdminConnectionCircuitBreaker.State;
+
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.RecoverableDataAccessException;
 import org.springframework.test.context.ContextConfiguration;
@@ -64,6 +78,8 @@ public class AdminConnectionRetryInterceptorTest {
 
     private long retryReset;
 
+    private long maxRetryInterval;
+
     /**
      * テスト前処理：インスタンスのフィールド初期値を退避。
      */
@@ -75,10 +91,12 @@ public class AdminConnectionRetryInterceptorTest {
                 adminConnectionRetryInterceptor, "retryInterval");
         retryReset = (long) ReflectionTestUtils.getField(
                 adminConnectionRetryInterceptor, "retryReset");
+        maxRetryInterval = (long) ReflectionTestUtils.getField(
+                adminConnectionRetryInterceptor, "maxRetryInterval");
     }
 
     /**
-     * テスト後処理：インスタンスのフィールド値を元に戻し、ロガーのクリアを行なう。
+     * テスト後処理：インスタンスのフィールド値とサーキットの状態を元に戻し、ロガーのクリアを行なう。
      */
     @After
     public void tearDown() {
@@ -88,6 +106,9 @@ public class AdminConnectionRetryInterceptorTest {
                 "retryInterval", retryInterval);
         ReflectionTestUtils.setField(adminConnectionRetryInterceptor,
                 "retryReset", retryReset);
+        ReflectionTestUtils.setField(adminConnectionRetryInterceptor,
+                "maxRetryInterval", maxRetryInterval);
+        adminConnectionRetryInterceptor.getCircuitBreaker().close();
         logger.clear();
     }
 
@@ -447,4 +468,129 @@ public class AdminConnectionRetryInterceptorTest {
 
     }
 
+    /**
+     * invoke()メソッドのテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・最大試行回数 3、RecoverableDataAccessException例外スロー回数 1
+     * 確認項目
+     * ・リトライ成功後にサーキットがクローズしていること
+     * ・リトライ実施前の待機時間以上待機してからリトライすること
+     * </pre>
+     * 
+     * @throws Throwable 予期せぬ例外
+     */
+    @Test
+    public void testInvoke12() throws Throwable {
+        // テスト準備
+        MethodInvocation mockMethodInvocation = mock(MethodInvocation.class);
+        ReflectionTestUtils.setField(adminConnectionRetryInterceptor,
+                "retryInterval", 300);
+        ReflectionTestUtils.setField(adminConnectionRetryInterceptor,
+                "maxRetryCount", 3);
+        when(mockMethodInvocation.proceed()).thenThrow(
+                new RecoverableDataAccessException(null)).thenReturn(null);
+
+        // テスト実行
+        long start = System.currentTimeMillis();
+        assertNull(adminConnectionRetryInterceptor.invoke(
+                mockMethodInvocation));
+        long elapsed = System.currentTimeMillis() - start;
+
+        // 検証
+        verify(mockMethodInvocation, times(2)).proceed();
+        assertTrue(elapsed >= 300);
+        assertEquals(State.CLOSED, adminConnectionRetryInterceptor
+                .getCircuitBreaker().getState());
+        assertEquals(Level.INFO, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[IAL025017] RetryDetails. currentRetryCount:1, retryMaxCount:3, retryReset:600,000 ms, retryInterval:300 ms",
+                logger.getLoggingEvents().get(0).getMessage());
+    }
+
+    /**
+     * invoke()メソッドのテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・1スレッド目の失敗でサーキットがオープンした後に、他の4スレッドから呼び出すこと
+     * ・最大試行回数 3
+     * 確認項目
+     * ・オープン中は他のスレッドがデータベースにアクセスしないこと
+     * ・ハーフオープン中にアクセスするのは1スレッドのみであること
+     * ・全てのスレッドが例外をスローせずに終了すること
+     * </pre>
+     * 
+     * @throws Throwable 予期せぬ例外
+     */
+    @Test
+    public void testInvoke13() throws Throwable {
+        // テスト準備
+        ReflectionTestUtils.setField(adminConnectionRetryInterceptor,
+                "retryInterval", 500);
+        ReflectionTestUtils.setField(adminConnectionRetryInterceptor,
+                "maxRetryCount", 3);
+        final AtomicInteger proceedCount = new AtomicInteger();
+        final AtomicInteger halfOpenCount = new AtomicInteger();
+        final AtomicInteger maxHalfOpenConcurrency = new AtomicInteger();
+        final MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenAnswer(
+                new Answer<Object>() {
+                    @Override
+                    public Object answer(
+                            InvocationOnMock inv) throws Throwable {
+                        if (proceedCount.incrementAndGet() == 1) {
+                            throw new RecoverableDataAccessException(null);
+                        }
+                        if (adminConnectionRetryInterceptor
+                                .getCircuitBreaker().getState() == State.HALF_OPEN) {
+                            int current = halfOpenCount.incrementAndGet();
+                            if (current > maxHalfOpenConcurrency.get()) {
+                                maxHalfOpenConcurrency.set(current);
+                            }
+                            TimeUnit.MILLISECONDS.sleep(100);
+                            halfOpenCount.decrementAndGet();
+                        }
+                        return null;
+                    }
+                });
+        Callable<Object> task = new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                try {
+                    return adminConnectionRetryInterceptor.invoke(invocation);
+                } catch (Throwable t) {
+                    throw new Exception(t);
+                }
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            // テスト実行
+            List<Future<Object>> futures = new ArrayList<>();
+            futures.add(executor.submit(task));
+            while (adminConnectionRetryInterceptor
+                    .getCircuitBreaker().getState() != State.OPEN) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(task));
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+
+            // 検証
+            assertEquals(1, proceedCount.get());
+            for (Future<Object> future : futures) {
+                assertNull(future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(6, proceedCount.get());
+            assertEquals(1, maxHalfOpenConcurrency.get());
+            assertEquals(State.CLOSED, adminConnectionRetryInterceptor
+                    .getCircuitBreaker().getState());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
@@ -31,6 +31,7 @@ import jp.terasoluna.fw.batch.exception.handler.BLogicExceptionHandlerResolver;
 import jp.terasoluna.fw.batch.exception.handler.ExceptionHandler;
 import jp.terasoluna.fw.batch.executor.repository.JobControlFinder;
 import jp.terasoluna.fw.batch.executor.repository.JobStatusChanger;
+import jp.terasoluna.fw.batch.executor.repository.RevertibleJobStatusChanger;
 import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
 import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
 
@@ -444,6 +445,70 @@ public class AsyncJobWorkerImplTest {
         }
     }
 
+    /**
+     * {@code cancelExecute}のテスト01 【正常系】<br>
+     * 
+     * <pre>
+     * 事前条件
+     * ・{@code jobStatusChanger}が{@code RevertibleJobStatusChanger}を実装していること
+     * 確認事項
+     * ・ジョブシーケンスコードに該当するレコードを未実行に戻し、その結果を返却すること
+     * </pre>
+     * 
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testCancelExecute01() throws Exception {
+        RevertibleJobStatusChanger mockRevertibleJobStatusChanger = mock(
+                RevertibleJobStatusChanger.class);
+        when(mockRevertibleJobStatusChanger.changeToUnexecutionStatus(
+                anyString())).thenReturn(true);
+
+        AsyncJobWorkerImpl target = new AsyncJobWorkerImpl(mockBLogicResolver,
+                mockBLogicExceptionHandlerResolver, 
+                mockBLogicApplicationContextResolver, 
+                mockJobControlFinder, 
+                mockBLogicParamConverter, 
+                mockBLogicExecutor, 
+                mockRevertibleJobStatusChanger);
+
+        // テスト実行
+        boolean actual = target.cancelExecute("0000001");
+
+        assertTrue(actual);
+        verify(mockRevertibleJobStatusChanger).changeToUnexecutionStatus(
+                "0000001");
+    }
+
+    /**
+     * {@code cancelExecute}のテスト02 【正常系】<br>
+     * 
+     * <pre>
+     * 事前条件
+     * ・{@code jobStatusChanger}が{@code RevertibleJobStatusChanger}を実装していないこと
+     * 確認事項
+     * ・{@code false}を返却すること
+     * </pre>
+     * 
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testCancelExecute02() throws Exception {
+        AsyncJobWorkerImpl target = new AsyncJobWorkerImpl(mockBLogicResolver,
+                mockBLogicExceptionHandlerResolver, 
+                mockBLogicApplicationContextResolver, 
+                mockJobControlFinder, 
+                mockBLogicParamConverter, 
+                mockBLogicExecutor, 
+                mockJobStatusChanger);
+
+        // テスト実行
+        boolean actual = target.cancelExecute("0000001");
+
+        assertFalse(actual);
+        verifyZeroInteractions(mockJobStatusChanger);
+    }
+
     /**
      * {@code executeWorker}のテスト01 【異常系】<br>
      * 
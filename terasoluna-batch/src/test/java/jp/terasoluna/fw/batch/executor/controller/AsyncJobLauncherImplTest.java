@@ -35,12 +35,17 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static uk.org.lidalia.slf4jtest.LoggingEvent.error;
 import static uk.org.lidalia.slf4jtest.LoggingEvent.info;
+import static uk.org.lidalia.slf4jtest.LoggingEvent.warn;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -59,6 +64,8 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import jp.terasoluna.fw.batch.exception.BatchException;
 import jp.terasoluna.fw.batch.executor.AsyncJobWorker;
+import jp.terasoluna.fw.batch.executor.CancelableAsyncJobWorker;
+import jp.terasoluna.fw.batch.executor.repository.JobControlFinder;
 import uk.org.lidalia.slf4jtest.TestLogger;
 import uk.org.lidalia.slf4jtest.TestLoggerFactory;
 
@@ -576,6 +583,267 @@ public class AsyncJobLauncherImplTest {
                 "[EAL025053] An exception occurred. please see below the stacktrace."))));
     }
 
+    /**
+     * executeJob()メソッドのテスト 【正常系】
+     * <pre>
+     * 事前条件
+     * ・{@code JobStartRateLimiter}が設定され、待機時間0を返却する。
+     * 確認項目
+     * ・ジョブ業務コードとともに起動を予約し、スレッドプールの枠を確保する前に即座に起動すること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testExecuteJob10() throws Exception {
+        final Semaphore semaphore = new Semaphore(10);
+        JobStartRateLimiter jobStartRateLimiter = mock(
+                JobStartRateLimiter.class);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                // 起動の予約時にスレッドプールの枠を占有していないこと。
+                assertEquals(10, semaphore.availablePermits());
+                return 0L;
+            }
+        }).when(jobStartRateLimiter).tryAcquire("0000000001", "B000001");
+        doReturn(true).when(asyncJobWorker).beforeExecute(anyString());
+        AsyncJobLauncherImpl asyncJobLauncher = new AsyncJobLauncherImpl(
+                threadPoolTaskExecutor, asyncJobWorker);
+        asyncJobLauncher.taskPoolLimit = semaphore;
+        asyncJobLauncher.deferredJobLimit = new Semaphore(10);
+        asyncJobLauncher.setJobStartRateLimiter(jobStartRateLimiter);
+
+        // テスト実行
+        asyncJobLauncher.executeJob("0000000001", "B000001");
+
+        verify(jobStartRateLimiter).tryAcquire("0000000001", "B000001");
+        verify(threadPoolTaskExecutor).execute(any(Runnable.class));
+        assertEquals(10, asyncJobLauncher.deferredJobLimit.availablePermits());
+    }
+
+    /**
+     * executeJob()メソッドのテスト 【正常系】
+     * <pre>
+     * 事前条件
+     * ・{@code TokenBucketJobStartRateLimiter}が設定され、リソースslowDbのみ1秒あたり1件に制限されている。
+     * 確認項目
+     * ・slowDbの2件目のジョブは実行中に変更されたうえで起動が遅延し、{@code executeJob()}は待機せずに返却すること。
+     * ・遅延中も制限のないリソースのジョブは即座に起動すること。
+     * ・シャットダウン時に遅延中のジョブが起動されること。
+     * ・ジョブ業務コードを受け取った場合はジョブを検索しないこと。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testExecuteJob11() throws Exception {
+        JobControlFinder jobControlFinder = mock(JobControlFinder.class);
+        TokenBucketJobStartRateLimiter jobStartRateLimiter = new TokenBucketJobStartRateLimiter(jobControlFinder);
+        Map<String, String> mappings = new LinkedHashMap<String, String>();
+        mappings.put("A*", "slowDb");
+        jobStartRateLimiter.setResourceMappings(mappings);
+        Map<String, Double> rates = new LinkedHashMap<String, Double>();
+        rates.put("slowDb", 1d);
+        jobStartRateLimiter.setPermitsPerSecond(rates);
+        jobStartRateLimiter.afterPropertiesSet();
+
+        final Queue<String> started = new ConcurrentLinkedQueue<String>();
+        doReturn(true).when(asyncJobWorker).beforeExecute(anyString());
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                started.add(invocation.getArgumentAt(0, String.class));
+                return null;
+            }
+        }).when(asyncJobWorker).executeWorker(anyString());
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                invocation.getArgumentAt(0, Runnable.class).run();
+                return null;
+            }
+        }).when(threadPoolTaskExecutor).execute(any(Runnable.class));
+        doReturn(10).when(threadPoolTaskExecutor).getMaxPoolSize();
+        ThreadPoolExecutor mockThreadPoolExecutor = mock(ThreadPoolExecutor.class);
+        doReturn(true).when(mockThreadPoolExecutor).awaitTermination(
+                anyLong(), eq(TimeUnit.MILLISECONDS));
+        doReturn(mockThreadPoolExecutor).when(threadPoolTaskExecutor)
+                .getThreadPoolExecutor();
+        AsyncJobLauncherImpl asyncJobLauncher = new AsyncJobLauncherImpl(
+                threadPoolTaskExecutor, asyncJobWorker);
+        asyncJobLauncher.executorJobTerminateWaitIntervalTime = 3000L;
+        asyncJobLauncher.setJobStartRateLimiter(jobStartRateLimiter);
+        asyncJobLauncher.afterPropertiesSet();
+
+        // テスト実行
+        long start = System.nanoTime();
+        asyncJobLauncher.executeJob("0000000001", "A0001");
+        asyncJobLauncher.executeJob("0000000002", "A0001");
+        asyncJobLauncher.executeJob("0000000003", "B0001");
+        long elapsed = System.nanoTime() - start;
+
+        // slowDbの2件目のみ遅延し、ジョブの取得側は待機しないこと
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(500L));
+        assertEquals(asList("0000000001", "0000000003"), asList(started
+                .toArray(new String[0])));
+        verify(asyncJobWorker).beforeExecute("0000000002");
+        assertEquals(9, asyncJobLauncher.deferredJobLimit.availablePermits());
+
+        asyncJobLauncher.shutdown();
+
+        assertEquals(asList("0000000001", "0000000003", "0000000002"), asList(
+                started.toArray(new String[0])));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(
+                900L));
+        assertEquals(10, asyncJobLauncher.deferredJobLimit.availablePermits());
+        assertEquals(10, asyncJobLauncher.taskPoolLimit.availablePermits());
+        verify(jobControlFinder, never()).resolveBatchJobData(anyString());
+    }
+
+    /**
+     * executeJob()メソッドのテスト 【正常系】
+     * <pre>
+     * 事前条件
+     * ・{@code JobStartRateLimiter}が設定され、遅延中のジョブ数が上限に達している。
+     * 確認項目
+     * ・起動時刻を予約せず、前処理も実行せずに即座に返却すること（ジョブは未実行のまま残ること）。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testExecuteJob12() throws Exception {
+        JobStartRateLimiter jobStartRateLimiter = mock(
+                JobStartRateLimiter.class);
+        AsyncJobLauncherImpl asyncJobLauncher = new AsyncJobLauncherImpl(
+                threadPoolTaskExecutor, asyncJobWorker);
+        asyncJobLauncher.taskPoolLimit = new Semaphore(10);
+        asyncJobLauncher.deferredJobLimit = new Semaphore(0);
+        asyncJobLauncher.setJobStartRateLimiter(jobStartRateLimiter);
+
+        // テスト実行
+        asyncJobLauncher.executeJob("0000000001", "B000001");
+
+        verify(jobStartRateLimiter, never()).tryAcquire(anyString(),
+                anyString());
+        verify(asyncJobWorker, never()).beforeExecute(anyString());
+        verify(threadPoolTaskExecutor, never()).execute(any(Runnable.class));
+        assertEquals(10, asyncJobLauncher.taskPoolLimit.availablePermits());
+        assertEquals(
+                "[DAL025065] The number of deferred jobs has reached the limit, so the job is left unexecuted until the next polling. jobSequenceId:0000000001",
+                logger.getLoggingEvents().get(0).getMessage());
+    }
+
+    /**
+     * executeJob()メソッドのテスト 【正常系】
+     * <pre>
+     * 事前条件
+     * ・{@code JobStartRateLimiter}が設定され、待機時間を返却する。
+     * ・予約した時刻にスレッドプールに空きがない。
+     * 確認項目
+     * ・スケジューラのスレッドで待機せずに起動を再登録し、空きができた後にジョブが登録されること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testExecuteJob13() throws Exception {
+        JobStartRateLimiter jobStartRateLimiter = mock(
+                JobStartRateLimiter.class);
+        doReturn(TimeUnit.MILLISECONDS.toNanos(1L)).when(jobStartRateLimiter)
+                .tryAcquire(anyString(), anyString());
+        doReturn(true).when(asyncJobWorker).beforeExecute(anyString());
+        doReturn(1).when(threadPoolTaskExecutor).getMaxPoolSize();
+        AsyncJobLauncherImpl asyncJobLauncher = new AsyncJobLauncherImpl(
+                threadPoolTaskExecutor, asyncJobWorker);
+        asyncJobLauncher.executorJobTerminateWaitIntervalTime = 1L;
+        asyncJobLauncher.deferredJobRetryIntervalTime = 10L;
+        asyncJobLauncher.setJobStartRateLimiter(jobStartRateLimiter);
+        asyncJobLauncher.afterPropertiesSet();
+        try {
+            asyncJobLauncher.taskPoolLimit.acquire();
+
+            // テスト実行
+            asyncJobLauncher.executeJob("0000000001", "B000001");
+            TimeUnit.MILLISECONDS.sleep(100L);
+
+            // スケジューラのスレッドが待機せず、起動が再登録されていること
+            verify(threadPoolTaskExecutor, never()).execute(any(
+                    Runnable.class));
+            assertEquals(0, asyncJobLauncher.deferredJobScheduler
+                    .getActiveCount());
+            assertEquals(1, asyncJobLauncher.deferredJobScheduler.getQueue()
+                    .size());
+            assertEquals(0, asyncJobLauncher.deferredJobLimit
+                    .availablePermits());
+
+            asyncJobLauncher.taskPoolLimit.release();
+
+            verify(threadPoolTaskExecutor, timeout(1000L)).execute(any(
+                    Runnable.class));
+            assertEquals(0, asyncJobLauncher.taskPoolLimit.availablePermits());
+            assertEquals(1, asyncJobLauncher.deferredJobLimit
+                    .availablePermits());
+        } finally {
+            asyncJobLauncher.deferredJobScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * executeJob()メソッドのテスト 【異常系】
+     * <pre>
+     * 事前条件
+     * ・{@code JobStartRateLimiter}が設定され、待機時間を返却する。
+     * ・スレッドプールがジョブの登録を拒否する。
+     * 確認項目
+     * ・遅延させたジョブのステータスが未実行に戻され、警告ログが出力されること。
+     * ・スレッドプールと遅延中のジョブ数の枠が解放されること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testExecuteJob14() throws Exception {
+        CancelableAsyncJobWorker cancelableAsyncJobWorker = mock(
+                CancelableAsyncJobWorker.class);
+        doReturn(true).when(cancelableAsyncJobWorker).beforeExecute(
+                anyString());
+        doReturn(true).when(cancelableAsyncJobWorker).cancelExecute(
+                anyString());
+        JobStartRateLimiter jobStartRateLimiter = mock(
+                JobStartRateLimiter.class);
+        doReturn(TimeUnit.MILLISECONDS.toNanos(1L)).when(jobStartRateLimiter)
+                .tryAcquire(anyString(), anyString());
+        doThrow(new TaskRejectedException("rejected")).when(
+                threadPoolTaskExecutor).execute(any(Runnable.class));
+        doReturn(10).when(threadPoolTaskExecutor).getMaxPoolSize();
+        AsyncJobLauncherImpl asyncJobLauncher = new AsyncJobLauncherImpl(
+                threadPoolTaskExecutor, cancelableAsyncJobWorker);
+        asyncJobLauncher.executorJobTerminateWaitIntervalTime = 1L;
+        asyncJobLauncher.setJobStartRateLimiter(jobStartRateLimiter);
+        asyncJobLauncher.afterPropertiesSet();
+        logger.clear();
+        try {
+            // テスト実行
+            asyncJobLauncher.executeJob("0000000001", "B000001");
+
+            verify(cancelableAsyncJobWorker, timeout(1000L)).cancelExecute(
+                    "0000000001");
+            asyncJobLauncher.deferredJobScheduler.shutdown();
+            assertTrue(asyncJobLauncher.deferredJobScheduler
+                    .awaitTermination(1000L, TimeUnit.MILLISECONDS));
+            assertEquals(10, asyncJobLauncher.taskPoolLimit
+                    .availablePermits());
+            assertEquals(10, asyncJobLauncher.deferredJobLimit
+                    .availablePermits());
+            assertTrue(logger.getAllLoggingEvents().contains(warn(
+                    "[WAL025015] The deferred job could not be started, so it was returned to unexecuted status. jobSequenceId:0000000001")));
+        } finally {
+            asyncJobLauncher.deferredJobScheduler.shutdownNow();
+        }
+    }
+
     /**
      * shutdown()メソッドのテスト 【正常系】
      * <pre>
@@ -607,6 +875,37 @@ public class AsyncJobLauncherImplTest {
         assertEquals(0, logger.getLoggingEvents().size());
     }
 
+    /**
+     * shutdown()メソッドのテスト 【正常系】
+     * <pre>
+     * 事前条件
+     * ・{@code JobStartRateLimiter}が設定されている。
+     * 確認項目
+     * ・シャットダウン完了後に起動待ちの統計情報が出力されること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testShutdown04() throws Exception {
+        ThreadPoolExecutor mockThreadPoolExecutor = mock(ThreadPoolExecutor.class);
+        doReturn(true).when(mockThreadPoolExecutor).awaitTermination(
+                anyLong(), eq(TimeUnit.MILLISECONDS));
+        doReturn(mockThreadPoolExecutor).when(threadPoolTaskExecutor)
+                .getThreadPoolExecutor();
+        JobStartRateLimiter jobStartRateLimiter = mock(
+                JobStartRateLimiter.class);
+        AsyncJobLauncherImpl asyncJobLauncher = new AsyncJobLauncherImpl(
+                threadPoolTaskExecutor, asyncJobWorker);
+        asyncJobLauncher.executorJobTerminateWaitIntervalTime = 1L;
+        asyncJobLauncher.setJobStartRateLimiter(jobStartRateLimiter);
+
+        // テスト実行
+        asyncJobLauncher.shutdown();
+
+        verify(jobStartRateLimiter).logStatistics();
+    }
+
     /**
      * shutdown()メソッドのテスト 【正常系】
      * <pre>
@@ -337,6 +337,47 @@ public class AsyncJobOperatorImplTest {
         verify(asyncJobLauncher).shutdown();
     }
 
+    /**
+     * {@code start}のテスト 【正常系】
+     * <pre>
+     * 事前条件
+     * ・コンストラクタのアサーションを全て成功させていること。
+     * ・ジョブの起動機能が{@code JobAppCdAwareAsyncJobLauncher}を実装していること。
+     * 確認項目
+     * ・取得したジョブのジョブ業務コードとともにジョブが実行されること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testStart06() throws Exception {
+        JobAppCdAwareAsyncJobLauncher jobAppCdAwareAsyncJobLauncher = mock(
+                JobAppCdAwareAsyncJobLauncher.class);
+        doReturn(false).doReturn(true).when(asyncBatchStopper).canStop();
+        String[] args = new String[] {};
+        BatchJobListResult result = new BatchJobListResult() {{
+            setJobSequenceId("jobSequenceId");
+            setJobAppCd("B000001");
+        }};
+        doReturn(result).when(jobControlFinder)
+                .resolveBatchJobResult(args);
+        AsyncJobOperatorImpl asyncJobOperator = new AsyncJobOperatorImpl(
+                jobControlFinder, jobAppCdAwareAsyncJobLauncher,
+                asyncBatchStopper);
+
+        // テスト実行
+        assertEquals(0, asyncJobOperator.start(new String[] {}));
+
+        // ジョブ業務コードを受け取るexecuteJob()のみが呼び出されていること
+        verify(jobAppCdAwareAsyncJobLauncher, times(1)).executeJob(
+                "jobSequenceId", "B000001");
+        verify(jobAppCdAwareAsyncJobLauncher, never()).executeJob(
+                anyString());
+
+        // シャットダウン処理が呼び出されていること。
+        verify(jobAppCdAwareAsyncJobLauncher).shutdown();
+    }
+
     /**
      * {@code testPollingSleep}のテスト 【正常系】
      * <pre>
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jp.terasoluna.fw.batch.executor.controller.TokenBucketJobStartRateLimiter.TokenBucket;
+import jp.terasoluna.fw.batch.executor.repository.JobControlFinder;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * {@code TokenBucketJobStartRateLimiter}のテストケース。<br>
+ *
+ * @since 3.6
+ */
+public class TokenBucketJobStartRateLimiterTest {
+
+    private JobControlFinder jobControlFinder;
+
+    private TokenBucketJobStartRateLimiter limiter;
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            TokenBucketJobStartRateLimiter.class);
+
+    /**
+     * テスト前処理：ジョブ業務コードB01*とB02*をbusinessDbに対応付け、1秒あたり10件、バースト数2に制限する。
+     */
+    @Before
+    public void setUp() {
+        jobControlFinder = mock(JobControlFinder.class);
+        doReturn(job("B0101")).when(jobControlFinder).resolveBatchJobData(
+                "0000000001");
+        doReturn(job("B0201")).when(jobControlFinder).resolveBatchJobData(
+                "0000000002");
+        doReturn(job("B0301")).when(jobControlFinder).resolveBatchJobData(
+                "0000000003");
+        limiter = new TokenBucketJobStartRateLimiter(jobControlFinder);
+        Map<String, String> mappings = new LinkedHashMap<String, String>();
+        mappings.put("B01*", "businessDb");
+        mappings.put("B02*", "businessDb");
+        limiter.setResourceMappings(mappings);
+        Map<String, Double> rates = new LinkedHashMap<String, Double>();
+        rates.put("businessDb", 10d);
+        limiter.setPermitsPerSecond(rates);
+        Map<String, Integer> bursts = new LinkedHashMap<String, Integer>();
+        bursts.put("businessDb", 2);
+        limiter.setBurstSizes(bursts);
+        limiter.afterPropertiesSet();
+        logger.clear();
+    }
+
+    /**
+     * テスト後処理：ロガーのクリアを行う。
+     */
+    @After
+    public void tearDown() {
+        logger.clear();
+    }
+
+    /**
+     * コンストラクタのテスト 【異常系】
+     * <pre>
+     * 確認項目
+     * ・{@code jobControlFinder}に{@code null}を渡した場合、{@code IllegalArgumentException}をスローすること。
+     * </pre>
+     */
+    @Test
+    public void testTokenBucketJobStartRateLimiter01() {
+        try {
+            new TokenBucketJobStartRateLimiter(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - TokenBucketJobStartRateLimiter requires to set JobControlFinder. please confirm the settings.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * afterPropertiesSet()メソッドのテスト 【異常系】
+     * <pre>
+     * 確認項目
+     * ・1秒あたりの起動数が0以下の場合、{@code IllegalArgumentException}をスローすること。
+     * </pre>
+     */
+    @Test
+    public void testAfterPropertiesSet01() {
+        Map<String, Double> rates = new LinkedHashMap<String, Double>();
+        rates.put("businessDb", 0d);
+        limiter.setPermitsPerSecond(rates);
+        try {
+            limiter.afterPropertiesSet();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025068] Invalid job start rate limit. resource:businessDb permitsPerSecond:0 burstSize:2",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * tryAcquire()メソッドのテスト 【正常系】
+     * <pre>
+     * 確認項目
+     * ・同じリソースに対応付けたジョブはバースト数まで待機時間0となり、以降は待機時間を返却すること。
+     * ・待機時間を返却する場合も待機しないこと。
+     * ・待機が必要なジョブのデバッグログが出力されること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testTryAcquire01() throws Exception {
+        long start = System.nanoTime();
+        assertEquals(0L, limiter.tryAcquire("0000000001", null));
+        assertEquals(0L, limiter.tryAcquire("0000000002", null));
+        long waitNanos = limiter.tryAcquire("0000000001", null);
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(50L));
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(100L));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(
+                50L));
+
+        TokenBucket bucket = limiter.getBucket("businessDb");
+        assertEquals(3L, bucket.getStartedCount());
+        assertEquals(1L, bucket.getDelayedCount());
+        assertTrue(bucket.getMaxWaitNanos() > 0L);
+        assertEquals(1, logger.getLoggingEvents().size());
+        assertEquals(Level.DEBUG, logger.getLoggingEvents().get(0)
+                .getLevel());
+        assertTrue(logger.getLoggingEvents().get(0).getMessage().startsWith(
+                "[DAL025059] Job start was delayed by the rate limiter. jobSequenceId:0000000001 resource:businessDb waitTime:"));
+    }
+
+    /**
+     * tryAcquire()メソッドのテスト 【正常系】
+     * <pre>
+     * 確認項目
+     * ・起動数が設定されていないリソースのジョブは制限されないこと。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testTryAcquire02() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, limiter.tryAcquire("0000000003", null));
+        }
+        assertNull(limiter.getBucket("B0301"));
+        assertEquals(0, logger.getLoggingEvents().size());
+    }
+
+    /**
+     * tryAcquire()メソッドのテスト 【異常系】
+     * <pre>
+     * 確認項目
+     * ・ジョブを取得できない場合、警告ログを出力して制限せずに返却すること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testTryAcquire03() throws Exception {
+        IllegalStateException exception = new IllegalStateException("test");
+        doThrow(exception).when(jobControlFinder).resolveBatchJobData(
+                "0000000009");
+
+        assertEquals(0L, limiter.tryAcquire("0000000009", null));
+
+        assertEquals(Level.WARN, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[WAL025012] Could not resolve the job to apply the start rate limit, so the job starts without limit. jobSequenceId:0000000009",
+                logger.getLoggingEvents().get(0).getMessage());
+        assertEquals(0L, limiter.getBucket("businessDb").getStartedCount());
+    }
+
+    /**
+     * tryAcquire()メソッドのテスト 【正常系】
+     * <pre>
+     * 確認項目
+     * ・ジョブ業務コードを受け取った場合は、ジョブを検索せずにリソースを解決すること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testTryAcquire04() throws Exception {
+        assertEquals(0L, limiter.tryAcquire("0000000011", "B0101"));
+        assertEquals(0L, limiter.tryAcquire("0000000012", "B0201 "));
+        assertTrue(limiter.tryAcquire("0000000013", "B0102") > 0L);
+
+        verify(jobControlFinder, never()).resolveBatchJobData(anyString());
+        assertEquals(3L, limiter.getBucket("businessDb").getStartedCount());
+    }
+
+    /**
+     * logStatistics()メソッドのテスト 【正常系】
+     * <pre>
+     * 確認項目
+     * ・リソースごとの統計情報が出力されること。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testLogStatistics01() throws Exception {
+        limiter.tryAcquire("0000000001", null);
+
+        limiter.logStatistics();
+
+        assertEquals(
+                "[IAL025029] Job start rate limiter statistics. resource:businessDb started:1 delayed:0 totalWaitTime:0 ms maxWaitTime:0 ms",
+                logger.getLoggingEvents().get(0).getMessage());
+    }
+
+    /**
+     * TokenBucket#reserve()メソッドのテスト 【正常系】
+     * <pre>
+     * 確認項目
+     * ・バースト数までは待機時間が0となり、以降は補充間隔ずつ待機時間が延びること。
+     * ・補充間隔以上経過するとトークンが蓄積されること。
+     * </pre>
+     */
+    @Test
+    public void testReserve01() {
+        TokenBucket bucket = new TokenBucket(10d, 3);
+        long interval = TimeUnit.MILLISECONDS.toNanos(100L);
+
+        assertEquals(0L, bucket.reserve(0L));
+        assertEquals(0L, bucket.reserve(0L));
+        assertEquals(0L, bucket.reserve(0L));
+        assertEquals(interval, bucket.reserve(0L));
+        assertEquals(interval * 2L, bucket.reserve(0L));
+
+        // 十分に時間が経過した後はバースト数まで待機しない
+        long later = interval * 100L;
+        assertEquals(0L, bucket.reserve(later));
+        assertEquals(0L, bucket.reserve(later));
+        assertEquals(0L, bucket.reserve(later));
+        assertEquals(interval, bucket.reserve(later));
+
+        assertEquals(9L, bucket.getStartedCount());
+        assertEquals(3L, bucket.getDelayedCount());
+        assertEquals(interval * 4L, bucket.getTotalWaitNanos());
+        assertEquals(interval * 2L, bucket.getMaxWaitNanos());
+    }
+
+    private BatchJobData job(String jobAppCd) {
+        BatchJobData batchJobData = new BatchJobData();
+        batchJobData.setJobAppCd(jobAppCd);
+        return batchJobData;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jp.terasoluna.fw.batch.constants.JobStatusConstants;
+import jp.terasoluna.fw.batch.executor.dao.JobArchiveDao;
+import jp.terasoluna.fw.batch.executor.dao.JobDependencyDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobDependencyParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobListResult;
+
+/**
+ * DependencyJobControlFinderImplのテストケースクラス
+ */
+public class DependencyJobControlFinderImplTest {
+
+    private SystemDao mockSystemDao = mock(SystemDao.class);
+
+    private JobDependencyDao mockJobDependencyDao = mock(
+            JobDependencyDao.class);
+
+    private DependencyJobControlFinderImpl finder = new DependencyJobControlFinderImpl(mockSystemDao, mockJobDependencyDao);
+
+    /**
+     * コンストラクタテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・jobDependencyDaoにNullを指定する
+     * 確認項目
+     * ・IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testDependencyJobControlFinderImpl01() {
+        try {
+            new DependencyJobControlFinderImpl(mockSystemDao, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - DependencyJobControlFinderImpl requires to set jobDependencyDao. please confirm the settings.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・通知された後続ジョブがないこと
+     * 確認項目
+     * ・未実施かつ先行ジョブが処理済み・正常終了のジョブを1件検索した結果が返却されること
+     * </pre>
+     */
+    @Test
+    public void testResolveBatchJobResult01() {
+        BatchJobListResult result = new BatchJobListResult();
+        result.setJobSequenceId("0000000001");
+        when(mockJobDependencyDao.selectExecutableJobList(any(RowBounds.class),
+                any(BatchJobDependencyParam.class))).thenReturn(asList(
+                        result));
+
+        assertSame(result, finder.resolveBatchJobResult(null));
+
+        ArgumentCaptor<RowBounds> rowBounds = ArgumentCaptor.forClass(
+                RowBounds.class);
+        ArgumentCaptor<BatchJobDependencyParam> param = ArgumentCaptor
+                .forClass(BatchJobDependencyParam.class);
+        verify(mockJobDependencyDao).selectExecutableJobList(rowBounds
+                .capture(), param.capture());
+        assertEquals(1, rowBounds.getValue().getLimit());
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, param
+                .getValue().getCurAppStatus());
+        assertEquals(JobStatusConstants.JOB_STATUS_PROCESSED, param.getValue()
+                .getProcessedStatus());
+        assertEquals("0", param.getValue().getSuccessAppStatus());
+        verify(mockSystemDao, never()).selectJobList(any(RowBounds.class), any(
+                jp.terasoluna.fw.batch.executor.vo.BatchJobListParam.class));
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・後続ジョブが2件通知されていること
+     * 確認項目
+     * ・通知された後続ジョブが、検索を行わずに通知順に返却されること
+     * ・実行可能なジョブがなく、待ち受け時間が0の場合はnullが返却されること
+     * </pre>
+     */
+    @Test
+    public void testResolveBatchJobResult02() {
+        when(mockJobDependencyDao.selectExecutableJobList(any(RowBounds.class),
+                any(BatchJobDependencyParam.class))).thenReturn(Collections
+                        .<BatchJobListResult> emptyList());
+        finder.release(asList("0000000003", "0000000002"));
+        assertEquals(2, finder.getReleasedCount());
+
+        assertEquals("0000000003", finder.resolveBatchJobResult(null)
+                .getJobSequenceId());
+        assertEquals("0000000002", finder.resolveBatchJobResult(null)
+                .getJobSequenceId());
+        verify(mockJobDependencyDao, never()).selectExecutableJobList(any(
+                RowBounds.class), any(BatchJobDependencyParam.class));
+
+        assertNull(finder.resolveBatchJobResult(null));
+        assertEquals(0, finder.getReleasedCount());
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・実行可能なジョブがなく、待ち受け時間が5秒であること
+     * 確認項目
+     * ・待ち受け中に通知された後続ジョブが返却されること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testResolveBatchJobResult03() throws Exception {
+        finder.releaseWaitTime = 5000L;
+        Thread releaser = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100L);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                finder.release(asList("0000000005"));
+            }
+        };
+        releaser.start();
+
+        BatchJobListResult result = finder.resolveBatchJobResult(null);
+        releaser.join();
+
+        assertEquals("0000000005", result.getJobSequenceId());
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・H2データベースのジョブ管理テーブルと依存関係テーブルに、次のジョブが登録されていること
+     *   1:処理済み(正常終了)、2:実行中、3:未実施(先行ジョブ1,2)、4:未実施(先行ジョブ1)、
+     *   5:処理済み(異常終了)、6:未実施(先行ジョブ5)、7:未実施(先行ジョブなし)、8:未実施(存在しない先行ジョブ)
+     * 確認項目
+     * ・先行ジョブがすべて正常終了したジョブ(4)と先行ジョブのないジョブ(7)のみが実行対象となること
+     * ・ジョブ2が正常終了すると、ジョブ3が通知され、次回の呼び出しで返却されること
+     * </pre>
+     */
+    @Test
+    public void testResolveBatchJobResult04() {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+                "beansDef/AdminDataSource.xml");
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(
+                    "adminDataSource", javax.sql.DataSource.class));
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_DEPENDENCY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+            String insert = "INSERT INTO JOB_CONTROL (JOB_SEQ_ID, JOB_APP_CD, CUR_APP_STATUS, BLOGIC_APP_STATUS, ADD_DATE_TIME, UPD_DATE_TIME)"
+                    + " VALUES (?, 'B000001', ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+            jdbcTemplate.update(insert, "0000000001", "2", "0");
+            jdbcTemplate.update(insert, "0000000002", "1", null);
+            jdbcTemplate.update(insert, "0000000003", "0", null);
+            jdbcTemplate.update(insert, "0000000004", "0", null);
+            jdbcTemplate.update(insert, "0000000005", "2", "255");
+            jdbcTemplate.update(insert, "0000000006", "0", null);
+            jdbcTemplate.update(insert, "0000000007", "0", null);
+            jdbcTemplate.update(insert, "0000000008", "0", null);
+            String dependency = "INSERT INTO JOB_CONTROL_DEPENDENCY (JOB_SEQ_ID, PREDECESSOR_JOB_SEQ_ID) VALUES (?, ?)";
+            jdbcTemplate.update(dependency, "0000000003", "0000000001");
+            jdbcTemplate.update(dependency, "0000000003", "0000000002");
+            jdbcTemplate.update(dependency, "0000000004", "0000000001");
+            jdbcTemplate.update(dependency, "0000000006", "0000000005");
+            jdbcTemplate.update(dependency, "0000000008", "0000000099");
+
+            SystemDao systemDao = context.getBean("systemDao",
+                    SystemDao.class);
+            JobDependencyDao jobDependencyDao = context.getBean(
+                    "jobDependencyDao", JobDependencyDao.class);
+            DependencyJobControlFinderImpl h2Finder = new DependencyJobControlFinderImpl(systemDao, jobDependencyDao);
+            DependencyJobStatusChangerImpl h2Changer = new DependencyJobStatusChangerImpl(systemDao, context
+                    .getBean("adminTransactionManager",
+                            PlatformTransactionManager.class), jobDependencyDao, h2Finder);
+
+            BatchJobDependencyParam param = DependencyJobControlFinderImpl
+                    .createParam(null);
+            java.util.List<String> executable = new java.util.ArrayList<>();
+            for (BatchJobListResult result : jobDependencyDao
+                    .selectExecutableJobList(new RowBounds(), param)) {
+                executable.add(result.getJobSequenceId());
+            }
+            assertEquals(asList("0000000004", "0000000007"), executable);
+            assertEquals("0000000004", h2Finder.resolveBatchJobResult(null)
+                    .getJobSequenceId());
+
+            BLogicResult blogicResult = new BLogicResult();
+            blogicResult.setBlogicStatus(0);
+            assertTrue(h2Changer.changeToEndStatus("0000000002",
+                    blogicResult));
+
+            assertEquals(1, h2Finder.getReleasedCount());
+            assertEquals("0000000003", h2Finder.resolveBatchJobResult(null)
+                    .getJobSequenceId());
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_DEPENDENCY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・H2データベースのジョブ管理テーブルと依存関係テーブルに、次のジョブが登録されていること
+     *   1:処理済み(正常終了、保存期間経過)、2:未実施(先行ジョブ1)、
+     *   3:処理済み(異常終了、保存期間経過)、4:未実施(先行ジョブ3)
+     * ・JobControlArchiverImplでジョブ1,3を履歴テーブルに移動すること
+     * 確認項目
+     * ・履歴テーブルに移動した正常終了の先行ジョブは終了済みとみなされ、ジョブ2が実行対象となること
+     * ・履歴テーブルに移動した異常終了の先行ジョブを持つジョブ4は実行対象とならないこと
+     * </pre>
+     */
+    @Test
+    public void testResolveBatchJobResult05() {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+                "beansDef/AdminDataSource.xml");
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(
+                    "adminDataSource", javax.sql.DataSource.class));
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_DEPENDENCY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_HISTORY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+            String insert = "INSERT INTO JOB_CONTROL (JOB_SEQ_ID, JOB_APP_CD, CUR_APP_STATUS, BLOGIC_APP_STATUS, ADD_DATE_TIME, UPD_DATE_TIME)"
+                    + " VALUES (?, 'B000001', ?, ?, CURRENT_TIMESTAMP, DATEADD('DAY', -30, CURRENT_TIMESTAMP))";
+            jdbcTemplate.update(insert, "0000000001", "2", "0");
+            jdbcTemplate.update(insert, "0000000002", "0", null);
+            jdbcTemplate.update(insert, "0000000003", "2", "255");
+            jdbcTemplate.update(insert, "0000000004", "0", null);
+            String dependency = "INSERT INTO JOB_CONTROL_DEPENDENCY (JOB_SEQ_ID, PREDECESSOR_JOB_SEQ_ID) VALUES (?, ?)";
+            jdbcTemplate.update(dependency, "0000000002", "0000000001");
+            jdbcTemplate.update(dependency, "0000000004", "0000000003");
+
+            SystemDao systemDao = context.getBean("systemDao",
+                    SystemDao.class);
+            JobDependencyDao jobDependencyDao = context.getBean(
+                    "jobDependencyDao", JobDependencyDao.class);
+            JobControlArchiverImpl h2Archiver = new JobControlArchiverImpl(systemDao, context
+                    .getBean("adminTransactionManager",
+                            PlatformTransactionManager.class), context
+                                    .getBean("jobArchiveDao",
+                                            JobArchiveDao.class));
+            assertEquals(2, h2Archiver.archive());
+
+            DependencyJobControlFinderImpl h2Finder = new DependencyJobControlFinderImpl(systemDao, jobDependencyDao);
+            assertEquals("0000000002", h2Finder.resolveBatchJobResult(null)
+                    .getJobSequenceId());
+            java.util.List<String> executable = new java.util.ArrayList<>();
+            for (BatchJobListResult result : jobDependencyDao
+                    .selectExecutableJobList(new RowBounds(),
+                            DependencyJobControlFinderImpl.createParam(
+                                    null))) {
+                executable.add(result.getJobSequenceId());
+            }
+            assertEquals(asList("0000000002"), executable);
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_DEPENDENCY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_HISTORY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import jp.terasoluna.fw.batch.constants.JobStatusConstants;
+import jp.terasoluna.fw.batch.executor.dao.JobDependencyDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobDependencyParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobManagementParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobManagementUpdateParam;
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * DependencyJobStatusChangerImplのテストケースクラス
+ */
+public class DependencyJobStatusChangerImplTest {
+
+    private SystemDao mockSystemDao = mock(SystemDao.class);
+
+    private PlatformTransactionManager mockPlatformTransactionManager = mock(
+            PlatformTransactionManager.class);
+
+    private TransactionStatus mockTran = mock(TransactionStatus.class);
+
+    private JobDependencyDao mockJobDependencyDao = mock(
+            JobDependencyDao.class);
+
+    private DependencyJobControlFinderImpl mockFinder = mock(
+            DependencyJobControlFinderImpl.class);
+
+    private DependencyJobStatusChangerImpl changer;
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            DependencyJobStatusChangerImpl.class);
+
+    @Before
+    public void setUp() {
+        logger.clear();
+        changer = new DependencyJobStatusChangerImpl(mockSystemDao, mockPlatformTransactionManager, mockJobDependencyDao, mockFinder);
+        BatchJobData batchJobData = new BatchJobData();
+        batchJobData.setJobSequenceId("0000000001");
+        batchJobData.setCurAppStatus(JobStatusConstants.JOB_STATUS_EXECUTING);
+        when(mockSystemDao.selectJob(any(BatchJobManagementParam.class)))
+                .thenReturn(batchJobData);
+        when(mockSystemDao.updateJobTable(any(
+                BatchJobManagementUpdateParam.class))).thenReturn(1);
+        when(mockPlatformTransactionManager.getTransaction(any(
+                DefaultTransactionDefinition.class))).thenReturn(mockTran);
+        when(mockTran.isCompleted()).thenReturn(true);
+    }
+
+    /**
+     * テスト後処理：ロガーのクリアを行う。
+     */
+    @After
+    public void tearDown() {
+        logger.clear();
+    }
+
+    /**
+     * コンストラクタテスト 【異常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・jobDependencyDao、dependencyJobControlFinderにNullを指定した場合、IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testDependencyJobStatusChangerImpl01() {
+        try {
+            new DependencyJobStatusChangerImpl(mockSystemDao, mockPlatformTransactionManager, null, mockFinder);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - DependencyJobStatusChangerImpl requires to set jobDependencyDao. please confirm the settings.",
+                    e.getMessage());
+        }
+        try {
+            new DependencyJobStatusChangerImpl(mockSystemDao, mockPlatformTransactionManager, mockJobDependencyDao, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - DependencyJobStatusChangerImpl requires to set dependencyJobControlFinder. please confirm the settings.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * changeToEndStatusテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・ビジネスロジックが正常終了していること
+     * ・実行可能となった後続ジョブが2件あること
+     * 確認項目
+     * ・コミット後に後続ジョブが検索され、通知先に通知されること
+     * ・[DAL025062]のログが出力されること
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus01() {
+        when(mockJobDependencyDao.selectReleasableSuccessors(any(
+                BatchJobDependencyParam.class))).thenReturn(asList(
+                        "0000000002", "0000000003"));
+
+        assertTrue(changer.changeToEndStatus("0000000001", success()));
+
+        ArgumentCaptor<BatchJobDependencyParam> param = ArgumentCaptor
+                .forClass(BatchJobDependencyParam.class);
+        verify(mockJobDependencyDao).selectReleasableSuccessors(param
+                .capture());
+        assertEquals("0000000001", param.getValue().getJobSequenceId());
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, param
+                .getValue().getCurAppStatus());
+        verify(mockPlatformTransactionManager).commit(mockTran);
+        verify(mockFinder).release(asList("0000000002", "0000000003"));
+        assertEquals(
+                "[DAL025062] Released successor jobs whose predecessors have all succeeded. jobSequenceId:0000000001 successors:[0000000002, 0000000003]",
+                logger.getLoggingEvents().get(0).getMessage());
+    }
+
+    /**
+     * changeToEndStatusテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・ビジネスロジックが異常終了していること
+     * 確認項目
+     * ・ステータスは更新されるが、後続ジョブは検索されないこと
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus02() {
+        BLogicResult blogicResult = new BLogicResult();
+        blogicResult.setBlogicStatus(255);
+
+        assertTrue(changer.changeToEndStatus("0000000001", blogicResult));
+
+        verify(mockPlatformTransactionManager).commit(mockTran);
+        verify(mockJobDependencyDao, never()).selectReleasableSuccessors(any(
+                BatchJobDependencyParam.class));
+        verify(mockFinder, never()).release(anyListOf(String.class));
+    }
+
+    /**
+     * changeToEndStatusテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・ジョブのステータスが実行中でないこと
+     * 確認項目
+     * ・falseが返却され、後続ジョブは検索されないこと
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus03() {
+        BatchJobData batchJobData = new BatchJobData();
+        batchJobData.setJobSequenceId("0000000001");
+        batchJobData.setCurAppStatus(JobStatusConstants.JOB_STATUS_PROCESSED);
+        when(mockSystemDao.selectJob(any(BatchJobManagementParam.class)))
+                .thenReturn(batchJobData);
+        when(mockTran.isCompleted()).thenReturn(false);
+
+        assertFalse(changer.changeToEndStatus("0000000001", success()));
+
+        verify(mockJobDependencyDao, never()).selectReleasableSuccessors(any(
+                BatchJobDependencyParam.class));
+    }
+
+    /**
+     * changeToEndStatusテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・後続ジョブの検索で例外が発生すること
+     * 確認項目
+     * ・[EAL025072]のログが出力され、trueが返却されること
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus04() {
+        when(mockJobDependencyDao.selectReleasableSuccessors(any(
+                BatchJobDependencyParam.class))).thenThrow(
+                        new IllegalStateException("test"));
+
+        assertTrue(changer.changeToEndStatus("0000000001", success()));
+
+        assertEquals(Level.ERROR, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[EAL025072] Failed to release successor jobs. They will be found by the next polling. jobSequenceId:0000000001",
+                logger.getLoggingEvents().get(0).getMessage());
+        verify(mockFinder, never()).release(anyListOf(String.class));
+    }
+
+    private BLogicResult success() {
+        BLogicResult blogicResult = new BLogicResult();
+        blogicResult.setBlogicStatus(0);
+        return blogicResult;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * InMemoryJobJournalのテストケースクラス
+ */
+public class InMemoryJobJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            InMemoryJobJournal.class);
+
+    /**
+     * テスト後処理：ロガーのクリアを行う。
+     */
+    @After
+    public void tearDown() {
+        logger.clear();
+    }
+
+    /**
+     * コンストラクタテスト 【異常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・fileにNullを指定した場合、IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testInMemoryJobJournal01() {
+        try {
+            new InMemoryJobJournal(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - InMemoryJobJournal requires to set file. please confirm the settings.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * recoverテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・ジャーナルファイルが存在しないこと
+     * 確認項目
+     * ・空のリストが返却され、ジャーナルファイルが作成されること
+     * </pre>
+     */
+    @Test
+    public void testRecover01() {
+        File file = new File(temporaryFolder.getRoot(), "sub/jobs.journal");
+        InMemoryJobJournal journal = new InMemoryJobJournal(file);
+
+        assertTrue(journal.recover().isEmpty());
+        journal.close();
+
+        assertTrue(file.exists());
+    }
+
+    /**
+     * recoverテスト 【正常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・終了していないジョブのみがジョブ引数と優先度を含めて復元されること
+     * ・タブ、改行、バックスラッシュ、nullを含むジョブ引数が復元されること
+     * ・書き直したジャーナルから再度復元できること
+     * </pre>
+     */
+    @Test
+    public void testRecover02() {
+        File file = new File(temporaryFolder.getRoot(), "jobs.journal");
+        InMemoryJobJournal journal = new InMemoryJobJournal(file);
+        journal.recover();
+        BatchJobData job1 = job("0000000001", "B000001");
+        job1.setJobArgNm1("a\tb\nc\\d\re");
+        job1.setJobArgNm20("z");
+        journal.appendSubmit(job1, 3);
+        journal.appendSubmit(job("0000000002", "B000002"), 0);
+        journal.appendStart("0000000001");
+        journal.appendStart("0000000002");
+        journal.appendEnd("0000000002");
+        journal.close();
+
+        for (int i = 0; i < 2; i++) {
+            journal = new InMemoryJobJournal(file);
+            List<InMemoryJobJournal.Entry> entries = journal.recover();
+            journal.close();
+
+            assertEquals(1, entries.size());
+            BatchJobData recovered = entries.get(0).getBatchJobData();
+            assertEquals(3, entries.get(0).getPriority());
+            assertEquals("0000000001", recovered.getJobSequenceId());
+            assertEquals("B000001", recovered.getJobAppCd());
+            assertEquals("a\tb\nc\\d\re", recovered.getJobArgNm1());
+            assertNull(recovered.getJobArgNm2());
+            assertEquals("z", recovered.getJobArgNm20());
+        }
+    }
+
+    /**
+     * recoverテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・ジャーナルの末尾が書き込み途中で途切れていること
+     * 確認項目
+     * ・途切れた行が無視され、[WAL025013]のログが出力されること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testRecover03() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "jobs.journal");
+        InMemoryJobJournal journal = new InMemoryJobJournal(file);
+        journal.recover();
+        journal.appendSubmit(job("0000000001", "B000001"), 0);
+        journal.close();
+        OutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write("S\t0000000002\t0\tB0".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        journal = new InMemoryJobJournal(file);
+        List<InMemoryJobJournal.Entry> entries = journal.recover();
+        journal.close();
+
+        assertEquals(1, entries.size());
+        assertEquals("[WAL025013] Ignored a broken record in the in-memory job journal. journal:"
+                + file + " lineNumber:2", logger.getLoggingEvents().get(0)
+                        .getMessage());
+    }
+
+    /**
+     * recoverテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・書き直しの名前の変更前に異常終了し、ジャーナルが存在せず一時ファイルのみが存在すること
+     * 確認項目
+     * ・一時ファイルから終了していないジョブが復元され、ジャーナルが書き直されること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testRecover04() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "jobs.journal");
+        File tempFile = new File(temporaryFolder.getRoot(), "jobs.journal.tmp");
+        InMemoryJobJournal journal = new InMemoryJobJournal(file);
+        journal.recover();
+        journal.appendSubmit(job("0000000001", "B000001"), 2);
+        journal.close();
+        Files.move(file.toPath(), tempFile.toPath());
+
+        journal = new InMemoryJobJournal(file);
+        List<InMemoryJobJournal.Entry> entries = journal.recover();
+        journal.close();
+
+        assertEquals(1, entries.size());
+        assertEquals("0000000001", entries.get(0).getBatchJobData()
+                .getJobSequenceId());
+        assertEquals(2, entries.get(0).getPriority());
+        assertTrue(file.exists());
+        assertFalse(tempFile.exists());
+        assertEquals(1, readLines(file).size());
+    }
+
+    /**
+     * appendStartテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・recoverを呼び出していないこと
+     * 確認項目
+     * ・IllegalStateExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testAppendStart01() {
+        File file = new File(temporaryFolder.getRoot(), "jobs.journal");
+        InMemoryJobJournal journal = new InMemoryJobJournal(file);
+        try {
+            journal.appendStart("0000000001");
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("[EAL025070] Failed to access the in-memory job journal. journal:"
+                    + file, e.getMessage());
+        }
+    }
+
+    /**
+     * appendEndテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・compactThresholdに2を設定すること
+     * 確認項目
+     * ・終了したジョブ数が閾値に達した時点で、終了していないジョブの登録のみを含むファイルに書き直されること
+     * ・書き直した後も追記が継続され、終了していないジョブが復元できること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testAppendEnd01() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "jobs.journal");
+        InMemoryJobJournal journal = new InMemoryJobJournal(file);
+        journal.setCompactThreshold(2);
+        journal.recover();
+        journal.appendSubmit(job("0000000001", "B000001"), 0);
+        journal.appendSubmit(job("0000000002", "B000002"), 0);
+        journal.appendSubmit(job("0000000003", "B000003"), 0);
+        journal.appendStart("0000000001");
+        journal.appendEnd("0000000001");
+        assertEquals(1, journal.getEndedCount());
+        assertEquals(5, readLines(file).size());
+
+        journal.appendStart("0000000002");
+        journal.appendEnd("0000000002");
+        assertEquals(0, journal.getEndedCount());
+        List<String> lines = readLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("0000000003"));
+        assertEquals(
+                "[DAL025064] Compacted the in-memory job journal. journal:"
+                        + file + " pending:1 ended:2", logger
+                                .getLoggingEvents().get(0).getMessage());
+
+        journal.appendSubmit(job("0000000004", "B000004"), 1);
+        journal.close();
+
+        journal = new InMemoryJobJournal(file);
+        List<InMemoryJobJournal.Entry> entries = journal.recover();
+        journal.close();
+        assertEquals(2, entries.size());
+        assertEquals("0000000003", entries.get(0).getBatchJobData()
+                .getJobSequenceId());
+        assertEquals("0000000004", entries.get(1).getBatchJobData()
+                .getJobSequenceId());
+        assertEquals(1, entries.get(1).getPriority());
+    }
+
+    private List<String> readLines(File file) throws Exception {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    private BatchJobData job(String jobSequenceId, String jobAppCd) {
+        BatchJobData batchJobData = new BatchJobData();
+        batchJobData.setJobSequenceId(jobSequenceId);
+        batchJobData.setJobAppCd(jobAppCd);
+        return batchJobData;
+    }
+}
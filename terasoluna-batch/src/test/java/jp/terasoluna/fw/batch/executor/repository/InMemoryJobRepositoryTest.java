@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jp.terasoluna.fw.batch.constants.JobStatusConstants;
+import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobListResult;
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.LoggingEvent;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * InMemoryJobRepositoryのテストケースクラス
+ */
+public class InMemoryJobRepositoryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            InMemoryJobRepository.class);
+
+    private InMemoryJobRepository repository = new InMemoryJobRepository();
+
+    /**
+     * テスト後処理：ジャーナルのクローズとロガーのクリアを行う。
+     */
+    @After
+    public void tearDown() {
+        repository.destroy();
+        logger.clear();
+    }
+
+    /**
+     * submitテスト 【正常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・ジョブシーケンスコードが採番され、未実施として登録されること
+     * ・優先度の高い順、同じ優先度では登録順に払い出されること
+     * ・実行待ちのジョブがない場合はnullが返却されること
+     * </pre>
+     */
+    @Test
+    public void testSubmit01() {
+        repository.setPollTimeout(0L);
+        assertEquals("0000000001", repository.submit(job("B000001")));
+        assertEquals("0000000002", repository.submit(job("B000002"), 5));
+        assertEquals("0000000003", repository.submit(job("B000003")));
+
+        BatchJobData batchJobData = repository.resolveBatchJobData(
+                "0000000001");
+        assertEquals("B000001", batchJobData.getJobAppCd());
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, batchJobData
+                .getCurAppStatus());
+        assertEquals(3, repository.getQueuedCount());
+
+        assertEquals("0000000002", pollAndStart());
+        assertEquals("0000000001", pollAndStart());
+        assertEquals("0000000003", pollAndStart());
+        assertNull(repository.resolveBatchJobResult(null));
+        assertEquals(3, repository.getActiveCount());
+    }
+
+    /**
+     * submitテスト 【異常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・ジョブ業務コードが未設定の場合、IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testSubmit02() {
+        try {
+            repository.submit(new BatchJobData());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The jobAppCd is empty.", e.getMessage());
+        }
+        assertEquals(0, repository.getQueuedCount());
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・待ち受け中に登録されたジョブが払い出されること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testResolveBatchJobResult01() throws Exception {
+        repository.setPollTimeout(5000L);
+        Thread submitter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100L);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                repository.submit(job("B000001"));
+            }
+        };
+        submitter.start();
+
+        BatchJobListResult result = repository.resolveBatchJobResult(null);
+        submitter.join();
+
+        assertEquals("0000000001", result.getJobSequenceId());
+    }
+
+    /**
+     * changeToStartStatus/changeToEndStatusテスト 【正常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・未実施→実行中→処理済みの順に変更できること
+     * ・同じジョブを二重に開始できないこと
+     * ・処理済みのジョブはメモリから削除されること
+     * </pre>
+     */
+    @Test
+    public void testChangeStatus01() {
+        String jobSequenceId = repository.submit(job("B000001"));
+
+        assertFalse(repository.changeToEndStatus(jobSequenceId,
+                new BLogicResult()));
+        assertTrue(repository.changeToStartStatus(jobSequenceId));
+        assertFalse(repository.changeToStartStatus(jobSequenceId));
+        assertEquals(JobStatusConstants.JOB_STATUS_EXECUTING, repository
+                .resolveBatchJobData(jobSequenceId).getCurAppStatus());
+
+        BLogicResult blogicResult = new BLogicResult();
+        blogicResult.setBlogicStatus(255);
+        BatchJobData batchJobData = repository.resolveBatchJobData(
+                jobSequenceId);
+        assertTrue(repository.changeToEndStatus(jobSequenceId, blogicResult));
+
+        assertEquals(JobStatusConstants.JOB_STATUS_PROCESSED, batchJobData
+                .getCurAppStatus());
+        assertEquals("255", batchJobData.getBLogicAppStatus());
+        assertNull(repository.resolveBatchJobData(jobSequenceId));
+        assertEquals(0, repository.getActiveCount());
+    }
+
+    /**
+     * changeToStartStatusテスト 【異常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・登録されていないジョブの場合、falseが返却され[IAL025024]のログが出力されること
+     * </pre>
+     */
+    @Test
+    public void testChangeStatus02() {
+        assertFalse(repository.changeToStartStatus("0000000099"));
+        assertEquals(
+                "[IAL025024] This job has already been started by another. jobSequenceId:0000000099",
+                logger.getLoggingEvents().get(0).getMessage());
+    }
+
+    /**
+     * afterPropertiesSetテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・ジャーナルに処理済み、実行中、未実施のジョブが記録されていること
+     * 確認項目
+     * ・処理済みでないジョブが未実施として再登録されること
+     * ・ジョブシーケンスコードの採番が記録済みの値から継続すること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testAfterPropertiesSet01() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "jobs.journal");
+        repository.setJournal(new InMemoryJobJournal(file));
+        repository.setPollTimeout(0L);
+        repository.afterPropertiesSet();
+        String ended = repository.submit(job("B000001"));
+        String started = repository.submit(job("B000002"));
+        repository.submit(job("B000003"));
+        assertEquals(ended, pollAndStart());
+        assertEquals(started, pollAndStart());
+        repository.changeToEndStatus(ended, new BLogicResult());
+        repository.destroy();
+
+        // 再起動
+        repository = new InMemoryJobRepository();
+        repository.setJournal(new InMemoryJobJournal(file));
+        repository.setPollTimeout(0L);
+        repository.afterPropertiesSet();
+
+        assertEquals(
+                "[IAL025030] In-memory job journal recovered. journal:" + file
+                        + " requeued:2 nextJobSequenceId:0000000004",
+                logger.getLoggingEvents().get(logger.getLoggingEvents().size()
+                        - 1).getMessage());
+        assertNull(repository.resolveBatchJobData(ended));
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, repository
+                .resolveBatchJobData(started).getCurAppStatus());
+        assertEquals(started, pollAndStart());
+        assertEquals("0000000003", pollAndStart());
+        assertNull(repository.resolveBatchJobResult(null));
+        assertEquals("0000000004", repository.submit(job("B000004")));
+    }
+
+    /**
+     * resolveBatchJobResultテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・払い出したジョブが実行中に変更されないまま、次の払い出しが行われること
+     * 確認項目
+     * ・実行中に変更されなかったジョブが元の優先度で実行待ちに戻され、再度払い出されること
+     * ・WAL025014のログが出力されること
+     * ・実行中に変更したジョブは実行待ちに戻されないこと
+     * </pre>
+     */
+    @Test
+    public void testResolveBatchJobResult03() {
+        repository.setPollTimeout(0L);
+        String rejected = repository.submit(job("B000001"), 5);
+        String other = repository.submit(job("B000002"));
+
+        assertEquals(rejected, repository.resolveBatchJobResult(null)
+                .getJobSequenceId());
+        assertEquals(1, repository.getQueuedCount());
+        logger.clear();
+
+        assertEquals(rejected, pollAndStart());
+        assertEquals(
+                "[WAL025014] Requeued a job that was dispatched but not started. jobSequenceId:"
+                        + rejected, logger.getLoggingEvents().get(0)
+                                .getMessage());
+        logger.clear();
+        assertEquals(other, pollAndStart());
+        assertNull(repository.resolveBatchJobResult(null));
+        for (LoggingEvent event : logger.getLoggingEvents()) {
+            assertNotEquals(Level.WARN, event.getLevel());
+        }
+        assertEquals(0, repository.getQueuedCount());
+    }
+
+    /**
+     * changeToUnexecutionStatusテスト 【正常系】
+     *
+     * <pre>
+     * 確認項目
+     * ・実行中のジョブを未実施に戻せること
+     * ・未実施に戻したジョブが元の優先度で実行待ちに戻され、再度払い出されること
+     * ・実行中でないジョブは未実施に戻せないこと
+     * </pre>
+     */
+    @Test
+    public void testChangeToUnexecutionStatus01() {
+        repository.setPollTimeout(0L);
+        String reverted = repository.submit(job("B000001"), 5);
+        String other = repository.submit(job("B000002"));
+
+        assertEquals(reverted, pollAndStart());
+        assertTrue(repository.changeToUnexecutionStatus(reverted));
+        assertFalse(repository.changeToUnexecutionStatus(reverted));
+        assertFalse(repository.changeToUnexecutionStatus(other));
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, repository
+                .resolveBatchJobData(reverted).getCurAppStatus());
+        assertEquals(2, repository.getQueuedCount());
+
+        assertEquals(reverted, pollAndStart());
+        assertEquals(other, pollAndStart());
+        assertNull(repository.resolveBatchJobResult(null));
+    }
+
+    private String pollAndStart() {
+        BatchJobListResult result = repository.resolveBatchJobResult(null);
+        if (result == null) {
+            return null;
+        }
+        assertTrue(repository.changeToStartStatus(result.getJobSequenceId()));
+        return result.getJobSequenceId();
+    }
+
+    private BatchJobData job(String jobAppCd) {
+        BatchJobData batchJobData = new BatchJobData();
+        batchJobData.setJobAppCd(jobAppCd);
+        return batchJobData;
+    }
+}
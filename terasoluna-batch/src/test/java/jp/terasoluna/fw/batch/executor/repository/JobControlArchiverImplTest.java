@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import jp.terasoluna.fw.batch.constants.JobStatusConstants;
+import jp.terasoluna.fw.batch.executor.dao.JobArchiveDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobArchiveParam;
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * JobControlArchiverImplのテストケースクラス
+ */
+public class JobControlArchiverImplTest {
+
+    private static final long DAY = 24L * 60L * 60L * 1000L;
+
+    private SystemDao mockSystemDao = mock(SystemDao.class);
+
+    private JobArchiveDao mockJobArchiveDao = mock(JobArchiveDao.class);
+
+    private PlatformTransactionManager mockPlatformTransactionManager = mock(
+            PlatformTransactionManager.class);
+
+    private TransactionStatus mockTran = mock(TransactionStatus.class);
+
+    private JobControlArchiverImpl archiver;
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            JobControlArchiverImpl.class);
+
+    @Before
+    public void setUp() {
+        archiver = new JobControlArchiverImpl(mockSystemDao, mockPlatformTransactionManager, mockJobArchiveDao);
+        archiver.batchSize = 2;
+        when(mockPlatformTransactionManager.getTransaction(any(
+                DefaultTransactionDefinition.class))).thenReturn(mockTran);
+        when(mockSystemDao.readCurrentTime()).thenReturn(new Timestamp(10L
+                * DAY));
+    }
+
+    /**
+     * テスト後処理：ロガーのクリアを行う。
+     */
+    @After
+    public void tearDown() {
+        logger.clear();
+    }
+
+    /**
+     * コンストラクタテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・jobArchiveDaoにNullを指定する
+     * 確認項目
+     * ・IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testJobControlArchiverImpl01() {
+        try {
+            new JobControlArchiverImpl(mockSystemDao, mockPlatformTransactionManager, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - JobControlArchiverImpl requires to set jobArchiveDao. please confirm the settings.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * archiveテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・移動対象が3件(移動単位2件)
+     * 確認項目
+     * ・移動単位ごとにコミットされ、3が返却されること
+     * ・現在時刻から保存期間を差し引いた時刻より前の処理済みジョブが対象となること
+     * </pre>
+     */
+    @Test
+    public void testArchive01() {
+        when(mockJobArchiveDao.selectArchiveTargets(any(
+                BatchJobArchiveParam.class))).thenReturn(asList("0000000001",
+                        "0000000002"), asList("0000000003"));
+        when(mockJobArchiveDao.insertJobHistory(any(
+                BatchJobArchiveParam.class))).thenReturn(2, 1);
+        when(mockJobArchiveDao.deleteArchivedJobs(any(
+                BatchJobArchiveParam.class))).thenReturn(2, 1);
+        when(mockTran.isCompleted()).thenReturn(true);
+
+        assertEquals(3, archiver.archive());
+
+        ArgumentCaptor<BatchJobArchiveParam> param = ArgumentCaptor.forClass(
+                BatchJobArchiveParam.class);
+        verify(mockJobArchiveDao, times(2)).selectArchiveTargets(param
+                .capture());
+        assertEquals(2, param.getValue().getBatchSize());
+        assertEquals(JobStatusConstants.JOB_STATUS_PROCESSED, param.getValue()
+                .getCurAppStatus());
+        assertEquals(new Timestamp(3L * DAY), param.getValue()
+                .getThresholdTime());
+        verify(mockPlatformTransactionManager, times(2)).commit(mockTran);
+        verify(mockPlatformTransactionManager, never()).rollback(mockTran);
+        assertEquals("[IAL025031] Archived processed jobs to the history table. count:3 thresholdTime:"
+                + new Timestamp(3L * DAY), logger.getLoggingEvents().get(
+                        logger.getLoggingEvents().size() - 1).getMessage());
+    }
+
+    /**
+     * archiveテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・移動対象が0件
+     * 確認項目
+     * ・0が返却され、登録・削除が行われないこと
+     * </pre>
+     */
+    @Test
+    public void testArchive02() {
+        when(mockJobArchiveDao.selectArchiveTargets(any(
+                BatchJobArchiveParam.class))).thenReturn(Collections
+                        .<String> emptyList());
+        when(mockTran.isCompleted()).thenReturn(true);
+
+        assertEquals(0, archiver.archive());
+
+        verify(mockJobArchiveDao, never()).insertJobHistory(any(
+                BatchJobArchiveParam.class));
+        verify(mockPlatformTransactionManager).commit(mockTran);
+    }
+
+    /**
+     * archiveテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・削除件数が対象件数と一致しない
+     * 確認項目
+     * ・[EAL025071]のログが出力され、ロールバックされて移動を終了すること
+     * </pre>
+     */
+    @Test
+    public void testArchive03() {
+        when(mockJobArchiveDao.selectArchiveTargets(any(
+                BatchJobArchiveParam.class))).thenReturn(asList("0000000001",
+                        "0000000002"));
+        when(mockJobArchiveDao.insertJobHistory(any(
+                BatchJobArchiveParam.class))).thenReturn(2);
+        when(mockJobArchiveDao.deleteArchivedJobs(any(
+                BatchJobArchiveParam.class))).thenReturn(1);
+
+        assertEquals(0, archiver.archive());
+
+        assertEquals(Level.ERROR, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[EAL025071] The number of archived jobs does not match, so the batch was rolled back. selected:2 inserted:2 deleted:1",
+                logger.getLoggingEvents().get(0).getMessage());
+        verify(mockPlatformTransactionManager).rollback(mockTran);
+        verify(mockPlatformTransactionManager, never()).commit(mockTran);
+    }
+
+    /**
+     * archiveテスト 【正常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・H2データベースのジョブ管理テーブルに、保存期間を過ぎた処理済み、保存期間内の処理済み、保存期間を過ぎた未実施のジョブがあること
+     * 確認項目
+     * ・移動対象が更新日時の古い順に、移動単位の件数まで取得されること
+     * ・保存期間を過ぎた処理済みのジョブのみが履歴テーブルに移動すること
+     * </pre>
+     */
+    @Test
+    public void testArchive04() {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+                "beansDef/AdminDataSource.xml");
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(
+                    "adminDataSource", javax.sql.DataSource.class));
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_HISTORY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+            String insert = "INSERT INTO JOB_CONTROL (JOB_SEQ_ID, JOB_APP_CD, JOB_ARG_NM1, CUR_APP_STATUS, BLOGIC_APP_STATUS, ADD_DATE_TIME, UPD_DATE_TIME)"
+                    + " VALUES (?, 'B000001', ?, ?, '0', CURRENT_TIMESTAMP, DATEADD('DAY', ?, CURRENT_TIMESTAMP))";
+            jdbcTemplate.update(insert, "0000000001", "old1", "2", -30);
+            jdbcTemplate.update(insert, "0000000002", "old2", "2", -8);
+            jdbcTemplate.update(insert, "0000000003", "new", "2", -1);
+            jdbcTemplate.update(insert, "0000000004", "waiting", "0", -30);
+            jdbcTemplate.update(insert, "0000000005", "old3", "2", -9);
+
+            JobControlArchiverImpl h2Archiver = new JobControlArchiverImpl(context
+                    .getBean("systemDao", SystemDao.class), context.getBean(
+                            "adminTransactionManager",
+                            PlatformTransactionManager.class), context
+                                    .getBean("jobArchiveDao",
+                                            JobArchiveDao.class));
+            h2Archiver.batchSize = 2;
+
+            BatchJobArchiveParam param = new BatchJobArchiveParam();
+            param.setCurAppStatus(JobStatusConstants.JOB_STATUS_PROCESSED);
+            param.setThresholdTime(h2Archiver.thresholdTime(context.getBean(
+                    "systemDao", SystemDao.class).readCurrentTime()));
+            param.setBatchSize(2);
+            assertEquals(asList("0000000001", "0000000005"), context.getBean(
+                    "jobArchiveDao", JobArchiveDao.class).selectArchiveTargets(
+                            param));
+
+            assertEquals(3, h2Archiver.archive());
+
+            assertEquals(asList("0000000003", "0000000004"), jdbcTemplate
+                    .queryForList(
+                            "SELECT JOB_SEQ_ID FROM JOB_CONTROL ORDER BY JOB_SEQ_ID",
+                            String.class));
+            assertEquals(asList("old1", "old2", "old3"), jdbcTemplate
+                    .queryForList(
+                            "SELECT JOB_ARG_NM1 FROM JOB_CONTROL_HISTORY WHERE ARCHIVE_DATE_TIME IS NOT NULL ORDER BY JOB_SEQ_ID",
+                            String.class));
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL_HISTORY");
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * archiveテスト 【異常系】
+     *
+     * <pre>
+     * 事前条件
+     * ・batchSizeにOracleのIN句の要素数の上限(1000)を超える値を指定する
+     * 確認項目
+     * ・IllegalArgumentExceptionが発生し、移動対象が取得されないこと
+     * </pre>
+     */
+    @Test
+    public void testArchive05() {
+        archiver.batchSize = 1001;
+        try {
+            archiver.archive();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - JobControlArchiverImpl requires to set jobControlArchive.batchSize. please confirm the settings.",
+                    e.getMessage());
+        }
+        verify(mockJobArchiveDao, never()).selectArchiveTargets(any(
+                BatchJobArchiveParam.class));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * 実行対象ジョブの検索時間とジョブ管理テーブルの件数の関係を計測するベンチマーク。<br>
+ * <p>
+ * H2のインメモリデータベースに、指定件数の処理済みジョブと100件の未実施ジョブを登録し、
+ * {@code SystemDao#selectJobList}と同じ条件で先頭1件を検索する時間の中央値を次の3通りで計測する。
+ * <ul>
+ * <li>インデックスなし</li>
+ * <li>(CUR_APP_STATUS, JOB_SEQ_ID)のインデックスあり</li>
+ * <li>処理済みジョブを履歴テーブルに移動した後({@code JobControlArchiverImpl}の実行後に相当)</li>
+ * </ul>
+ * H2は部分インデックスに対応していないため、PostgreSQLの部分インデックスやOracleのファンクション索引の効果は、
+ * 処理済みジョブを除いた後の計測値を目安とする。
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数に処理済みジョブの件数を空白区切りで指定して実行する。
+ * 省略時は10000 100000 1000000件で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:(h2のjar) \
+ *     jp.terasoluna.fw.batch.executor.repository.JobControlDispatchBenchmark 10000 100000
+ * </pre>
+ */
+public class JobControlDispatchBenchmark {
+
+    private static final String DISPATCH_SQL = "SELECT A.JOB_SEQ_ID FROM JOB_CONTROL A"
+            + " WHERE (A.CUR_APP_STATUS = ?) ORDER BY A.CUR_APP_STATUS DESC, A.JOB_SEQ_ID LIMIT 1";
+
+    private static final int UNPROCESSED_COUNT = 100;
+
+    private static final int ITERATIONS = 50;
+
+    /**
+     * ベンチマークを実行する。
+     * @param args 処理済みジョブの件数
+     * @throws Exception 予期しない例外
+     */
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length == 0 ? new int[] { 10000, 100000, 1000000 }
+                : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        Class.forName("org.h2.Driver");
+        System.out.println(String.format("%12s %16s %16s %16s", "processed",
+                "no index (us)", "index (us)", "archived (us)"));
+        for (int size : sizes) {
+            Connection conn = DriverManager.getConnection(
+                    "jdbc:h2:mem:dispatchBenchmark" + size
+                            + ";OPTIMIZE_REUSE_RESULTS=0", "sa", "");
+            try {
+                setUp(conn, size);
+                long noIndex = measure(conn);
+                execute(conn,
+                        "CREATE INDEX IDX_JOB_CONTROL_DISPATCH ON JOB_CONTROL (CUR_APP_STATUS, JOB_SEQ_ID)");
+                long index = measure(conn);
+                execute(conn, "DELETE FROM JOB_CONTROL WHERE CUR_APP_STATUS = '2'");
+                long archived = measure(conn);
+                System.out.println(String.format("%12d %16d %16d %16d", size,
+                        noIndex, index, archived));
+            } finally {
+                conn.close();
+            }
+        }
+    }
+
+    private static void setUp(Connection conn, int processedCount)
+            throws SQLException {
+        execute(conn, "CREATE TABLE JOB_CONTROL (JOB_SEQ_ID VARCHAR(10) PRIMARY KEY,"
+                + " JOB_APP_CD VARCHAR(10), CUR_APP_STATUS VARCHAR(1), UPD_DATE_TIME TIMESTAMP)");
+        conn.setAutoCommit(false);
+        PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO JOB_CONTROL VALUES (?, 'B000001', ?, CURRENT_TIMESTAMP)");
+        try {
+            int total = processedCount + UNPROCESSED_COUNT;
+            for (int i = 1; i <= total; i++) {
+                ps.setString(1, String.format("%010d", i));
+                ps.setString(2, i <= processedCount ? "2" : "0");
+                ps.addBatch();
+                if (i % 10000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        } finally {
+            ps.close();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static long measure(Connection conn) throws SQLException {
+        long[] elapsed = new long[ITERATIONS];
+        PreparedStatement ps = conn.prepareStatement(DISPATCH_SQL);
+        try {
+            ps.setString(1, "0");
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                ResultSet rs = ps.executeQuery();
+                try {
+                    rs.next();
+                } finally {
+                    rs.close();
+                }
+                elapsed[i] = System.nanoTime() - start;
+            }
+        } finally {
+            ps.close();
+        }
+        Arrays.sort(elapsed);
+        return elapsed[ITERATIONS / 2] / 1000L;
+    }
+
+    private static void execute(Connection conn, String sql)
+            throws SQLException {
+        Statement st = conn.createStatement();
+        try {
+            st.execute(sql);
+        } finally {
+            st.close();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import static uk.org.lidalia.slf4jtest.LoggingEvent.*;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
@@ -921,4 +922,93 @@ public class JobStatusChangerImplTest {
         verify(mockPlatformTransactionManager).rollback(mockTran);
     }
 
+    /**
+     * changeToUnexecutionStatusテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・有効なジョブシーケンスIDが渡されること
+     * ・ジョブのステータスがJOB_STATUS_EXECUTINGであること
+     * 確認項目
+     * ・trueが返却されること
+     * ・ジョブステータスがJOB_STATUS_UNEXECUTIONに更新されること
+     * ・PlatformTransactionManager#commit()が呼び出されること
+     * </pre>
+     */
+    @Test
+    public void testChangeToUnexecutionStatus01() {
+        // テスト入力データ設定
+        TransactionStatus mockTran = mock(TransactionStatus.class);
+
+        when(mockPlatformTransactionManager.getTransaction(any(
+                DefaultTransactionDefinition.class))).thenReturn(mockTran);
+        when(mockSystemDao.selectJob(any(BatchJobManagementParam.class)))
+                .thenReturn(new BatchJobData() {
+                    {
+                        setJobSequenceId("00000001");
+                        setCurAppStatus(
+                                JobStatusConstants.JOB_STATUS_EXECUTING);
+                    }
+                });
+        when(mockSystemDao.updateJobTable(any(
+                BatchJobManagementUpdateParam.class))).thenReturn(1);
+        when(mockTran.isCompleted()).thenReturn(true);
+
+        // テスト実行
+        // 結果検証
+        assertTrue(((RevertibleJobStatusChanger) jobStatusChanger)
+                .changeToUnexecutionStatus("00000001"));
+        assertThat(logger.getLoggingEvents(), is(asList(debug(
+                "[DAL025023] Try to update status jobSequenceId:00000001 changeStatus:0"))));
+        ArgumentCaptor<BatchJobManagementUpdateParam> captor = ArgumentCaptor
+                .forClass(BatchJobManagementUpdateParam.class);
+        verify(mockSystemDao).updateJobTable(captor.capture());
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, captor
+                .getValue().getCurAppStatus());
+        verify(mockPlatformTransactionManager).commit(mockTran);
+        verify(mockPlatformTransactionManager, never()).rollback(mockTran);
+    }
+
+    /**
+     * changeToUnexecutionStatusテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・有効なジョブシーケンスIDが渡されること
+     * ・ジョブのステータスがJOB_STATUS_EXECUTINGではないこと
+     * 確認項目
+     * ・falseが返却されること
+     * ・[DAL025055]、[IAL025023]のログが出力されること
+     * ・PlatformTransactionManager#rollback()が呼び出されること
+     * </pre>
+     */
+    @Test
+    public void testChangeToUnexecutionStatus02() {
+        // テスト入力データ設定
+        TransactionStatus mockTran = mock(TransactionStatus.class);
+
+        when(mockPlatformTransactionManager.getTransaction(any(
+                DefaultTransactionDefinition.class))).thenReturn(mockTran);
+        when(mockSystemDao.selectJob(any(BatchJobManagementParam.class)))
+                .thenReturn(new BatchJobData() {
+                    {
+                        setJobSequenceId("00000001");
+                        setCurAppStatus(
+                                JobStatusConstants.JOB_STATUS_PROCESSED);
+                    }
+                });
+
+        // テスト実行
+        // 結果検証
+        assertFalse(((RevertibleJobStatusChanger) jobStatusChanger)
+                .changeToUnexecutionStatus("00000001"));
+        assertThat(logger.getLoggingEvents(), is(asList(debug(
+                "[DAL025055] This job status at the job control table is already updated by another worker. It will be skip. jobSequenceId:00000001 expectedCurAppStatus:1 actualCurAppStatus:2 changeTo:0"),
+                info("[IAL025023] Skipped processing of updating the job status. This transaction will be attempt to roll-back. jobSequenceId:00000001"))));
+        verify(mockSystemDao, never()).updateJobTable(any(
+                BatchJobManagementUpdateParam.class));
+        verify(mockPlatformTransactionManager).rollback(mockTran);
+        verify(mockPlatformTransactionManager, never()).commit(mockTran);
+    }
+
 }
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.batch.executor.repository;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Timestamp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import jp.terasoluna.fw.batch.constants.JobStatusConstants;
+import jp.terasoluna.fw.batch.executor.dao.JobLeaseDao;
+import jp.terasoluna.fw.batch.executor.dao.SystemDao;
+import jp.terasoluna.fw.batch.executor.vo.BLogicResult;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobData;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobLeaseParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobManagementParam;
+import jp.terasoluna.fw.batch.executor.vo.BatchJobManagementUpdateParam;
+import uk.org.lidalia.slf4jext.Level;
+import uk.org.lidalia.slf4jtest.TestLogger;
+import uk.org.lidalia.slf4jtest.TestLoggerFactory;
+
+/**
+ * LeaseJobStatusChangerImplのテストケースクラス
+ */
+public class LeaseJobStatusChangerImplTest {
+
+    private SystemDao mockSystemDao = mock(SystemDao.class);
+
+    private JobLeaseDao mockJobLeaseDao = mock(JobLeaseDao.class);
+
+    private PlatformTransactionManager mockPlatformTransactionManager = mock(
+            PlatformTransactionManager.class);
+
+    private TransactionStatus mockTran = mock(TransactionStatus.class);
+
+    private LeaseJobStatusChangerImpl jobStatusChanger;
+
+    private TestLogger logger = TestLoggerFactory.getTestLogger(
+            LeaseJobStatusChangerImpl.class);
+
+    @Before
+    public void setUp() {
+        Mockito.reset(mockSystemDao, mockJobLeaseDao,
+                mockPlatformTransactionManager, mockTran);
+        jobStatusChanger = new LeaseJobStatusChangerImpl(mockSystemDao, mockPlatformTransactionManager, mockJobLeaseDao);
+        jobStatusChanger.leaseOwner = "node01";
+        when(mockPlatformTransactionManager.getTransaction(any(
+                DefaultTransactionDefinition.class))).thenReturn(mockTran);
+        when(mockSystemDao.readCurrentTime()).thenReturn(new Timestamp(1000L));
+    }
+
+    /**
+     * テスト後処理：ハートビートの停止とロガーのクリアを行う。
+     */
+    @After
+    public void tearDown() {
+        jobStatusChanger.destroy();
+        logger.clear();
+    }
+
+    /**
+     * コンストラクタテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・jobLeaseDaoにNullを指定する
+     * 確認項目
+     * ・IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testLeaseJobStatusChangerImpl01() {
+        try {
+            new LeaseJobStatusChangerImpl(mockSystemDao, mockPlatformTransactionManager, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025056] [Assertion failed] - LeaseJobStatusChangerImpl requires to set jobLeaseDao. please confirm the settings.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * changeToStartStatusテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・ジョブのステータスがJOB_STATUS_UNEXECUTIONであること
+     * 確認項目
+     * ・trueが返却されること
+     * ・リース所有者とリース期限(現在時刻+リースの有効期間)でリースを取得すること
+     * ・PlatformTransactionManager#commit()が呼び出されること
+     * </pre>
+     */
+    @Test
+    public void testChangeToStartStatus01() {
+        // テスト入力データ設定
+        setUpJob(JobStatusConstants.JOB_STATUS_UNEXECUTION);
+        when(mockJobLeaseDao.acquireJobLease(any(BatchJobLeaseParam.class)))
+                .thenReturn(1);
+        when(mockTran.isCompleted()).thenReturn(true);
+
+        // テスト実行
+        assertTrue(jobStatusChanger.changeToStartStatus("00000001"));
+
+        // 結果検証
+        ArgumentCaptor<BatchJobLeaseParam> captor = ArgumentCaptor.forClass(
+                BatchJobLeaseParam.class);
+        verify(mockJobLeaseDao).acquireJobLease(captor.capture());
+        assertEquals("00000001", captor.getValue().getJobSequenceId());
+        assertEquals("node01", captor.getValue().getLeaseOwner());
+        assertEquals(new Timestamp(61000L), captor.getValue()
+                .getLeaseExpireTime());
+        verify(mockPlatformTransactionManager).commit(mockTran);
+        verify(mockPlatformTransactionManager, never()).rollback(mockTran);
+    }
+
+    /**
+     * changeToStartStatusテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・リースの取得件数が0件であること
+     * 確認項目
+     * ・falseが返却されること
+     * ・[EAL025065]のログが出力されること
+     * ・ステータス更新がロールバックされること
+     * </pre>
+     */
+    @Test
+    public void testChangeToStartStatus02() {
+        // テスト入力データ設定
+        setUpJob(JobStatusConstants.JOB_STATUS_UNEXECUTION);
+        when(mockJobLeaseDao.acquireJobLease(any(BatchJobLeaseParam.class)))
+                .thenReturn(0);
+
+        // テスト実行
+        assertFalse(jobStatusChanger.changeToStartStatus("00000001"));
+
+        // 結果検証
+        assertEquals(Level.ERROR, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[EAL025065] Failed to acquire the job lease. jobSequenceId:00000001 leaseOwner:node01",
+                logger.getLoggingEvents().get(0).getMessage());
+        verify(mockPlatformTransactionManager).rollback(mockTran);
+        verify(mockPlatformTransactionManager, never()).commit(mockTran);
+    }
+
+    /**
+     * changeToEndStatusテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・ジョブのステータスがJOB_STATUS_EXECUTINGであること
+     * 確認項目
+     * ・trueが返却されること
+     * ・リースを取得せず、リース所有者と実行中のステータスを条件にリースを解放すること
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus01() {
+        // テスト入力データ設定
+        setUpJob(JobStatusConstants.JOB_STATUS_EXECUTING);
+        when(mockJobLeaseDao.releaseJobLease(any(BatchJobLeaseParam.class)))
+                .thenReturn(1);
+        when(mockTran.isCompleted()).thenReturn(true);
+        BLogicResult result = new BLogicResult();
+        result.setBlogicStatus(0);
+
+        // テスト実行
+        assertTrue(jobStatusChanger.changeToEndStatus("00000001", result));
+
+        // 結果検証
+        verify(mockJobLeaseDao, never()).acquireJobLease(any(
+                BatchJobLeaseParam.class));
+        ArgumentCaptor<BatchJobLeaseParam> captor = ArgumentCaptor.forClass(
+                BatchJobLeaseParam.class);
+        verify(mockJobLeaseDao).releaseJobLease(captor.capture());
+        assertEquals("00000001", captor.getValue().getJobSequenceId());
+        assertEquals("node01", captor.getValue().getLeaseOwner());
+        assertEquals(JobStatusConstants.JOB_STATUS_EXECUTING, captor
+                .getValue().getCurAppStatus());
+        verify(mockSystemDao).updateJobTable(any(
+                BatchJobManagementUpdateParam.class));
+        verify(mockPlatformTransactionManager).commit(mockTran);
+    }
+
+    /**
+     * changeToEndStatusテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・ジョブのステータスがJOB_STATUS_EXECUTINGであること
+     * ・リースが他のノードに保持されており、解放件数が0件であること
+     * 確認項目
+     * ・falseが返却されること
+     * ・[EAL025073]のログが出力されること
+     * ・ステータスを更新せずにロールバックされること
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus02() {
+        // テスト入力データ設定
+        setUpJob(JobStatusConstants.JOB_STATUS_EXECUTING);
+        when(mockJobLeaseDao.releaseJobLease(any(BatchJobLeaseParam.class)))
+                .thenReturn(0);
+        BLogicResult result = new BLogicResult();
+        result.setBlogicStatus(0);
+
+        // テスト実行
+        assertFalse(jobStatusChanger.changeToEndStatus("00000001", result));
+
+        // 結果検証
+        assertEquals(Level.ERROR, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[EAL025073] Failed to release the job lease because the job is not leased by this owner. jobSequenceId:00000001 leaseOwner:node01",
+                logger.getLoggingEvents().get(0).getMessage());
+        verify(mockSystemDao, never()).updateJobTable(any(
+                BatchJobManagementUpdateParam.class));
+        verify(mockPlatformTransactionManager).rollback(mockTran);
+        verify(mockPlatformTransactionManager, never()).commit(mockTran);
+    }
+
+    /**
+     * changeToEndStatusテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・H2データベースのジョブ管理テーブルで、ノード1が実行中にしたジョブのリースが期限切れとなっていること
+     * ・ノード2のハートビートでジョブが回収され、ノード2が再度実行中にしたこと
+     * 確認項目
+     * ・ノード1の終了ステータスへの更新が拒否され、ジョブはノード2の実行中のままであること
+     * ・ノード2の終了ステータスへの更新は成功し、リース所有者とリース期限がクリアされること
+     * </pre>
+     */
+    @Test
+    public void testChangeToEndStatus03() {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+                "beansDef/AdminDataSource.xml");
+        LeaseJobStatusChangerImpl node1 = null;
+        LeaseJobStatusChangerImpl node2 = null;
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(
+                    "adminDataSource", javax.sql.DataSource.class));
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+            jdbcTemplate.update(
+                    "INSERT INTO JOB_CONTROL (JOB_SEQ_ID, JOB_APP_CD, CUR_APP_STATUS, BLOGIC_APP_STATUS, ADD_DATE_TIME, UPD_DATE_TIME)"
+                            + " VALUES ('0000000001', 'B000001', '0', '0', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            node1 = newH2JobStatusChanger(context, "node01");
+            node2 = newH2JobStatusChanger(context, "node02");
+            BLogicResult result = new BLogicResult();
+            result.setBlogicStatus(0);
+
+            assertTrue(node1.changeToStartStatus("0000000001"));
+            jdbcTemplate.update(
+                    "UPDATE JOB_CONTROL SET LEASE_EXPIRE_TIME = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP)");
+            node2.heartbeat();
+            assertTrue(node2.changeToStartStatus("0000000001"));
+
+            assertFalse(node1.changeToEndStatus("0000000001", result));
+            assertEquals("1", jdbcTemplate.queryForObject(
+                    "SELECT CUR_APP_STATUS FROM JOB_CONTROL", String.class));
+            assertEquals("node02", jdbcTemplate.queryForObject(
+                    "SELECT LEASE_OWNER FROM JOB_CONTROL", String.class));
+
+            assertTrue(node2.changeToEndStatus("0000000001", result));
+            assertEquals("2", jdbcTemplate.queryForObject(
+                    "SELECT CUR_APP_STATUS FROM JOB_CONTROL", String.class));
+            assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM JOB_CONTROL WHERE LEASE_OWNER IS NULL AND LEASE_EXPIRE_TIME IS NULL",
+                    Integer.class));
+            jdbcTemplate.update("DELETE FROM JOB_CONTROL");
+        } finally {
+            if (node1 != null) {
+                node1.destroy();
+            }
+            if (node2 != null) {
+                node2.destroy();
+            }
+            context.close();
+        }
+    }
+
+    /**
+     * heartbeatテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・期限切れのリースが2件あること
+     * 確認項目
+     * ・リース所有者単位でリースを延長すること
+     * ・実行中のまま期限切れとなったジョブを未実施に回収すること
+     * ・[WAL025011]のログが出力されること
+     * </pre>
+     */
+    @Test
+    public void testHeartbeat01() {
+        // テスト入力データ設定
+        when(mockJobLeaseDao.renewJobLeases(any(BatchJobLeaseParam.class)))
+                .thenReturn(3);
+        when(mockJobLeaseDao.reclaimExpiredJobLeases(any(
+                BatchJobLeaseParam.class))).thenReturn(2);
+        when(mockTran.isCompleted()).thenReturn(true);
+
+        // テスト実行
+        jobStatusChanger.heartbeat();
+
+        // 結果検証
+        ArgumentCaptor<BatchJobLeaseParam> renew = ArgumentCaptor.forClass(
+                BatchJobLeaseParam.class);
+        verify(mockJobLeaseDao).renewJobLeases(renew.capture());
+        assertEquals("node01", renew.getValue().getLeaseOwner());
+        assertEquals(new Timestamp(61000L), renew.getValue()
+                .getLeaseExpireTime());
+        assertEquals(JobStatusConstants.JOB_STATUS_EXECUTING, renew.getValue()
+                .getCurAppStatus());
+
+        ArgumentCaptor<BatchJobLeaseParam> reclaim = ArgumentCaptor.forClass(
+                BatchJobLeaseParam.class);
+        verify(mockJobLeaseDao).reclaimExpiredJobLeases(reclaim.capture());
+        assertEquals(new Timestamp(1000L), reclaim.getValue()
+                .getCurrentTime());
+        assertEquals(JobStatusConstants.JOB_STATUS_EXECUTING, reclaim
+                .getValue().getCurAppStatus());
+        assertEquals(JobStatusConstants.JOB_STATUS_UNEXECUTION, reclaim
+                .getValue().getReclaimAppStatus());
+
+        assertEquals(Level.WARN, logger.getLoggingEvents().get(1).getLevel());
+        assertEquals(
+                "[WAL025011] Reclaimed jobs whose lease has expired. count:2 reclaimAppStatus:0",
+                logger.getLoggingEvents().get(1).getMessage());
+        verify(mockPlatformTransactionManager).commit(mockTran);
+    }
+
+    /**
+     * heartbeatテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・リース延長時に例外が発生すること
+     * 確認項目
+     * ・例外がスローされないこと
+     * ・[EAL025066]のログが出力され、ロールバックされること
+     * </pre>
+     */
+    @Test
+    public void testHeartbeat02() {
+        // テスト入力データ設定
+        when(mockJobLeaseDao.renewJobLeases(any(BatchJobLeaseParam.class)))
+                .thenThrow(new IllegalStateException("test"));
+
+        // テスト実行
+        jobStatusChanger.heartbeat();
+
+        // 結果検証
+        assertEquals(Level.ERROR, logger.getLoggingEvents().get(0).getLevel());
+        assertEquals(
+                "[EAL025066] Failed to renew or reclaim job leases. leaseOwner:node01",
+                logger.getLoggingEvents().get(0).getMessage());
+        verify(mockJobLeaseDao, never()).reclaimExpiredJobLeases(any(
+                BatchJobLeaseParam.class));
+        verify(mockPlatformTransactionManager).rollback(mockTran);
+    }
+
+    /**
+     * afterPropertiesSetテスト 【正常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・リース所有者が未設定であること
+     * 確認項目
+     * ・JVMの名前がリース所有者となること
+     * ・ハートビートが定期的に実行されること
+     * </pre>
+     * @throws Exception 予期せぬ例外
+     */
+    @Test
+    public void testAfterPropertiesSet01() throws Exception {
+        jobStatusChanger.leaseOwner = "";
+        jobStatusChanger.leaseDuration = 300L;
+        jobStatusChanger.heartbeatInterval = 50L;
+        when(mockTran.isCompleted()).thenReturn(true);
+
+        jobStatusChanger.afterPropertiesSet();
+        Thread.sleep(300L);
+        jobStatusChanger.destroy();
+
+        assertEquals(java.lang.management.ManagementFactory.getRuntimeMXBean()
+                .getName(), jobStatusChanger.getLeaseOwner());
+        verify(mockJobLeaseDao, atLeast(2)).renewJobLeases(any(
+                BatchJobLeaseParam.class));
+    }
+
+    /**
+     * afterPropertiesSetテスト 【異常系】
+     * 
+     * <pre>
+     * 事前条件
+     * ・リースの有効期間がハートビートの間隔以下であること
+     * 確認項目
+     * ・IllegalArgumentExceptionが発生すること
+     * </pre>
+     */
+    @Test
+    public void testAfterPropertiesSet02() {
+        jobStatusChanger.leaseDuration = 20000L;
+        jobStatusChanger.heartbeatInterval = 20000L;
+        try {
+            jobStatusChanger.afterPropertiesSet();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "[EAL025067] Invalid job lease settings. leaseDuration:20,000 ms must be greater than leaseHeartbeatInterval:20,000 ms.",
+                    e.getMessage());
+        }
+    }
+
+    private LeaseJobStatusChangerImpl newH2JobStatusChanger(
+            ClassPathXmlApplicationContext context, String leaseOwner) {
+        LeaseJobStatusChangerImpl changer = new LeaseJobStatusChangerImpl(context
+                .getBean("systemDao", SystemDao.class), context.getBean(
+                        "adminTransactionManager",
+                        PlatformTransactionManager.class), context.getBean(
+                                "jobLeaseDao", JobLeaseDao.class));
+        changer.leaseOwner = leaseOwner;
+        return changer;
+    }
+
+    private void setUpJob(final String curAppStatus) {
+        when(mockSystemDao.selectJob(any(BatchJobManagementParam.class)))
+                .thenReturn(new BatchJobData() {
+                    {
+                        setJobSequenceId("00000001");
+                        setCurAppStatus(curAppStatus);
+                    }
+                });
+        when(mockSystemDao.updateJobTable(any(
+                BatchJobManagementUpdateParam.class))).thenReturn(1);
+    }
+}
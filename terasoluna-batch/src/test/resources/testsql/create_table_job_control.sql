@@ -26,6 +26,8 @@ CREATE TABLE IF NOT EXISTS job_control
   cur_app_status VARCHAR2(1),
   add_date_time timestamp,
   upd_date_time timestamp,
+  lease_owner VARCHAR2(100),
+  lease_expire_time timestamp,
   CONSTRAINT pk_job_control PRIMARY KEY (job_seq_id)
 );
 
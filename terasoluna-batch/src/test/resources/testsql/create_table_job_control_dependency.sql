@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS job_control_dependency
+(
+  job_seq_id VARCHAR2(10) NOT NULL,
+  predecessor_job_seq_id VARCHAR2(10) NOT NULL,
+  CONSTRAINT pk_job_control_dependency PRIMARY KEY (job_seq_id, predecessor_job_seq_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_control_dependency_pred
+  ON job_control_dependency (predecessor_job_seq_id);
@@ -19,6 +19,8 @@ package jp.terasoluna.fw.collector;
 import java.beans.Introspector;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Queue;
@@ -32,8 +34,8 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import jp.terasoluna.fw.collector.concurrent.ArrayBlockingQueueEx;
 import jp.terasoluna.fw.collector.concurrent.NotificationBlockingQueue;
+import jp.terasoluna.fw.collector.concurrent.SpscRingBlockingQueue;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
 import jp.terasoluna.fw.collector.validate.ValidateErrorStatus;
@@ -62,6 +64,9 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
     /** デフォルトのキューサイズ */
     public static final int DEFAULT_QUEUE_SIZE = 20;
 
+    /** デフォルトのチャンクサイズ(1件ずつキューに詰める) */
+    public static final int DEFAULT_CHUNK_SIZE = 1;
+
     /** デフォルトスリープ時間(msec) */
     protected static final int DEFAULT_SLEEP_WAIT = 1;
 
@@ -77,6 +82,9 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
     /** キューサイズ */
     protected int queueSize = DEFAULT_QUEUE_SIZE;
 
+    /** チャンクサイズ（キューの1要素にまとめるデータの件数） */
+    protected int chunkSize = DEFAULT_CHUNK_SIZE;
+
     /** スリープ時間(msec) */
     protected int sleepWait = DEFAULT_SLEEP_WAIT;
 
@@ -89,6 +97,12 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
     /** 後方キュー */
     protected Queue<DataValueObject> previousQueue = null;
 
+    /** キューに詰める前のチャンク（コレクタスレッド側で使用し、クローンと共有する） */
+    private DataValueChunk pendingChunk = null;
+
+    /** キューから取り出したチャンクの未処理データ（呼び出し元スレッド側で使用する） */
+    private Queue<DataValueObject> chunkRows = null;
+
     /** 非同期処理の結果を取得するためのクラス */
     protected volatile Future<?> fo = null;
 
@@ -110,6 +124,21 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
     /** 子スレッド側インスタンス */
     protected volatile AbstractCollector<?> child = null;
 
+    /** コレクタスレッドを実行するCollectorExecutor（nullの場合はコレクタごとにスレッドを生成する） */
+    protected CollectorExecutor collectorExecutor = null;
+
+    /** キューサイズの自動調整の設定（nullの場合はキューサイズ固定） */
+    protected AdaptiveQueueSizing adaptiveQueueSizing = null;
+
+    /** キューの容量の調整（コレクタスレッド側で使用し、クローンと共有する） */
+    private QueueSizeController queueSizeController = null;
+
+    /** キューの受け渡しの統計情報（クローンと共有する） */
+    private final CollectorStatistics statistics = new CollectorStatistics();
+
+    /** 統計情報のログ出力済みフラグ（呼び出し元スレッド側で使用する） */
+    private boolean statisticsLogged = false;
+
     /**
      * AbstractCollectorを実行する。
      */
@@ -127,6 +156,24 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
                     if (this.queue == null) {
                         // キュー生成
                         this.queue = createQueue();
+                        this.statistics.setQueueCapacity(this.queue.size()
+                                + this.queue.remainingCapacity());
+                    }
+
+                    if (this.adaptiveQueueSizing != null
+                            && this.queueSizeController == null
+                            && this.queue instanceof SpscRingBlockingQueue) {
+                        // クローンと共有するため、クローン作成前に生成する
+                        this.queueSizeController = new QueueSizeController(
+                                this.adaptiveQueueSizing,
+                                (SpscRingBlockingQueue<?>) this.queue,
+                                this.statistics, this.queueSize,
+                                this.chunkSize);
+                    }
+
+                    if (this.chunkSize > 1 && this.pendingChunk == null) {
+                        // クローンと共有するため、クローン作成前に生成する
+                        this.pendingChunk = new DataValueChunk(this.chunkSize);
                     }
 
                     if (this.fo == null) {
@@ -144,19 +191,32 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
                             this.child = (AbstractCollector<P>) callable;
                         }
 
-                        // ExecutorService取得
-                        ExecutorService ex = getExecutor();
-
-                        try {
-                            // 別スレッドで実行
-                            this.fo = ex.submit(callable);
-                        } catch (Exception e) {
-                            SystemException exception = new SystemException(e);
-                            exception
-                                    .setMessage("The thread cannot be started.");
-                            throw exception;
-                        } finally {
-                            ex.shutdown();
+                        if (this.collectorExecutor != null) {
+                            try {
+                                // 共有のスレッドで実行
+                                this.fo = this.collectorExecutor
+                                        .submit(callable);
+                            } catch (Exception e) {
+                                SystemException exception = new SystemException(e);
+                                exception
+                                        .setMessage("The thread cannot be started.");
+                                throw exception;
+                            }
+                        } else {
+                            // ExecutorService取得
+                            ExecutorService ex = getExecutor();
+
+                            try {
+                                // 別スレッドで実行
+                                this.fo = ex.submit(callable);
+                            } catch (Exception e) {
+                                SystemException exception = new SystemException(e);
+                                exception
+                                        .setMessage("The thread cannot be started.");
+                                throw exception;
+                            } finally {
+                                ex.shutdown();
+                            }
                         }
                     }
                 } finally {
@@ -239,11 +299,9 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         }
 
         // キューから1件データを取得する
-        try {
-            this.queue.poll(this.sleepWait, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            LOGGER.warn(LogId.WAL041003, e);
-        }
+        // getNextObject()で先頭の要素を確認済みのため、待たずに取り出す
+        pollQueue();
+        this.statistics.addConsumed();
 
         if (nextValue.getThrowable() != null) {
             Throwable throwable = nextValue.getThrowable();
@@ -339,78 +397,144 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         execute();
 
         DataValueObject value = null;
-        do {
-            // キューから1件データを取得する（削除しない）
-            if (this.queue != null) {
-                value = this.queue.peek();
-            }
+        // 要素待ちの開始時刻（要素待ちをしていない場合は0）
+        long waitStart = 0L;
+        try {
+            do {
+                // キューから1件データを取得する（削除しない）
+                if (this.queue != null) {
+                    if (waitStart == 0L && isQueueEmpty()) {
+                        waitStart = System.nanoTime();
+                    }
+                    value = peekQueue();
+                }
 
-            // 終了フラグを検査
-            if (isFinish() && this.queue.isEmpty()) {
-                if (verboseLog.get() && LOGGER.isTraceEnabled()) {
-                    LOGGER.trace(LogId.TAL041014);
+                // 終了フラグを検査
+                if (isFinish() && (this.chunkRows == null || this.chunkRows
+                        .isEmpty()) && this.queue.isEmpty()) {
+                    if (verboseLog.get() && LOGGER.isTraceEnabled()) {
+                        LOGGER.trace(LogId.TAL041014);
+                    }
+                    break;
                 }
-                break;
-            }
 
-            if (value != null && value.getValidateStatus() != null) {
-                ValidateErrorStatus validateStatus = value
-                        .getValidateStatus();
-                if (ValidateErrorStatus.END.equals(validateStatus)) {
-                    return null;
+                if (value != null && value.getValidateStatus() != null) {
+                    ValidateErrorStatus validateStatus = value
+                            .getValidateStatus();
+                    if (ValidateErrorStatus.END.equals(validateStatus)) {
+                        return null;
+                    }
                 }
-            }
 
-            CollectorExceptionHandlerStatus es = null;
+                CollectorExceptionHandlerStatus es = null;
 
-            if (value != null && value.getThrowable() != null) {
-                try {
-                    // 例外ハンドラを実行する
-                    es = handleException(value);
-                } catch (Throwable e) {
-                    LOGGER.warn(LogId.WAL041004, e);
-                    // ここでの例外はログに残すのみで何もしない
+                if (value != null && value.getThrowable() != null) {
+                    try {
+                        // 例外ハンドラを実行する
+                        es = handleException(value);
+                    } catch (Throwable e) {
+                        LOGGER.warn(LogId.WAL041004, e);
+                        // ここでの例外はログに残すのみで何もしない
+                    }
+                    if (es == null || CollectorExceptionHandlerStatus.THROW.equals(es)) {
+                        break;
+                    } else if (CollectorExceptionHandlerStatus.SKIP.equals(es)) {
+                        // ステータスがSKIPの場合、キューから1件読み捨ててループを継続させる。
+                        pollQueue();
+                        value = null;
+                        continue;
+                    } else if (CollectorExceptionHandlerStatus.END.equals(es)) {
+                        // ループを抜けてnullを返却する。
+                        return null;
+                    }
                 }
-                if (es == null || CollectorExceptionHandlerStatus.THROW.equals(es)) {
-                    break;
-                } else if (CollectorExceptionHandlerStatus.SKIP.equals(es)) {
-                    // ステータスがSKIPの場合、キューから1件読み捨ててループを継続させる。
-                    this.queue.poll();
-                    value = null;
-                    continue;
-                } else if (CollectorExceptionHandlerStatus.END.equals(es)) {
-                    // ループを抜けてnullを返却する。
+
+                if (value != null && CollectorStatus.END.equals(value.getCollectorStatus())) {
+                    setFinish(true);
                     return null;
                 }
-            }
 
-            if (value != null && CollectorStatus.END.equals(value.getCollectorStatus())) {
-                setFinish(true);
-                return null;
-            }
+                // nullの場合はスリープする
+                if (value == null) {
+                    // NotificationBlockingQueueのpeek()は、要素が入るかキューイングの終了が通知されるまで待つ。
+                    // 待ちが割り込みで解除された場合は、スリープせずに要素の入り待ちからやり直す
+                    if (this.queue instanceof NotificationBlockingQueue
+                            && !this.queue.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        if (verboseLog.get() && LOGGER.isTraceEnabled()) {
+                            LOGGER.trace(LogId.TAL041019, this.sleepWait);
+                        }
+                        // sleepWait ms待つ
+                        TimeUnit.MILLISECONDS.sleep(this.sleepWait);
 
-            // nullの場合はスリープする
-            if (value == null) {
-                try {
+                    } catch (InterruptedException e) {
+                        LOGGER.warn(LogId.WAL041003, e);
+                        break;
+                    }
                     if (verboseLog.get() && LOGGER.isTraceEnabled()) {
-                        LOGGER.trace(LogId.TAL041019, this.sleepWait);
+                        LOGGER.trace(LogId.TAL041008, this.queue.size());
                     }
-                    // sleepWait ms待つ
-                    TimeUnit.MILLISECONDS.sleep(this.sleepWait);
-
-                } catch (InterruptedException e) {
-                    LOGGER.warn(LogId.WAL041003, e);
-                    break;
-                }
-                if (verboseLog.get() && LOGGER.isTraceEnabled()) {
-                    LOGGER.trace(LogId.TAL041008, this.queue.size());
                 }
+            } while (value == null);
+        } finally {
+            if (waitStart != 0L) {
+                this.statistics.addConsumerWait(System.nanoTime() - waitStart);
             }
-        } while (value == null);
+        }
 
         return value;
     }
 
+    /**
+     * 呼び出し元スレッドで取り出せるデータがないかを確認する。<br>
+     * 要素待ちはしない。
+     * @return 展開済みのチャンクとキューが空の場合はtrue
+     */
+    private boolean isQueueEmpty() {
+        return (this.chunkRows == null || this.chunkRows.isEmpty())
+                && this.queue.size() == 0;
+    }
+
+    /**
+     * キューの先頭のデータを取得する（削除しない）。<br>
+     * <p>
+     * キューの先頭がチャンクの場合は、キューから取り出して展開し、その先頭のデータを返す。
+     * 展開したデータがすべて処理されるまで、キューからは取得しない。
+     * </p>
+     * @return 先頭のデータ。キューが空の場合はnull
+     */
+    protected DataValueObject peekQueue() {
+        if (this.chunkRows != null && !this.chunkRows.isEmpty()) {
+            return this.chunkRows.peek();
+        }
+        DataValueObject value = this.queue.peek();
+        if (value instanceof DataValueChunk) {
+            this.queue.poll();
+            if (this.chunkRows == null) {
+                this.chunkRows = new ArrayDeque<DataValueObject>(this.chunkSize);
+            }
+            ((DataValueChunk) value).drainTo(this.chunkRows);
+            return this.chunkRows.peek();
+        }
+        return value;
+    }
+
+    /**
+     * キューの先頭のデータを取得し、削除する。<br>
+     * <p>
+     * 展開済みのチャンクに未処理のデータがある場合は、そのデータを先に返す。
+     * </p>
+     * @return 先頭のデータ。キューが空の場合はnull
+     */
+    protected DataValueObject pollQueue() {
+        if (this.chunkRows != null && !this.chunkRows.isEmpty()) {
+            return this.chunkRows.poll();
+        }
+        return this.queue.poll();
+    }
+
     /**
      * 1件前の要素を返します。<br>
      * <p>
@@ -571,6 +695,45 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         if (!isFinish() && this.fo != null) {
                 this.fo.cancel(true);
         }
+        logStatistics();
+    }
+
+    /**
+     * キューの受け渡しの統計情報をログに出力する。<br>
+     * <p>
+     * コレクタスレッドを起動した後、最初にクローズしたときに1回だけ出力する。
+     * </p>
+     */
+    protected void logStatistics() {
+        if (!this.beginning || this.statisticsLogged) {
+            return;
+        }
+        this.statisticsLogged = true;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(LogId.DAL041009, getClass().getSimpleName(),
+                    this.statistics.getProducedCount(), this.statistics
+                            .getConsumedCount(), this.statistics
+                            .getProducerBlockedCount(), this.statistics
+                            .getProducerBlockedMillis(), this.statistics
+                            .getConsumerWaitCount(), this.statistics
+                            .getConsumerWaitMillis(), Arrays
+                            .toString(this.statistics.getOccupancyHistogram()),
+                    this.statistics.getQueueCapacity(), this.statistics
+                            .getResizeCount());
+        }
+    }
+
+    /**
+     * キューの受け渡しの統計情報を取得する。<br>
+     * <p>
+     * 生産者(コレクタスレッド)がキューの空き待ちで止まった時間と、
+     * 消費者(呼び出し元スレッド)がキューの要素待ちで止まった時間から、どちらがボトルネックかを判断できる。
+     * 処理中も参照でき、参照時点の値を返す。
+     * </p>
+     * @return 統計情報
+     */
+    public CollectorStatistics getQueueStatistics() {
+        return this.statistics;
     }
 
     /**
@@ -606,6 +769,24 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         return Executors.newSingleThreadExecutor(createThreadFactory());
     }
 
+    /**
+     * コレクタ内部のタスクを実行するExecutorServiceを生成する.
+     * <p>
+     * CollectorExecutorを指定している場合は、その共有スレッドで並列数までのタスクを実行するExecutorServiceを返却する。
+     * 指定していない場合は、並列数分のスレッドを持つExecutorServiceを生成する。
+     * いずれの場合も、使用後は呼び出し元でシャットダウンすること。
+     * </p>
+     * @param parallelism 並列数
+     * @return ExecutorService
+     */
+    protected ExecutorService createWorkerExecutor(int parallelism) {
+        if (this.collectorExecutor != null) {
+            return this.collectorExecutor.newTaskGroup(parallelism);
+        }
+        return Executors.newFixedThreadPool(parallelism,
+                createThreadFactory());
+    }
+
     /**
      * スレッドファクトリを生成する.
      * @return スレッドファクトリ
@@ -616,6 +797,13 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
 
     /**
      * キューを作成する
+     * <p>
+     * キューに要素を詰めるのはコレクタスレッド、取り出すのは呼び出し元スレッドのみであるため、
+     * 単一生産者・単一消費者のリングバッファ({@link SpscRingBlockingQueue})を使用する。
+     * </p>
+     * <p>
+     * キューサイズの自動調整を行う場合は、調整の上限の容量で生成する。
+     * </p>
      * @return
      */
     protected BlockingQueue<DataValueObject> createQueue() {
@@ -627,7 +815,11 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
             // previousキュー生成
             this.previousQueue = createPreviousQueue();
         }
-        return new ArrayBlockingQueueEx<DataValueObject>(this.queueSize);
+        if (this.adaptiveQueueSizing != null) {
+            return new SpscRingBlockingQueue<DataValueObject>(
+                    this.adaptiveQueueSizing.getUpperLimit(this.chunkSize));
+        }
+        return new SpscRingBlockingQueue<DataValueObject>(this.queueSize);
     }
 
     /**
@@ -662,6 +854,73 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         this.queueSize = queueSize;
     }
 
+    /**
+     * コレクタスレッドを実行するCollectorExecutorを取得する。<br>
+     * @return CollectorExecutor
+     */
+    protected CollectorExecutor getCollectorExecutor() {
+        return collectorExecutor;
+    }
+
+    /**
+     * コレクタスレッドを実行するCollectorExecutorを指定する。<br>
+     * <p>
+     * 指定した場合、コレクタスレッドは{@link #getExecutor()}で生成したスレッドではなく、
+     * CollectorExecutorが管理する共有のスレッドで実行される。
+     * </p>
+     * @param collectorExecutor CollectorExecutor
+     */
+    protected void setCollectorExecutor(CollectorExecutor collectorExecutor) {
+        this.collectorExecutor = collectorExecutor;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を取得する。<br>
+     * @return キューサイズの自動調整の設定
+     */
+    protected AdaptiveQueueSizing getAdaptiveQueueSizing() {
+        return adaptiveQueueSizing;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を指定する。<br>
+     * <p>
+     * 指定した場合、キューの容量は生産者と消費者の待ちの状況に応じて増減する。
+     * キューサイズは初期の容量として扱う。
+     * </p>
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @see AdaptiveQueueSizing
+     */
+    protected void setAdaptiveQueueSizing(
+            AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.adaptiveQueueSizing = adaptiveQueueSizing;
+    }
+
+    /**
+     * チャンクサイズを取得する。<br>
+     * @return チャンクサイズ
+     */
+    protected int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * チャンクサイズを指定する。<br>
+     * <p>
+     * 2以上を指定すると、コレクタスレッドは最大チャンクサイズ件のデータを1要素にまとめてキューに詰める。
+     * キューの同期処理がチャンク単位になるため、1件あたりの受け渡しの負荷が下がる。
+     * </p>
+     * <p>
+     * チャンクはチャンクサイズに達するか、コレクタスレッドが終了するまでキューに詰められないため、
+     * 1件目を処理し始めるまでの時間は長くなる。
+     * また、キューサイズはチャンクの数となるため、最大でキューサイズ×チャンクサイズ件のデータがメモリに保持される。
+     * </p>
+     * @param chunkSize チャンクサイズ
+     */
+    protected void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
     /**
      * スリープ時間(msec)を取得する<br>
      * @return スリープ時間(msec)
@@ -712,10 +971,10 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
                 } catch (Exception e) {
                     // 取得したデータに発生した例外を設定し1件キューにつめる
                     if (dataValueObject == null) {
-                        this.queue.put(new DataValueObject(e));
+                        putQueue(new DataValueObject(e));
                     } else {
                         dataValueObject.setThrowable(e);
-                        this.queue.put(dataValueObject);
+                        putQueue(dataValueObject);
                     }
                     return;
                 }
@@ -723,10 +982,11 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
 
             if (vs == null || ValidateErrorStatus.CONTINUE.equals(vs)) {
                 // 取得したデータを1件キューにつめる
-                this.queue.put(dataValueObject);
+                putQueue(dataValueObject);
             } else if (ValidateErrorStatus.END.equals(vs)) {
                 DataValueObject errorStop = new DataValueObject(vs);
-                this.queue.put(errorStop);
+                putQueue(errorStop);
+                flushQueue();
                 // 強制停止（以降のキューイングを強制停止）
                 setFinish(true);
             } else if (ValidateErrorStatus.SKIP.equals(vs)) {
@@ -745,6 +1005,69 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         }
     }
 
+    /**
+     * キューにデータを1件詰める。<br>
+     * <p>
+     * チャンクサイズが2以上の場合はチャンクに蓄積し、チャンクサイズに達したときにチャンクをキューに詰める。
+     * </p>
+     * @param dataValueObject DataValueObject
+     * @throws InterruptedException キューの空き待ち中に割り込みが発生した場合
+     */
+    protected void putQueue(DataValueObject dataValueObject)
+                                                            throws InterruptedException {
+        this.statistics.addProduced();
+        if (this.chunkSize <= 1) {
+            enqueue(dataValueObject);
+            return;
+        }
+        if (this.pendingChunk == null) {
+            this.pendingChunk = new DataValueChunk(this.chunkSize);
+        }
+        if (this.pendingChunk.add(dataValueObject)) {
+            flushQueue();
+        }
+    }
+
+    /**
+     * 蓄積中のチャンクをキューに詰める。<br>
+     * <p>
+     * チャンクサイズが1の場合や、蓄積中のデータがない場合は何もしない。
+     * </p>
+     * @throws InterruptedException キューの空き待ち中に割り込みが発生した場合
+     */
+    protected void flushQueue() throws InterruptedException {
+        if (this.pendingChunk == null || this.pendingChunk.isEmptyChunk()) {
+            return;
+        }
+        enqueue(this.pendingChunk.drain());
+    }
+
+    /**
+     * キューに1要素詰め、キュー使用率と空き待ちの時間を統計情報に集計する。<br>
+     * キューサイズの自動調整を行う場合は、必要に応じてキューの容量を変更する。
+     * @param element キューに詰める要素
+     * @throws InterruptedException キューの空き待ち中に割り込みが発生した場合
+     */
+    private void enqueue(DataValueObject element) throws InterruptedException {
+        int size = this.queue.size();
+        int remaining = this.queue.remainingCapacity();
+        this.statistics.addOccupancy(size, size + remaining);
+        if (remaining > 0) {
+            this.queue.put(element);
+        } else {
+            // キューが満杯の場合のみ、空き待ちの時間を計測する
+            long start = System.nanoTime();
+            try {
+                this.queue.put(element);
+            } finally {
+                this.statistics.addProducerBlocked(System.nanoTime() - start);
+            }
+        }
+        if (this.queueSizeController != null) {
+            this.queueSizeController.afterEnqueue();
+        }
+    }
+
     /**
      * 入力チェックを行う.<br>
      * @param dataValueObject DataValueObject
@@ -857,6 +1180,16 @@ public abstract class AbstractCollector<P> implements Collector<P>, Closeable,
         if (verboseLog.get() && LOGGER.isTraceEnabled()) {
             LOGGER.trace(LogId.TAL041012, Thread.currentThread().getName());
         }
+
+        // 蓄積中のチャンクを、終了フラグを立てる前にキューにつめる
+        try {
+            flushQueue();
+        } catch (InterruptedException ie) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041012, ie, Thread.currentThread()
+                        .getName());
+            }
+        }
         setFinish(true);
 
         // 終了フラグをキューにつめる
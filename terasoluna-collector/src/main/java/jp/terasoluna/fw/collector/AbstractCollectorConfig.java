@@ -28,6 +28,9 @@ public class AbstractCollectorConfig {
     /** キューサイズ */
     protected int queueSize = AbstractCollector.DEFAULT_QUEUE_SIZE;
 
+    /** チャンクサイズ */
+    protected int chunkSize = AbstractCollector.DEFAULT_CHUNK_SIZE;
+
     /** CollectorExceptionHandler */
     protected CollectorExceptionHandler exceptionHandler = null;
 
@@ -37,6 +40,12 @@ public class AbstractCollectorConfig {
     /** ValidationErrorHandler */
     protected ValidationErrorHandler validationErrorHandler = null;
 
+    /** CollectorExecutor */
+    protected CollectorExecutor collectorExecutor = null;
+
+    /** キューサイズの自動調整の設定 */
+    protected AdaptiveQueueSizing adaptiveQueueSizing = null;
+
     /** コンストラクタで処理を実行するフラグ（true:実行する、false:実行しない） */
     protected boolean executeByConstructor = false;
 
@@ -56,6 +65,63 @@ public class AbstractCollectorConfig {
         this.queueSize = queueSize;
     }
 
+    /**
+     * チャンクサイズを取得する。
+     * @return チャンクサイズ
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * チャンクサイズを設定する。
+     * <p>
+     * 2以上を指定すると、コレクタスレッドは指定件数のデータをまとめてキューに詰める。
+     * </p>
+     * @param chunkSize チャンクサイズ
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を取得する。
+     * @return キューサイズの自動調整の設定
+     */
+    public AdaptiveQueueSizing getAdaptiveQueueSizing() {
+        return adaptiveQueueSizing;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する。
+     * <p>
+     * 設定した場合、キューの容量は生産者と消費者の待ちの状況に応じて増減し、キューサイズは初期の容量として扱われる。
+     * </p>
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     */
+    public void setAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.adaptiveQueueSizing = adaptiveQueueSizing;
+    }
+
+    /**
+     * CollectorExecutorを取得する。
+     * @return CollectorExecutor
+     */
+    public CollectorExecutor getCollectorExecutor() {
+        return collectorExecutor;
+    }
+
+    /**
+     * CollectorExecutorを設定する。
+     * <p>
+     * 設定した場合、コレクタスレッドはCollectorExecutorが管理する共有のスレッドで実行される。
+     * </p>
+     * @param collectorExecutor CollectorExecutor
+     */
+    public void setCollectorExecutor(CollectorExecutor collectorExecutor) {
+        this.collectorExecutor = collectorExecutor;
+    }
+
     /**
      * CollectorExceptionHandlerを取得する。
      * @return CollectorExceptionHandler
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+/**
+ * キューサイズの自動調整の設定。<br>
+ * <p>
+ * コレクタに設定すると、キューの容量を最小キューサイズから最大キューサイズの範囲で、
+ * 生産者(コレクタスレッド)と消費者(ビジネスロジックのスレッド)の待ちの状況に応じて増減させる。
+ * <ul>
+ * <li>一定件数を詰める間に、生産者のキューの空き待ちと消費者のキューの要素待ちの両方が発生した場合、
+ * 処理速度の揺らぎをキューで吸収できていないため、容量を2倍にする。</li>
+ * <li>生産者のキューの空き待ちのみが発生した場合、消費者が律速でありキューは常に満杯のため、
+ * 容量を半分にしてメモリ使用量を抑える。</li>
+ * <li>消費者のキューの要素待ちのみが発生した場合、生産者が律速でありキューはほぼ空のため、容量は変更しない。</li>
+ * </ul>
+ * キューサイズ({@link AbstractCollectorConfig#setQueueSize(int)})は初期の容量として扱う。
+ * </p>
+ * <p>
+ * メモリ予算と1件あたりの推定サイズを設定した場合、キューに保持するデータの推定サイズがメモリ予算を超えないよう、
+ * 最大キューサイズを制限する。チャンクサイズが2以上の場合は、チャンク1つをチャンクサイズ件として見積もる。
+ * </p>
+ * <p>
+ * キューの容量を変更できるのは、デフォルトのキュー({@link AbstractCollector#createQueue()})を使用する場合のみである。
+ * 本クラスは複数のコレクタで共有できる。
+ * </p>
+ */
+public class AdaptiveQueueSizing {
+
+    /** デフォルトの最小キューサイズ */
+    public static final int DEFAULT_MIN_QUEUE_SIZE = 4;
+
+    /** デフォルトの最大キューサイズ */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 1024;
+
+    /** 最小キューサイズ */
+    private final int minQueueSize;
+
+    /** 最大キューサイズ */
+    private final int maxQueueSize;
+
+    /** メモリ予算(バイト)。0の場合は制限しない */
+    private long memoryBudget = 0L;
+
+    /** 1件あたりの推定サイズ(バイト) */
+    private long estimatedRowSize = 0L;
+
+    /**
+     * コンストラクタ。<br>
+     * 最小キューサイズ、最大キューサイズはデフォルト値とする。
+     */
+    public AdaptiveQueueSizing() {
+        this(DEFAULT_MIN_QUEUE_SIZE, DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    /**
+     * コンストラクタ。<br>
+     * @param minQueueSize 最小キューサイズ
+     * @param maxQueueSize 最大キューサイズ
+     */
+    public AdaptiveQueueSizing(int minQueueSize, int maxQueueSize) {
+        if (minQueueSize <= 0 || maxQueueSize < minQueueSize) {
+            throw new IllegalArgumentException("The queue size is invalid.");
+        }
+        this.minQueueSize = minQueueSize;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * メモリ予算を設定する。<br>
+     * @param memoryBudget キューに保持するデータのメモリ予算(バイト)
+     * @param estimatedRowSize 1件あたりの推定サイズ(バイト)
+     * @return AdaptiveQueueSizing
+     */
+    public AdaptiveQueueSizing addMemoryBudget(long memoryBudget,
+            long estimatedRowSize) {
+        if (memoryBudget <= 0L || estimatedRowSize <= 0L) {
+            throw new IllegalArgumentException("The memory budget is invalid.");
+        }
+        this.memoryBudget = memoryBudget;
+        this.estimatedRowSize = estimatedRowSize;
+        return this;
+    }
+
+    /**
+     * 最小キューサイズを取得する。
+     * @return 最小キューサイズ
+     */
+    public int getMinQueueSize() {
+        return minQueueSize;
+    }
+
+    /**
+     * 最大キューサイズを取得する。
+     * @return 最大キューサイズ
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * メモリ予算(バイト)を取得する。
+     * @return メモリ予算(バイト)。制限しない場合は0
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * 1件あたりの推定サイズ(バイト)を取得する。
+     * @return 1件あたりの推定サイズ(バイト)
+     */
+    public long getEstimatedRowSize() {
+        return estimatedRowSize;
+    }
+
+    /**
+     * メモリ予算を考慮した容量の上限を取得する。<br>
+     * <p>
+     * メモリ予算に収まる要素数と最大キューサイズの小さい方を返す。
+     * ただし、最小キューサイズを下回る場合は最小キューサイズを返す。
+     * </p>
+     * @param chunkSize チャンクサイズ
+     * @return 容量の上限
+     */
+    public int getUpperLimit(int chunkSize) {
+        if (this.memoryBudget <= 0L) {
+            return this.maxQueueSize;
+        }
+        long elementSize = this.estimatedRowSize * Math.max(chunkSize, 1);
+        long elements = this.memoryBudget / elementSize;
+        if (elements >= this.maxQueueSize) {
+            return this.maxQueueSize;
+        }
+        return (int) Math.max(elements, this.minQueueSize);
+    }
+
+    /**
+     * 初期の容量を取得する。<br>
+     * キューサイズを、最小キューサイズから容量の上限の範囲に収めた値を返す。
+     * @param queueSize キューサイズ
+     * @param chunkSize チャンクサイズ
+     * @return 初期の容量
+     */
+    public int getInitialLimit(int queueSize, int chunkSize) {
+        return Math.min(Math.max(queueSize, this.minQueueSize),
+                getUpperLimit(chunkSize));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "AdaptiveQueueSizing[minQueueSize=" + minQueueSize
+                + ", maxQueueSize=" + maxQueueSize + ", memoryBudget="
+                + memoryBudget + ", estimatedRowSize=" + estimatedRowSize
+                + "]";
+    }
+}
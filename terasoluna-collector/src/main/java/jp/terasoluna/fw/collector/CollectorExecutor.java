@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * 複数のコレクタで共有するコレクタスレッドの実行基盤。<br>
+ * <p>
+ * コレクタはデフォルトでは生成のたびにスレッドを1つ生成し、処理の終了とともに破棄する。
+ * 1つのビジネスロジックで多数のコレクタを生成する場合は、本クラスをBean定義してコレクタの設定に指定することで、
+ * スレッドを再利用し、スレッドの生成・破棄のコストを削減できる。
+ * </p>
+ * <p>
+ * 同時に実行するコレクタスレッドの数は最大スレッド数までに制限される。
+ * 最大スレッド数を超えて実行を要求されたコレクタは、要求された順に実行を待つ。
+ * コレクタスレッドは呼び出し元がデータを取り出すまでキューの空きを待つため、
+ * 最大スレッド数は、同時にデータを取り出すコレクタの数以上を指定すること。
+ * 最大スレッド数を下回ると、実行を待つコレクタからデータを取り出そうとした呼び出し元が待ち続けることになる。
+ * </p>
+ * <p>
+ * 内部で並列に処理するコレクタ(PartitionedDaoCollector、MultiFileCollector、FileCollectorの並列変換、
+ * ParallelCollector)や{@link jp.terasoluna.fw.collector.parallel.CollectorSplitter}は、
+ * 本クラスを指定した場合、内部のタスクも{@link #newTaskGroup(int)}で本クラスの共有スレッドで実行する。
+ * PartitionedDaoCollectorでパーティションのデータを順序に従ってマージする場合は、全てのパーティションを同時に実行するため、
+ * 最大スレッド数は、コレクタスレッドとパーティション数の合計以上を指定すること。
+ * MultiFileCollectorはマージする場合もファイル読み込みスレッド数を超えるファイルをコレクタスレッドで読み込むため、
+ * ファイル読み込みスレッド数の分を加えればよい。
+ * </p>
+ * <p>
+ * 実行状況は{@link #getActiveCount()}、{@link #getQueuedCount()}、{@link #getMaxWaitTime()}等で取得できる。
+ * 実行待ちの時間が長い場合は、最大スレッド数が不足している。
+ * </p>
+ * <b>設定例</b><br>
+ * <code><pre>
+ * &lt;bean id=&quot;collectorExecutor&quot; class=&quot;jp.terasoluna.fw.collector.CollectorExecutor&quot;
+ *     destroy-method=&quot;shutdown&quot;&gt;
+ *     &lt;constructor-arg value=&quot;customerCollector&quot; /&gt;
+ *     &lt;constructor-arg value=&quot;8&quot; /&gt;
+ * &lt;/bean&gt;
+ * </pre></code>
+ * <code><pre>
+ * Collector&lt;Customer&gt; col = new DaoCollector&lt;Customer&gt;(
+ *     new DaoCollectorConfig(this.queryRowHandleDao, &quot;selectCustomer&quot;, param)
+ *         .addCollectorExecutor(this.collectorExecutor));
+ * </pre></code>
+ */
+public class CollectorExecutor {
+
+    /**
+     * Logger.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(CollectorExecutor.class);
+
+    /** デフォルトのアイドルスレッドの保持時間(msec) */
+    public static final long DEFAULT_KEEP_ALIVE_TIME = 60000L;
+
+    /** 名前 */
+    private final String name;
+
+    /** スレッドプール */
+    private final ThreadPoolExecutor executor;
+
+    /** 実行待ち時間の合計(nsec) */
+    private final AtomicLong totalWaitNanos = new AtomicLong(0L);
+
+    /** 実行待ち時間の最大(nsec) */
+    private final AtomicLong maxWaitNanos = new AtomicLong(0L);
+
+    /**
+     * コンストラクタ。<br>
+     * アイドルスレッドの保持時間はデフォルト({@link #DEFAULT_KEEP_ALIVE_TIME})とする。
+     * @param name 名前（スレッド名の接頭辞となる）
+     * @param maxThreads 最大スレッド数
+     */
+    public CollectorExecutor(String name, int maxThreads) {
+        this(name, maxThreads, DEFAULT_KEEP_ALIVE_TIME);
+    }
+
+    /**
+     * コンストラクタ。<br>
+     * @param name 名前（スレッド名の接頭辞となる）
+     * @param maxThreads 最大スレッド数
+     * @param keepAliveTime アイドルスレッドの保持時間(msec)
+     */
+    public CollectorExecutor(String name, int maxThreads, long keepAliveTime) {
+        if (name == null || name.length() == 0) {
+            throw new IllegalArgumentException("The name is empty.");
+        }
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException(
+                    "The maxThreads must be greater than 0.");
+        }
+        this.name = name;
+        // 要求された順に実行するため、上限のないFIFOキューで実行を待たせる
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                keepAliveTime, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new CollectorThreadFactory(
+                        name));
+        if (keepAliveTime > 0) {
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * コレクタスレッドの実行を要求する。<br>
+     * @param callable コレクタ
+     * @return 実行結果
+     */
+    public <T> Future<T> submit(Callable<T> callable) {
+        return this.executor.submit(new WaitTimeRecordingCallable<T>(
+                callable));
+    }
+
+    /**
+     * 共有スレッドで、指定した並列数までのタスクを要求された順に実行するExecutorServiceを生成する。<br>
+     * <p>
+     * コレクタ内部のタスクを共有スレッドで実行するために使用する。
+     * 返却したExecutorServiceのshutdownNowは、そのExecutorServiceのタスクのみを中断し、本クラスはシャットダウンしない。
+     * </p>
+     * @param parallelism 並列数
+     * @return ExecutorService
+     */
+    public ExecutorService newTaskGroup(int parallelism) {
+        return new CollectorTaskGroup(this, parallelism);
+    }
+
+    /**
+     * 実行中のコレクタスレッドの終了を待たずに、新たな実行要求の受付を停止する。<br>
+     */
+    public void shutdown() {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(LogId.DAL041004, this.name, getSubmittedCount(),
+                    getCompletedCount(), getLargestPoolSize(),
+                    getMaxWaitTime());
+        }
+        this.executor.shutdown();
+    }
+
+    /**
+     * 新たな実行要求の受付を停止しているか確認する。<br>
+     * @return 停止している場合はtrue
+     */
+    public boolean isShutdown() {
+        return this.executor.isShutdown();
+    }
+
+    /**
+     * 名前を取得する。
+     * @return 名前
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * 最大スレッド数を取得する。
+     * @return 最大スレッド数
+     */
+    public int getMaxThreads() {
+        return this.executor.getMaximumPoolSize();
+    }
+
+    /**
+     * 実行中のコレクタスレッドの数を取得する。
+     * @return 実行中のコレクタスレッドの数（概数）
+     */
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    /**
+     * 実行を待っているコレクタの数を取得する。
+     * @return 実行を待っているコレクタの数
+     */
+    public int getQueuedCount() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * 同時に存在したスレッドの最大数を取得する。
+     * @return 同時に存在したスレッドの最大数
+     */
+    public int getLargestPoolSize() {
+        return this.executor.getLargestPoolSize();
+    }
+
+    /**
+     * 実行を要求されたコレクタの数を取得する。
+     * @return 実行を要求されたコレクタの数（概数）
+     */
+    public long getSubmittedCount() {
+        return this.executor.getTaskCount();
+    }
+
+    /**
+     * 実行を終えたコレクタの数を取得する。
+     * @return 実行を終えたコレクタの数（概数）
+     */
+    public long getCompletedCount() {
+        return this.executor.getCompletedTaskCount();
+    }
+
+    /**
+     * 実行要求から実行開始までの待ち時間の合計を取得する。
+     * @return 待ち時間の合計(msec)
+     */
+    public long getTotalWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.totalWaitNanos.get());
+    }
+
+    /**
+     * 実行要求から実行開始までの待ち時間の最大を取得する。
+     * @return 待ち時間の最大(msec)
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos.get());
+    }
+
+    /**
+     * 実行待ち時間を記録する。
+     * @param waitNanos 実行待ち時間(nsec)
+     */
+    private void recordWait(long waitNanos) {
+        this.totalWaitNanos.addAndGet(waitNanos);
+        long max = this.maxWaitNanos.get();
+        while (waitNanos > max && !this.maxWaitNanos.compareAndSet(max,
+                waitNanos)) {
+            max = this.maxWaitNanos.get();
+        }
+    }
+
+    /**
+     * 実行要求から実行開始までの待ち時間を記録するCallable。
+     * @param <T> 実行結果の型
+     */
+    private class WaitTimeRecordingCallable<T> implements Callable<T> {
+
+        /** コレクタ */
+        private final Callable<T> callable;
+
+        /** 実行要求時刻(nsec) */
+        private final long submitNanos = System.nanoTime();
+
+        /**
+         * コンストラクタ。
+         * @param callable コレクタ
+         */
+        WaitTimeRecordingCallable(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public T call() throws Exception {
+            recordWait(System.nanoTime() - this.submitNanos);
+            return this.callable.call();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * コレクタのキューの受け渡しの統計情報。<br>
+ * <p>
+ * 件数や待ち時間は、コレクタスレッド(生産者)とビジネスロジックのスレッド(消費者)がそれぞれ自分の項目だけを更新し、
+ * どのスレッドからも参照できる。
+ * </p>
+ * <p>
+ * 生産者がキューの空き待ちで止まっている時間が長い場合は、ビジネスロジックがボトルネックである。
+ * 消費者がキューの要素待ちで止まっている時間が長い場合は、DBやファイルからの取得がボトルネックである。
+ * キュー使用率の分布が満杯に偏っている場合はキューサイズを大きくしても効果がなく、
+ * 空に偏っている場合はキューサイズやチャンクサイズの見直しや、コレクタの並列化を検討する。
+ * </p>
+ */
+public class CollectorStatistics {
+
+    /**
+     * キュー使用率の分布の区間数。<br>
+     * 分布は0%から区間ごとに10%刻みで集計し、最後の区間は満杯(100%)を表す。
+     */
+    public static final int OCCUPANCY_BUCKETS = 10;
+
+    /** キューに詰めたデータ件数 */
+    private volatile long producedCount = 0L;
+
+    /** キューから取り出したデータ件数 */
+    private volatile long consumedCount = 0L;
+
+    /** 生産者がキューの空き待ちで止まった回数 */
+    private volatile long producerBlockedCount = 0L;
+
+    /** 生産者がキューの空き待ちで止まった時間(ナノ秒) */
+    private volatile long producerBlockedNanos = 0L;
+
+    /** 消費者がキューの要素待ちで止まった回数 */
+    private volatile long consumerWaitCount = 0L;
+
+    /** 消費者がキューの要素待ちで止まった時間(ナノ秒) */
+    private volatile long consumerWaitNanos = 0L;
+
+    /** 現在のキューの容量 */
+    private volatile int queueCapacity = 0;
+
+    /** キューの容量を変更した回数 */
+    private volatile long resizeCount = 0L;
+
+    /** キューに詰める直前のキュー使用率の分布 */
+    private final AtomicLongArray occupancy = new AtomicLongArray(
+            OCCUPANCY_BUCKETS + 1);
+
+    /**
+     * キューに詰めたデータ件数を取得する。<br>
+     * 入力チェックでスキップされたデータは含まず、チャンクに蓄積中のデータは含む。
+     * @return キューに詰めたデータ件数
+     */
+    public long getProducedCount() {
+        return producedCount;
+    }
+
+    /**
+     * キューから取り出したデータ件数を取得する。
+     * @return キューから取り出したデータ件数
+     */
+    public long getConsumedCount() {
+        return consumedCount;
+    }
+
+    /**
+     * 生産者がキューの空き待ちで止まった回数を取得する。
+     * @return 生産者がキューの空き待ちで止まった回数
+     */
+    public long getProducerBlockedCount() {
+        return producerBlockedCount;
+    }
+
+    /**
+     * 生産者がキューの空き待ちで止まった時間(ミリ秒)を取得する。
+     * @return 生産者がキューの空き待ちで止まった時間(ミリ秒)
+     */
+    public long getProducerBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(producerBlockedNanos);
+    }
+
+    /**
+     * 消費者がキューの要素待ちで止まった回数を取得する。
+     * @return 消費者がキューの要素待ちで止まった回数
+     */
+    public long getConsumerWaitCount() {
+        return consumerWaitCount;
+    }
+
+    /**
+     * 消費者がキューの要素待ちで止まった時間(ミリ秒)を取得する。<br>
+     * 最後のデータを取り出した後、コレクタスレッドの終了を待った時間を含む。
+     * @return 消費者がキューの要素待ちで止まった時間(ミリ秒)
+     */
+    public long getConsumerWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(consumerWaitNanos);
+    }
+
+    /**
+     * 現在のキューの容量を取得する。<br>
+     * キューサイズの自動調整({@link AdaptiveQueueSizing})を行う場合は、調整後の容量を返す。
+     * @return 現在のキューの容量。コレクタスレッドの起動前は0
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * キューの容量を変更した回数を取得する。
+     * @return キューの容量を変更した回数
+     */
+    public long getResizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * キュー使用率の分布を取得する。<br>
+     * <p>
+     * 生産者がキューに詰める直前のキューの要素数を、キューサイズに対する割合で集計した回数を返す。
+     * 配列の添え字iは使用率が i×10%以上 (i+1)×10%未満の回数を、
+     * 添え字{@link #OCCUPANCY_BUCKETS}は満杯だった回数を表す。
+     * チャンクサイズが2以上の場合は、チャンクをキューに詰めるたびに集計する。
+     * </p>
+     * @return キュー使用率の分布(呼び出し時点のコピー)
+     */
+    public long[] getOccupancyHistogram() {
+        long[] result = new long[OCCUPANCY_BUCKETS + 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = occupancy.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * キューに詰めたデータ件数を加算する。<br>
+     * 生産者のスレッドからのみ呼び出す。
+     */
+    void addProduced() {
+        this.producedCount++;
+    }
+
+    /**
+     * キューに詰める直前のキューの要素数を集計する。<br>
+     * 生産者のスレッドからのみ呼び出す。
+     * @param size キューの要素数
+     * @param capacity キューサイズ
+     */
+    void addOccupancy(int size, int capacity) {
+        if (capacity <= 0) {
+            return;
+        }
+        int bucket = (int) ((long) Math.max(size, 0) * OCCUPANCY_BUCKETS / capacity);
+        if (bucket > OCCUPANCY_BUCKETS) {
+            bucket = OCCUPANCY_BUCKETS;
+        }
+        // 更新するのは生産者のスレッドのみのため、加算の原子性は不要
+        this.occupancy.lazySet(bucket, this.occupancy.get(bucket) + 1);
+    }
+
+    /**
+     * 生産者がキューの空き待ちで止まった時間を加算する。<br>
+     * 生産者のスレッドからのみ呼び出す。
+     * @param nanos 止まった時間(ナノ秒)
+     */
+    void addProducerBlocked(long nanos) {
+        this.producerBlockedCount++;
+        this.producerBlockedNanos += nanos;
+    }
+
+    /**
+     * 現在のキューの容量を設定する。
+     * @param queueCapacity キューの容量
+     */
+    void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * キューの容量を変更した回数を加算する。<br>
+     * 生産者のスレッドからのみ呼び出す。
+     */
+    void addResize() {
+        this.resizeCount++;
+    }
+
+    /**
+     * キューから取り出したデータ件数を加算する。<br>
+     * 消費者のスレッドからのみ呼び出す。
+     */
+    void addConsumed() {
+        this.consumedCount++;
+    }
+
+    /**
+     * 消費者がキューの要素待ちで止まった時間を加算する。<br>
+     * 消費者のスレッドからのみ呼び出す。
+     * @param nanos 止まった時間(ナノ秒)
+     */
+    void addConsumerWait(long nanos) {
+        this.consumerWaitCount++;
+        this.consumerWaitNanos += nanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CollectorStatistics[producedCount=").append(producedCount);
+        sb.append(", consumedCount=").append(consumedCount);
+        sb.append(", producerBlockedCount=").append(producerBlockedCount);
+        sb.append(", producerBlockedMillis=").append(
+                getProducerBlockedMillis());
+        sb.append(", consumerWaitCount=").append(consumerWaitCount);
+        sb.append(", consumerWaitMillis=").append(getConsumerWaitMillis());
+        sb.append(", queueCapacity=").append(queueCapacity);
+        sb.append(", resizeCount=").append(resizeCount);
+        sb.append(", occupancyHistogram=").append(
+                Arrays.toString(getOccupancyHistogram()));
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollectorTaskGroup.<br>
+ * <p>
+ * {@link CollectorExecutor}の共有スレッドで、コレクタ内部のタスクを並列数まで実行するExecutorService。
+ * {@link CollectorExecutor#newTaskGroup(int)}で生成する。
+ * </p>
+ * <p>
+ * タスクは要求された順に、同時に並列数までのタスクを実行する。並列数が1の場合は、要求された順に1件ずつ実行する。
+ * {@link #shutdownNow()}は本グループの実行待ちのタスクを破棄し、実行中のタスクのみに割り込む。
+ * 共有スレッドの割り込み状態はタスクの終了時にクリアする。CollectorExecutor自体はシャットダウンしない。
+ * </p>
+ */
+class CollectorTaskGroup extends AbstractExecutorService {
+
+    /** タスクを実行するCollectorExecutor */
+    private final CollectorExecutor collectorExecutor;
+
+    /** 並列数 */
+    private final int parallelism;
+
+    /** ロック */
+    private final Object lock = new Object();
+
+    /** 実行待ちのタスク */
+    private final LinkedList<Runnable> pending = new LinkedList<Runnable>();
+
+    /** タスクを実行中のスレッド */
+    private final Set<Thread> runningThreads = new HashSet<Thread>();
+
+    /** 共有スレッドに実行を要求したワーカの数 */
+    private int workers = 0;
+
+    /** シャットダウン済みフラグ */
+    private boolean shutdown = false;
+
+    /**
+     * コンストラクタ。<br>
+     * @param collectorExecutor タスクを実行するCollectorExecutor
+     * @param parallelism 並列数
+     */
+    CollectorTaskGroup(CollectorExecutor collectorExecutor, int parallelism) {
+        if (collectorExecutor == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "The parallelism must be greater than 0.");
+        }
+        this.collectorExecutor = collectorExecutor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        synchronized (this.lock) {
+            if (this.shutdown) {
+                throw new RejectedExecutionException(
+                        "The task group is shut down.");
+            }
+            this.pending.add(command);
+            if (this.workers >= this.parallelism) {
+                return;
+            }
+            this.workers++;
+        }
+        try {
+            this.collectorExecutor.submit(new Worker());
+        } catch (RuntimeException e) {
+            synchronized (this.lock) {
+                this.workers--;
+                this.pending.remove(command);
+                this.lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdown() {
+        synchronized (this.lock) {
+            this.shutdown = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (this.lock) {
+            this.shutdown = true;
+            List<Runnable> drained = new ArrayList<Runnable>(this.pending);
+            this.pending.clear();
+            for (Thread thread : this.runningThreads) {
+                thread.interrupt();
+            }
+            this.lock.notifyAll();
+            return drained;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isShutdown() {
+        synchronized (this.lock) {
+            return this.shutdown;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isTerminated() {
+        synchronized (this.lock) {
+            return this.shutdown && this.workers == 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+                                                                 throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this.lock) {
+            while (!(this.shutdown && this.workers == 0)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this.lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 実行待ちのタスクがなくなるまで、共有スレッドでタスクを順に実行するワーカ。
+     */
+    private class Worker implements Callable<Object> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object call() {
+            Thread current = Thread.currentThread();
+            boolean exited = false;
+            try {
+                while (true) {
+                    Runnable task;
+                    synchronized (lock) {
+                        task = pending.poll();
+                        if (task == null) {
+                            // 実行待ちの確認と同じロックの中で終了し、追加されたタスクの取りこぼしを防ぐ
+                            workers--;
+                            exited = true;
+                            lock.notifyAll();
+                            return null;
+                        }
+                        runningThreads.add(current);
+                    }
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // 後続のタスクを実行するため、ワーカは継続する
+                        // (submitで要求したタスクの例外はFutureで通知される)
+                    } finally {
+                        synchronized (lock) {
+                            runningThreads.remove(current);
+                        }
+                        // 本グループの割り込みを共有スレッドに残さない
+                        Thread.interrupted();
+                    }
+                }
+            } finally {
+                if (!exited) {
+                    synchronized (lock) {
+                        workers--;
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -45,14 +45,24 @@ public class CollectorThreadFactory implements ThreadFactory {
      * CollectorThreadFactoryコンストラクタ.
      */
     public CollectorThreadFactory() {
+        this(COLLECTOR_THREAD_NAME_PREFIX + COLLECTOR_THREAD_NAME_SEPARATOR
+                + poolNumber.getAndIncrement());
+    }
+
+    /**
+     * CollectorThreadFactoryコンストラクタ.
+     * <p>
+     * 生成するスレッドの名前は「name-thread-連番」となる。
+     * </p>
+     * @param name スレッド名の接頭辞
+     */
+    public CollectorThreadFactory(String name) {
         SecurityManager s = System.getSecurityManager();
         group = (s != null) ? s.getThreadGroup() : Thread.currentThread()
                 .getThreadGroup();
 
         StringBuilder prefixSb = new StringBuilder();
-        prefixSb.append(COLLECTOR_THREAD_NAME_PREFIX);
-        prefixSb.append(COLLECTOR_THREAD_NAME_SEPARATOR);
-        prefixSb.append(poolNumber.getAndIncrement());
+        prefixSb.append(name);
         prefixSb.append(COLLECTOR_THREAD_NAME_SEPARATOR);
         prefixSb.append(COLLECTOR_THREAD_NAME_MIDDLE);
         prefixSb.append(COLLECTOR_THREAD_NAME_SEPARATOR);
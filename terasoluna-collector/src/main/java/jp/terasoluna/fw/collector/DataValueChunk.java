@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import java.util.Queue;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+/**
+ * 複数件のデータをまとめてキューに詰めるためのDataValueObject。
+ * <p>
+ * チャンクサイズが2以上の場合に、コレクタスレッドが最大チャンクサイズ件のデータをまとめ、1要素としてキューに詰める。
+ * 呼び出し元スレッドはキューから取り出したチャンクを展開し、1件ずつ処理する。
+ * </p>
+ * <p>
+ * コレクタスレッドでのデータの蓄積({@link #add(DataValueObject)})は、AbstractCollectorとそのクローンで
+ * 同じインスタンスを共有し、コレクタスレッドのみが操作する。
+ * </p>
+ */
+class DataValueChunk extends DataValueObject {
+
+    /**
+     * チャンクにまとめたデータ。
+     */
+    private DataValueObject[] rows;
+
+    /**
+     * チャンクにまとめたデータの件数。
+     */
+    private int length = 0;
+
+    /**
+     * コンストラクタ。
+     * @param chunkSize チャンクサイズ
+     */
+    DataValueChunk(int chunkSize) {
+        super((Object) null);
+        this.rows = new DataValueObject[chunkSize];
+    }
+
+    /**
+     * データを追加する。
+     * @param dataValueObject DataValueObject
+     * @return チャンクサイズに達した場合はtrue
+     */
+    boolean add(DataValueObject dataValueObject) {
+        this.rows[this.length++] = dataValueObject;
+        return this.length == this.rows.length;
+    }
+
+    /**
+     * データを保持しているか確認する。
+     * @return データを保持していない場合はtrue
+     */
+    boolean isEmptyChunk() {
+        return this.length == 0;
+    }
+
+    /**
+     * 保持しているデータを新しいチャンクに移し、このチャンクを空にする。
+     * @return 保持していたデータを持つチャンク
+     */
+    DataValueChunk drain() {
+        DataValueChunk chunk = new DataValueChunk(0);
+        chunk.rows = this.rows;
+        chunk.length = this.length;
+        this.rows = new DataValueObject[this.rows.length];
+        this.length = 0;
+        return chunk;
+    }
+
+    /**
+     * チャンクにまとめたデータを、まとめた順に指定されたキューに追加する。
+     * @param queue 追加先のキュー
+     */
+    void drainTo(Queue<DataValueObject> queue) {
+        for (int i = 0; i < this.length; i++) {
+            queue.add(this.rows[i]);
+        }
+    }
+
+    /**
+     * チャンクにまとめたデータの件数を取得する。
+     * @return データの件数
+     */
+    int length() {
+        return this.length;
+    }
+}
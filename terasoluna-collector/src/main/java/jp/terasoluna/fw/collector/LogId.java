@@ -50,10 +50,46 @@ public final class LogId {
      * <strong>DAL041002 = {0}. thread:[{1}]</strong>
      */
     public static final String DAL041002 = "DAL041002";
+    /**
+     * <strong>DAL041003 = Segment batch insert failed. Retry row by row. line:[{0}-{1}] message:[{2}]</strong>
+     */
+    public static final String DAL041003 = "DAL041003";
+    /**
+     * <strong>DAL041004 = CollectorExecutor is shut down. name:[{0}] submitted:[{1}] completed:[{2}] largest pool size:[{3}] max wait:[{4}ms]</strong>
+     */
+    public static final String DAL041004 = "DAL041004";
+    /**
+     * <strong>DAL041005 = Statement settings applied. fetchSize:[{0}] resultSetType:[{1}] queryTimeout:[{2}]</strong>
+     */
+    public static final String DAL041005 = "DAL041005";
+    /**
+     * <strong>DAL041006 = The FileLineIterator does not support parallel parsing. Lines are parsed on the collector thread. class:[{0}]</strong>
+     */
+    public static final String DAL041006 = "DAL041006";
+    /**
+     * <strong>DAL041007 = SortingCollector finished. rows:[{0}] spilled runs:[{1}] spilled rows:[{2}] spilled bytes:[{3}] merge passes:[{4}] elapsed:[{5}ms]</strong>
+     */
+    public static final String DAL041007 = "DAL041007";
+    /**
+     * <strong>DAL041008 = LookupJoinCollector finished. rows:[{0}] hits:[{1}] misses:[{2}]</strong>
+     */
+    public static final String DAL041008 = "DAL041008";
+    /**
+     * <strong>DAL041009 = Collector statistics. collector:[{0}] produced:[{1}] consumed:[{2}] producer blocked:[{3}times {4}ms] consumer waited:[{5}times {6}ms] queue occupancy:[{7}] queue capacity:[{8}] resized:[{9}times]</strong>
+     */
+    public static final String DAL041009 = "DAL041009";
     /**
      * <strong>IAL041001 = {0}</strong>
      */
     public static final String IAL041001 = "IAL041001";
+    /**
+     * <strong>IAL041002 = FileBulkLoader finished. file:[{0}] read:[{1}] loaded:[{2}] rejected:[{3}] elapsed:[{4}ms]</strong>
+     */
+    public static final String IAL041002 = "IAL041002";
+    /**
+     * <strong>IAL041003 = LookupIndex loaded. read:[{0}] indexed:[{1}] duplicate:[{2}] skipped:[{3}] capacity:[{4}] estimated bytes:[{5}] elapsed:[{6}ms]</strong>
+     */
+    public static final String IAL041003 = "IAL041003";
     /**
      * <strong>WAL041001 = {0}</strong>
      */
@@ -70,6 +106,22 @@ public final class LogId {
      * <strong>WAL041004 = The exception is generated by the exception handler.</strong>
      */
     public static final String WAL041004 = "WAL041004";
+    /**
+     * <strong>WAL041005 = Row rejected. line:[{0}] message:[{1}]</strong>
+     */
+    public static final String WAL041005 = "WAL041005";
+    /**
+     * <strong>WAL041006 = The driver may buffer the entire result set. reason:[{0}] database:[{1}]</strong>
+     */
+    public static final String WAL041006 = "WAL041006";
+    /**
+     * <strong>WAL041007 = The statement settings were not applied. Register DaoCollectorStatementInterceptor in the MyBatis plugins. method:[{0}]</strong>
+     */
+    public static final String WAL041007 = "WAL041007";
+    /**
+     * <strong>WAL041008 = The subscriber threw an exception. The subscription is cancelled.</strong>
+     */
+    public static final String WAL041008 = "WAL041008";
     /**
      * <strong>EAL041001 = {0}</strong>
      */
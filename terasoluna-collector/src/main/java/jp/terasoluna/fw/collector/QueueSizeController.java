@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import jp.terasoluna.fw.collector.concurrent.SpscRingBlockingQueue;
+
+/**
+ * キューの容量を自動調整するクラス。<br>
+ * <p>
+ * コレクタスレッド(生産者)がキューに要素を詰めるたびに呼び出され、
+ * 現在の容量分の要素を詰めるごとに、その間の待ちの発生状況から容量を見直す。
+ * 調整の方針は{@link AdaptiveQueueSizing}を参照。
+ * </p>
+ * <p>
+ * <b>※本クラスは生産者のスレッドからのみ使用する。</b>
+ * </p>
+ */
+class QueueSizeController {
+
+    /** 容量を見直す最小の間隔(要素数) */
+    static final int MIN_ADJUST_INTERVAL = 16;
+
+    /** キューサイズの自動調整の設定 */
+    private final AdaptiveQueueSizing sizing;
+
+    /** 容量を変更するキュー */
+    private final SpscRingBlockingQueue<?> queue;
+
+    /** 待ちの発生状況を参照する統計情報 */
+    private final CollectorStatistics statistics;
+
+    /** 容量の上限 */
+    private final int upperLimit;
+
+    /** 次に容量を見直すまでの要素数 */
+    private int countdown;
+
+    /** 前回見直した時点の生産者の空き待ち回数 */
+    private long lastBlockedCount;
+
+    /** 前回見直した時点の消費者の要素待ち回数 */
+    private long lastWaitCount;
+
+    /**
+     * コンストラクタ。<br>
+     * キューの容量を初期の容量に設定する。
+     * @param sizing キューサイズの自動調整の設定
+     * @param queue 容量を変更するキュー
+     * @param statistics 統計情報
+     * @param queueSize キューサイズ
+     * @param chunkSize チャンクサイズ
+     */
+    QueueSizeController(AdaptiveQueueSizing sizing,
+            SpscRingBlockingQueue<?> queue, CollectorStatistics statistics,
+            int queueSize, int chunkSize) {
+        this.sizing = sizing;
+        this.queue = queue;
+        this.statistics = statistics;
+        // キューの生成直後のため、空き容量はキューサイズとなる
+        this.upperLimit = Math.min(sizing.getUpperLimit(chunkSize), queue
+                .remainingCapacity());
+        int limit = Math.min(sizing.getInitialLimit(queueSize, chunkSize),
+                this.upperLimit);
+        queue.setCapacityLimit(limit);
+        statistics.setQueueCapacity(limit);
+        this.countdown = Math.max(limit, MIN_ADJUST_INTERVAL);
+    }
+
+    /**
+     * 要素をキューに詰めた後に呼び出し、必要に応じて容量を変更する。
+     */
+    void afterEnqueue() {
+        if (--this.countdown > 0) {
+            return;
+        }
+        long blockedCount = this.statistics.getProducerBlockedCount();
+        long waitCount = this.statistics.getConsumerWaitCount();
+        boolean producerBlocked = blockedCount != this.lastBlockedCount;
+        boolean consumerWaited = waitCount != this.lastWaitCount;
+        this.lastBlockedCount = blockedCount;
+        this.lastWaitCount = waitCount;
+
+        int limit = this.queue.getCapacityLimit();
+        int next = limit;
+        if (producerBlocked && consumerWaited) {
+            // 速度の揺らぎを吸収できていないため、容量を増やす
+            next = Math.min(limit * 2, this.upperLimit);
+        } else if (producerBlocked) {
+            // 消費者が律速のため、容量を減らしてメモリ使用量を抑える
+            next = Math.max(limit / 2, this.sizing.getMinQueueSize());
+        }
+        if (next != limit) {
+            this.queue.setCapacityLimit(next);
+            this.statistics.setQueueCapacity(next);
+            this.statistics.addResize();
+        }
+        this.countdown = Math.max(next, MIN_ADJUST_INTERVAL);
+    }
+}
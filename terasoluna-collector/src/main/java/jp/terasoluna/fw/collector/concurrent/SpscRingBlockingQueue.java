@@ -0,0 +1,502 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AbstractCollector用の単一生産者・単一消費者(SPSC)リングバッファキュー。
+ * <p>
+ * 要素を詰めるスレッド(生産者)と要素を取り出すスレッド(消費者)がそれぞれ1つであることを前提に、
+ * 要素の受け渡しをロックを使わずに行う。<br>
+ * 生産者は書き込み位置、消費者は読み込み位置のみを更新するため、キューが空または満杯で待つ場合を除き、
+ * 1要素の受け渡しはvolatile変数の読み書きのみで完了する。
+ * 待ちが必要な場合は、短時間スピンした後に{@link LockSupport}でスレッドを停止し、相手側のスレッドが再開させる。
+ * </p>
+ * <p>
+ * {@link #peek()}、{@link #isEmpty()}、{@link #poll(long, TimeUnit)}の待ち合わせと、キューイング終了通知の仕様は
+ * {@link ArrayBlockingQueueEx}と同じである。
+ * </p>
+ * <p>
+ * 複数のスレッドから要素を詰める、あるいは取り出すことはできない。
+ * {@link #size()}、{@link #iterator()}はどのスレッドからも実行できるが、実行時点の近似値を返す。
+ * </p>
+ * <p>
+ * キューの容量は、生成時に指定したキューサイズを上限として{@link #setCapacityLimit(int)}で変更できる。
+ * 容量を要素数より小さくした場合、要素が取り出されて要素数が容量を下回るまで、生産者は待つ。
+ * </p>
+ * <p>
+ * キューに要素を詰め終わった後は、キューに要素を詰めるスレッドで、必ずfinishQueueingメソッドを実行すること。
+ * </p>
+ * @param <E> コレクション内に存在する要素の型
+ */
+public class SpscRingBlockingQueue<E> extends AbstractQueue<E> implements
+                                                               NotificationBlockingQueue<E> {
+
+    /**
+     * 停止する前に要素の出入りを確認する回数。<br>
+     * CPUが1つの場合、スピン中に相手側のスレッドは動作できないため、スピンせずに停止する。
+     */
+    private static final int SPIN_TRIES = Runtime.getRuntime()
+            .availableProcessors() > 1 ? 64 : 0;
+
+    /**
+     * キューサイズ。
+     */
+    protected final int capacity;
+
+    /**
+     * 現在の容量。キューサイズ以下の値をとる。
+     */
+    private volatile int limit;
+
+    /**
+     * リングバッファ。長さはキューサイズ以上の2のべき乗とする。
+     */
+    private final AtomicReferenceArray<E> buffer;
+
+    /**
+     * リングバッファの位置を求めるマスク。
+     */
+    private final int mask;
+
+    /**
+     * 次に取り出す位置。消費者のみが更新する。
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 次に詰める位置。生産者のみが更新する。
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 要素が入るのを待っている消費者スレッド。
+     */
+    private volatile Thread waitingConsumer = null;
+
+    /**
+     * キューが空くのを待っている生産者スレッド。
+     */
+    private volatile Thread waitingProducer = null;
+
+    /**
+     * キューイング終了フラグ。
+     */
+    protected volatile boolean finishQueueingFlag = false;
+
+    /**
+     * 指定された (固定) 容量を使用して、SpscRingBlockingQueue を作成する。
+     * @param capacity キューの容量
+     * @throws IllegalArgumentException capacity が 1 未満の場合
+     */
+    public SpscRingBlockingQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        this.limit = capacity;
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<E>(length);
+        this.mask = length - 1;
+    }
+
+    /**
+     * キューイングの終了を通知する。
+     * <p>
+     * キューに要素が入るのを待っているスレッドがいる場合、そのブロックを解除する。 キューに要素を詰めるスレッドは、キューイングが完了したあとで、必ずこのメソッドを実行すること。
+     * </p>
+     */
+    @Override
+    public void finishQueueing() {
+        finishQueueingFlag = true;
+
+        // 要素の入り待ちを行っているスレッドのブロックを解除する
+        unpark(waitingConsumer);
+    }
+
+    /**
+     * 可能であれば、このキューの末尾に指定された要素を挿入する。このキューがいっぱいである場合には、即座に返す。
+     * @param o 追加する要素
+     * @return 要素をこのキューに追加可能な場合は true、そうでない場合は false
+     * @throws NullPointerException 指定された要素が null である場合
+     */
+    @Override
+    public boolean offer(E o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        long t = tail.get();
+        if (t - head.get() >= limit) {
+            return false;
+        }
+        buffer.lazySet((int) t & mask, o);
+        tail.set(t + 1);
+
+        // 要素の入り待ちを行っているスレッドのブロックを解除する
+        unpark(waitingConsumer);
+        return true;
+    }
+
+    /**
+     * 指定された要素をこのキューの末尾に挿入する。必要に応じ、空間が利用可能になるのを指定された時間まで待機する。
+     * @param o 追加する要素
+     * @param timeout 処理を中止するまでの待機時間。単位は unit
+     * @param unit timeout パラメータの解釈方法を指定する TimeUnit
+     * @return 成功した場合は true、空間が利用可能になる前に指定された待機時間が経過した場合は false
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     * @throws NullPointerException 指定された要素が null である場合
+     */
+    @Override
+    public boolean offer(E o, long timeout, TimeUnit unit)
+                                                          throws InterruptedException {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        if (!awaitNotFull(true, unit.toNanos(timeout))) {
+            // タイムアウト
+            return false;
+        }
+        return offer(o);
+    }
+
+    /**
+     * 指定された要素をこのキューの末尾に追加する。必要に応じ、空間が利用可能になるまで待機する。
+     * @param o 追加する要素
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     * @throws NullPointerException 指定された要素が null である場合
+     */
+    @Override
+    public void put(E o) throws InterruptedException {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+        awaitNotFull(false, 0L);
+        offer(o);
+    }
+
+    /**
+     * キューの先頭を取得するが、削除しない。
+     * <p>
+     * 拡張仕様：<b> キューが空の場合は、キューに要素が入るか、キューイングの終了が通知されるまで待つ。<br>
+     * キューイングの終了が通知された後、キューが空の場合は null を返す。
+     * </p>
+     * @return キューの先頭。キューイング終了後にキューが空の場合は null
+     */
+    @Override
+    public E peek() {
+        try {
+            awaitNotEmpty(false, 0L);
+        } catch (InterruptedException e) {
+            return null;
+        }
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        return buffer.get((int) h & mask);
+    }
+
+    /**
+     * このキューの先頭を取得および削除する。
+     * @return このキューの先頭。要素が存在しない場合は null
+     */
+    @Override
+    public E poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int index = (int) h & mask;
+        E elm = buffer.get(index);
+        buffer.lazySet(index, null);
+        head.set(h + 1);
+
+        // キューの空き待ちを行っているスレッドのブロックを解除する
+        unpark(waitingProducer);
+        return elm;
+    }
+
+    /**
+     * このキューの先頭を取得および削除する。このキューに要素が存在しない場合は、必要に応じて指定された時間だけ待機する。
+     * <p>
+     * 拡張仕様：<b> キューイングの終了が通知された後、キューが空の場合は、タイムアウトを待たずに null を返す。
+     * </p>
+     * @param timeout 処理を中止するまでの待機時間。単位は unit
+     * @param unit timeout パラメータの解釈方法を指定する TimeUnit
+     * @return このキューの先頭。指定された待機時間が経過、あるいはキューイングの終了が通知された後も要素が存在しない場合は null
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!awaitNotEmpty(true, unit.toNanos(timeout))) {
+            return null;
+        }
+        return poll();
+    }
+
+    /**
+     * このキューの先頭を取得および削除する。必要に応じ、要素が利用可能になるまで待機する。
+     * <p>
+     * 拡張仕様：<b> キューイングの終了が通知された後、キューが空の場合は null を返す。
+     * </p>
+     * @return このキューの先頭。キューイング終了後にキューが空の場合は null
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    @Override
+    public E take() throws InterruptedException {
+        awaitNotEmpty(false, 0L);
+        return poll();
+    }
+
+    /**
+     * キューに要素がない場合に true を返す。
+     * <p>
+     * 拡張仕様：<b> キューが空の場合は、キューに要素が入るか、キューイングの終了が通知されるまで待つ。<br>
+     * キューイングの終了が通知された後、キューが空の場合は true を返す。
+     * </p>
+     */
+    @Override
+    public boolean isEmpty() {
+        try {
+            return !awaitNotEmpty(false, 0L);
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+
+    /**
+     * キュー内の要素数を返す。
+     * @return キュー内の要素数
+     */
+    @Override
+    public int size() {
+        // 読み込み位置を先に取得し、書き込み位置との差が負にならないようにする
+        long h = head.get();
+        return (int) (tail.get() - h);
+    }
+
+    /**
+     * ブロックせずにキューに追加できる要素数を返す。
+     * @return 追加できる要素数
+     */
+    @Override
+    public int remainingCapacity() {
+        return Math.max(limit - size(), 0);
+    }
+
+    /**
+     * 現在の容量を取得する。
+     * @return 現在の容量
+     */
+    public int getCapacityLimit() {
+        return limit;
+    }
+
+    /**
+     * 現在の容量を変更する。
+     * <p>
+     * 容量を増やした場合、キューの空き待ちを行っているスレッドのブロックを解除する。
+     * 容量を減らした場合、既にキューにある要素はそのまま保持される。
+     * </p>
+     * @param limit 容量
+     * @throws IllegalArgumentException limit が 1 未満、あるいはキューサイズを超える場合
+     */
+    public void setCapacityLimit(int limit) {
+        if (limit <= 0 || limit > capacity) {
+            throw new IllegalArgumentException();
+        }
+        this.limit = limit;
+
+        // キューの空き待ちを行っているスレッドのブロックを解除する
+        unpark(waitingProducer);
+    }
+
+    /**
+     * キューから利用可能なすべての要素を削除し、それらを指定されたコレクションに追加する。
+     * @param c 要素の転送先のコレクション
+     * @return 転送された要素の数
+     */
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * キューから指定された数以内の利用可能な要素を削除し、それらを指定されたコレクションに追加する。
+     * @param c 要素の転送先のコレクション
+     * @param maxElements 転送する要素の最大数
+     * @return 転送された要素の数
+     */
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null) {
+            throw new NullPointerException();
+        }
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int n = 0;
+        E elm = null;
+        while (n < maxElements && (elm = poll()) != null) {
+            c.add(elm);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * キュー内の要素の反復子を返す。
+     * <p>
+     * 反復子は呼び出し時点の要素の複製を走査する。要素の削除はできない。
+     * </p>
+     * @return キュー内の要素の反復子
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<E>();
+        long h = head.get();
+        long t = tail.get();
+        for (long i = h; i < t; i++) {
+            E elm = buffer.get((int) i & mask);
+            if (elm == null) {
+                // 走査中に消費者が取り出した
+                continue;
+            }
+            snapshot.add(elm);
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    /**
+     * キューに要素が入るか、キューイングの終了が通知されるまで待つ。消費者スレッドから呼び出す。
+     * @param timed 待機時間を指定する場合はtrue
+     * @param nanos 待機時間(ナノ秒)
+     * @return キューに要素がある場合はtrue
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    private boolean awaitNotEmpty(boolean timed, long nanos)
+                                                            throws InterruptedException {
+        long deadline = 0L;
+        int spins = SPIN_TRIES;
+        while (!finishQueueingFlag && head.get() == tail.get()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spins > 0) {
+                spins--;
+                continue;
+            }
+            long remaining = 0L;
+            if (timed) {
+                // 待ちが必要になった時点で期限を決め、待たずに済む場合の時刻取得を省く
+                if (deadline == 0L) {
+                    deadline = System.nanoTime() + nanos;
+                }
+                remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    // タイムアウト
+                    return false;
+                }
+            }
+            waitingConsumer = Thread.currentThread();
+            try {
+                // 登録後に再確認し、生産者からの再開通知の取りこぼしを防ぐ
+                if (!finishQueueingFlag && head.get() == tail.get()) {
+                    if (timed) {
+                        LockSupport.parkNanos(this, remaining);
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+            } finally {
+                waitingConsumer = null;
+            }
+        }
+        return head.get() != tail.get();
+    }
+
+    /**
+     * キューが空くまで待つ。生産者スレッドから呼び出す。
+     * @param timed 待機時間を指定する場合はtrue
+     * @param nanos 待機時間(ナノ秒)
+     * @return キューが空いた場合はtrue、タイムアウトした場合はfalse
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    private boolean awaitNotFull(boolean timed, long nanos)
+                                                           throws InterruptedException {
+        long deadline = 0L;
+        int spins = SPIN_TRIES;
+        while (tail.get() - head.get() >= limit) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spins > 0) {
+                spins--;
+                continue;
+            }
+            long remaining = 0L;
+            if (timed) {
+                // 待ちが必要になった時点で期限を決め、待たずに済む場合の時刻取得を省く
+                if (deadline == 0L) {
+                    deadline = System.nanoTime() + nanos;
+                }
+                remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    // タイムアウト
+                    return false;
+                }
+            }
+            waitingProducer = Thread.currentThread();
+            try {
+                // 登録後に再確認し、消費者からの再開通知の取りこぼしを防ぐ
+                if (tail.get() - head.get() >= limit) {
+                    if (timed) {
+                        LockSupport.parkNanos(this, remaining);
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+            } finally {
+                waitingProducer = null;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 停止中のスレッドを再開させる。
+     * @param waiter 停止中のスレッド。nullの場合は何もしない
+     */
+    private static void unpark(Thread waiter) {
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+}
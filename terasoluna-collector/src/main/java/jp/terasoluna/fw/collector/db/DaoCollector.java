@@ -23,6 +23,7 @@ import jp.terasoluna.fw.collector.vo.DataValueObject;
 import jp.terasoluna.fw.exception.SystemException;
 import jp.terasoluna.fw.logger.TLogger;
 
+import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.session.ResultHandler;
 
 import java.lang.reflect.InvocationTargetException;
@@ -60,6 +61,15 @@ public class DaoCollector<P> extends AbstractCollector<P> {
     /** DaoCollector前後処理 */
     protected DaoCollectorPrePostProcess daoCollectorPrePostProcess = null;
 
+    /** フェッチサイズ */
+    protected int fetchSize = 0;
+
+    /** ResultSetの種類 */
+    protected ResultSetType resultSetType = null;
+
+    /** タイムアウト秒数 */
+    protected int queryTimeout = 0;
+
     /**
      * DaoCollectorコンストラクタ<br>
      */
@@ -157,9 +167,23 @@ public class DaoCollector<P> extends AbstractCollector<P> {
         if (config.getQueueSize() > 0) {
             setQueueSize(config.getQueueSize());
         }
-        if (config.isRelation1n()) {
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        if (config.isNestedResult()) {
+            this.queueingResultHandlerClass = QueueingNestedResultHandlerImpl.class;
+        } else if (config.isRelation1n()) {
             this.queueingResultHandlerClass = Queueing1NRelationResultHandlerImpl.class;
         }
+        this.fetchSize = config.getFetchSize();
+        this.resultSetType = config.getResultSetType();
+        this.queryTimeout = config.getQueryTimeout();
         this.exceptionHandler = config.getExceptionHandler();
         this.daoCollectorPrePostProcess = config
                 .getDaoCollectorPrePostProcess();
@@ -187,12 +211,23 @@ public class DaoCollector<P> extends AbstractCollector<P> {
                     Method collectMethod = queryResultHandleDaoClazz.getMethod(
                             this.methodName, Object.class, ResultHandler.class);
 
+                    DaoCollectorStatementInterceptor.Settings settings = createStatementSettings();
+                    if (settings != null) {
+                        DaoCollectorStatementInterceptor.begin(settings);
+                    }
                     try {
                         // QueryResultHandleDAO 実行
                         collectMethod.invoke(this.queryResultHandleDao,
                                 this.bindParams, this.resultHandler);
                     } catch (InvocationTargetException e) {
                         throw e.getCause();
+                    } finally {
+                        if (settings != null) {
+                            DaoCollectorStatementInterceptor.end();
+                        }
+                    }
+                    if (settings != null && !settings.isApplied()) {
+                        LOGGER.warn(LogId.WAL041007, this.methodName);
                     }
 
                     this.resultHandler.delayCollect();
@@ -253,6 +288,20 @@ public class DaoCollector<P> extends AbstractCollector<P> {
         }
     }
 
+    /**
+     * ステートメント設定を生成する。<br>
+     * フェッチサイズ、ResultSetの種類、タイムアウト秒数のいずれも指定していない場合はnullを返す。
+     * @return ステートメント設定
+     */
+    private DaoCollectorStatementInterceptor.Settings createStatementSettings() {
+        if (this.fetchSize == 0 && this.resultSetType == null
+                && this.queryTimeout <= 0) {
+            return null;
+        }
+        return new DaoCollectorStatementInterceptor.Settings(this.fetchSize,
+                this.resultSetType, this.queryTimeout);
+    }
+
     /**
      * SQL実行前処理
      */
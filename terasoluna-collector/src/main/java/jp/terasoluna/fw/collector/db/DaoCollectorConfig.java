@@ -17,9 +17,12 @@
 package jp.terasoluna.fw.collector.db;
 
 import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.CollectorExecutor;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
 import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
 
+import org.apache.ibatis.mapping.ResultSetType;
 import org.springframework.validation.Validator;
 
 /**
@@ -39,9 +42,21 @@ public class DaoCollectorConfig extends AbstractCollectorConfig {
     /** 1:Nマッピング使用フラグ（使用時はtrue） */
     protected boolean relation1n = false;
 
+    /** ネストした結果マッピング(1:N)使用フラグ（使用時はtrue） */
+    protected boolean nestedResult = false;
+
     /** DaoCollector前後処理 */
     protected DaoCollectorPrePostProcess daoCollectorPrePostProcess = null;
 
+    /** フェッチサイズ（0の場合はSQLの定義に従う） */
+    protected int fetchSize = 0;
+
+    /** ResultSetの種類（nullの場合はSQLの定義に従う） */
+    protected ResultSetType resultSetType = null;
+
+    /** タイムアウト秒数（0以下の場合はSQLの定義に従う） */
+    protected int queryTimeout = 0;
+
     /**
      * コンストラクタ
      * @param queryResultHandleDao QueryResultHandleDaoインスタンス
@@ -65,6 +80,36 @@ public class DaoCollectorConfig extends AbstractCollectorConfig {
         return this;
     }
 
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addCollectorExecutor(CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
     /**
      * CollectorExceptionHandlerを設定する
      * @param exceptionHandler CollectorExceptionHandler
@@ -109,6 +154,46 @@ public class DaoCollectorConfig extends AbstractCollectorConfig {
         return this;
     }
 
+    /**
+     * ネストした結果マッピング(1:N)使用フラグを設定する
+     * @param nestedResult ネストした結果マッピング(1:N)使用フラグ
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addNestedResult(boolean nestedResult) {
+        this.setNestedResult(nestedResult);
+        return this;
+    }
+
+    /**
+     * フェッチサイズを設定する
+     * @param fetchSize フェッチサイズ
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addFetchSize(int fetchSize) {
+        this.setFetchSize(fetchSize);
+        return this;
+    }
+
+    /**
+     * ResultSetの種類を設定する
+     * @param resultSetType ResultSetの種類
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addResultSetType(ResultSetType resultSetType) {
+        this.setResultSetType(resultSetType);
+        return this;
+    }
+
+    /**
+     * タイムアウト秒数を設定する
+     * @param queryTimeout タイムアウト秒数
+     * @return DaoCollectorConfig
+     */
+    public DaoCollectorConfig addQueryTimeout(int queryTimeout) {
+        this.setQueryTimeout(queryTimeout);
+        return this;
+    }
+
     /**
      * DaoCollector前後処理を設定する
      * @param daoCollectorPrePostProcess DaoCollector前後処理
@@ -201,6 +286,26 @@ public class DaoCollectorConfig extends AbstractCollectorConfig {
         this.relation1n = relation1n;
     }
 
+    /**
+     * ネストした結果マッピング(1:N)使用フラグを取得する。
+     * @return ネストした結果マッピング(1:N)使用フラグ
+     */
+    public boolean isNestedResult() {
+        return nestedResult;
+    }
+
+    /**
+     * ネストした結果マッピング(1:N)使用フラグを設定する。
+     * <p>
+     * trueの場合、{@link QueueingNestedResultHandlerImpl}を使用し、親オブジェクト単位でキューに格納する。
+     * 1:Nマッピング使用フラグと両方を設定した場合は、こちらが優先される。
+     * </p>
+     * @param nestedResult ネストした結果マッピング(1:N)使用フラグ
+     */
+    public void setNestedResult(boolean nestedResult) {
+        this.nestedResult = nestedResult;
+    }
+
     /**
      * DaoCollector前後処理を取得する。
      * @return DaoCollector前処理
@@ -217,4 +322,64 @@ public class DaoCollectorConfig extends AbstractCollectorConfig {
             DaoCollectorPrePostProcess daoCollectorPrePostProcess) {
         this.daoCollectorPrePostProcess = daoCollectorPrePostProcess;
     }
+
+    /**
+     * フェッチサイズを取得する。
+     * @return フェッチサイズ
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * フェッチサイズを設定する。
+     * <p>
+     * 0以外を設定した場合、DaoCollectorが実行するSQLのステートメントに適用する。
+     * 適用には{@link DaoCollectorStatementInterceptor}をMyBatisのプラグインに登録する必要がある。
+     * </p>
+     * @param fetchSize フェッチサイズ
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * ResultSetの種類を取得する。
+     * @return ResultSetの種類
+     */
+    public ResultSetType getResultSetType() {
+        return resultSetType;
+    }
+
+    /**
+     * ResultSetの種類を設定する。
+     * <p>
+     * 設定した場合、DaoCollectorが実行するSQLのステートメントに適用する。
+     * 適用には{@link DaoCollectorStatementInterceptor}をMyBatisのプラグインに登録する必要がある。
+     * </p>
+     * @param resultSetType ResultSetの種類
+     */
+    public void setResultSetType(ResultSetType resultSetType) {
+        this.resultSetType = resultSetType;
+    }
+
+    /**
+     * タイムアウト秒数を取得する。
+     * @return タイムアウト秒数
+     */
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * タイムアウト秒数を設定する。
+     * <p>
+     * 1以上を設定した場合、DaoCollectorが実行するSQLのステートメントに適用する。
+     * 適用には{@link DaoCollectorStatementInterceptor}をMyBatisのプラグインに登録する必要がある。
+     * </p>
+     * @param queryTimeout タイムアウト秒数
+     */
+    public void setQueryTimeout(int queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.logger.TLogger;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * DaoCollectorのステートメント設定を適用するMyBatisのプラグイン.<br>
+ * <p>
+ * {@link DaoCollectorConfig}に設定したフェッチサイズ、ResultSetの種類、タイムアウトを、
+ * DaoCollectorがQueryResultHandleDaoを実行する間に生成されたステートメントに適用する。
+ * DaoCollector以外から実行したSQLには何もしない。
+ * </p>
+ * <p>
+ * ステートメントに適用した後、ドライバが結果を1件ずつ(フェッチサイズ単位で)取得できる状態かを確認し、
+ * 結果全体をメモリに読み込む可能性がある場合は警告ログを出力する。確認する内容は次のとおり。
+ * <ul>
+ * <li>設定したフェッチサイズがステートメントに反映されていること</li>
+ * <li>ResultSetの種類がTYPE_FORWARD_ONLYであること</li>
+ * <li>PostgreSQLの場合、フェッチサイズが1以上で、自動コミットが無効であること</li>
+ * <li>MySQLの場合、フェッチサイズがInteger.MIN_VALUEであるか、接続URLにuseCursorFetch=trueが指定されていること</li>
+ * </ul>
+ * </p>
+ * <p>
+ * MyBatisの設定ファイルに次のように登録する。登録していない場合、DaoCollectorは設定が適用されなかったことを警告ログに出力する。
+ * </p>
+ * 
+ * <pre>
+ * &lt;plugins&gt;
+ *   &lt;plugin interceptor=&quot;jp.terasoluna.fw.collector.db.DaoCollectorStatementInterceptor&quot; /&gt;
+ * &lt;/plugins&gt;
+ * </pre>
+ */
+@Intercepts({ @Signature(type = StatementHandler.class, method = "prepare", args = {
+        Connection.class, Integer.class }) })
+public class DaoCollectorStatementInterceptor implements Interceptor {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(DaoCollectorStatementInterceptor.class);
+
+    /** 実行中のDaoCollectorのステートメント設定 */
+    private static final ThreadLocal<Settings> CURRENT = new ThreadLocal<Settings>();
+
+    /**
+     * 現在のスレッドで実行するSQLにステートメント設定を適用する.<br>
+     * @param settings ステートメント設定
+     */
+    static void begin(Settings settings) {
+        CURRENT.set(settings);
+    }
+
+    /**
+     * 現在のスレッドのステートメント設定を解除する.<br>
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Settings settings = CURRENT.get();
+        if (settings == null) {
+            return invocation.proceed();
+        }
+
+        Object[] args = invocation.getArgs();
+        Connection connection = (Connection) args[0];
+        if (settings.resultSetType != null) {
+            // ステートメント生成時のResultSetの種類を置き換える
+            args[0] = Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ResultSetTypeConnectionHandler(connection,
+                            settings.resultSetType.getValue()));
+        }
+        Statement statement = (Statement) invocation.proceed();
+        if (settings.fetchSize != 0) {
+            statement.setFetchSize(settings.fetchSize);
+        }
+        if (settings.queryTimeout > 0) {
+            statement.setQueryTimeout(settings.queryTimeout);
+        }
+
+        if (!settings.applied) {
+            settings.applied = true;
+            List<String> reasons = checkStreaming(connection, statement,
+                    settings);
+            if (!reasons.isEmpty()) {
+                LOGGER.warn(LogId.WAL041006, reasons, getDatabaseProductName(
+                        connection));
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(LogId.DAL041005, statement.getFetchSize(),
+                        statement.getResultSetType(), statement
+                                .getQueryTimeout());
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setProperties(Properties properties) {
+        // 設定項目なし
+    }
+
+    /**
+     * ドライバが結果全体をメモリに読み込む可能性がある理由を取得する.<br>
+     * @param connection コネクション
+     * @param statement ステートメント設定を適用したステートメント
+     * @param settings ステートメント設定
+     * @return 理由(結果を1件ずつ取得できる場合は空)
+     * @throws SQLException ステートメント、コネクションの情報の取得に失敗した場合
+     */
+    static List<String> checkStreaming(Connection connection,
+            Statement statement, Settings settings) throws SQLException {
+        List<String> reasons = new ArrayList<String>();
+        int fetchSize = statement.getFetchSize();
+        if (settings.fetchSize != 0 && fetchSize != settings.fetchSize) {
+            reasons.add("fetchSize is ignored by the driver. expected:"
+                    + settings.fetchSize + " actual:" + fetchSize);
+        }
+        if (statement.getResultSetType() != ResultSet.TYPE_FORWARD_ONLY) {
+            reasons.add("resultSetType is not TYPE_FORWARD_ONLY.");
+        }
+
+        String product = getDatabaseProductName(connection);
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            if (fetchSize <= 0) {
+                reasons.add("fetchSize is not set.");
+            }
+            if (connection.getAutoCommit()) {
+                reasons.add("autoCommit is enabled.");
+            }
+        } else if ("MySQL".equalsIgnoreCase(product)) {
+            String url = connection.getMetaData().getURL();
+            if (fetchSize != Integer.MIN_VALUE
+                    && (url == null || !url.contains("useCursorFetch=true"))) {
+                reasons.add("fetchSize is not Integer.MIN_VALUE and useCursorFetch is not enabled.");
+            }
+        }
+        return reasons;
+    }
+
+    /**
+     * データベースの製品名を取得する.<br>
+     * @param connection コネクション
+     * @return データベースの製品名
+     * @throws SQLException データベースの情報の取得に失敗した場合
+     */
+    private static String getDatabaseProductName(
+            Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        return (metaData == null) ? null : metaData.getDatabaseProductName();
+    }
+
+    /**
+     * DaoCollectorのステートメント設定.<br>
+     */
+    static class Settings {
+
+        /** フェッチサイズ(0の場合は適用しない) */
+        private final int fetchSize;
+
+        /** ResultSetの種類(nullの場合は適用しない) */
+        private final ResultSetType resultSetType;
+
+        /** タイムアウト秒数(0以下の場合は適用しない) */
+        private final int queryTimeout;
+
+        /** ステートメントに適用した場合はtrue */
+        private boolean applied = false;
+
+        /**
+         * コンストラクタ.<br>
+         * @param fetchSize フェッチサイズ
+         * @param resultSetType ResultSetの種類
+         * @param queryTimeout タイムアウト秒数
+         */
+        Settings(int fetchSize, ResultSetType resultSetType, int queryTimeout) {
+            this.fetchSize = fetchSize;
+            this.resultSetType = resultSetType;
+            this.queryTimeout = queryTimeout;
+        }
+
+        /**
+         * ステートメントに適用したかを取得する.<br>
+         * @return ステートメントに適用した場合はtrue
+         */
+        boolean isApplied() {
+            return this.applied;
+        }
+    }
+
+    /**
+     * ステートメント生成時のResultSetの種類を置き換えるコネクションのInvocationHandler.<br>
+     */
+    private static class ResultSetTypeConnectionHandler implements
+                                                       InvocationHandler {
+
+        /** コネクション */
+        private final Connection connection;
+
+        /** ResultSetの種類 */
+        private final int resultSetType;
+
+        /**
+         * コンストラクタ.<br>
+         * @param connection コネクション
+         * @param resultSetType ResultSetの種類
+         */
+        ResultSetTypeConnectionHandler(Connection connection,
+                int resultSetType) {
+            this.connection = connection;
+            this.resultSetType = resultSetType;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object invoke(Object proxy, Method method,
+                Object[] args) throws Throwable {
+            String name = method.getName();
+            int argc = (args == null) ? 0 : args.length;
+            try {
+                if (("prepareStatement".equals(name) || "prepareCall"
+                        .equals(name))
+                        && (argc == 1 || (argc == 3 && method
+                                .getParameterTypes()[1] == int.class))) {
+                    int concurrency = (argc == 3) ? (Integer) args[2]
+                            : ResultSet.CONCUR_READ_ONLY;
+                    if ("prepareStatement".equals(name)) {
+                        return this.connection.prepareStatement(
+                                (String) args[0], this.resultSetType,
+                                concurrency);
+                    }
+                    return this.connection.prepareCall((String) args[0],
+                            this.resultSetType, concurrency);
+                }
+                if ("createStatement".equals(name) && argc <= 2) {
+                    int concurrency = (argc == 2) ? (Integer) args[1]
+                            : ResultSet.CONCUR_READ_ONLY;
+                    return this.connection.createStatement(
+                            this.resultSetType, concurrency);
+                }
+                return method.invoke(this.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
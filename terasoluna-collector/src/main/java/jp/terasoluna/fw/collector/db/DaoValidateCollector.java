@@ -230,9 +230,23 @@ public class DaoValidateCollector<P> extends DaoCollector<P> {
         if (config.getQueueSize() > 0) {
             setQueueSize(config.getQueueSize());
         }
-        if (config.isRelation1n()) {
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        if (config.isNestedResult()) {
+            this.queueingResultHandlerClass = QueueingNestedResultHandlerImpl.class;
+        } else if (config.isRelation1n()) {
             this.queueingResultHandlerClass = Queueing1NRelationResultHandlerImpl.class;
         }
+        this.fetchSize = config.getFetchSize();
+        this.resultSetType = config.getResultSetType();
+        this.queryTimeout = config.getQueryTimeout();
         this.validator = config.getValidator();
         if (config.getValidator() != null) {
             if (config.getValidationErrorHandler() != null) {
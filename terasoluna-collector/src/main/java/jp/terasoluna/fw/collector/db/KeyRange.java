@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.db;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * キーの範囲.<br>
+ * <p>
+ * 数値のキーの下限と上限(いずれも範囲に含む)を保持する。
+ * {@link PartitionedDaoCollector}でパーティションごとのSQLにバインドする値として使用する。
+ * </p>
+ * <p>
+ * sqlMap記述例：
+ * 
+ * <pre>
+ * &lt;select id=&quot;collectOrder&quot; resultType=&quot;sample.OrderBean&quot;&gt;
+ *     SELECT ... FROM PRODUCT_ORDER
+ *     WHERE ORDR_ID BETWEEN #{from} AND #{to}
+ *     ORDER BY ORDR_ID
+ * &lt;/select&gt;
+ * </pre>
+ * 
+ * </p>
+ */
+public class KeyRange {
+
+    /** キーの下限 */
+    private final long from;
+
+    /** キーの上限 */
+    private final long to;
+
+    /**
+     * コンストラクタ.<br>
+     * @param from キーの下限(範囲に含む)
+     * @param to キーの上限(範囲に含む)
+     */
+    public KeyRange(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("The range is invalid. from:"
+                    + from + " to:" + to);
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * キーの下限を取得する.<br>
+     * @return キーの下限(範囲に含む)
+     */
+    public long getFrom() {
+        return this.from;
+    }
+
+    /**
+     * キーの上限を取得する.<br>
+     * @return キーの上限(範囲に含む)
+     */
+    public long getTo() {
+        return this.to;
+    }
+
+    /**
+     * キーの下限から上限までを、件数がほぼ等しい範囲に分割する.<br>
+     * <p>
+     * 範囲はキーの昇順に並ぶ。キーの数が分割数より少ない場合は、キーの数の範囲に分割する。
+     * </p>
+     * @param min キーの下限(範囲に含む)
+     * @param max キーの上限(範囲に含む)
+     * @param partitions 分割数
+     * @return 分割した範囲
+     */
+    public static List<KeyRange> split(long min, long max, int partitions) {
+        if (partitions < 1 || min > max) {
+            throw new IllegalArgumentException("The range is invalid. min:"
+                    + min + " max:" + max + " partitions:" + partitions);
+        }
+        BigInteger size = BigInteger.valueOf(max).subtract(
+                BigInteger.valueOf(min)).add(BigInteger.ONE);
+        BigInteger count = size.min(BigInteger.valueOf(partitions));
+        BigInteger[] quotient = size.divideAndRemainder(count);
+        int n = count.intValue();
+        int remainder = quotient[1].intValue();
+
+        List<KeyRange> ranges = new ArrayList<KeyRange>(n);
+        BigInteger from = BigInteger.valueOf(min);
+        for (int i = 0; i < n; i++) {
+            BigInteger length = (i < remainder) ? quotient[0]
+                    .add(BigInteger.ONE) : quotient[0];
+            BigInteger to = from.add(length).subtract(BigInteger.ONE);
+            ranges.add(new KeyRange(from.longValue(), to.longValue()));
+            from = to.add(BigInteger.ONE);
+        }
+        return ranges;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "KeyRange[from=" + this.from + ", to=" + this.to + "]";
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.logger.TLogger;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * PartitionedDaoCollector.<br>
+ * <p>
+ * パーティションごとにバインドする値を変えて同じSQLを並列に実行し、取得したデータを1つのコレクタとして提供する。
+ * 各パーティションはパーティション実行スレッドでQueryResultHandleDaoを実行するため、SQLはそれぞれ別のコネクションで実行される。
+ * キーの範囲で分割する場合は、{@link KeyRange#split(long, long, int)}で分割した範囲をバインドする値に使用できる。
+ * </p>
+ * <p>
+ * データの順序(Comparator)を指定した場合、各パーティションのデータを順序に従ってマージ(k-wayマージ)して提供する。
+ * 各パーティションのSQLが同じ順序でソート(ORDER BY)されていれば、全体が順序どおりとなるため、コントロールブレイクを判定できる。
+ * 指定しない場合は、パーティションごとのデータを取得した順に提供する。順序は保証されないが、最も遅いパーティションに合わせて待つことがない。
+ * </p>
+ * <p>
+ * 使用上の注意：
+ * <ul>
+ * <li>パーティション実行スレッド数(デフォルトは{@link PartitionedDaoCollectorConfig#DEFAULT_PARTITION_THREADS})までの
+ * パーティションを同時に実行し、その数までのスレッドとコネクションを使用する。データソースの最大接続数に注意すること。
+ * 順序を指定しない場合、残りのパーティションは実行中のパーティションの終了を待って実行する。</li>
+ * <li>順序を指定した場合は全てのパーティションを同時に実行してマージするため、
+ * パーティション数がパーティション実行スレッド数を超える場合はIllegalArgumentExceptionをスローする。</li>
+ * <li>各パーティションのSQLは、本コレクタのトランザクションとは別に実行される。</li>
+ * <li>1:Nマッピングを使用する場合は、selectステートメントのresultOrdered属性をtrueにすること。</li>
+ * </ul>
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * List&lt;KeyRange&gt; ranges = KeyRange.split(1L, 200000000L, 4);
+ * Collector&lt;Order&gt; col = new PartitionedDaoCollector&lt;Order&gt;(
+ *     new PartitionedDaoCollectorConfig&lt;Order&gt;(this.queryRowHandleDao,
+ *         &quot;collectOrder&quot;, ranges).addComparator(new OrderIdComparator()));
+ * try {
+ *     while (col.hasNext()) {
+ *         Order order = col.next();
+ *         // 取得したデータを使用した処理
+ *     }
+ * } finally {
+ *     CollectorUtility.closeQuietly(col);
+ * }
+ * </pre></code>
+ * @param <P> 取得するデータの型
+ */
+public class PartitionedDaoCollector<P> extends AbstractCollector<P> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(PartitionedDaoCollector.class);
+
+    /** パーティションの終了を示すデータ */
+    private static final DataValueObject PARTITION_END = new DataValueObject(
+            (Object) null);
+
+    /** QueryResultHandleDao */
+    protected Object queryResultHandleDao = null;
+
+    /** 実行するメソッド名 */
+    protected String methodName = null;
+
+    /** パーティションごとのSQLにバインドする値を格納したオブジェクト */
+    protected List<?> partitionBindParams = null;
+
+    /** データの順序 */
+    protected Comparator<? super P> comparator = null;
+
+    /** パーティションごとのキューサイズ */
+    protected int partitionQueueSize = DEFAULT_QUEUE_SIZE;
+
+    /** パーティション実行スレッド数 */
+    protected int partitionThreads = PartitionedDaoCollectorConfig.DEFAULT_PARTITION_THREADS;
+
+    /** キューにつめたデータ件数 */
+    private long dataCount = 0L;
+
+    /**
+     * PartitionedDaoCollectorコンストラクタ.<br>
+     */
+    protected PartitionedDaoCollector() {
+    }
+
+    /**
+     * PartitionedDaoCollectorコンストラクタ.<br>
+     * <p>
+     * パーティションごとのデータを取得した順に提供する。
+     * </p>
+     * @param queryResultHandleDao QueryResultHandleDaoインスタンス
+     * @param methodName 実行するメソッド名
+     * @param partitionBindParams パーティションごとのSQLにバインドする値を格納したオブジェクト
+     */
+    public PartitionedDaoCollector(Object queryResultHandleDao,
+            String methodName, List<?> partitionBindParams) {
+        this(new PartitionedDaoCollectorConfig<P>(queryResultHandleDao,
+                methodName, partitionBindParams));
+    }
+
+    /**
+     * PartitionedDaoCollectorコンストラクタ.<br>
+     * @param config PartitionedDaoCollectorConfig PartitionedDaoCollector設定項目
+     */
+    public PartitionedDaoCollector(PartitionedDaoCollectorConfig<P> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+
+        this.queryResultHandleDao = config.getQueryResultHandleDao();
+        this.methodName = config.getMethodName();
+        this.partitionBindParams = config.getPartitionBindParams();
+        this.comparator = config.getComparator();
+        if (config.getPartitionQueueSize() > 0) {
+            this.partitionQueueSize = config.getPartitionQueueSize();
+        }
+        if (config.getPartitionThreads() > 0) {
+            this.partitionThreads = config.getPartitionThreads();
+        }
+        if (this.comparator != null && this.partitionBindParams != null
+                && this.partitionBindParams.size() > this.partitionThreads) {
+            throw new IllegalArgumentException(
+                    "The number of partitions exceeds the partitionThreads.");
+        }
+        if (config.getQueueSize() > 0) {
+            setQueueSize(config.getQueueSize());
+        }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        this.exceptionHandler = config.getExceptionHandler();
+        this.validator = config.getValidator();
+        this.validationErrorHandler = config.getValidationErrorHandler();
+
+        if (config.isExecuteByConstructor()) {
+            // 実行開始
+            execute();
+        }
+    }
+
+    /**
+     * コレクタスレッドのエントリポイント。
+     *
+     * @return 取得件数
+     * @throws Exception 汎用例外
+     */
+    @Override
+    public Integer call() throws Exception {
+        ExecutorService executor = null;
+        try {
+            int partitions = (this.partitionBindParams == null) ? 0
+                    : this.partitionBindParams.size();
+            if (partitions == 0) {
+                return Integer.valueOf(0);
+            }
+            Method collectMethod = this.queryResultHandleDao.getClass()
+                    .getMethod(this.methodName, Object.class,
+                            ResultHandler.class);
+            executor = createWorkerExecutor(Math.min(partitions,
+                    this.partitionThreads));
+
+            if (this.comparator == null) {
+                collectUnordered(executor, collectMethod);
+            } else {
+                collectOrdered(executor, collectMethod);
+            }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
+        } catch (Exception e) {
+            // シャットダウン中は発生した例外をキューに詰めない
+            if (!isFinish()) {
+                // 発生した例外をキューにつめる
+                try {
+                    addQueue(new DataValueObject(e, this.dataCount + 1));
+                } catch (InterruptedException ie) {
+                    LOGGER.warn(LogId.WAL041003, e);
+                    LOGGER.warn(LogId.WAL041003, ie);
+                }
+            }
+
+            return -1;
+        } finally {
+            if (executor != null) {
+                // 実行中のパーティションは割り込みにより中断する
+                executor.shutdownNow();
+            }
+            // 終了フラグを立てる
+            setFinish();
+        }
+
+        return Integer.valueOf(0);
+    }
+
+    /**
+     * パーティションごとのデータを取得した順にキューにつめる。<br>
+     * @param executor パーティションを実行するExecutorService
+     * @param collectMethod QueryResultHandleDaoのメソッド
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    protected void collectUnordered(ExecutorService executor,
+            Method collectMethod) throws InterruptedException {
+        int running = this.partitionBindParams.size();
+        BlockingQueue<DataValueObject> handoff = new ArrayBlockingQueue<DataValueObject>(
+                this.partitionQueueSize * running);
+        for (Object bindParams : this.partitionBindParams) {
+            executor.execute(new PartitionTask(collectMethod, bindParams,
+                    handoff));
+        }
+
+        while (running > 0) {
+            DataValueObject row = handoff.take();
+            if (row == PARTITION_END) {
+                running--;
+            } else {
+                addRow(row);
+            }
+        }
+    }
+
+    /**
+     * パーティションごとのデータを順序に従ってマージし、キューにつめる。<br>
+     * @param executor パーティションを実行するExecutorService
+     * @param collectMethod QueryResultHandleDaoのメソッド
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    protected void collectOrdered(ExecutorService executor,
+            Method collectMethod) throws InterruptedException {
+        int partitions = this.partitionBindParams.size();
+        List<PartitionHead> partitionHeads = new ArrayList<PartitionHead>(
+                partitions);
+        for (Object bindParams : this.partitionBindParams) {
+            BlockingQueue<DataValueObject> handoff = new ArrayBlockingQueue<DataValueObject>(
+                    this.partitionQueueSize);
+            executor.execute(new PartitionTask(collectMethod, bindParams,
+                    handoff));
+            partitionHeads.add(new PartitionHead(partitionHeads.size(),
+                    handoff));
+        }
+
+        PriorityQueue<PartitionHead> heads = new PriorityQueue<PartitionHead>(
+                partitions, new PartitionHeadComparator());
+        for (PartitionHead head : partitionHeads) {
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        while (!heads.isEmpty()) {
+            PartitionHead head = heads.poll();
+            this.dataCount++;
+            addQueue(new DataValueObject(head.value, this.dataCount));
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+    }
+
+    /**
+     * パーティションで取得したデータまたは例外をキューにつめる。<br>
+     * @param row パーティションで取得したデータまたは例外
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    private void addRow(DataValueObject row) throws InterruptedException {
+        this.dataCount++;
+        if (row.getThrowable() != null) {
+            addQueue(new DataValueObject(row.getThrowable(), this.dataCount));
+        } else {
+            addQueue(new DataValueObject(row.getValue(), this.dataCount));
+        }
+    }
+
+    /**
+     * パーティションのSQLを実行し、取得したデータをパーティションのキューにつめるタスク。
+     */
+    private class PartitionTask implements Runnable, ResultHandler<P> {
+
+        /** QueryResultHandleDaoのメソッド */
+        private final Method collectMethod;
+
+        /** SQLにバインドする値を格納したオブジェクト */
+        private final Object bindParams;
+
+        /** パーティションのキュー */
+        private final BlockingQueue<DataValueObject> handoff;
+
+        /**
+         * コンストラクタ。
+         * @param collectMethod QueryResultHandleDaoのメソッド
+         * @param bindParams SQLにバインドする値を格納したオブジェクト
+         * @param handoff パーティションのキュー
+         */
+        PartitionTask(Method collectMethod, Object bindParams,
+                BlockingQueue<DataValueObject> handoff) {
+            this.collectMethod = collectMethod;
+            this.bindParams = bindParams;
+            this.handoff = handoff;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                try {
+                    this.collectMethod.invoke(queryResultHandleDao,
+                            this.bindParams, this);
+                } catch (InvocationTargetException e) {
+                    this.handoff.put(new DataValueObject(e.getCause()));
+                } catch (Exception e) {
+                    this.handoff.put(new DataValueObject(e));
+                }
+                this.handoff.put(PARTITION_END);
+            } catch (InterruptedException e) {
+                // コレクタの終了により中断された
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                            .getName());
+                }
+            }
+        }
+
+        /**
+         * 行取得時にMyBatisからコールバックされるハンドラメソッド。
+         *
+         * @param context 取得行コンテキスト
+         */
+        @Override
+        public void handleResult(ResultContext<? extends P> context) {
+            if (Thread.currentThread().isInterrupted()) {
+                // 割り込みが発生したら取得を中断する
+                context.stop();
+                return;
+            }
+            P row = context.getResultObject();
+            if (row == null) {
+                return;
+            }
+            try {
+                this.handoff.put(new DataValueObject(row));
+            } catch (InterruptedException e) {
+                // 呼び出し元に割り込みが発生したことを通知する必要があるため、「割り込み状態」を再度保存する。
+                Thread.currentThread().interrupt();
+                context.stop();
+            }
+        }
+    }
+
+    /**
+     * マージ中のパーティションの先頭のデータ。
+     */
+    private class PartitionHead {
+
+        /** パーティションの番号 */
+        private final int index;
+
+        /** パーティションのキュー */
+        private final BlockingQueue<DataValueObject> handoff;
+
+        /** 先頭のデータ */
+        private P value = null;
+
+        /**
+         * コンストラクタ。
+         * @param index パーティションの番号
+         * @param handoff パーティションのキュー
+         */
+        PartitionHead(int index, BlockingQueue<DataValueObject> handoff) {
+            this.index = index;
+            this.handoff = handoff;
+        }
+
+        /**
+         * パーティションの次のデータを先頭のデータにする。<br>
+         * パーティションで発生した例外は、その場でキューにつめる。
+         * @return 次のデータがある場合はtrue、パーティションが終了した場合はfalse
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        @SuppressWarnings("unchecked")
+        boolean advance() throws InterruptedException {
+            while (true) {
+                DataValueObject row = this.handoff.take();
+                if (row == PARTITION_END) {
+                    this.value = null;
+                    return false;
+                }
+                if (row.getThrowable() != null) {
+                    addRow(row);
+                    continue;
+                }
+                this.value = (P) row.getValue();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * パーティションの先頭のデータを比較するComparator。<br>
+     * 順序が等しい場合は、パーティションの番号順とする。
+     */
+    private class PartitionHeadComparator implements
+                                         Comparator<PartitionHead> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(PartitionHead o1, PartitionHead o2) {
+            int result = comparator.compare(o1.value, o2.value);
+            if (result != 0) {
+                return result;
+            }
+            return (o1.index < o2.index) ? -1 : ((o1.index == o2.index) ? 0
+                    : 1);
+        }
+    }
+}
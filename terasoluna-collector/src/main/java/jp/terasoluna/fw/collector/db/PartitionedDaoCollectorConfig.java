@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.db;
+
+import java.util.Comparator;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
+
+import org.springframework.validation.Validator;
+
+/**
+ * PartitionedDaoCollector設定項目
+ * @param <P> 取得するデータの型
+ */
+public class PartitionedDaoCollectorConfig<P> extends AbstractCollectorConfig {
+
+    /** デフォルトのパーティション実行スレッド数 */
+    public static final int DEFAULT_PARTITION_THREADS = 8;
+
+    /** QueryResultHandleDao */
+    protected Object queryResultHandleDao = null;
+
+    /** 実行するメソッド名 */
+    protected String methodName = null;
+
+    /** パーティションごとのSQLにバインドする値を格納したオブジェクト */
+    protected List<?> partitionBindParams = null;
+
+    /** データの順序（nullの場合は順序を保証しない） */
+    protected Comparator<? super P> comparator = null;
+
+    /** パーティションごとのキューサイズ */
+    protected int partitionQueueSize = AbstractCollector.DEFAULT_QUEUE_SIZE;
+
+    /** パーティション実行スレッド数 */
+    protected int partitionThreads = DEFAULT_PARTITION_THREADS;
+
+    /**
+     * コンストラクタ
+     * @param queryResultHandleDao QueryResultHandleDaoインスタンス
+     * @param methodName 実行するメソッド名
+     * @param partitionBindParams パーティションごとのSQLにバインドする値を格納したオブジェクト
+     */
+    public PartitionedDaoCollectorConfig(Object queryResultHandleDao,
+            String methodName, List<?> partitionBindParams) {
+        this.queryResultHandleDao = queryResultHandleDao;
+        this.methodName = methodName;
+        this.partitionBindParams = partitionBindParams;
+    }
+
+    /**
+     * データの順序を設定する
+     * @param comparator データの順序
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addComparator(
+            Comparator<? super P> comparator) {
+        this.setComparator(comparator);
+        return this;
+    }
+
+    /**
+     * パーティションごとのキューサイズを設定する
+     * @param partitionQueueSize パーティションごとのキューサイズ
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addPartitionQueueSize(
+            int partitionQueueSize) {
+        this.setPartitionQueueSize(partitionQueueSize);
+        return this;
+    }
+
+    /**
+     * パーティション実行スレッド数を設定する
+     * @param partitionThreads パーティション実行スレッド数
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addPartitionThreads(
+            int partitionThreads) {
+        this.setPartitionThreads(partitionThreads);
+        return this;
+    }
+
+    /**
+     * キューサイズを設定する
+     * @param queueSize キューサイズ
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addQueueSize(int queueSize) {
+        this.setQueueSize(queueSize);
+        return this;
+    }
+
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addCollectorExecutor(
+            CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
+    /**
+     * CollectorExceptionHandlerを設定する
+     * @param exceptionHandler CollectorExceptionHandler
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addExceptionHandler(
+            CollectorExceptionHandler exceptionHandler) {
+        this.setExceptionHandler(exceptionHandler);
+        return this;
+    }
+
+    /**
+     * Validatorを設定する
+     * @param validator Validator
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addValidator(Validator validator) {
+        this.setValidator(validator);
+        return this;
+    }
+
+    /**
+     * ValidationErrorHandlerを設定する
+     * @param validationErrorHandler ValidationErrorHandler
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addValidationErrorHandler(
+            ValidationErrorHandler validationErrorHandler) {
+        this.setValidationErrorHandler(validationErrorHandler);
+        return this;
+    }
+
+    /**
+     * コンストラクタで処理を実行するフラグを設定する
+     * @param executeByConstructor コンストラクタで処理を実行するフラグ
+     * @return PartitionedDaoCollectorConfig&lt;P&gt;
+     */
+    public PartitionedDaoCollectorConfig<P> addExecuteByConstructor(
+            boolean executeByConstructor) {
+        this.setExecuteByConstructor(executeByConstructor);
+        return this;
+    }
+
+    /**
+     * QueryResultHandleDaoを取得する。
+     * @return QueryResultHandleDao
+     */
+    public Object getQueryResultHandleDao() {
+        return queryResultHandleDao;
+    }
+
+    /**
+     * QueryResultHandleDaoを設定する。
+     * @param queryResultHandleDao QueryResultHandleDao
+     */
+    public void setQueryResultHandleDao(Object queryResultHandleDao) {
+        this.queryResultHandleDao = queryResultHandleDao;
+    }
+
+    /**
+     * 実行するメソッド名を取得する。
+     * @return 実行するメソッド名
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * 実行するメソッド名を設定する。
+     * @param methodName 実行するメソッド名
+     */
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    /**
+     * パーティションごとのSQLにバインドする値を格納したオブジェクトを取得する。
+     * @return パーティションごとのSQLにバインドする値を格納したオブジェクト
+     */
+    public List<?> getPartitionBindParams() {
+        return partitionBindParams;
+    }
+
+    /**
+     * パーティションごとのSQLにバインドする値を格納したオブジェクトを設定する。
+     * @param partitionBindParams パーティションごとのSQLにバインドする値を格納したオブジェクト
+     */
+    public void setPartitionBindParams(List<?> partitionBindParams) {
+        this.partitionBindParams = partitionBindParams;
+    }
+
+    /**
+     * データの順序を取得する。
+     * @return データの順序
+     */
+    public Comparator<? super P> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * データの順序を設定する。
+     * <p>
+     * 設定した場合、パーティションごとのデータを順序に従ってマージする。
+     * 設定しない場合は、パーティションごとのデータを取得した順に提供する。
+     * </p>
+     * @param comparator データの順序
+     */
+    public void setComparator(Comparator<? super P> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * パーティションごとのキューサイズを取得する。
+     * @return パーティションごとのキューサイズ
+     */
+    public int getPartitionQueueSize() {
+        return partitionQueueSize;
+    }
+
+    /**
+     * パーティションごとのキューサイズを設定する。
+     * @param partitionQueueSize パーティションごとのキューサイズ
+     */
+    public void setPartitionQueueSize(int partitionQueueSize) {
+        this.partitionQueueSize = partitionQueueSize;
+    }
+
+    /**
+     * パーティション実行スレッド数を取得する。
+     * @return パーティション実行スレッド数
+     */
+    public int getPartitionThreads() {
+        return partitionThreads;
+    }
+
+    /**
+     * パーティション実行スレッド数を設定する。
+     * <p>
+     * 同時に実行するパーティション数、すなわちコレクタスレッド以外に使用するスレッドとコネクションの数の上限となる。
+     * 順序を指定しない場合、上限を超えるパーティションは実行中のパーティションの終了を待って実行する。
+     * 順序を指定した場合は全てのパーティションを同時に実行してマージするため、パーティション数はこの数以下とすること。
+     * </p>
+     * @param partitionThreads パーティション実行スレッド数
+     */
+    public void setPartitionThreads(int partitionThreads) {
+        this.partitionThreads = partitionThreads;
+    }
+}
@@ -126,6 +126,8 @@ import org.apache.commons.beanutils.PropertyUtils;
  * @deprecated
  * 1:Nマッピングを行なう際は、MyBatis3のselectステートメントのresultOrdered属性をtrueにすることにより、
  * {@code Queueing1NRelationResultHandlerImpl}、および{@code DaoCollectorConfig#setRelation1n()}の設定が不要となる。
+ * 親オブジェクト単位でキューに格納する必要がある場合は、{@link QueueingNestedResultHandlerImpl}を使用すること。
+ * @see QueueingNestedResultHandlerImpl
  * @see <a href="http://mybatis.github.io/mybatis-3/ja/sqlmap-xml.html">http://mybatis.github.io/mybatis-3/ja/sqlmap-xml.html</a>
  */
 @Deprecated
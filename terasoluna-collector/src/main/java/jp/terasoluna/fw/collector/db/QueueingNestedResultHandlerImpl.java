@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.db;
+
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.logger.TLogger;
+
+import org.apache.ibatis.session.ResultContext;
+
+/**
+ * QueueingResultHandlerのネストした結果マッピング(1:N)対応の実装クラス<br>
+ * <p>
+ * MyBatisがResultHandler#handleResult()に渡す親オブジェクトを、親オブジェクトのインスタンス単位にまとめてキューに格納する。
+ * 1:Nマッピング使用時、MyBatisは親オブジェクトの最初の行でResultHandler#handleResult()を呼び出し、
+ * 以降の行の子オブジェクトを同じインスタンスに追加するため、このクラスでは、
+ * 異なるインスタンスの親オブジェクトが渡された時点で、前の親オブジェクトを完成したものとしてキューに格納する。
+ * 最後の親オブジェクトは、MyBatisが処理を終えた時点でキューに格納する。<br>
+ * 同じインスタンスが続けて渡された場合は、1件の親オブジェクトとして扱う。
+ * </p>
+ * <p>
+ * {@link Queueing1NRelationResultHandlerImpl}と異なり、親オブジェクトのシャローコピーや初期化は行わず、
+ * MyBatisから渡されたインスタンスをそのままキューに格納する。
+ * そのため、リフレクションによるプロパティのコピーは発生しない。
+ * </p>
+ * <p>
+ * 使用上の注意：
+ * <ul>
+ * <li>親オブジェクトを識別する列(resultMap要素のid要素)を第1ソートキーとしてソート(ORDER BY)すること。<br>
+ * (ソートキーを誤った場合、またはソートをしない場合、 1:N構造のコレクタ結果クラスが不完全な状態でBLogicを実行してしまうので注意すること)</li>
+ * <li>selectステートメントのresultOrdered属性をtrueにすること。<br>
+ * (resultOrdered属性がfalseの場合、MyBatisはSQLの実行が終わるまで全ての親オブジェクトを保持し続けるため、
+ * データ量に比例してメモリを使用する)</li>
+ * </ul>
+ * </p>
+ * <p>
+ * sqlMap記述例：
+ * 
+ * <pre>
+ * &lt;resultMap id=&quot;orderResultMap&quot; type=&quot;sample.OrderBean&quot;&gt;
+ *   &lt;id property=&quot;ordrId&quot; column=&quot;ordrId&quot;/&gt;
+ *   &lt;result property=&quot;custId&quot; column=&quot;custId&quot;/&gt;
+ *   &lt;collection property=&quot;orderDetailList&quot; ofType=&quot;sample.OrderDetailBean&quot;&gt;
+ *     &lt;id property=&quot;detlId&quot; column=&quot;detlId&quot;/&gt;
+ *     &lt;result property=&quot;quantity&quot; column=&quot;quantity&quot;/&gt;
+ *   &lt;/collection&gt;
+ * &lt;/resultMap&gt;
+ * &lt;select id=&quot;collectOrder&quot; resultMap=&quot;orderResultMap&quot; &lt;b&gt;resultOrdered=&quot;true&quot;&lt;/b&gt;&gt;
+ *     SELECT
+ *       O.ORDR_ID AS &quot;ordrId&quot;,
+ *       O.CUST_ID AS &quot;custId&quot;,
+ *       D.DETL_ID AS &quot;detlId&quot;,
+ *       D.QUANTITY AS &quot;quantity&quot;
+ *     FROM PRODUCT_ORDER O
+ *       LEFT OUTER JOIN PRODUCT_ORDER_DETAILS D ON O.ORDR_ID = D.ORDR_ID
+ *     &lt;b&gt;ORDER BY O.ORDR_ID&lt;/b&gt;, ...
+ * &lt;/select&gt;
+ * </pre>
+ * 
+ * </p>
+ * @see DaoCollectorConfig#addNestedResult(boolean)
+ */
+public class QueueingNestedResultHandlerImpl<T> extends
+        QueueingResultHandlerImpl<T> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(QueueingNestedResultHandlerImpl.class);
+
+    /**
+     * 行取得時にMyBatisからコールバックされるハンドラメソッド。
+     *
+     * @param context 取得行コンテキスト
+     */
+    @Override
+    public void handleResult(ResultContext<? extends T> context) {
+        T row = context.getResultObject();
+        if (row != null && row == this.prevRow) {
+            // 格納待ちの親オブジェクトと同じインスタンスは1件として扱う
+            return;
+        }
+        super.handleResult(context);
+    }
+
+    /**
+     * 前回handleResultメソッドに渡された親オブジェクトをキューに格納する。
+     */
+    @Override
+    public void delayCollect() {
+        if (this.prevRow == null) {
+            return;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        T row = this.prevRow;
+        this.prevRow = null;
+        try {
+            if (this.daoCollector != null) {
+                // 完成した親オブジェクトを1件キューにつめる
+                this.daoCollector.addQueue(new DataValueObject(row,
+                        this.dataCount.incrementAndGet()));
+            }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
+            // InterruptedException発生によりスレッドの「割り込み状態」はクリアされる。
+            // 呼び出し元に割り込みが発生したことを通知する必要があるため、「割り込み状態」を再度保存する。
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.file;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FileBulkLoaderの処理結果。
+ * <p>
+ * 各件数は登録スレッドから並行して加算されるため、スレッドセーフに保持する。
+ * </p>
+ */
+public class FileBulkLoadResult {
+
+    /** 読み込み件数 */
+    protected final AtomicLong readCount = new AtomicLong(0);
+
+    /** 登録件数 */
+    protected final AtomicLong loadedCount = new AtomicLong(0);
+
+    /** 拒否件数 */
+    protected final AtomicLong rejectedCount = new AtomicLong(0);
+
+    /** 処理時間(msec) */
+    protected volatile long elapsedTime = 0;
+
+    /**
+     * 読み込み件数を取得する。
+     * @return 読み込み件数
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * 登録件数を取得する。
+     * @return 登録件数
+     */
+    public long getLoadedCount() {
+        return loadedCount.get();
+    }
+
+    /**
+     * 拒否件数を取得する。<br>
+     * ファイル行オブジェクトへの変換に失敗した行と、登録に失敗した行の合計。
+     * @return 拒否件数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * 処理時間(msec)を取得する。
+     * @return 処理時間(msec)
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.file;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jp.terasoluna.fw.collector.CollectorThreadFactory;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.exception.SystemException;
+import jp.terasoluna.fw.file.dao.FileLineException;
+import jp.terasoluna.fw.file.dao.FileLineIterator;
+import jp.terasoluna.fw.file.dao.FileLineWriter;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+import jp.terasoluna.fw.file.dao.FileUpdateDAO;
+import jp.terasoluna.fw.logger.TLogger;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * FileBulkLoader.<br>
+ * <p>
+ * FileQueryDAOで読み込んだファイル行オブジェクトを、複数の登録スレッドで並列にデータベースへ登録する。<br>
+ * 呼び出し元スレッドがファイルを読み込み、コミット件数ごとのセグメントに分割して登録スレッドに引き渡す。
+ * 登録スレッドはそれぞれ別のSqlSession(別コネクション)をバッチモードで使用し、
+ * セグメント単位でJDBCバッチ実行とコミットを行う。
+ * </p>
+ * <p>
+ * セグメントの登録に失敗した場合はロールバックし、そのセグメントを1件ずつ登録し直す。
+ * 1件単位でも登録できなかった行は拒否行として扱い、エラーファイルが設定されていれば
+ * ファイル行オブジェクトと同じ形式でエラーファイルに出力する。
+ * ファイル行オブジェクトへの変換に失敗した行も拒否行として件数に含めるが、エラーファイルには出力しない。
+ * </p>
+ * <p>
+ * 使用例：
+ *
+ * <pre>
+ * FileBulkLoaderConfig&lt;UserData&gt; config = new FileBulkLoaderConfig&lt;UserData&gt;(
+ *         csvFileQueryDAO, &quot;input/user.csv&quot;, UserData.class,
+ *         sqlSessionFactory, &quot;sample.UserDao.insertUser&quot;)
+ *         .addThreadSize(4).addCommitSize(1000)
+ *         .addErrorFile(csvFileUpdateDAO, &quot;output/user_error.csv&quot;);
+ * FileBulkLoadResult result = new FileBulkLoader&lt;UserData&gt;(config).load();
+ * </pre>
+ *
+ * </p>
+ * <p>
+ * 登録スレッドは別コネクションでコミットを行うため、呼び出し元のトランザクションには参加しない。
+ * </p>
+ * @param <P> ファイル行オブジェクトの型
+ */
+public class FileBulkLoader<P> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(FileBulkLoader.class);
+
+    /** デフォルトの登録スレッド数 */
+    public static final int DEFAULT_THREAD_SIZE = 4;
+
+    /** デフォルトのコミット件数 */
+    public static final int DEFAULT_COMMIT_SIZE = 1000;
+
+    /** セグメント引き渡し待ちのポーリング間隔(msec) */
+    protected static final long OFFER_WAIT = 100;
+
+    /** 登録スレッドに終了を通知するセグメント */
+    protected static final List<DataValueObject> END_OF_SEGMENT = new ArrayList<DataValueObject>(
+            0);
+
+    /** FileQueryDAO */
+    protected FileQueryDAO fileQueryDAO = null;
+
+    /** ファイル名（絶対パスまたは相対パスのどちらか） */
+    protected String fileName = null;
+
+    /** 1行分の文字列を格納するファイル行オブジェクトクラス */
+    protected Class<P> clazz = null;
+
+    /** 登録に使用するSqlSessionFactory */
+    protected SqlSessionFactory sqlSessionFactory = null;
+
+    /** 登録SQLのステートメントID */
+    protected String statementId = null;
+
+    /** 登録スレッド数 */
+    protected int threadSize = DEFAULT_THREAD_SIZE;
+
+    /** コミット件数 */
+    protected int commitSize = DEFAULT_COMMIT_SIZE;
+
+    /** エラーファイル出力用FileUpdateDAO */
+    protected FileUpdateDAO errorFileUpdateDAO = null;
+
+    /** エラーファイル名 */
+    protected String errorFileName = null;
+
+    /** エラーファイル出力用FileLineWriter（最初の拒否行の出力時に生成する） */
+    protected FileLineWriter<P> errorWriter = null;
+
+    /**
+     * FileBulkLoaderコンストラクタ.<br>
+     * @param config FileBulkLoaderConfig FileBulkLoader設定項目
+     */
+    public FileBulkLoader(FileBulkLoaderConfig<P> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (config.getFileQueryDAO() == null
+                || config.getSqlSessionFactory() == null
+                || config.getStatementId() == null) {
+            throw new IllegalArgumentException(
+                    "FileQueryDAO, SqlSessionFactory and statementId are required.");
+        }
+
+        this.fileQueryDAO = config.getFileQueryDAO();
+        this.fileName = config.getFileName();
+        this.clazz = config.getClazz();
+        this.sqlSessionFactory = config.getSqlSessionFactory();
+        this.statementId = config.getStatementId();
+        if (config.getThreadSize() > 0) {
+            this.threadSize = config.getThreadSize();
+        }
+        if (config.getCommitSize() > 0) {
+            this.commitSize = config.getCommitSize();
+        }
+        this.errorFileUpdateDAO = config.getErrorFileUpdateDAO();
+        this.errorFileName = config.getErrorFileName();
+    }
+
+    /**
+     * ファイルを読み込み、データベースへ登録する。<br>
+     * <p>
+     * 全ての登録スレッドが終了するまで本メソッドは終了しない。<br>
+     * ファイルのオープンに失敗した場合や、登録スレッドでSqlSessionを取得できなかった場合など、
+     * 処理を継続できない例外が発生した場合は、読み込みを中断してその例外をスローする。
+     * </p>
+     * @return 処理結果
+     */
+    public FileBulkLoadResult load() {
+        long startTime = System.currentTimeMillis();
+        FileBulkLoadResult result = new FileBulkLoadResult();
+        BlockingQueue<List<DataValueObject>> segmentQueue = new ArrayBlockingQueue<List<DataValueObject>>(
+                this.threadSize * 2);
+        AtomicReference<Throwable> fatal = new AtomicReference<Throwable>();
+
+        ExecutorService ex = Executors.newFixedThreadPool(this.threadSize,
+                new CollectorThreadFactory());
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        FileLineIterator<P> fli = null;
+        try {
+            for (int i = 0; i < this.threadSize; i++) {
+                futures.add(ex.submit(new SegmentLoader(segmentQueue, result,
+                        fatal)));
+            }
+
+            // FileQueryDAO実行
+            fli = this.fileQueryDAO.execute(this.fileName, this.clazz);
+
+            long lineCount = 0;
+            List<DataValueObject> segment = new ArrayList<DataValueObject>(
+                    this.commitSize);
+            while (fli.hasNext()) {
+                lineCount++;
+                result.readCount.incrementAndGet();
+                try {
+                    segment.add(new DataValueObject(fli.next(), lineCount));
+                } catch (FileLineException e) {
+                    reject(result, null, lineCount, e);
+                    continue;
+                }
+                if (segment.size() >= this.commitSize) {
+                    offerSegment(segmentQueue, segment, fatal);
+                    segment = new ArrayList<DataValueObject>(this.commitSize);
+                }
+            }
+            if (!segment.isEmpty()) {
+                offerSegment(segmentQueue, segment, fatal);
+            }
+        } finally {
+            try {
+                if (fli != null) {
+                    fli.closeFile();
+                }
+            } finally {
+                finishLoaders(ex, segmentQueue, futures, fatal);
+                closeErrorWriter();
+                result.elapsedTime = System.currentTimeMillis() - startTime;
+            }
+        }
+
+        LOGGER.info(LogId.IAL041002, this.fileName, result.getReadCount(),
+                result.getLoadedCount(), result.getRejectedCount(), result
+                        .getElapsedTime());
+        return result;
+    }
+
+    /**
+     * セグメントを登録スレッドに引き渡す。<br>
+     * 登録スレッドが処理を継続できない例外で終了している場合は、その例外をスローする。
+     * @param segmentQueue セグメントキュー
+     * @param segment セグメント
+     * @param fatal 登録スレッドで発生した処理継続不可の例外
+     */
+    protected void offerSegment(BlockingQueue<List<DataValueObject>> segmentQueue,
+            List<DataValueObject> segment, AtomicReference<Throwable> fatal) {
+        try {
+            while (!segmentQueue.offer(segment, OFFER_WAIT,
+                    TimeUnit.MILLISECONDS)) {
+                throwIfFatal(fatal);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        }
+        throwIfFatal(fatal);
+    }
+
+    /**
+     * 登録スレッドに終了を通知し、全ての登録スレッドの終了を待つ。
+     * @param ex ExecutorService
+     * @param segmentQueue セグメントキュー
+     * @param futures 登録スレッドの結果
+     * @param fatal 登録スレッドで発生した処理継続不可の例外
+     */
+    protected void finishLoaders(ExecutorService ex,
+            BlockingQueue<List<DataValueObject>> segmentQueue,
+            List<Future<Integer>> futures, AtomicReference<Throwable> fatal) {
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                while (fatal.get() == null
+                        && !segmentQueue.offer(END_OF_SEGMENT, OFFER_WAIT,
+                                TimeUnit.MILLISECONDS)) {
+                    // 登録スレッドの取り出しを待つ
+                }
+            }
+            if (fatal.get() != null) {
+                ex.shutdownNow();
+            }
+            for (Future<Integer> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            ex.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        } catch (ExecutionException e) {
+            fatal.compareAndSet(null, e.getCause());
+        } finally {
+            ex.shutdown();
+        }
+        throwIfFatal(fatal);
+    }
+
+    /**
+     * 処理継続不可の例外が発生していればスローする。
+     * @param fatal 登録スレッドで発生した処理継続不可の例外
+     */
+    protected void throwIfFatal(AtomicReference<Throwable> fatal) {
+        Throwable th = fatal.get();
+        if (th == null) {
+            return;
+        }
+        if (th instanceof RuntimeException) {
+            throw (RuntimeException) th;
+        }
+        throw new SystemException(th);
+    }
+
+    /**
+     * セグメントを登録する。<br>
+     * セグメント全体をJDBCバッチで登録してコミットし、失敗した場合は1件ずつ登録し直す。
+     * @param session バッチモードのSqlSession
+     * @param segment セグメント
+     * @param result 処理結果
+     */
+    protected void loadSegment(SqlSession session,
+            List<DataValueObject> segment, FileBulkLoadResult result) {
+        try {
+            for (DataValueObject row : segment) {
+                session.insert(this.statementId, row.getValue());
+            }
+            session.flushStatements();
+            commit(session);
+            result.loadedCount.addAndGet(segment.size());
+            return;
+        } catch (RuntimeException e) {
+            rollbackQuietly(session);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(LogId.DAL041003, segment.get(0).getDataCount(),
+                        segment.get(segment.size() - 1).getDataCount(), e
+                                .getMessage());
+            }
+        }
+
+        // 1件ずつ登録し直し、登録できない行を特定する
+        for (DataValueObject row : segment) {
+            try {
+                session.insert(this.statementId, row.getValue());
+                session.flushStatements();
+                commit(session);
+                result.loadedCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                rollbackQuietly(session);
+                reject(result, row.getValue(), row.getDataCount(), e);
+            }
+        }
+    }
+
+    /**
+     * 拒否行を記録する。<br>
+     * ファイル行オブジェクトがあり、エラーファイルが設定されている場合はエラーファイルに出力する。
+     * @param result 処理結果
+     * @param value ファイル行オブジェクト（変換に失敗した場合はnull）
+     * @param lineCount 行番号
+     * @param cause 拒否の原因となった例外
+     */
+    @SuppressWarnings("unchecked")
+    protected void reject(FileBulkLoadResult result, Object value,
+            long lineCount, Throwable cause) {
+        result.rejectedCount.incrementAndGet();
+        LOGGER.warn(LogId.WAL041005, lineCount, cause.getMessage());
+
+        if (value == null || this.errorFileUpdateDAO == null
+                || this.errorFileName == null) {
+            return;
+        }
+        synchronized (this) {
+            if (this.errorWriter == null) {
+                this.errorWriter = this.errorFileUpdateDAO.execute(
+                        this.errorFileName, this.clazz);
+            }
+            this.errorWriter.printDataLine((P) value);
+        }
+    }
+
+    /**
+     * エラーファイルをクローズする。
+     */
+    protected synchronized void closeErrorWriter() {
+        if (this.errorWriter != null) {
+            this.errorWriter.closeFile();
+            this.errorWriter = null;
+        }
+    }
+
+    /**
+     * コミットする。<br>
+     * SqlSessionのトランザクション管理はコネクションの自動コミット設定に依存するため、
+     * コネクションに対して直接コミットする。
+     * @param session SqlSession
+     */
+    protected static void commit(SqlSession session) {
+        try {
+            session.getConnection().commit();
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * ロールバックする。ロールバック時の例外は無視する。<br>
+     * フラッシュ前に失敗した場合にJDBCバッチに残った行を破棄するため、SqlSessionでロールバックした上で、
+     * コネクションに対しても直接ロールバックする。
+     * @param session SqlSession
+     */
+    protected static void rollbackQuietly(SqlSession session) {
+        try {
+            session.rollback(true);
+        } catch (RuntimeException e) {
+            // なにもしない
+        }
+        try {
+            session.getConnection().rollback();
+        } catch (SQLException e) {
+            // なにもしない
+        } catch (RuntimeException e) {
+            // なにもしない
+        }
+    }
+
+    /**
+     * 登録スレッド。<br>
+     * 終了通知のセグメントを受け取るまで、セグメントキューから取り出したセグメントを登録する。
+     */
+    protected class SegmentLoader implements Callable<Integer> {
+
+        /** セグメントキュー */
+        private final BlockingQueue<List<DataValueObject>> segmentQueue;
+
+        /** 処理結果 */
+        private final FileBulkLoadResult result;
+
+        /** 処理継続不可の例外 */
+        private final AtomicReference<Throwable> fatal;
+
+        /**
+         * コンストラクタ
+         * @param segmentQueue セグメントキュー
+         * @param result 処理結果
+         * @param fatal 処理継続不可の例外の通知先
+         */
+        SegmentLoader(BlockingQueue<List<DataValueObject>> segmentQueue,
+                FileBulkLoadResult result, AtomicReference<Throwable> fatal) {
+            this.segmentQueue = segmentQueue;
+            this.result = result;
+            this.fatal = fatal;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer call() throws Exception {
+            SqlSession session = null;
+            Connection con = null;
+            boolean autoCommit = false;
+            try {
+                session = sqlSessionFactory.openSession(ExecutorType.BATCH,
+                        false);
+                // セグメント単位でコミットするため、自動コミットを無効にする
+                con = session.getConnection();
+                autoCommit = con.getAutoCommit();
+                if (autoCommit) {
+                    con.setAutoCommit(false);
+                }
+                while (true) {
+                    List<DataValueObject> segment = segmentQueue.take();
+                    if (segment == END_OF_SEGMENT) {
+                        break;
+                    }
+                    loadSegment(session, segment, result);
+                }
+            } catch (InterruptedException e) {
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                            .getName());
+                }
+            } catch (Throwable th) {
+                fatal.compareAndSet(null, th);
+            } finally {
+                if (con != null && autoCommit) {
+                    try {
+                        con.rollback();
+                        con.setAutoCommit(true);
+                    } catch (SQLException e) {
+                        // なにもしない
+                    }
+                }
+                if (session != null) {
+                    session.close();
+                }
+            }
+            return 0;
+        }
+    }
+}
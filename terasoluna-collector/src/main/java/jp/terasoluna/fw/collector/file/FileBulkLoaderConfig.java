@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.file;
+
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+import jp.terasoluna.fw.file.dao.FileUpdateDAO;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * FileBulkLoader設定項目
+ * @param <P> ファイル行オブジェクトの型
+ */
+public class FileBulkLoaderConfig<P> {
+
+    /** FileQueryDAO */
+    protected FileQueryDAO fileQueryDAO = null;
+
+    /** ファイル名（絶対パスまたは相対パスのどちらか） */
+    protected String fileName = null;
+
+    /** 1行分の文字列を格納するファイル行オブジェクトクラス */
+    protected Class<P> clazz = null;
+
+    /** 登録に使用するSqlSessionFactory */
+    protected SqlSessionFactory sqlSessionFactory = null;
+
+    /** 登録SQLのステートメントID */
+    protected String statementId = null;
+
+    /** 登録スレッド数 */
+    protected int threadSize = FileBulkLoader.DEFAULT_THREAD_SIZE;
+
+    /** コミット件数 */
+    protected int commitSize = FileBulkLoader.DEFAULT_COMMIT_SIZE;
+
+    /** エラーファイル出力用FileUpdateDAO */
+    protected FileUpdateDAO errorFileUpdateDAO = null;
+
+    /** エラーファイル名（絶対パスまたは相対パスのどちらか） */
+    protected String errorFileName = null;
+
+    /**
+     * コンストラクタ
+     * @param fileQueryDAO FileQueryDAOインスタンス
+     * @param fileName ファイル名（絶対パスまたは相対パスのどちらか）
+     * @param clazz 1行分の文字列を格納するファイル行オブジェクトクラス
+     * @param sqlSessionFactory 登録に使用するSqlSessionFactory
+     * @param statementId 登録SQLのステートメントID
+     */
+    public FileBulkLoaderConfig(FileQueryDAO fileQueryDAO, String fileName,
+            Class<P> clazz, SqlSessionFactory sqlSessionFactory,
+            String statementId) {
+        this.fileQueryDAO = fileQueryDAO;
+        this.fileName = fileName;
+        this.clazz = clazz;
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.statementId = statementId;
+    }
+
+    /**
+     * 登録スレッド数を設定する
+     * @param threadSize 登録スレッド数
+     * @return FileBulkLoaderConfig&lt;P&gt;
+     */
+    public FileBulkLoaderConfig<P> addThreadSize(int threadSize) {
+        this.setThreadSize(threadSize);
+        return this;
+    }
+
+    /**
+     * コミット件数を設定する
+     * @param commitSize コミット件数
+     * @return FileBulkLoaderConfig&lt;P&gt;
+     */
+    public FileBulkLoaderConfig<P> addCommitSize(int commitSize) {
+        this.setCommitSize(commitSize);
+        return this;
+    }
+
+    /**
+     * エラーファイルの出力先を設定する
+     * @param errorFileUpdateDAO エラーファイル出力用FileUpdateDAO
+     * @param errorFileName エラーファイル名（絶対パスまたは相対パスのどちらか）
+     * @return FileBulkLoaderConfig&lt;P&gt;
+     */
+    public FileBulkLoaderConfig<P> addErrorFile(
+            FileUpdateDAO errorFileUpdateDAO, String errorFileName) {
+        this.setErrorFileUpdateDAO(errorFileUpdateDAO);
+        this.setErrorFileName(errorFileName);
+        return this;
+    }
+
+    /**
+     * FileQueryDAOを取得する。
+     * @return FileQueryDAO
+     */
+    public FileQueryDAO getFileQueryDAO() {
+        return fileQueryDAO;
+    }
+
+    /**
+     * FileQueryDAOを設定する。
+     * @param fileQueryDAO FileQueryDAO
+     */
+    public void setFileQueryDAO(FileQueryDAO fileQueryDAO) {
+        this.fileQueryDAO = fileQueryDAO;
+    }
+
+    /**
+     * ファイル名を取得する。
+     * @return ファイル名
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * ファイル名を設定する。
+     * @param fileName ファイル名
+     */
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * ファイル行オブジェクトクラスを取得する。
+     * @return ファイル行オブジェクトクラス
+     */
+    public Class<P> getClazz() {
+        return clazz;
+    }
+
+    /**
+     * ファイル行オブジェクトクラスを設定する。
+     * @param clazz ファイル行オブジェクトクラス
+     */
+    public void setClazz(Class<P> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * SqlSessionFactoryを取得する。
+     * @return SqlSessionFactory
+     */
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory;
+    }
+
+    /**
+     * SqlSessionFactoryを設定する。
+     * @param sqlSessionFactory SqlSessionFactory
+     */
+    public void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    /**
+     * 登録SQLのステートメントIDを取得する。
+     * @return 登録SQLのステートメントID
+     */
+    public String getStatementId() {
+        return statementId;
+    }
+
+    /**
+     * 登録SQLのステートメントIDを設定する。
+     * @param statementId 登録SQLのステートメントID
+     */
+    public void setStatementId(String statementId) {
+        this.statementId = statementId;
+    }
+
+    /**
+     * 登録スレッド数を取得する。
+     * @return 登録スレッド数
+     */
+    public int getThreadSize() {
+        return threadSize;
+    }
+
+    /**
+     * 登録スレッド数を設定する。
+     * @param threadSize 登録スレッド数
+     */
+    public void setThreadSize(int threadSize) {
+        this.threadSize = threadSize;
+    }
+
+    /**
+     * コミット件数を取得する。
+     * @return コミット件数
+     */
+    public int getCommitSize() {
+        return commitSize;
+    }
+
+    /**
+     * コミット件数を設定する。
+     * @param commitSize コミット件数
+     */
+    public void setCommitSize(int commitSize) {
+        this.commitSize = commitSize;
+    }
+
+    /**
+     * エラーファイル出力用FileUpdateDAOを取得する。
+     * @return エラーファイル出力用FileUpdateDAO
+     */
+    public FileUpdateDAO getErrorFileUpdateDAO() {
+        return errorFileUpdateDAO;
+    }
+
+    /**
+     * エラーファイル出力用FileUpdateDAOを設定する。
+     * @param errorFileUpdateDAO エラーファイル出力用FileUpdateDAO
+     */
+    public void setErrorFileUpdateDAO(FileUpdateDAO errorFileUpdateDAO) {
+        this.errorFileUpdateDAO = errorFileUpdateDAO;
+    }
+
+    /**
+     * エラーファイル名を取得する。
+     * @return エラーファイル名
+     */
+    public String getErrorFileName() {
+        return errorFileName;
+    }
+
+    /**
+     * エラーファイル名を設定する。
+     * @param errorFileName エラーファイル名
+     */
+    public void setErrorFileName(String errorFileName) {
+        this.errorFileName = errorFileName;
+    }
+}
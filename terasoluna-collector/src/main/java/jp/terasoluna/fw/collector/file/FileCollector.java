@@ -16,17 +16,32 @@
 
 package jp.terasoluna.fw.collector.file;
 
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import jp.terasoluna.fw.collector.AbstractCollector;
 import jp.terasoluna.fw.collector.LogId;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
 import jp.terasoluna.fw.collector.vo.DataValueObject;
 import jp.terasoluna.fw.file.dao.FileLineIterator;
 import jp.terasoluna.fw.file.dao.FileQueryDAO;
+import jp.terasoluna.fw.file.dao.RawLineFileLineIterator;
 import jp.terasoluna.fw.logger.TLogger;
 
 /**
  * FileCollector.<br>
  * 独立した別スレッドを起動し、FileQueryDAOを非同期で実行する。
+ * <p>
+ * 変換スレッド数(FileCollectorConfig#addParserThreads)に2以上を指定した場合、
+ * コレクタスレッドはファイルから1行分の文字列を読み込むだけとし、ファイル行オブジェクトへの変換は変換スレッドで並列に行う。
+ * 変換結果は変換の完了順ではなく、行の順序どおりにキューに詰める。
+ * この場合、FileQueryDAOが返すFileLineIteratorはRawLineFileLineIteratorを実装していること。
+ * また、ファイル行オブジェクトの属性に対応するColumnParser、StringConverterはスレッドセーフであること。
+ * </p>
  * @param &ltP&gt
  */
 public class FileCollector<P> extends AbstractCollector<P> {
@@ -36,6 +51,9 @@ public class FileCollector<P> extends AbstractCollector<P> {
      */
     private static TLogger LOGGER = TLogger.getLogger(FileCollector.class);
 
+    /** デフォルトの変換スレッドにまとめて渡す行数 */
+    public static final int DEFAULT_PARSE_BATCH_SIZE = 256;
+
     /** FileQueryDAO */
     protected FileQueryDAO fileQueryDAO = null;
 
@@ -45,6 +63,12 @@ public class FileCollector<P> extends AbstractCollector<P> {
     /** 1行分の文字列を格納するファイル行オブジェクトクラス */
     protected Class<P> clazz = null;
 
+    /** 変換スレッド数 */
+    protected int parserThreads = 0;
+
+    /** 変換スレッドにまとめて渡す行数 */
+    protected int parseBatchSize = DEFAULT_PARSE_BATCH_SIZE;
+
     /**
      * FileCollectorコンストラクタ.<br>
      */
@@ -102,9 +126,22 @@ public class FileCollector<P> extends AbstractCollector<P> {
         this.fileQueryDAO = config.getFileQueryDAO();
         this.fileName = config.getFileName();
         this.clazz = config.getClazz();
+        this.parserThreads = config.getParserThreads();
+        if (config.getParseBatchSize() > 0) {
+            this.parseBatchSize = config.getParseBatchSize();
+        }
         if (config.getQueueSize() > 0) {
             setQueueSize(config.getQueueSize());
         }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
         this.exceptionHandler = config.getExceptionHandler();
 
         if (config.isExecuteByConstructor()) {
@@ -128,32 +165,56 @@ public class FileCollector<P> extends AbstractCollector<P> {
             fli = this.fileQueryDAO.execute(this.fileName, this.clazz);
 
             if (fli != null) {
-                while (fli.hasNext()) {
-                    dataCount++;
-                    try {
-                        Object value = fli.next();
-
-                        // 取得したデータを1件キューにつめる
-                        addQueue(new DataValueObject(value, dataCount));
-                    } catch (InterruptedException e) {
-                        if (LOGGER.isTraceEnabled()) {
-                            LOGGER.trace(LogId.TAL041002, Thread
-                                    .currentThread().getName());
-                        }
-                        break;
-                    } catch (Throwable e) {
-                        // 発生した例外をキューにつめる
+                ParsePipeline pipeline = createParsePipeline(fli);
+                boolean interrupted = false;
+                try {
+                    while (fli.hasNext()) {
+                        dataCount++;
                         try {
-                            addQueue(new DataValueObject(e, dataCount));
-                        } catch (InterruptedException ie) {
-                            LOGGER.warn(LogId.WAL041003, e);
-                            LOGGER.warn(LogId.WAL041003, ie);
+                            if (pipeline != null) {
+                                // 読み込みのみ行い、変換は変換スレッドで行う
+                                pipeline.add(pipeline.readRow(dataCount));
+                                continue;
+                            }
+                            Object value = fli.next();
+
+                            // 取得したデータを1件キューにつめる
+                            addQueue(new DataValueObject(value, dataCount));
+                        } catch (InterruptedException e) {
+                            if (LOGGER.isTraceEnabled()) {
+                                LOGGER.trace(LogId.TAL041002, Thread
+                                        .currentThread().getName());
+                            }
+                            interrupted = true;
                             break;
+                        } catch (Throwable e) {
+                            // 発生した例外をキューにつめる
+                            try {
+                                addQueue(new DataValueObject(e, dataCount));
+                            } catch (InterruptedException ie) {
+                                LOGGER.warn(LogId.WAL041003, e);
+                                LOGGER.warn(LogId.WAL041003, ie);
+                                interrupted = true;
+                                break;
+                            }
+                            // 次の行を読むため、ループは継続する
                         }
-                        // 次の行を読むため、ループは継続する
+                    }
+                    if (pipeline != null && !interrupted) {
+                        // 変換中の行の変換結果をキューにつめる
+                        pipeline.finish();
+                    }
+                } finally {
+                    if (pipeline != null) {
+                        pipeline.shutdown();
                     }
                 }
             }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
         } catch (Exception e) {
             // シャットダウン中は発生した例外をキューに詰めない
             if (!isFinish()) {
@@ -186,4 +247,202 @@ public class FileCollector<P> extends AbstractCollector<P> {
 
         return Integer.valueOf(0);
     }
+
+    /**
+     * 変換スレッドで変換を行うためのParsePipelineを生成する。<br>
+     * <p>
+     * 変換スレッド数が1以下の場合や、FileLineIteratorがRawLineFileLineIteratorを実装していない場合はnullを返す。
+     * </p>
+     * @param fli FileLineIterator
+     * @return ParsePipeline
+     */
+    private ParsePipeline createParsePipeline(FileLineIterator<P> fli) {
+        if (this.parserThreads <= 1) {
+            return null;
+        }
+        if (!(fli instanceof RawLineFileLineIterator)) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(LogId.DAL041006, fli.getClass().getName());
+            }
+            return null;
+        }
+        return new ParsePipeline((RawLineFileLineIterator<P>) fli);
+    }
+
+    /**
+     * コレクタスレッドで読み込んだ1行分の文字列をバッチ単位で変換スレッドに渡し、変換結果を行の順序どおりにキューにつめる。<br>
+     * <p>
+     * 変換中のバッチ数が上限(変換スレッド数の2倍)に達した場合は、先頭のバッチの変換結果をキューに詰めるまで次の行を読み込まない。
+     * </p>
+     */
+    private class ParsePipeline {
+
+        /** RawLineFileLineIterator */
+        private final RawLineFileLineIterator<P> iterator;
+
+        /** 変換スレッドのExecutorService */
+        private final ExecutorService executor;
+
+        /** 変換中のバッチの上限数 */
+        private final int inFlightLimit;
+
+        /** 変換中のバッチ */
+        private final Queue<Future<DataValueObject[]>> inFlight;
+
+        /** 変換スレッドに渡す前のバッチ */
+        private DataValueObject[] batch;
+
+        /** 変換スレッドに渡す前のバッチの行数 */
+        private int batchLength = 0;
+
+        /**
+         * コンストラクタ。
+         * @param iterator RawLineFileLineIterator
+         */
+        ParsePipeline(RawLineFileLineIterator<P> iterator) {
+            this.iterator = iterator;
+            this.executor = createWorkerExecutor(parserThreads);
+            this.inFlightLimit = parserThreads * 2;
+            this.inFlight = new ArrayDeque<Future<DataValueObject[]>>(
+                    this.inFlightLimit);
+            this.batch = new DataValueObject[parseBatchSize];
+        }
+
+        /**
+         * 1行分の文字列を読み込む。<br>
+         * 読み込みで発生した例外は、その行の変換結果とする。
+         * @param dataCount データ件数
+         * @return 1行分の文字列、または発生した例外を持つDataValueObject
+         */
+        DataValueObject readRow(long dataCount) {
+            try {
+                return new DataValueObject(this.iterator.readRawLine(),
+                        dataCount);
+            } catch (Throwable e) {
+                return new DataValueObject(e, dataCount);
+            }
+        }
+
+        /**
+         * 1行分の文字列をバッチに追加する。<br>
+         * バッチの行数が上限に達した場合はバッチを変換スレッドに渡し、変換済みの先頭のバッチの変換結果をキューにつめる。
+         * @param row 1行分の文字列、または発生した例外を持つDataValueObject
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        void add(DataValueObject row) throws InterruptedException {
+            this.batch[this.batchLength++] = row;
+            if (this.batchLength < this.batch.length) {
+                return;
+            }
+            submit();
+            while (!this.inFlight.isEmpty()
+                    && (this.inFlight.size() >= this.inFlightLimit || this.inFlight
+                            .peek().isDone())) {
+                addResults(this.inFlight.poll());
+            }
+        }
+
+        /**
+         * 残りのバッチを変換スレッドに渡し、全ての変換結果をキューにつめる。
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        void finish() throws InterruptedException {
+            if (this.batchLength > 0) {
+                submit();
+            }
+            while (!this.inFlight.isEmpty()) {
+                addResults(this.inFlight.poll());
+            }
+        }
+
+        /**
+         * 変換スレッドを終了する。
+         */
+        void shutdown() {
+            this.executor.shutdownNow();
+        }
+
+        /**
+         * バッチを変換スレッドに渡す。
+         */
+        private void submit() {
+            this.inFlight.add(this.executor.submit(new ParseTask(
+                    this.iterator, this.batch, this.batchLength)));
+            this.batch = new DataValueObject[parseBatchSize];
+            this.batchLength = 0;
+        }
+
+        /**
+         * バッチの変換結果を待ち、キューにつめる。
+         * @param future バッチの変換結果
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        private void addResults(Future<DataValueObject[]> future)
+                                                                  throws InterruptedException {
+            DataValueObject[] results = null;
+            try {
+                results = future.get();
+            } catch (ExecutionException e) {
+                // 変換の例外はParseTaskで変換結果に設定されるため、ここではError等が発生した場合のみ
+                addQueue(new DataValueObject(e.getCause()));
+                return;
+            }
+            for (DataValueObject result : results) {
+                addQueue(result);
+            }
+        }
+    }
+
+    /**
+     * 変換スレッドでバッチの1行分の文字列を1件ずつファイル行オブジェクトに変換するタスク。
+     */
+    private static class ParseTask implements Callable<DataValueObject[]> {
+
+        /** RawLineFileLineIterator */
+        private final RawLineFileLineIterator<?> iterator;
+
+        /** バッチ */
+        private final DataValueObject[] batch;
+
+        /** バッチの行数 */
+        private final int length;
+
+        /**
+         * コンストラクタ。
+         * @param iterator RawLineFileLineIterator
+         * @param batch バッチ
+         * @param length バッチの行数
+         */
+        ParseTask(RawLineFileLineIterator<?> iterator,
+                DataValueObject[] batch, int length) {
+            this.iterator = iterator;
+            this.batch = batch;
+            this.length = length;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DataValueObject[] call() {
+            DataValueObject[] results = new DataValueObject[this.length];
+            for (int i = 0; i < this.length; i++) {
+                DataValueObject row = this.batch[i];
+                if (row.getThrowable() != null) {
+                    // 読み込みで発生した例外はそのまま返す
+                    results[i] = row;
+                    continue;
+                }
+                try {
+                    Object value = this.iterator.parseRawLine((String) row
+                            .getValue(), (int) row.getDataCount());
+                    results[i] = new DataValueObject(value, row
+                            .getDataCount());
+                } catch (Exception e) {
+                    results[i] = new DataValueObject(e, row.getDataCount());
+                }
+            }
+            return results;
+        }
+    }
 }
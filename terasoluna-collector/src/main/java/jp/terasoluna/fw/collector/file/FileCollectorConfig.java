@@ -17,6 +17,8 @@
 package jp.terasoluna.fw.collector.file;
 
 import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.CollectorExecutor;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
 import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
 import jp.terasoluna.fw.file.dao.FileQueryDAO;
@@ -36,6 +38,12 @@ public class FileCollectorConfig<P> extends AbstractCollectorConfig {
     /** 1行分の文字列を格納するファイル行オブジェクトクラス */
     protected Class<P> clazz = null;
 
+    /** 変換スレッド数（2以上を指定した場合、ファイル行オブジェクトへの変換を複数のスレッドで並列に行う） */
+    protected int parserThreads = 0;
+
+    /** 変換スレッドにまとめて渡す行数 */
+    protected int parseBatchSize = 0;
+
     /**
      * コンストラクタ
      * @param fileQueryDAO FileQueryDAOインスタンス
@@ -59,6 +67,36 @@ public class FileCollectorConfig<P> extends AbstractCollectorConfig {
         return this;
     }
 
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return FileCollectorConfig&lt;P&gt;
+     */
+    public FileCollectorConfig<P> addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return FileCollectorConfig&lt;P&gt;
+     */
+    public FileCollectorConfig<P> addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return FileCollectorConfig&lt;P&gt;
+     */
+    public FileCollectorConfig<P> addCollectorExecutor(CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
     /**
      * CollectorExceptionHandlerを設定する
      * @param exceptionHandler CollectorExceptionHandler
@@ -91,6 +129,26 @@ public class FileCollectorConfig<P> extends AbstractCollectorConfig {
         return this;
     }
 
+    /**
+     * 変換スレッド数を設定する
+     * @param parserThreads 変換スレッド数
+     * @return FileCollectorConfig&lt;P&gt;
+     */
+    public FileCollectorConfig<P> addParserThreads(int parserThreads) {
+        this.setParserThreads(parserThreads);
+        return this;
+    }
+
+    /**
+     * 変換スレッドにまとめて渡す行数を設定する
+     * @param parseBatchSize 変換スレッドにまとめて渡す行数
+     * @return FileCollectorConfig&lt;P&gt;
+     */
+    public FileCollectorConfig<P> addParseBatchSize(int parseBatchSize) {
+        this.setParseBatchSize(parseBatchSize);
+        return this;
+    }
+
     /**
      * コンストラクタで処理を実行するフラグを設定する
      * @param executeByConstructor コンストラクタで処理を実行するフラグ
@@ -149,4 +207,41 @@ public class FileCollectorConfig<P> extends AbstractCollectorConfig {
     public void setClazz(Class<P> clazz) {
         this.clazz = clazz;
     }
+
+    /**
+     * 変換スレッド数
+     * <p>
+     * 2以上を指定した場合、コレクタスレッドはファイルから1行分の文字列を読み込むだけとし、
+     * ファイル行オブジェクトへの変換は変換スレッドで並列に行う。変換結果は行の順序どおりにキューに詰める。<br>
+     * FileQueryDAOが返すFileLineIteratorがRawLineFileLineIteratorを実装していない場合は、コレクタスレッドで変換する。
+     * </p>
+     * @return 変換スレッド数
+     */
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    /**
+     * 変換スレッド数
+     * @param parserThreads 変換スレッド数
+     */
+    public void setParserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    /**
+     * 変換スレッドにまとめて渡す行数
+     * @return 変換スレッドにまとめて渡す行数
+     */
+    public int getParseBatchSize() {
+        return parseBatchSize;
+    }
+
+    /**
+     * 変換スレッドにまとめて渡す行数
+     * @param parseBatchSize 変換スレッドにまとめて渡す行数
+     */
+    public void setParseBatchSize(int parseBatchSize) {
+        this.parseBatchSize = parseBatchSize;
+    }
 }
@@ -140,9 +140,22 @@ public class FileValidateCollector<P> extends FileCollector<P> {
         this.fileQueryDAO = config.getFileQueryDAO();
         this.fileName = config.getFileName();
         this.clazz = config.getClazz();
+        this.parserThreads = config.getParserThreads();
+        if (config.getParseBatchSize() > 0) {
+            this.parseBatchSize = config.getParseBatchSize();
+        }
         if (config.getQueueSize() > 0) {
             setQueueSize(config.getQueueSize());
         }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
         this.validator = config.getValidator();
         if (config.getValidator() != null) {
             if (config.getValidationErrorHandler() != null) {
@@ -0,0 +1,579 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.file;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.file.dao.FileLineIterator;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * MultiFileCollector.<br>
+ * <p>
+ * 同じファイル行オブジェクトクラスで読み込める複数のファイルを、ファイルごとに別のスレッドで並列に読み込み、1つのコレクタとして提供する。
+ * 日付ごとのファイルや、複数システムから受け取ったソート済みのファイルを、事前に結合・マージせずに処理できる。
+ * </p>
+ * <p>
+ * データの順序(Comparator)を指定しない場合、ファイルのデータをファイルの順に連結して提供する。
+ * 後続のファイルは、ファイル読み込みスレッド数を上限として先読みする。
+ * </p>
+ * <p>
+ * データの順序を指定した場合、全てのファイルを同時に開き、ファイルごとのデータを順序に従ってマージ(k-wayマージ)して提供する。
+ * ファイル読み込みスレッド数までのファイルは読み込みスレッドで先読みし、残りのファイルはマージするコレクタスレッドで直接読み込む。
+ * いずれの場合も、コレクタスレッド以外に使用するスレッドはファイル数に関わらずファイル読み込みスレッド数までとなる。
+ * 各ファイルが同じ順序でソートされていれば全体が順序どおりとなるため、コントロールブレイクを判定できる。
+ * 順序が等しいデータはファイルの順とする。
+ * 順序には{@link jp.terasoluna.fw.collector.util.KeyComparator}を使用すると、比較のたびにリフレクションを使用しない。
+ * </p>
+ * <p>
+ * 読み込むファイルは、ファイル名のリスト、またはディレクトリとファイル名のパターン(glob形式)で指定する。
+ * パターンで指定した場合、一致したファイルをファイル名の順に読み込む。
+ * ファイル行オブジェクトへの変換に失敗した行は、FileCollectorと同じくその行の位置で例外として提供し、次の行の読み込みを継続する。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * Collector&lt;Sales&gt; col = new MultiFileCollector&lt;Sales&gt;(
+ *     new MultiFileCollectorConfig&lt;Sales&gt;(this.csvFileQueryDAO,
+ *         &quot;input/sales&quot;, &quot;sales_*.csv&quot;, Sales.class)
+ *         .addComparator(salesKeyComparator));
+ * try {
+ *     while (col.hasNext()) {
+ *         Sales sales = col.next();
+ *         // 取得したデータを使用した処理
+ *     }
+ * } finally {
+ *     CollectorUtility.closeQuietly(col);
+ * }
+ * </pre></code>
+ * @param <P> ファイル行オブジェクトの型
+ */
+public class MultiFileCollector<P> extends AbstractCollector<P> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(MultiFileCollector.class);
+
+    /** ファイルの終了を示すデータ */
+    private static final DataValueObject FILE_END = new DataValueObject(
+            (Object) null);
+
+    /** FileQueryDAO */
+    protected FileQueryDAO fileQueryDAO = null;
+
+    /** ファイル名（絶対パスまたは相対パスのどちらか）のリスト */
+    protected List<String> fileNames = null;
+
+    /** ファイルを検索するディレクトリ */
+    protected String directory = null;
+
+    /** ファイル名のパターン（glob形式） */
+    protected String fileNamePattern = null;
+
+    /** 1行分の文字列を格納するファイル行オブジェクトクラス */
+    protected Class<P> clazz = null;
+
+    /** データの順序 */
+    protected Comparator<? super P> comparator = null;
+
+    /** ファイル読み込みスレッド数 */
+    protected int readerThreads = MultiFileCollectorConfig.DEFAULT_READER_THREADS;
+
+    /** ファイルごとのキューサイズ */
+    protected int fileQueueSize = DEFAULT_QUEUE_SIZE;
+
+    /** キューにつめたデータ件数 */
+    private long dataCount = 0L;
+
+    /**
+     * MultiFileCollectorコンストラクタ.<br>
+     */
+    protected MultiFileCollector() {
+    }
+
+    /**
+     * MultiFileCollectorコンストラクタ.<br>
+     * <p>
+     * ファイルのデータをファイルの順に連結して提供する。
+     * </p>
+     * @param fileQueryDAO FileQueryDAOインスタンス
+     * @param fileNames ファイル名（絶対パスまたは相対パスのどちらか）のリスト
+     * @param clazz 1行分の文字列を格納するファイル行オブジェクトクラス
+     */
+    public MultiFileCollector(FileQueryDAO fileQueryDAO,
+            List<String> fileNames, Class<P> clazz) {
+        this(new MultiFileCollectorConfig<P>(fileQueryDAO, fileNames, clazz));
+    }
+
+    /**
+     * MultiFileCollectorコンストラクタ.<br>
+     * @param config MultiFileCollectorConfig MultiFileCollector設定項目
+     */
+    public MultiFileCollector(MultiFileCollectorConfig<P> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+
+        this.fileQueryDAO = config.getFileQueryDAO();
+        this.fileNames = config.getFileNames();
+        this.directory = config.getDirectory();
+        this.fileNamePattern = config.getFileNamePattern();
+        this.clazz = config.getClazz();
+        this.comparator = config.getComparator();
+        if (config.getReaderThreads() > 0) {
+            this.readerThreads = config.getReaderThreads();
+        }
+        if (config.getFileQueueSize() > 0) {
+            this.fileQueueSize = config.getFileQueueSize();
+        }
+        if (config.getQueueSize() > 0) {
+            setQueueSize(config.getQueueSize());
+        }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        this.exceptionHandler = config.getExceptionHandler();
+        this.validator = config.getValidator();
+        this.validationErrorHandler = config.getValidationErrorHandler();
+
+        if (config.isExecuteByConstructor()) {
+            // 実行開始
+            execute();
+        }
+    }
+
+    /**
+     * コレクタスレッドのエントリポイント。
+     *
+     * @return 取得件数
+     * @throws Exception 汎用例外
+     */
+    @Override
+    public Integer call() throws Exception {
+        ExecutorService executor = null;
+        try {
+            List<String> files = resolveFileNames();
+            if (files.isEmpty()) {
+                return Integer.valueOf(0);
+            }
+
+            executor = createWorkerExecutor(Math.min(this.readerThreads, files
+                    .size()));
+            if (this.comparator == null) {
+                collectConcatenated(executor, files);
+            } else {
+                collectMerged(executor, files);
+            }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
+        } catch (Exception e) {
+            // シャットダウン中は発生した例外をキューに詰めない
+            if (!isFinish()) {
+                // 発生した例外をキューにつめる
+                try {
+                    addQueue(new DataValueObject(e, this.dataCount + 1));
+                } catch (InterruptedException ie) {
+                    LOGGER.warn(LogId.WAL041003, e);
+                    LOGGER.warn(LogId.WAL041003, ie);
+                }
+            }
+
+            return -1;
+        } finally {
+            if (executor != null) {
+                // 読み込み中のファイルは割り込みにより中断する
+                executor.shutdownNow();
+            }
+            // 終了フラグを立てる
+            setFinish();
+        }
+
+        return Integer.valueOf(0);
+    }
+
+    /**
+     * 読み込むファイル名のリストを取得する。<br>
+     * <p>
+     * ファイル名のリストを指定した場合はそのリストを、ディレクトリを指定した場合はファイル名のパターンに一致するファイルを
+     * ファイル名の順に並べたリストを返す。両方を指定した場合は、ファイル名のリストの後にパターンに一致するファイルを続ける。
+     * </p>
+     * @return ファイル名のリスト
+     * @throws IOException ディレクトリの検索に失敗した場合
+     */
+    protected List<String> resolveFileNames() throws IOException {
+        List<String> result = new ArrayList<String>();
+        if (this.fileNames != null) {
+            result.addAll(this.fileNames);
+        }
+        if (this.directory != null) {
+            List<String> matched = new ArrayList<String>();
+            String pattern = (this.fileNamePattern == null) ? "*"
+                    : this.fileNamePattern;
+            DirectoryStream<Path> stream = Files.newDirectoryStream(Paths
+                    .get(this.directory), pattern);
+            try {
+                for (Path path : stream) {
+                    if (Files.isRegularFile(path)) {
+                        matched.add(path.toString());
+                    }
+                }
+            } finally {
+                stream.close();
+            }
+            Collections.sort(matched);
+            result.addAll(matched);
+        }
+        return result;
+    }
+
+    /**
+     * ファイルのデータをファイルの順に連結してキューにつめる。<br>
+     * <p>
+     * ファイルはファイル順に読み込みスレッドに渡すため、読み込み中のファイルより前のファイルは常に読み込みを開始している。
+     * </p>
+     * @param executor ファイルを読み込むExecutorService
+     * @param files ファイル名のリスト
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    protected void collectConcatenated(ExecutorService executor,
+            List<String> files) throws InterruptedException {
+        List<BlockingQueue<DataValueObject>> handoffs = new ArrayList<BlockingQueue<DataValueObject>>(
+                files.size());
+        for (String file : files) {
+            BlockingQueue<DataValueObject> handoff = new ArrayBlockingQueue<DataValueObject>(
+                    this.fileQueueSize);
+            executor.execute(new FileTask(file, handoff));
+            handoffs.add(handoff);
+        }
+
+        for (BlockingQueue<DataValueObject> handoff : handoffs) {
+            DataValueObject row = null;
+            while ((row = handoff.take()) != FILE_END) {
+                addRow(row);
+            }
+        }
+    }
+
+    /**
+     * ファイルごとのデータを順序に従ってマージし、キューにつめる。<br>
+     * <p>
+     * 先頭からファイル読み込みスレッド数までのファイルは読み込みスレッドに渡し、
+     * 残りのファイルはコレクタスレッドで直接読み込む。
+     * 全てのファイルを同時に読み込み中とするため、読み込みスレッドの空きを待つことはない。
+     * </p>
+     * @param executor ファイルを読み込むExecutorService
+     * @param files ファイル名のリスト
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    protected void collectMerged(ExecutorService executor, List<String> files)
+                                                                               throws InterruptedException {
+        List<FileHead> fileHeads = new ArrayList<FileHead>(files.size());
+        try {
+            for (String file : files) {
+                if (fileHeads.size() < this.readerThreads) {
+                    BlockingQueue<DataValueObject> handoff = new ArrayBlockingQueue<DataValueObject>(
+                            this.fileQueueSize);
+                    executor.execute(new FileTask(file, handoff));
+                    fileHeads.add(new FileHead(fileHeads.size(), handoff));
+                } else {
+                    fileHeads.add(new FileHead(fileHeads.size(), file));
+                }
+            }
+
+            PriorityQueue<FileHead> heads = new PriorityQueue<FileHead>(files
+                    .size(), new FileHeadComparator());
+            for (FileHead head : fileHeads) {
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+            while (!heads.isEmpty()) {
+                FileHead head = heads.poll();
+                this.dataCount++;
+                addQueue(new DataValueObject(head.value, this.dataCount));
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+        } finally {
+            for (FileHead head : fileHeads) {
+                head.close();
+            }
+        }
+    }
+
+    /**
+     * ファイルから読み込んだデータまたは例外をキューにつめる。<br>
+     * @param row ファイルから読み込んだデータまたは例外
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    private void addRow(DataValueObject row) throws InterruptedException {
+        this.dataCount++;
+        if (row.getThrowable() != null) {
+            addQueue(new DataValueObject(row.getThrowable(), this.dataCount));
+        } else {
+            addQueue(new DataValueObject(row.getValue(), this.dataCount));
+        }
+    }
+
+    /**
+     * ファイルを読み込み、ファイル行オブジェクトをファイルのキューにつめるタスク。
+     */
+    private class FileTask implements Runnable {
+
+        /** ファイル名 */
+        private final String file;
+
+        /** ファイルのキュー */
+        private final BlockingQueue<DataValueObject> handoff;
+
+        /**
+         * コンストラクタ。
+         * @param file ファイル名
+         * @param handoff ファイルのキュー
+         */
+        FileTask(String file, BlockingQueue<DataValueObject> handoff) {
+            this.file = file;
+            this.handoff = handoff;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            FileLineIterator<P> fli = null;
+            try {
+                try {
+                    // FileQueryDAO実行
+                    fli = fileQueryDAO.execute(this.file, clazz);
+                    if (fli != null) {
+                        while (fli.hasNext()) {
+                            readLine(fli);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    this.handoff.put(new DataValueObject(e));
+                }
+                this.handoff.put(FILE_END);
+            } catch (InterruptedException e) {
+                // コレクタの終了により中断された
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                            .getName());
+                }
+            } finally {
+                try {
+                    // ファイルクローズ
+                    if (fli != null) {
+                        fli.closeFile();
+                    }
+                } catch (Exception e) {
+                    // 何もしない
+                }
+            }
+        }
+
+        /**
+         * 1行読み込み、ファイルのキューにつめる。<br>
+         * 変換に失敗した場合は、発生した例外をキューにつめる。
+         * @param fli FileLineIterator
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        private void readLine(FileLineIterator<P> fli)
+                                                      throws InterruptedException {
+            DataValueObject row = null;
+            try {
+                row = new DataValueObject(fli.next());
+            } catch (RuntimeException e) {
+                // 次の行を読むため、例外はその行のデータとする
+                row = new DataValueObject(e);
+            }
+            this.handoff.put(row);
+        }
+    }
+
+    /**
+     * マージ中のファイルの先頭のデータ。<br>
+     * 読み込みスレッドが先読みしたファイルのキュー、またはコレクタスレッドで直接読み込むファイルから取り出す。
+     */
+    private class FileHead {
+
+        /** ファイルの番号 */
+        private final int index;
+
+        /** ファイルのキュー（コレクタスレッドで直接読み込む場合はnull） */
+        private final BlockingQueue<DataValueObject> handoff;
+
+        /** コレクタスレッドで直接読み込むファイル名 */
+        private final String file;
+
+        /** コレクタスレッドで直接読み込むFileLineIterator */
+        private FileLineIterator<P> fli = null;
+
+        /** ファイルの終了フラグ */
+        private boolean ended = false;
+
+        /** 先頭のデータ */
+        private P value = null;
+
+        /**
+         * コンストラクタ。<br>
+         * 読み込みスレッドが先読みしたファイルのキューから取り出す。
+         * @param index ファイルの番号
+         * @param handoff ファイルのキュー
+         */
+        FileHead(int index, BlockingQueue<DataValueObject> handoff) {
+            this.index = index;
+            this.handoff = handoff;
+            this.file = null;
+        }
+
+        /**
+         * コンストラクタ。<br>
+         * コレクタスレッドでファイルを直接読み込む。
+         * @param index ファイルの番号
+         * @param file ファイル名
+         */
+        FileHead(int index, String file) {
+            this.index = index;
+            this.handoff = null;
+            this.file = file;
+        }
+
+        /**
+         * ファイルの次のデータを先頭のデータにする。<br>
+         * ファイルの読み込みで発生した例外は、その場でキューにつめる。
+         * @return 次のデータがある場合はtrue、ファイルが終了した場合はfalse
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        @SuppressWarnings("unchecked")
+        boolean advance() throws InterruptedException {
+            if (this.handoff == null) {
+                return read();
+            }
+            while (true) {
+                DataValueObject row = this.handoff.take();
+                if (row == FILE_END) {
+                    this.value = null;
+                    return false;
+                }
+                if (row.getThrowable() != null) {
+                    addRow(row);
+                    continue;
+                }
+                this.value = (P) row.getValue();
+                return true;
+            }
+        }
+
+        /**
+         * コレクタスレッドでファイルを読み込み、次のデータを先頭のデータにする。<br>
+         * 読み込みスレッドと同じく、ファイルを開けない場合の例外はファイルの終了とし、変換に失敗した行の例外は次の行を読み込む。
+         * @return 次のデータがある場合はtrue、ファイルが終了した場合はfalse
+         * @throws InterruptedException 割り込みが発生した場合
+         */
+        private boolean read() throws InterruptedException {
+            this.value = null;
+            try {
+                if (this.fli == null && !this.ended) {
+                    // FileQueryDAO実行
+                    this.fli = fileQueryDAO.execute(this.file, clazz);
+                }
+                while (this.fli != null && !this.ended && this.fli.hasNext()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    try {
+                        this.value = this.fli.next();
+                        return true;
+                    } catch (RuntimeException e) {
+                        // 次の行を読むため、例外はその行のデータとする
+                        addRow(new DataValueObject(e));
+                    }
+                }
+            } catch (RuntimeException e) {
+                addRow(new DataValueObject(e));
+            }
+            close();
+            return false;
+        }
+
+        /**
+         * コレクタスレッドで直接読み込むファイルをクローズする。
+         */
+        void close() {
+            this.ended = true;
+            if (this.fli == null) {
+                return;
+            }
+            try {
+                // ファイルクローズ
+                this.fli.closeFile();
+            } catch (Exception e) {
+                // 何もしない
+            }
+            this.fli = null;
+        }
+    }
+
+    /**
+     * ファイルの先頭のデータを比較するComparator。<br>
+     * 順序が等しい場合は、ファイルの番号順とする。
+     */
+    private class FileHeadComparator implements Comparator<FileHead> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(FileHead o1, FileHead o2) {
+            int result = comparator.compare(o1.value, o2.value);
+            if (result != 0) {
+                return result;
+            }
+            return (o1.index < o2.index) ? -1 : ((o1.index == o2.index) ? 0
+                    : 1);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.file;
+
+import java.util.Comparator;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+
+import org.springframework.validation.Validator;
+
+/**
+ * MultiFileCollector設定項目
+ * @param <P> ファイル行オブジェクトの型
+ */
+public class MultiFileCollectorConfig<P> extends AbstractCollectorConfig {
+
+    /** デフォルトのファイル読み込みスレッド数 */
+    public static final int DEFAULT_READER_THREADS = 2;
+
+    /** FileQueryDAO */
+    protected FileQueryDAO fileQueryDAO = null;
+
+    /** ファイル名（絶対パスまたは相対パスのどちらか）のリスト */
+    protected List<String> fileNames = null;
+
+    /** ファイルを検索するディレクトリ */
+    protected String directory = null;
+
+    /** ファイル名のパターン（glob形式） */
+    protected String fileNamePattern = null;
+
+    /** 1行分の文字列を格納するファイル行オブジェクトクラス */
+    protected Class<P> clazz = null;
+
+    /** データの順序（nullの場合はファイルを連結する） */
+    protected Comparator<? super P> comparator = null;
+
+    /** ファイル読み込みスレッド数 */
+    protected int readerThreads = DEFAULT_READER_THREADS;
+
+    /** ファイルごとのキューサイズ */
+    protected int fileQueueSize = AbstractCollector.DEFAULT_QUEUE_SIZE;
+
+    /**
+     * コンストラクタ
+     * @param fileQueryDAO FileQueryDAOインスタンス
+     * @param fileNames ファイル名（絶対パスまたは相対パスのどちらか）のリスト
+     * @param clazz 1行分の文字列を格納するファイル行オブジェクトクラス
+     */
+    public MultiFileCollectorConfig(FileQueryDAO fileQueryDAO,
+            List<String> fileNames, Class<P> clazz) {
+        this.fileQueryDAO = fileQueryDAO;
+        this.fileNames = fileNames;
+        this.clazz = clazz;
+    }
+
+    /**
+     * コンストラクタ
+     * <p>
+     * ディレクトリ内のファイル名がパターンに一致するファイルを、ファイル名の順に読み込む。
+     * ファイルの検索はコレクタの実行開始時に行う。
+     * </p>
+     * @param fileQueryDAO FileQueryDAOインスタンス
+     * @param directory ファイルを検索するディレクトリ
+     * @param fileNamePattern ファイル名のパターン（glob形式。例："sales_*.csv"）
+     * @param clazz 1行分の文字列を格納するファイル行オブジェクトクラス
+     */
+    public MultiFileCollectorConfig(FileQueryDAO fileQueryDAO,
+            String directory, String fileNamePattern, Class<P> clazz) {
+        this.fileQueryDAO = fileQueryDAO;
+        this.directory = directory;
+        this.fileNamePattern = fileNamePattern;
+        this.clazz = clazz;
+    }
+
+    /**
+     * データの順序を設定する
+     * @param comparator データの順序
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addComparator(
+            Comparator<? super P> comparator) {
+        this.setComparator(comparator);
+        return this;
+    }
+
+    /**
+     * ファイル読み込みスレッド数を設定する
+     * @param readerThreads ファイル読み込みスレッド数
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addReaderThreads(int readerThreads) {
+        this.setReaderThreads(readerThreads);
+        return this;
+    }
+
+    /**
+     * ファイルごとのキューサイズを設定する
+     * @param fileQueueSize ファイルごとのキューサイズ
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addFileQueueSize(int fileQueueSize) {
+        this.setFileQueueSize(fileQueueSize);
+        return this;
+    }
+
+    /**
+     * キューサイズを設定する
+     * @param queueSize キューサイズ
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addQueueSize(int queueSize) {
+        this.setQueueSize(queueSize);
+        return this;
+    }
+
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addCollectorExecutor(
+            CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
+    /**
+     * CollectorExceptionHandlerを設定する
+     * @param exceptionHandler CollectorExceptionHandler
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addExceptionHandler(
+            CollectorExceptionHandler exceptionHandler) {
+        this.setExceptionHandler(exceptionHandler);
+        return this;
+    }
+
+    /**
+     * Validatorを設定する
+     * @param validator Validator
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addValidator(Validator validator) {
+        this.setValidator(validator);
+        return this;
+    }
+
+    /**
+     * ValidationErrorHandlerを設定する
+     * @param validationErrorHandler ValidationErrorHandler
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addValidationErrorHandler(
+            ValidationErrorHandler validationErrorHandler) {
+        this.setValidationErrorHandler(validationErrorHandler);
+        return this;
+    }
+
+    /**
+     * コンストラクタで処理を実行するフラグを設定する
+     * @param executeByConstructor コンストラクタで処理を実行するフラグ
+     * @return MultiFileCollectorConfig&lt;P&gt;
+     */
+    public MultiFileCollectorConfig<P> addExecuteByConstructor(
+            boolean executeByConstructor) {
+        this.setExecuteByConstructor(executeByConstructor);
+        return this;
+    }
+
+    /**
+     * FileQueryDAOを取得する。
+     * @return FileQueryDAO
+     */
+    public FileQueryDAO getFileQueryDAO() {
+        return fileQueryDAO;
+    }
+
+    /**
+     * FileQueryDAOを設定する。
+     * @param fileQueryDAO FileQueryDAO
+     */
+    public void setFileQueryDAO(FileQueryDAO fileQueryDAO) {
+        this.fileQueryDAO = fileQueryDAO;
+    }
+
+    /**
+     * ファイル名のリストを取得する。
+     * @return ファイル名（絶対パスまたは相対パスのどちらか）のリスト
+     */
+    public List<String> getFileNames() {
+        return fileNames;
+    }
+
+    /**
+     * ファイル名のリストを設定する。
+     * @param fileNames ファイル名（絶対パスまたは相対パスのどちらか）のリスト
+     */
+    public void setFileNames(List<String> fileNames) {
+        this.fileNames = fileNames;
+    }
+
+    /**
+     * ファイルを検索するディレクトリを取得する。
+     * @return ファイルを検索するディレクトリ
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * ファイルを検索するディレクトリを設定する。
+     * @param directory ファイルを検索するディレクトリ
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * ファイル名のパターンを取得する。
+     * @return ファイル名のパターン（glob形式）
+     */
+    public String getFileNamePattern() {
+        return fileNamePattern;
+    }
+
+    /**
+     * ファイル名のパターンを設定する。
+     * @param fileNamePattern ファイル名のパターン（glob形式）
+     */
+    public void setFileNamePattern(String fileNamePattern) {
+        this.fileNamePattern = fileNamePattern;
+    }
+
+    /**
+     * 1行分の文字列を格納するファイル行オブジェクトクラスを取得する。
+     * @return 1行分の文字列を格納するファイル行オブジェクトクラス
+     */
+    public Class<P> getClazz() {
+        return clazz;
+    }
+
+    /**
+     * 1行分の文字列を格納するファイル行オブジェクトクラスを設定する。
+     * @param clazz 1行分の文字列を格納するファイル行オブジェクトクラス
+     */
+    public void setClazz(Class<P> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * データの順序を取得する。
+     * @return データの順序
+     */
+    public Comparator<? super P> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * データの順序を設定する。
+     * <p>
+     * 設定した場合、全てのファイルを同時に読み込み、ファイルごとのデータを順序に従ってマージする。
+     * 設定しない場合は、ファイルのデータをファイルの順に連結して提供する。
+     * </p>
+     * @param comparator データの順序
+     */
+    public void setComparator(Comparator<? super P> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * ファイル読み込みスレッド数を取得する。
+     * @return ファイル読み込みスレッド数
+     */
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    /**
+     * ファイル読み込みスレッド数を設定する。
+     * <p>
+     * ファイルを連結する場合に、同時に読み込むファイル数の上限となる。
+     * マージする場合は、先頭からこの数までのファイルを読み込みスレッドで先読みし、残りのファイルはコレクタスレッドで直接読み込む。
+     * いずれの場合も、コレクタスレッド以外に使用するスレッド数の上限となる。
+     * </p>
+     * @param readerThreads ファイル読み込みスレッド数
+     */
+    public void setReaderThreads(int readerThreads) {
+        this.readerThreads = readerThreads;
+    }
+
+    /**
+     * ファイルごとのキューサイズを取得する。
+     * @return ファイルごとのキューサイズ
+     */
+    public int getFileQueueSize() {
+        return fileQueueSize;
+    }
+
+    /**
+     * ファイルごとのキューサイズを設定する。
+     * @param fileQueueSize ファイルごとのキューサイズ
+     */
+    public void setFileQueueSize(int fileQueueSize) {
+        this.fileQueueSize = fileQueueSize;
+    }
+}
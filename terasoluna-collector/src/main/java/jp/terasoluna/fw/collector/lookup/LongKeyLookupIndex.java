@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * 数値(long)をキーとするLookupIndex。<br>
+ * <p>
+ * キーをlongの配列、参照データを配列に直接格納するオープンアドレス法のハッシュ表で、
+ * キーのラッパーオブジェクトやエントリごとのオブジェクトを保持しない。
+ * キー0を空きの印とし(キー0の参照データは別に保持する)、検索時はキーの配列のみを走査する。
+ * 商品コードやIDが数値の参照データを数千万件登録する場合に、
+ * java.util.HashMapと比べてメモリ使用量とGCの負荷を大きく減らせる。
+ * </p>
+ * <p>
+ * {@link #get(Object)}のキーはjava.lang.Numberとして扱い、整数値(longValue)で検索する。
+ * 数値以外のキーを指定した場合は、参照データは存在しないものとしてnullを返す。
+ * </p>
+ * @param <V> 参照データの型
+ */
+public class LongKeyLookupIndex<V> implements LookupIndex<V> {
+
+    /** ハッシュ表のキー */
+    private long[] keys;
+
+    /** ハッシュ表の参照データ */
+    private Object[] values;
+
+    /** キー0の参照データ */
+    private Object zeroValue = null;
+
+    /** 登録されているキーの数 */
+    private int size = 0;
+
+    /** 容量を拡張するキーの数 */
+    private int threshold;
+
+    /** ハッシュ値から位置を求めるシフト数 */
+    private int shift;
+
+    /**
+     * コンストラクタ。
+     * @param expectedSize 登録するキーの数の見込み
+     */
+    public LongKeyLookupIndex(int expectedSize) {
+        allocate(LookupIndexSupport.capacityFor(expectedSize));
+    }
+
+    /**
+     * キーと参照データを登録する。<br>
+     * キーが登録済みの場合は登録しない。
+     * @param key キー
+     * @param value 参照データ
+     * @return 登録した場合はtrue、キーが登録済みの場合はfalse
+     */
+    public boolean add(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (key == 0L) {
+            if (this.zeroValue != null) {
+                return false;
+            }
+            this.zeroValue = value;
+            this.size++;
+            return true;
+        }
+        int mask = this.keys.length - 1;
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            long current = this.keys[i];
+            if (current == 0L) {
+                this.keys[i] = key;
+                this.values[i] = value;
+                if (++this.size > this.threshold) {
+                    rehash();
+                }
+                return true;
+            }
+            if (current == key) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * キーに対応する参照データを取得する。
+     * @param key キー
+     * @return 参照データ(存在しない場合はnull)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0L) {
+            return (V) this.zeroValue;
+        }
+        int mask = this.keys.length - 1;
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            long current = this.keys[i];
+            if (current == key) {
+                return (V) this.values[i];
+            }
+            if (current == 0L) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof Number)) {
+            return null;
+        }
+        return get(((Number) key).longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedBytes() {
+        return LookupIndexSupport.longArrayBytes(this.keys.length)
+                + LookupIndexSupport.referenceArrayBytes(this.values.length);
+    }
+
+    /**
+     * キーのハッシュ表上の位置を求める。
+     * @param key キー
+     * @return 位置
+     */
+    private int index(long key) {
+        return LookupIndexSupport.index((int) (key ^ (key >>> 32)),
+                this.shift);
+    }
+
+    /**
+     * 指定した容量の配列を確保する。
+     * @param capacity 容量
+     */
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.threshold = LookupIndexSupport.thresholdOf(capacity);
+        this.shift = LookupIndexSupport.shiftOf(capacity);
+    }
+
+    /**
+     * 容量を2倍にして登録し直す。
+     */
+    @SuppressWarnings("unchecked")
+    private void rehash() {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        allocate(LookupIndexSupport.grow(oldKeys.length));
+        this.size = (this.zeroValue == null) ? 0 : 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0L) {
+                add(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
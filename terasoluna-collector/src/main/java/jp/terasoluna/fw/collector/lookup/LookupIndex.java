@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * キーで参照データを検索するインデックス。<br>
+ * <p>
+ * 商品マスタやレート表等の参照データを事前にメモリ上に読み込んでおき、1件ごとのSELECTの代わりに検索する。
+ * 読み込みは{@link LookupIndexLoader}、コレクタのデータとの結合は{@link LookupJoinCollector}で行う。
+ * </p>
+ * <p>
+ * 読み込み後は参照のみとなるため、複数のスレッドから同時に検索できる。
+ * </p>
+ * @param <V> 参照データの型
+ */
+public interface LookupIndex<V> {
+
+    /**
+     * キーに対応する参照データを取得する。
+     * @param key キー
+     * @return 参照データ(存在しない場合はnull)
+     */
+    V get(Object key);
+
+    /**
+     * 登録されているキーの数を取得する。
+     * @return キーの数
+     */
+    int size();
+
+    /**
+     * ハッシュ表の容量を取得する。
+     * @return ハッシュ表の容量
+     */
+    int getCapacity();
+
+    /**
+     * ハッシュ表の配列が使用するメモリの概算(バイト)を取得する。<br>
+     * キーと参照データのオブジェクト自体は含まない。
+     * @return メモリの概算(バイト)
+     */
+    long getEstimatedBytes();
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * LookupIndexLoaderの処理結果。
+ * @param <V> 参照データの型
+ */
+public class LookupIndexLoadResult<V> {
+
+    /** 読み込んだLookupIndex */
+    protected LookupIndex<V> index = null;
+
+    /** 読み込み件数 */
+    protected long readCount = 0;
+
+    /** 登録件数 */
+    protected long indexedCount = 0;
+
+    /** キーの重複により登録しなかった件数 */
+    protected long duplicateCount = 0;
+
+    /** キーがnullのため登録しなかった件数 */
+    protected long skippedCount = 0;
+
+    /** 処理時間(msec) */
+    protected long elapsedTime = 0;
+
+    /**
+     * 読み込んだLookupIndexを取得する。
+     * @return 読み込んだLookupIndex
+     */
+    public LookupIndex<V> getIndex() {
+        return index;
+    }
+
+    /**
+     * 読み込み件数を取得する。
+     * @return 読み込み件数
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * 登録件数を取得する。
+     * @return 登録件数
+     */
+    public long getIndexedCount() {
+        return indexedCount;
+    }
+
+    /**
+     * キーの重複により登録しなかった件数を取得する。<br>
+     * 同じキーの参照データは、最初に読み込んだデータを登録する。
+     * @return キーの重複により登録しなかった件数
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * キーがnullのため登録しなかった件数を取得する。
+     * @return キーがnullのため登録しなかった件数
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * 処理時間(msec)を取得する。
+     * @return 処理時間(msec)
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * ハッシュ表の配列が使用するメモリの概算(バイト)を取得する。
+     * @return メモリの概算(バイト)
+     */
+    public long getEstimatedBytes() {
+        return (index == null) ? 0L : index.getEstimatedBytes();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * LookupIndexLoader.<br>
+ * <p>
+ * DaoCollectorやFileCollector等のコレクタから参照データを全件読み込み、LookupIndexに登録する。
+ * 読み込み件数、登録件数、処理時間、ハッシュ表のメモリの概算は処理結果として返し、情報ログにも出力する。
+ * </p>
+ * <p>
+ * 同じキーの参照データは最初に読み込んだデータを登録し、以降のデータは重複件数として数える。
+ * キーがnullの参照データは登録しない。
+ * コレクタで例外が発生した場合は、参照データが欠けたまま処理を続けないよう、その例外をスローする。
+ * コレクタは読み込み後にクローズする。
+ * </p>
+ * <p>
+ * 使用例：
+ *
+ * <pre>
+ * LookupIndexLoadResult&lt;Product&gt; result = new LookupIndexLoader&lt;Product&gt;(
+ *         new LookupIndexLoaderConfig&lt;Product&gt;(new DaoCollector&lt;Product&gt;(
+ *                 this.queryRowHandleDao, &quot;selectProduct&quot;, null),
+ *                 productCodeExtractor).addExpectedSize(20000000)
+ *                 .addLongKey(true)).load();
+ * LookupIndex&lt;Product&gt; products = result.getIndex();
+ * </pre>
+ *
+ * </p>
+ * @param <V> 参照データの型
+ */
+public class LookupIndexLoader<V> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(LookupIndexLoader.class);
+
+    /** デフォルトの登録するキーの数の見込み */
+    public static final int DEFAULT_EXPECTED_SIZE = 1024;
+
+    /** 参照データを提供するコレクタ */
+    protected Collector<V> source = null;
+
+    /** 参照データのキーを取得するKeyExtractor */
+    protected KeyExtractor<? super V> keyExtractor = null;
+
+    /** 登録するキーの数の見込み */
+    protected int expectedSize = DEFAULT_EXPECTED_SIZE;
+
+    /** キーを数値(long)として扱うか */
+    protected boolean longKey = false;
+
+    /**
+     * LookupIndexLoaderコンストラクタ.<br>
+     * @param config LookupIndexLoaderConfig LookupIndexLoader設定項目
+     */
+    public LookupIndexLoader(LookupIndexLoaderConfig<V> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (config.getSource() == null || config.getKeyExtractor() == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+
+        this.source = config.getSource();
+        this.keyExtractor = config.getKeyExtractor();
+        if (config.getExpectedSize() > 0) {
+            this.expectedSize = config.getExpectedSize();
+        }
+        this.longKey = config.isLongKey();
+    }
+
+    /**
+     * 参照データを読み込む。<br>
+     * @return 処理結果
+     */
+    public LookupIndexLoadResult<V> load() {
+        long start = System.currentTimeMillis();
+        LookupIndexLoadResult<V> result = new LookupIndexLoadResult<V>();
+        LongKeyLookupIndex<V> longIndex = null;
+        ObjectKeyLookupIndex<V> objectIndex = null;
+        if (this.longKey) {
+            longIndex = new LongKeyLookupIndex<V>(this.expectedSize);
+            result.index = longIndex;
+        } else {
+            objectIndex = new ObjectKeyLookupIndex<V>(this.expectedSize);
+            result.index = objectIndex;
+        }
+
+        try {
+            while (this.source.hasNext()) {
+                V value = this.source.next();
+                result.readCount++;
+                Object key = (value == null) ? null : this.keyExtractor
+                        .getKey(value);
+                if (key == null) {
+                    result.skippedCount++;
+                    continue;
+                }
+                boolean added = false;
+                if (longIndex != null) {
+                    added = longIndex.add(toLong(key), value);
+                } else {
+                    added = objectIndex.add(key, value);
+                }
+                if (added) {
+                    result.indexedCount++;
+                } else {
+                    result.duplicateCount++;
+                }
+            }
+        } finally {
+            try {
+                this.source.close();
+            } catch (Exception e) {
+                // 何もしない
+            }
+        }
+        result.elapsedTime = System.currentTimeMillis() - start;
+
+        LOGGER.info(LogId.IAL041003, result.getReadCount(), result
+                .getIndexedCount(), result.getDuplicateCount(), result
+                .getSkippedCount(), result.getIndex().getCapacity(), result
+                .getEstimatedBytes(), result.getElapsedTime());
+        return result;
+    }
+
+    /**
+     * キーを数値(long)に変換する。<br>
+     * 検索時と同じく、java.lang.Numberのキーのみ変換できる。
+     * @param key キー
+     * @return 数値(long)
+     */
+    private long toLong(Object key) {
+        if (!(key instanceof Number)) {
+            throw new IllegalArgumentException("The key is not a number. key:"
+                    + key);
+        }
+        return ((Number) key).longValue();
+    }
+}
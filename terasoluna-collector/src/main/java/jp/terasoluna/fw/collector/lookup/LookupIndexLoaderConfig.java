@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+
+/**
+ * LookupIndexLoader設定項目
+ * @param <V> 参照データの型
+ */
+public class LookupIndexLoaderConfig<V> {
+
+    /** 参照データを提供するコレクタ */
+    protected Collector<V> source = null;
+
+    /** 参照データのキーを取得するKeyExtractor */
+    protected KeyExtractor<? super V> keyExtractor = null;
+
+    /** 登録するキーの数の見込み */
+    protected int expectedSize = LookupIndexLoader.DEFAULT_EXPECTED_SIZE;
+
+    /** キーを数値(long)として扱うか */
+    protected boolean longKey = false;
+
+    /**
+     * コンストラクタ
+     * @param source 参照データを提供するコレクタ
+     * @param keyExtractor 参照データのキーを取得するKeyExtractor
+     */
+    public LookupIndexLoaderConfig(Collector<V> source,
+            KeyExtractor<? super V> keyExtractor) {
+        this.source = source;
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * 登録するキーの数の見込みを設定する
+     * @param expectedSize 登録するキーの数の見込み
+     * @return LookupIndexLoaderConfig&lt;V&gt;
+     */
+    public LookupIndexLoaderConfig<V> addExpectedSize(int expectedSize) {
+        this.setExpectedSize(expectedSize);
+        return this;
+    }
+
+    /**
+     * キーを数値(long)として扱うかを設定する
+     * @param longKey キーを数値(long)として扱うか
+     * @return LookupIndexLoaderConfig&lt;V&gt;
+     */
+    public LookupIndexLoaderConfig<V> addLongKey(boolean longKey) {
+        this.setLongKey(longKey);
+        return this;
+    }
+
+    /**
+     * 参照データを提供するコレクタ
+     * @return 参照データを提供するコレクタ
+     */
+    public Collector<V> getSource() {
+        return source;
+    }
+
+    /**
+     * 参照データを提供するコレクタ
+     * @param source 参照データを提供するコレクタ
+     */
+    public void setSource(Collector<V> source) {
+        this.source = source;
+    }
+
+    /**
+     * 参照データのキーを取得するKeyExtractor
+     * @return 参照データのキーを取得するKeyExtractor
+     */
+    public KeyExtractor<? super V> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    /**
+     * 参照データのキーを取得するKeyExtractor
+     * @param keyExtractor 参照データのキーを取得するKeyExtractor
+     */
+    public void setKeyExtractor(KeyExtractor<? super V> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * 登録するキーの数の見込み
+     * @return 登録するキーの数の見込み
+     */
+    public int getExpectedSize() {
+        return expectedSize;
+    }
+
+    /**
+     * 登録するキーの数の見込み
+     * @param expectedSize 登録するキーの数の見込み
+     */
+    public void setExpectedSize(int expectedSize) {
+        this.expectedSize = expectedSize;
+    }
+
+    /**
+     * キーを数値(long)として扱うか
+     * @return キーを数値(long)として扱う場合はtrue
+     */
+    public boolean isLongKey() {
+        return longKey;
+    }
+
+    /**
+     * キーを数値(long)として扱うか
+     * @param longKey キーを数値(long)として扱う場合はtrue
+     */
+    public void setLongKey(boolean longKey) {
+        this.longKey = longKey;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * LookupIndexのハッシュ表の共通処理。
+ */
+final class LookupIndexSupport {
+
+    /** 最大容量 */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** 最小容量 */
+    private static final int MINIMUM_CAPACITY = 16;
+
+    /** 配列のヘッダの概算(バイト) */
+    private static final long ARRAY_HEADER_BYTES = 16L;
+
+    /** 参照の概算(バイト) */
+    private static final long REFERENCE_BYTES = 8L;
+
+    /**
+     * コンストラクタ。
+     */
+    private LookupIndexSupport() {
+    }
+
+    /**
+     * 登録するキーの数の見込みから、負荷率が75%以下となる2のべき乗の容量を求める。
+     * @param expectedSize 登録するキーの数の見込み
+     * @return 容量
+     */
+    static int capacityFor(int expectedSize) {
+        long required = Math.max(expectedSize, 0) * 4L / 3L + 1L;
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < required && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 容量を拡張するキーの数を求める。<br>
+     * 最大容量の場合は、空きが1つ残るまで拡張しない。
+     * @param capacity 容量
+     * @return 容量を拡張するキーの数
+     */
+    static int thresholdOf(int capacity) {
+        if (capacity == MAXIMUM_CAPACITY) {
+            return capacity - 1;
+        }
+        return capacity / 4 * 3;
+    }
+
+    /**
+     * 拡張後の容量を求める。
+     * @param capacity 現在の容量
+     * @return 拡張後の容量
+     */
+    static int grow(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("The lookup index is full.");
+        }
+        return capacity << 1;
+    }
+
+    /**
+     * ハッシュ値から位置を求めるシフト数を求める。
+     * @param capacity 容量(2のべき乗)
+     * @return シフト数
+     */
+    static int shiftOf(int capacity) {
+        return 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * ハッシュ値をかき混ぜ、上位ビットからハッシュ表上の位置を求める。<br>
+     * 連番のキーでも位置が偏らないよう、黄金比による乗算ハッシュを使用する。
+     * @param hash ハッシュ値
+     * @param shift シフト数
+     * @return 位置
+     */
+    static int index(int hash, int shift) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * 参照の配列のメモリの概算(バイト)を求める。
+     * @param length 配列の長さ
+     * @return メモリの概算(バイト)
+     */
+    static long referenceArrayBytes(int length) {
+        return ARRAY_HEADER_BYTES + REFERENCE_BYTES * length;
+    }
+
+    /**
+     * longの配列のメモリの概算(バイト)を求める。
+     * @param length 配列の長さ
+     * @return メモリの概算(バイト)
+     */
+    static long longArrayBytes(int length) {
+        return ARRAY_HEADER_BYTES + 8L * length;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * LookupJoinCollector.<br>
+ * <p>
+ * 入力コレクタから取得したデータのキーでLookupIndexを検索し、参照データと結合した結果を提供するコレクタ。
+ * ビジネスロジックで1件ごとに参照データをSELECTする代わりに使用する。
+ * </p>
+ * <p>
+ * 参照データが存在しない場合は、参照データをnullとしてLookupJoinerを呼び出す(外部結合)。
+ * innerJoinを指定した場合は、参照データが存在しない入力データを除外する(内部結合)。
+ * 結合結果は入力と同じ順序で提供するため、入力コレクタがキーでソートされていればコントロールブレイクを判定できる。
+ * </p>
+ * <p>
+ * 入力コレクタやLookupJoinerで発生した例外は、そのデータの位置の例外として提供し、次のデータの結合を継続する。
+ * 検索の件数は{@link #getStatistics()}で取得でき、コレクタの終了時にデバッグログにも出力する。
+ * </p>
+ * <p>
+ * 入力コレクタはコレクタスレッドから読み込むため、ビジネスロジックから入力コレクタを直接操作しないこと。
+ * 入力コレクタは本コレクタの終了時にクローズされる。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * Collector&lt;Order&gt; source = new DaoCollector&lt;Order&gt;(
+ *     this.queryRowHandleDao, &quot;selectOrder&quot;, null);
+ * Collector&lt;Order&gt; col = new LookupJoinCollector&lt;Order, Product, Order&gt;(
+ *     new LookupJoinCollectorConfig&lt;Order, Product, Order&gt;(source, products,
+ *         orderProductCodeExtractor, new LookupJoiner&lt;Order, Product, Order&gt;() {
+ *             public Order join(Order row, Product match) {
+ *                 row.setProductName(match == null ? null : match.getName());
+ *                 return row;
+ *             }
+ *         }));
+ * try {
+ *     while (col.hasNext()) {
+ *         Order order = col.next();
+ *         // 結合結果を使用した処理
+ *     }
+ * } finally {
+ *     CollectorUtility.closeQuietly(col);
+ * }
+ * </pre></code>
+ * @param <P> 入力データの型
+ * @param <V> 参照データの型
+ * @param <R> 結合結果の型
+ */
+public class LookupJoinCollector<P, V, R> extends AbstractCollector<R> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(LookupJoinCollector.class);
+
+    /** 入力データを提供するコレクタ */
+    protected Collector<P> source = null;
+
+    /** 参照データのLookupIndex */
+    protected LookupIndex<V> index = null;
+
+    /** 入力データから参照データのキーを取得するKeyExtractor */
+    protected KeyExtractor<? super P> keyExtractor = null;
+
+    /** 入力データと参照データの結合処理 */
+    protected LookupJoiner<P, V, R> joiner = null;
+
+    /** 参照データが存在しない入力データを除外するか */
+    protected boolean innerJoin = false;
+
+    /** 結合の統計情報 */
+    protected LookupJoinStatistics statistics = new LookupJoinStatistics();
+
+    /**
+     * LookupJoinCollectorコンストラクタ.<br>
+     */
+    protected LookupJoinCollector() {
+    }
+
+    /**
+     * LookupJoinCollectorコンストラクタ.<br>
+     * @param source 入力データを提供するコレクタ
+     * @param index 参照データのLookupIndex
+     * @param keyExtractor 入力データから参照データのキーを取得するKeyExtractor
+     * @param joiner 入力データと参照データの結合処理
+     */
+    public LookupJoinCollector(Collector<P> source, LookupIndex<V> index,
+            KeyExtractor<? super P> keyExtractor, LookupJoiner<P, V, R> joiner) {
+        this(new LookupJoinCollectorConfig<P, V, R>(source, index,
+                keyExtractor, joiner));
+    }
+
+    /**
+     * LookupJoinCollectorコンストラクタ.<br>
+     * @param config LookupJoinCollectorConfig LookupJoinCollector設定項目
+     */
+    public LookupJoinCollector(LookupJoinCollectorConfig<P, V, R> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+
+        this.source = config.getSource();
+        this.index = config.getIndex();
+        this.keyExtractor = config.getKeyExtractor();
+        this.joiner = config.getJoiner();
+        this.innerJoin = config.isInnerJoin();
+        if (config.getQueueSize() > 0) {
+            setQueueSize(config.getQueueSize());
+        }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        this.exceptionHandler = config.getExceptionHandler();
+        this.validator = config.getValidator();
+        this.validationErrorHandler = config.getValidationErrorHandler();
+
+        if (config.isExecuteByConstructor()) {
+            // 実行開始
+            execute();
+        }
+    }
+
+    /**
+     * コレクタスレッドのエントリポイント。
+     *
+     * @return 取得件数
+     * @throws Exception 汎用例外
+     */
+    @Override
+    public Integer call() throws Exception {
+        long dataCount = 0;
+        try {
+            while (this.source.hasNext()) {
+                DataValueObject row = null;
+                try {
+                    P value = this.source.next();
+                    Object key = (value == null) ? null : this.keyExtractor
+                            .getKey(value);
+                    V match = this.index.get(key);
+                    this.statistics.addLookup(match != null);
+                    if (match == null && this.innerJoin) {
+                        continue;
+                    }
+                    row = new DataValueObject(this.joiner.join(value, match),
+                            dataCount + 1);
+                } catch (Exception e) {
+                    // 入力コレクタとLookupJoinerで発生した例外は結合結果としてキューにつめる
+                    // 次のデータを読むため、ループは継続する
+                    row = new DataValueObject(e, dataCount + 1);
+                }
+                dataCount++;
+                addQueue(row);
+            }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
+        } catch (Exception e) {
+            // シャットダウン中は発生した例外をキューに詰めない
+            if (!isFinish()) {
+                // 発生した例外をキューにつめる
+                try {
+                    addQueue(new DataValueObject(e, dataCount + 1));
+                } catch (InterruptedException ie) {
+                    LOGGER.warn(LogId.WAL041003, e);
+                    LOGGER.warn(LogId.WAL041003, ie);
+                }
+            }
+
+            return -1;
+        } finally {
+            try {
+                // 入力コレクタのクローズ
+                if (this.source != null) {
+                    this.source.close();
+                }
+            } catch (Exception e) {
+                // 何もしない
+            } finally {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(LogId.DAL041008, this.statistics
+                            .getRowCount(), this.statistics.getHitCount(),
+                            this.statistics.getMissCount());
+                }
+                // 終了フラグを立てる
+                setFinish();
+            }
+        }
+
+        return Integer.valueOf(0);
+    }
+
+    /**
+     * 結合の統計情報を取得する。
+     * @return 結合の統計情報
+     */
+    public LookupJoinStatistics getStatistics() {
+        return this.statistics;
+    }
+}
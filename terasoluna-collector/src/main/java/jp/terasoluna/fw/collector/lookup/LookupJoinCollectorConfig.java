@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
+
+import org.springframework.validation.Validator;
+
+/**
+ * LookupJoinCollector設定項目
+ * @param <P> 入力データの型
+ * @param <V> 参照データの型
+ * @param <R> 結合結果の型
+ */
+public class LookupJoinCollectorConfig<P, V, R> extends AbstractCollectorConfig {
+    /** 入力データを提供するコレクタ */
+    protected Collector<P> source = null;
+
+    /** 参照データのLookupIndex */
+    protected LookupIndex<V> index = null;
+
+    /** 入力データから参照データのキーを取得するKeyExtractor */
+    protected KeyExtractor<? super P> keyExtractor = null;
+
+    /** 入力データと参照データの結合処理 */
+    protected LookupJoiner<P, V, R> joiner = null;
+
+    /** 参照データが存在しない入力データを除外するか */
+    protected boolean innerJoin = false;
+
+    /**
+     * コンストラクタ
+     * @param source 入力データを提供するコレクタ
+     * @param index 参照データのLookupIndex
+     * @param keyExtractor 入力データから参照データのキーを取得するKeyExtractor
+     * @param joiner 入力データと参照データの結合処理
+     */
+    public LookupJoinCollectorConfig(Collector<P> source, LookupIndex<V> index,
+            KeyExtractor<? super P> keyExtractor, LookupJoiner<P, V, R> joiner) {
+        this.source = source;
+        this.index = index;
+        this.keyExtractor = keyExtractor;
+        this.joiner = joiner;
+    }
+
+    /**
+     * 参照データが存在しない入力データを除外するかを設定する
+     * @param innerJoin 参照データが存在しない入力データを除外するか
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addInnerJoin(boolean innerJoin) {
+        this.setInnerJoin(innerJoin);
+        return this;
+    }
+
+    /**
+     * キューサイズを設定する
+     * @param queueSize キューサイズ
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addQueueSize(int queueSize) {
+        this.setQueueSize(queueSize);
+        return this;
+    }
+
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addCollectorExecutor(
+            CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
+    /**
+     * CollectorExceptionHandlerを設定する
+     * @param exceptionHandler CollectorExceptionHandler
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addExceptionHandler(
+            CollectorExceptionHandler exceptionHandler) {
+        this.setExceptionHandler(exceptionHandler);
+        return this;
+    }
+
+    /**
+     * Validatorを設定する
+     * @param validator Validator
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addValidator(Validator validator) {
+        this.setValidator(validator);
+        return this;
+    }
+
+    /**
+     * ValidationErrorHandlerを設定する
+     * @param validationErrorHandler ValidationErrorHandler
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addValidationErrorHandler(
+            ValidationErrorHandler validationErrorHandler) {
+        this.setValidationErrorHandler(validationErrorHandler);
+        return this;
+    }
+
+    /**
+     * コンストラクタで処理を実行するフラグを設定する
+     * @param executeByConstructor コンストラクタで処理を実行するフラグ
+     * @return LookupJoinCollectorConfig&lt;P, V, R&gt;
+     */
+    public LookupJoinCollectorConfig<P, V, R> addExecuteByConstructor(
+            boolean executeByConstructor) {
+        this.setExecuteByConstructor(executeByConstructor);
+        return this;
+    }
+
+    /**
+     * 入力データを提供するコレクタ
+     * @return 入力データを提供するコレクタ
+     */
+    public Collector<P> getSource() {
+        return source;
+    }
+
+    /**
+     * 入力データを提供するコレクタ
+     * @param source 入力データを提供するコレクタ
+     */
+    public void setSource(Collector<P> source) {
+        this.source = source;
+    }
+
+    /**
+     * 参照データのLookupIndex
+     * @return 参照データのLookupIndex
+     */
+    public LookupIndex<V> getIndex() {
+        return index;
+    }
+
+    /**
+     * 参照データのLookupIndex
+     * @param index 参照データのLookupIndex
+     */
+    public void setIndex(LookupIndex<V> index) {
+        this.index = index;
+    }
+
+    /**
+     * 入力データから参照データのキーを取得するKeyExtractor
+     * @return 入力データから参照データのキーを取得するKeyExtractor
+     */
+    public KeyExtractor<? super P> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    /**
+     * 入力データから参照データのキーを取得するKeyExtractor
+     * @param keyExtractor 入力データから参照データのキーを取得するKeyExtractor
+     */
+    public void setKeyExtractor(KeyExtractor<? super P> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * 入力データと参照データの結合処理
+     * @return 入力データと参照データの結合処理
+     */
+    public LookupJoiner<P, V, R> getJoiner() {
+        return joiner;
+    }
+
+    /**
+     * 入力データと参照データの結合処理
+     * @param joiner 入力データと参照データの結合処理
+     */
+    public void setJoiner(LookupJoiner<P, V, R> joiner) {
+        this.joiner = joiner;
+    }
+
+    /**
+     * 参照データが存在しない入力データを除外するか
+     * @return 参照データが存在しない入力データを除外するか
+     */
+    public boolean isInnerJoin() {
+        return innerJoin;
+    }
+
+    /**
+     * 参照データが存在しない入力データを除外するか
+     * @param innerJoin 参照データが存在しない入力データを除外するか
+     */
+    public void setInnerJoin(boolean innerJoin) {
+        this.innerJoin = innerJoin;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * LookupJoinCollectorの結合の統計情報。<br>
+ * <p>
+ * コレクタスレッドが更新し、ビジネスロジックのスレッドから参照できる。
+ * </p>
+ */
+public class LookupJoinStatistics {
+
+    /** 結合した入力データの件数 */
+    private volatile long rowCount = 0L;
+
+    /** 参照データが存在した件数 */
+    private volatile long hitCount = 0L;
+
+    /** 参照データが存在しなかった件数 */
+    private volatile long missCount = 0L;
+
+    /**
+     * 結合した入力データの件数を取得する。<br>
+     * 入力コレクタで例外が発生したデータは含まない。
+     * @return 結合した入力データの件数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 参照データが存在した件数を取得する。
+     * @return 参照データが存在した件数
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 参照データが存在しなかった件数を取得する。
+     * @return 参照データが存在しなかった件数
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 検索結果を加算する。
+     * @param hit 参照データが存在した場合はtrue
+     */
+    void addLookup(boolean hit) {
+        this.rowCount++;
+        if (hit) {
+            this.hitCount++;
+        } else {
+            this.missCount++;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * LookupJoinCollectorで、コレクタのデータと参照データを結合するインタフェース。<br>
+ * <p>
+ * コレクタスレッドから呼び出される。結合結果として新しいオブジェクトを返すほか、
+ * コレクタのデータに参照データの項目を設定してそのまま返してもよい。
+ * </p>
+ * @param <P> コレクタのデータの型
+ * @param <V> 参照データの型
+ * @param <R> 結合結果の型
+ */
+public interface LookupJoiner<P, V, R> {
+
+    /**
+     * コレクタのデータと参照データを結合する。
+     * @param row コレクタのデータ
+     * @param match キーに対応する参照データ(存在しない場合はnull)
+     * @return 結合結果
+     * @throws Exception 結合に失敗した場合
+     */
+    R join(P row, V match) throws Exception;
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.lookup;
+
+/**
+ * 任意のオブジェクトをキーとするLookupIndex。<br>
+ * <p>
+ * キーと参照データを2つの配列に直接格納するオープンアドレス法のハッシュ表で、
+ * java.util.HashMapのようにエントリごとのオブジェクトを生成しないため、
+ * 数千万件を登録してもオブジェクト数とGCの負荷が増えにくい。
+ * キーはequalsとhashCodeで比較する。
+ * </p>
+ * <p>
+ * 数値のキーの場合は、キーのオブジェクトも保持しない{@link LongKeyLookupIndex}を使用すること。
+ * </p>
+ * @param <V> 参照データの型
+ */
+public class ObjectKeyLookupIndex<V> implements LookupIndex<V> {
+
+    /** ハッシュ表のキー */
+    private Object[] keys;
+
+    /** ハッシュ表の参照データ */
+    private Object[] values;
+
+    /** 登録されているキーの数 */
+    private int size = 0;
+
+    /** 容量を拡張するキーの数 */
+    private int threshold;
+
+    /** ハッシュ値から位置を求めるシフト数 */
+    private int shift;
+
+    /**
+     * コンストラクタ。
+     * @param expectedSize 登録するキーの数の見込み
+     */
+    public ObjectKeyLookupIndex(int expectedSize) {
+        allocate(LookupIndexSupport.capacityFor(expectedSize));
+    }
+
+    /**
+     * キーと参照データを登録する。<br>
+     * キーが登録済みの場合は登録しない。
+     * @param key キー
+     * @param value 参照データ
+     * @return 登録した場合はtrue、キーが登録済みの場合はfalse
+     */
+    public boolean add(Object key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        int mask = this.keys.length - 1;
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            Object current = this.keys[i];
+            if (current == null) {
+                this.keys[i] = key;
+                this.values[i] = value;
+                if (++this.size > this.threshold) {
+                    rehash();
+                }
+                return true;
+            }
+            if (current.equals(key)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int mask = this.keys.length - 1;
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            Object current = this.keys[i];
+            if (current == null) {
+                return null;
+            }
+            if (current.equals(key)) {
+                return (V) this.values[i];
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCapacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEstimatedBytes() {
+        return LookupIndexSupport.referenceArrayBytes(this.keys.length) * 2;
+    }
+
+    /**
+     * キーのハッシュ表上の位置を求める。
+     * @param key キー
+     * @return 位置
+     */
+    private int index(Object key) {
+        return LookupIndexSupport.index(key.hashCode(), this.shift);
+    }
+
+    /**
+     * 指定した容量の配列を確保する。
+     * @param capacity 容量
+     */
+    private void allocate(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.threshold = LookupIndexSupport.thresholdOf(capacity);
+        this.shift = LookupIndexSupport.shiftOf(capacity);
+    }
+
+    /**
+     * 容量を2倍にして登録し直す。
+     */
+    @SuppressWarnings("unchecked")
+    private void rehash() {
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        allocate(LookupIndexSupport.grow(oldKeys.length));
+        this.size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                add(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * 参照データのルックアップ
+ */
+package jp.terasoluna.fw.collector.lookup;
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.parallel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.CollectorThreadFactory;
+
+/**
+ * CollectorSplitter.<br>
+ * <p>
+ * コレクタのデータをバッチ単位に分割し、複数のスレッドで並列に処理するためのクラス。
+ * Java 8の{@code Spliterator}の{@code trySplit()}に相当する{@link #trySplit()}で、
+ * コレクタから読み込んだデータをバッチサイズ件ずつまとめて取り出す。
+ * 各スレッドはバッチを取り出してからはコレクタに触れずに処理するため、
+ * 1件ずつ取り出す場合と異なり、スレッド間の排他はバッチごとの1回で済む。
+ * </p>
+ * <p>
+ * {@link #forEach(ExecutorService, int, RowConsumer)}は、指定した並列数のタスクでバッチを取り出して処理し、
+ * 全てのデータを処理するか、いずれかのタスクで例外が発生するまで待つ。
+ * 処理の順序は保証されない。入力と同じ順序で処理結果を得る必要がある場合は{@link ParallelCollector}を使用すること。
+ * {@link CollectorExecutor}を指定した場合、{@link #forEach(int, RowConsumer)}のタスクはその共有スレッドで実行する。
+ * </p>
+ * <p>
+ * 入力コレクタは{@link #close()}でクローズされる。forEachは終了時に必ずクローズする。
+ * 入力コレクタはバッチの取り出し時にのみ読み込むため、ビジネスロジックから入力コレクタを直接操作しないこと。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * Collector&lt;Customer&gt; source = new DaoCollector&lt;Customer&gt;(
+ *     this.queryRowHandleDao, &quot;selectCustomer&quot;, null);
+ * CollectorSplitter&lt;Customer&gt; splitter = new CollectorSplitter&lt;Customer&gt;(source, 256);
+ * splitter.forEach(4, new RowConsumer&lt;Customer&gt;() {
+ *     public void accept(Customer row) throws Exception {
+ *         // 1件ごとの処理(スレッドセーフに実装する)
+ *     }
+ * });
+ * </pre></code>
+ * @param <P> 入力データの型
+ */
+public class CollectorSplitter<P> implements Closeable {
+
+    /** デフォルトのバッチサイズ */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** 入力コレクタ */
+    private final Collector<P> source;
+
+    /** バッチサイズ */
+    private final int batchSize;
+
+    /** タスクを実行するCollectorExecutor（nullの場合は並列数分のスレッドを生成する） */
+    private final CollectorExecutor collectorExecutor;
+
+    /** 入力コレクタの終端に達したか、クローズした場合はtrue */
+    private boolean exhausted = false;
+
+    /** クローズ済みフラグ */
+    private boolean closed = false;
+
+    /** 並列処理の中断フラグ */
+    private volatile boolean aborted = false;
+
+    /**
+     * コンストラクタ。<br>
+     * バッチサイズはデフォルト値とする。
+     * @param source 入力コレクタ
+     */
+    public CollectorSplitter(Collector<P> source) {
+        this(source, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * コンストラクタ。<br>
+     * @param source 入力コレクタ
+     * @param batchSize バッチサイズ
+     */
+    public CollectorSplitter(Collector<P> source, int batchSize) {
+        this(source, batchSize, null);
+    }
+
+    /**
+     * コンストラクタ。<br>
+     * @param source 入力コレクタ
+     * @param batchSize バッチサイズ
+     * @param collectorExecutor タスクを実行するCollectorExecutor（nullの場合は並列数分のスレッドを生成する）
+     */
+    public CollectorSplitter(Collector<P> source, int batchSize,
+            CollectorExecutor collectorExecutor) {
+        if (source == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size is invalid.");
+        }
+        this.source = source;
+        this.batchSize = batchSize;
+        this.collectorExecutor = collectorExecutor;
+    }
+
+    /**
+     * 入力コレクタから最大バッチサイズ件のデータを読み込み、バッチとして返す。<br>
+     * <p>
+     * 複数のスレッドから呼び出すことができる。入力コレクタからの読み込みは同時に1スレッドのみが行う。
+     * 入力コレクタで例外が発生した場合は、それまでに読み込んだデータは破棄され、例外がスローされる。
+     * </p>
+     * @return バッチ(変更不可)。入力コレクタの終端に達した後やクローズ後はnull
+     */
+    public synchronized List<P> trySplit() {
+        if (this.exhausted) {
+            return null;
+        }
+        List<P> batch = new ArrayList<P>(this.batchSize);
+        try {
+            while (batch.size() < this.batchSize && this.source.hasNext()) {
+                batch.add(this.source.next());
+            }
+        } catch (RuntimeException e) {
+            this.exhausted = true;
+            throw e;
+        }
+        if (batch.size() < this.batchSize) {
+            this.exhausted = true;
+        }
+        if (batch.isEmpty()) {
+            return null;
+        }
+        return Collections.unmodifiableList(batch);
+    }
+
+    /**
+     * 全てのデータを、指定した並列数のスレッドで処理する。<br>
+     * <p>
+     * 並列数分のスレッドを持つExecutorServiceを生成し、処理の終了後にシャットダウンする。
+     * CollectorExecutorを指定している場合は、その共有スレッドで並列数までのタスクを実行する。
+     * </p>
+     * @param parallelism 並列数
+     * @param consumer 1件ごとの処理
+     * @throws Exception 入力コレクタ、あるいは1件ごとの処理で発生した例外
+     */
+    public void forEach(int parallelism, RowConsumer<? super P> consumer)
+                                                                         throws Exception {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism is invalid.");
+        }
+        ExecutorService executor;
+        if (this.collectorExecutor != null) {
+            executor = this.collectorExecutor.newTaskGroup(parallelism);
+        } else {
+            executor = Executors.newFixedThreadPool(parallelism,
+                    new CollectorThreadFactory());
+        }
+        try {
+            forEach(executor, parallelism, consumer);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 全てのデータを、指定したExecutorServiceで並列に処理する。<br>
+     * <p>
+     * 並列数分のタスクを投入し、各タスクはバッチを取り出しては1件ずつ処理することを、バッチがなくなるまで繰り返す。
+     * いずれかのタスクで例外が発生した場合、他のタスクは処理中のバッチを終えた時点で終了し、
+     * 最初に発生した例外がスローされる。
+     * 正常終了、異常終了に関わらず、入力コレクタはクローズされる。
+     * </p>
+     * @param executor タスクを実行するExecutorService
+     * @param parallelism 並列数(投入するタスク数)
+     * @param consumer 1件ごとの処理
+     * @throws Exception 入力コレクタ、あるいは1件ごとの処理で発生した例外
+     */
+    public void forEach(ExecutorService executor, int parallelism,
+            final RowConsumer<? super P> consumer) throws Exception {
+        if (executor == null || consumer == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism is invalid.");
+        }
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(
+                parallelism);
+        try {
+            Callable<Object> task = new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    try {
+                        List<P> batch = null;
+                        while (!aborted && (batch = trySplit()) != null) {
+                            for (P row : batch) {
+                                consumer.accept(row);
+                            }
+                        }
+                    } catch (Exception e) {
+                        aborted = true;
+                        throw e;
+                    }
+                    return null;
+                }
+            };
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(executor.submit(task));
+            }
+            Exception failure = null;
+            for (Future<Object> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // 最初に発生した例外を保持し、残りのタスクの終了を待つ
+                    if (failure == null) {
+                        failure = unwrap(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            this.aborted = true;
+            for (Future<Object> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * タスクで発生した例外を取り出す。<br>
+     * Errorの場合はそのままスローする。
+     * @param e ExecutionException
+     * @return タスクで発生した例外
+     */
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return e;
+    }
+
+    /**
+     * 入力コレクタをクローズする。<br>
+     * <p>
+     * クローズ後は{@link #trySplit()}はnullを返す。クローズ済みの場合は何もしない。
+     * </p>
+     * @throws IOException 入力コレクタのクローズで発生した例外
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.exhausted = true;
+        this.source.close();
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.parallel;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * ParallelCollector.<br>
+ * <p>
+ * 入力コレクタから取得したデータを複数のワーカスレッドで並列に処理し、処理結果を入力と同じ順序で提供するコレクタ。
+ * 1件ごとの処理(変換・計算等)の負荷が高い場合に、ビジネスロジックのスレッドだけで処理するよりも処理時間を短縮できる。
+ * </p>
+ * <p>
+ * 入力コレクタから読み込んだ順にデータ件数(DataValueObjectのdataCount)を採番し、
+ * 処理結果はワーカスレッドでの処理の完了順ではなく、データ件数の順にキューに詰める。
+ * そのため、入力コレクタがキーでソートされていれば、処理結果に対してもコントロールブレイクを判定できる。
+ * </p>
+ * <p>
+ * PartitionKeyResolverを指定した場合、同じパーティションキーのデータは同じワーカスレッドで、読み込んだ順に処理される。
+ * RowProcessorがキーごとの状態(累計等)を持つ場合に指定する。
+ * CollectorExecutorを指定した場合は、ワーカは共有スレッドで実行されるため実行するスレッドは替わり得るが、
+ * 同じパーティションキーのデータが同時に処理されることはなく、読み込んだ順に処理される。
+ * </p>
+ * <p>
+ * 処理中のデータはバッチ単位で管理し、処理中のバッチ数が上限(maxInFlight)に達した場合は、
+ * 先頭のバッチの処理結果をキューに詰めるまで入力コレクタから読み込まない。
+ * メモリ上に保持される処理中のデータは、最大でmaxInFlight×batchSize件となる。
+ * </p>
+ * <p>
+ * 入力コレクタはコレクタスレッドから読み込むため、ビジネスロジックから入力コレクタを直接操作しないこと。
+ * 入力コレクタは本コレクタの終了時にクローズされる。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * Collector&lt;Customer&gt; source = new DaoCollector&lt;Customer&gt;(
+ *     this.queryRowHandleDao, &quot;selectCustomer&quot;, null);
+ * Collector&lt;Invoice&gt; col = new ParallelCollector&lt;Customer, Invoice&gt;(
+ *     new ParallelCollectorConfig&lt;Customer, Invoice&gt;(source, new InvoiceCalculator())
+ *         .addWorkers(4));
+ * try {
+ *     while (col.hasNext()) {
+ *         Invoice invoice = col.next();
+ *         // 処理結果を使用した処理
+ *     }
+ * } finally {
+ *     CollectorUtility.closeQuietly(col);
+ * }
+ * </pre></code>
+ * @param <P> 入力データの型
+ * @param <R> 処理結果の型
+ */
+public class ParallelCollector<P, R> extends AbstractCollector<R> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(ParallelCollector.class);
+
+    /** デフォルトのワーカスレッドにまとめて渡すデータの件数 */
+    public static final int DEFAULT_BATCH_SIZE = 1;
+
+    /** 入力データを提供するコレクタ */
+    protected Collector<P> source = null;
+
+    /** 1件ごとの処理 */
+    protected RowProcessor<P, R> rowProcessor = null;
+
+    /** ワーカスレッド数 */
+    protected int workers = Runtime.getRuntime().availableProcessors();
+
+    /** ワーカスレッドにまとめて渡すデータの件数 */
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** 処理中のバッチの上限数 */
+    protected int maxInFlight = 0;
+
+    /** PartitionKeyResolver */
+    protected PartitionKeyResolver<? super P> partitionKeyResolver = null;
+
+    /**
+     * ParallelCollectorコンストラクタ.<br>
+     */
+    protected ParallelCollector() {
+    }
+
+    /**
+     * ParallelCollectorコンストラクタ.<br>
+     * @param source 入力データを提供するコレクタ
+     * @param rowProcessor 1件ごとの処理
+     * @param workers ワーカスレッド数
+     */
+    public ParallelCollector(Collector<P> source,
+            RowProcessor<P, R> rowProcessor, int workers) {
+        this(new ParallelCollectorConfig<P, R>(source, rowProcessor)
+                .addWorkers(workers));
+    }
+
+    /**
+     * ParallelCollectorコンストラクタ.<br>
+     * @param config ParallelCollectorConfig ParallelCollector設定項目
+     */
+    public ParallelCollector(ParallelCollectorConfig<P, R> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+
+        this.source = config.getSource();
+        this.rowProcessor = config.getRowProcessor();
+        if (config.getWorkers() > 0) {
+            this.workers = config.getWorkers();
+        }
+        if (config.getBatchSize() > 0) {
+            this.batchSize = config.getBatchSize();
+        }
+        if (config.getMaxInFlight() > 0) {
+            this.maxInFlight = config.getMaxInFlight();
+        }
+        this.partitionKeyResolver = config.getPartitionKeyResolver();
+        if (config.getQueueSize() > 0) {
+            setQueueSize(config.getQueueSize());
+        }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        this.exceptionHandler = config.getExceptionHandler();
+        this.validator = config.getValidator();
+        this.validationErrorHandler = config.getValidationErrorHandler();
+
+        if (config.isExecuteByConstructor()) {
+            // 実行開始
+            execute();
+        }
+    }
+
+    /**
+     * コレクタスレッドのエントリポイント。
+     *
+     * @return 取得件数
+     * @throws Exception 汎用例外
+     */
+    @Override
+    public Integer call() throws Exception {
+        ExecutorService[] executors = createWorkerExecutors();
+        int inFlightLimit = (this.maxInFlight > 0) ? this.maxInFlight
+                : this.workers * 2;
+        Queue<Future<DataValueObject[]>> inFlight = new ArrayDeque<Future<DataValueObject[]>>(
+                inFlightLimit);
+        long dataCount = 0;
+        try {
+            DataValueObject[] batch = new DataValueObject[this.batchSize];
+            int batchLength = 0;
+            Object batchKey = null;
+
+            while (this.source.hasNext()) {
+                dataCount++;
+                DataValueObject row = null;
+                Object key = batchKey;
+                try {
+                    P value = this.source.next();
+                    row = new DataValueObject(value, dataCount);
+                    if (this.partitionKeyResolver != null) {
+                        key = this.partitionKeyResolver.getPartitionKey(value);
+                    }
+                } catch (RuntimeException e) {
+                    // 発生した例外は処理結果としてキューにつめる
+                    // 次のデータを読むため、ループは継続する
+                    row = new DataValueObject(e, dataCount);
+                }
+
+                if (batchLength > 0 && (batchLength == this.batchSize
+                        || !equalsKey(batchKey, key))) {
+                    // バッチをワーカスレッドに渡す
+                    inFlight.add(submitBatch(executors, batchKey, batch,
+                            batchLength));
+                    batch = new DataValueObject[this.batchSize];
+                    batchLength = 0;
+                    // 処理済みの先頭のバッチと、上限を超えたバッチの処理結果をキューにつめる
+                    while (!inFlight.isEmpty()
+                            && (inFlight.size() >= inFlightLimit || inFlight
+                                    .peek().isDone())) {
+                        addResults(inFlight.poll());
+                    }
+                }
+                batch[batchLength++] = row;
+                batchKey = key;
+            }
+
+            if (batchLength > 0) {
+                inFlight.add(submitBatch(executors, batchKey, batch,
+                        batchLength));
+            }
+            while (!inFlight.isEmpty()) {
+                addResults(inFlight.poll());
+            }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
+        } catch (Exception e) {
+            // シャットダウン中は発生した例外をキューに詰めない
+            if (!isFinish()) {
+                // 発生した例外をキューにつめる
+                try {
+                    addQueue(new DataValueObject(e, dataCount));
+                } catch (InterruptedException ie) {
+                    LOGGER.warn(LogId.WAL041003, e);
+                    LOGGER.warn(LogId.WAL041003, ie);
+                }
+            }
+
+            return -1;
+        } finally {
+            for (ExecutorService executor : executors) {
+                executor.shutdownNow();
+            }
+            try {
+                // 入力コレクタのクローズ
+                if (this.source != null) {
+                    this.source.close();
+                }
+            } catch (Exception e) {
+                // 何もしない
+            } finally {
+                // 終了フラグを立てる
+                setFinish();
+            }
+        }
+
+        return Integer.valueOf(0);
+    }
+
+    /**
+     * ワーカスレッドを生成する。<br>
+     * <p>
+     * PartitionKeyResolverを指定していない場合は、ワーカスレッド数分のスレッドを持つExecutorServiceを1つ生成する。
+     * 指定した場合は、パーティションごとに処理順を保つため、1スレッドのExecutorServiceをワーカスレッド数分生成する。
+     * CollectorExecutorを指定している場合は、いずれもその共有スレッドで実行する。
+     * </p>
+     * @return ワーカスレッドのExecutorService
+     */
+    protected ExecutorService[] createWorkerExecutors() {
+        if (this.partitionKeyResolver == null) {
+            return new ExecutorService[] { createWorkerExecutor(
+                    this.workers) };
+        }
+        ExecutorService[] executors = new ExecutorService[this.workers];
+        for (int i = 0; i < executors.length; i++) {
+            executors[i] = createWorkerExecutor(1);
+        }
+        return executors;
+    }
+
+    /**
+     * バッチをワーカスレッドに渡す。<br>
+     * @param executors ワーカスレッドのExecutorService
+     * @param key バッチのパーティションキー
+     * @param batch バッチ
+     * @param length バッチのデータ件数
+     * @return バッチの処理結果
+     */
+    private Future<DataValueObject[]> submitBatch(ExecutorService[] executors,
+            Object key, DataValueObject[] batch, int length) {
+        ExecutorService executor = executors[0];
+        if (executors.length > 1 && key != null) {
+            executor = executors[(key.hashCode() & Integer.MAX_VALUE)
+                    % executors.length];
+        }
+        return executor.submit(new BatchTask(batch, length));
+    }
+
+    /**
+     * バッチの処理結果を待ち、キューにつめる。<br>
+     * @param future バッチの処理結果
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    private void addResults(Future<DataValueObject[]> future)
+                                                              throws InterruptedException {
+        DataValueObject[] results = null;
+        try {
+            results = future.get();
+        } catch (ExecutionException e) {
+            // RowProcessorの例外はBatchTaskで処理結果に設定されるため、ここではError等が発生した場合のみ
+            addQueue(new DataValueObject(e.getCause()));
+            return;
+        }
+        for (DataValueObject result : results) {
+            addQueue(result);
+        }
+    }
+
+    /**
+     * パーティションキーが等しいか確認する。<br>
+     * PartitionKeyResolverを指定していない場合は常にtrueを返す。
+     * @param key1 パーティションキー
+     * @param key2 パーティションキー
+     * @return 等しい場合はtrue
+     */
+    private boolean equalsKey(Object key1, Object key2) {
+        if (this.partitionKeyResolver == null || key1 == key2) {
+            return true;
+        }
+        return key1 != null && key1.equals(key2);
+    }
+
+    /**
+     * ワーカスレッドでバッチのデータを1件ずつ処理するタスク。
+     */
+    private class BatchTask implements Callable<DataValueObject[]> {
+
+        /** バッチ */
+        private final DataValueObject[] batch;
+
+        /** バッチのデータ件数 */
+        private final int length;
+
+        /**
+         * コンストラクタ。
+         * @param batch バッチ
+         * @param length バッチのデータ件数
+         */
+        BatchTask(DataValueObject[] batch, int length) {
+            this.batch = batch;
+            this.length = length;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public DataValueObject[] call() {
+            DataValueObject[] results = new DataValueObject[this.length];
+            for (int i = 0; i < this.length; i++) {
+                DataValueObject row = this.batch[i];
+                if (row.getThrowable() != null) {
+                    // 入力コレクタで発生した例外はそのまま返す
+                    results[i] = row;
+                    continue;
+                }
+                try {
+                    R result = rowProcessor.process((P) row.getValue());
+                    results[i] = new DataValueObject(result, row
+                            .getDataCount());
+                } catch (Exception e) {
+                    results[i] = new DataValueObject(e, row.getDataCount());
+                }
+            }
+            return results;
+        }
+    }
+}
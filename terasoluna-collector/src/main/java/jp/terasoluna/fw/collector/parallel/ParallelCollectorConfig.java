@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.parallel;
+
+import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
+
+import org.springframework.validation.Validator;
+
+/**
+ * ParallelCollector設定項目
+ * @param <P> 入力データの型
+ * @param <R> 処理結果の型
+ */
+public class ParallelCollectorConfig<P, R> extends AbstractCollectorConfig {
+    /** 入力データを提供するコレクタ */
+    protected Collector<P> source = null;
+
+    /** 1件ごとの処理 */
+    protected RowProcessor<P, R> rowProcessor = null;
+
+    /** ワーカスレッド数（0以下の場合はCPU数） */
+    protected int workers = 0;
+
+    /** ワーカスレッドにまとめて渡すデータの件数 */
+    protected int batchSize = ParallelCollector.DEFAULT_BATCH_SIZE;
+
+    /** 処理中のバッチの上限数（0以下の場合はワーカスレッド数の2倍） */
+    protected int maxInFlight = 0;
+
+    /** PartitionKeyResolver */
+    protected PartitionKeyResolver<? super P> partitionKeyResolver = null;
+
+    /**
+     * コンストラクタ
+     * @param source 入力データを提供するコレクタ
+     * @param rowProcessor 1件ごとの処理
+     */
+    public ParallelCollectorConfig(Collector<P> source,
+            RowProcessor<P, R> rowProcessor) {
+        this.source = source;
+        this.rowProcessor = rowProcessor;
+    }
+
+    /**
+     * ワーカスレッド数を設定する
+     * @param workers ワーカスレッド数
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addWorkers(int workers) {
+        this.setWorkers(workers);
+        return this;
+    }
+
+    /**
+     * ワーカスレッドにまとめて渡すデータの件数を設定する
+     * @param batchSize ワーカスレッドにまとめて渡すデータの件数
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addBatchSize(int batchSize) {
+        this.setBatchSize(batchSize);
+        return this;
+    }
+
+    /**
+     * 処理中のバッチの上限数を設定する
+     * @param maxInFlight 処理中のバッチの上限数
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addMaxInFlight(int maxInFlight) {
+        this.setMaxInFlight(maxInFlight);
+        return this;
+    }
+
+    /**
+     * PartitionKeyResolverを設定する
+     * @param partitionKeyResolver PartitionKeyResolver
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addPartitionKeyResolver(
+            PartitionKeyResolver<? super P> partitionKeyResolver) {
+        this.setPartitionKeyResolver(partitionKeyResolver);
+        return this;
+    }
+
+    /**
+     * キューサイズを設定する
+     * @param queueSize キューサイズ
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addQueueSize(int queueSize) {
+        this.setQueueSize(queueSize);
+        return this;
+    }
+
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addCollectorExecutor(
+            CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
+    /**
+     * CollectorExceptionHandlerを設定する
+     * @param exceptionHandler CollectorExceptionHandler
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addExceptionHandler(
+            CollectorExceptionHandler exceptionHandler) {
+        this.setExceptionHandler(exceptionHandler);
+        return this;
+    }
+
+    /**
+     * Validatorを設定する
+     * @param validator Validator
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addValidator(Validator validator) {
+        this.setValidator(validator);
+        return this;
+    }
+
+    /**
+     * ValidationErrorHandlerを設定する
+     * @param validationErrorHandler ValidationErrorHandler
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addValidationErrorHandler(
+            ValidationErrorHandler validationErrorHandler) {
+        this.setValidationErrorHandler(validationErrorHandler);
+        return this;
+    }
+
+    /**
+     * コンストラクタで処理を実行するフラグを設定する
+     * @param executeByConstructor コンストラクタで処理を実行するフラグ
+     * @return ParallelCollectorConfig&lt;P, R&gt;
+     */
+    public ParallelCollectorConfig<P, R> addExecuteByConstructor(
+            boolean executeByConstructor) {
+        this.setExecuteByConstructor(executeByConstructor);
+        return this;
+    }
+
+    /**
+     * 入力データを提供するコレクタ
+     * @return 入力データを提供するコレクタ
+     */
+    public Collector<P> getSource() {
+        return source;
+    }
+
+    /**
+     * 入力データを提供するコレクタ
+     * @param source 入力データを提供するコレクタ
+     */
+    public void setSource(Collector<P> source) {
+        this.source = source;
+    }
+
+    /**
+     * 1件ごとの処理
+     * @return 1件ごとの処理
+     */
+    public RowProcessor<P, R> getRowProcessor() {
+        return rowProcessor;
+    }
+
+    /**
+     * 1件ごとの処理
+     * @param rowProcessor 1件ごとの処理
+     */
+    public void setRowProcessor(RowProcessor<P, R> rowProcessor) {
+        this.rowProcessor = rowProcessor;
+    }
+
+    /**
+     * ワーカスレッド数
+     * @return ワーカスレッド数
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * ワーカスレッド数
+     * @param workers ワーカスレッド数
+     */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * ワーカスレッドにまとめて渡すデータの件数
+     * @return ワーカスレッドにまとめて渡すデータの件数
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * ワーカスレッドにまとめて渡すデータの件数
+     * @param batchSize ワーカスレッドにまとめて渡すデータの件数
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 処理中のバッチの上限数
+     * @return 処理中のバッチの上限数
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * 処理中のバッチの上限数
+     * @param maxInFlight 処理中のバッチの上限数
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * PartitionKeyResolver
+     * @return PartitionKeyResolver
+     */
+    public PartitionKeyResolver<? super P> getPartitionKeyResolver() {
+        return partitionKeyResolver;
+    }
+
+    /**
+     * PartitionKeyResolver
+     * @param partitionKeyResolver PartitionKeyResolver
+     */
+    public void setPartitionKeyResolver(
+            PartitionKeyResolver<? super P> partitionKeyResolver) {
+        this.partitionKeyResolver = partitionKeyResolver;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.parallel;
+
+/**
+ * ParallelCollectorでデータを振り分けるパーティションキーを取得するインタフェース。<br>
+ * <p>
+ * 同じパーティションキーのデータは同じワーカスレッドで処理される。
+ * コントロールブレイクのキーを返すことで、1グループのデータを1つのワーカスレッドで順に処理できる。
+ * </p>
+ * @param <P> 入力データの型
+ */
+public interface PartitionKeyResolver<P> {
+
+    /**
+     * パーティションキーを取得する。<br>
+     * <p>
+     * 返却値はequalsとhashCodeでの比較に用いる。nullを返却してもよい。
+     * </p>
+     * @param row 入力データ
+     * @return パーティションキー
+     */
+    Object getPartitionKey(P row);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.parallel;
+
+/**
+ * CollectorSplitterが並列処理で1件ごとに実行する処理のインタフェース。<br>
+ * <p>
+ * 複数のワーカスレッドから同時に呼び出されるため、スレッドセーフに実装すること。
+ * </p>
+ * @param <P> 入力データの型
+ */
+public interface RowConsumer<P> {
+
+    /**
+     * 1件のデータを処理する。<br>
+     * <p>
+     * 例外をスローした場合、並列処理は中断され、
+     * {@link CollectorSplitter#forEach(java.util.concurrent.ExecutorService, int, RowConsumer)}から同じ例外がスローされる。
+     * </p>
+     * @param row 入力データ
+     * @throws Exception 処理中に発生した例外
+     */
+    void accept(P row) throws Exception;
+}
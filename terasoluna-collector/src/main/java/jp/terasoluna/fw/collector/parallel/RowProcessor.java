@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.parallel;
+
+/**
+ * ParallelCollectorが1件ごとに実行する処理のインタフェース。<br>
+ * <p>
+ * 複数のワーカスレッドから同時に呼び出されるため、スレッドセーフに実装すること。
+ * パーティションキーを指定した場合は、同じキーのデータは常に同じワーカスレッドで、読み込んだ順に処理される。
+ * (CollectorExecutorを指定した場合は、同じキーのデータが同時に処理されることはなく、読み込んだ順に処理される。)
+ * </p>
+ * @param <P> 入力データの型
+ * @param <R> 処理結果の型
+ */
+public interface RowProcessor<P, R> {
+
+    /**
+     * 1件のデータを処理する。<br>
+     * <p>
+     * 例外をスローした場合、そのデータはParallelCollectorで例外が発生したデータとして扱われ、
+     * CollectorExceptionHandlerの判定に従う。
+     * </p>
+     * @param row 入力データ
+     * @return 処理結果
+     * @throws Exception 処理中に発生した例外
+     */
+    R process(P row) throws Exception;
+}
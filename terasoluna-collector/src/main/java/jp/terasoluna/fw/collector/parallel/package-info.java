@@ -0,0 +1,4 @@
+/**
+ * 並列処理コレクタ
+ */
+package jp.terasoluna.fw.collector.parallel;
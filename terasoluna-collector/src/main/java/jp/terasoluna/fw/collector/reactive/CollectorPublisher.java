@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.reactive;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * CollectorPublisher.<br>
+ * <p>
+ * コレクタのデータを、サブスクライバが要求した件数だけ通知するパブリッシャ。
+ * DaoCollectorやFileCollector等のコレクタを、非同期のファイル出力等、要求駆動で動作する処理につなぐ場合に使用する。
+ * </p>
+ * <p>
+ * データの通知は、指定したExecutorのスレッドで、サブスクライバからの未通知の要求がある間だけ行う。
+ * 要求がなくなるとスレッドを返却するため、サブスクライバごとにスレッドを待たせ続けることはない。
+ * 要求がない間はコレクタのキューが満杯になり、コレクタスレッドはキューの空きを待つ(バックプレッシャ)。
+ * ただし、コレクタのデータの取り出しはコレクタスレッドがデータを詰めるまで待つため、
+ * 要求がありデータが未到着の間はExecutorのスレッドを使用する。
+ * </p>
+ * <p>
+ * 1回の実行で通知する件数はバッチサイズまでとし、超えた場合は改めてExecutorに実行を依頼する。
+ * そのため、件数を制限しない要求をされた場合も、Executorを共有する他のパブリッシャの通知を妨げない。
+ * </p>
+ * <p>
+ * サブスクライバは1つのみ登録できる。2つ目以降のサブスクライバには、IllegalStateExceptionを通知する。
+ * コレクタは、全てのデータの通知後、例外の発生時、購読の取り消し時にクローズされる。
+ * 全てのデータを通知した後の完了通知({@link Subscriber#onComplete()})は、データの終端を確認した時点で行うため、
+ * 最後のデータの通知後に、さらに要求がされた時点となる場合がある。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * Collector&lt;Customer&gt; col = new DaoCollector&lt;Customer&gt;(
+ *     this.queryRowHandleDao, &quot;selectCustomer&quot;, null);
+ * Publisher&lt;Customer&gt; publisher = new CollectorPublisher&lt;Customer&gt;(col, this.executor);
+ * publisher.subscribe(new AsyncFileWriterSubscriber());
+ * </pre></code>
+ * @param <P> データの型
+ */
+public class CollectorPublisher<P> implements Publisher<P> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(CollectorPublisher.class);
+
+    /** デフォルトのバッチサイズ */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** 入力コレクタ */
+    private final Collector<P> source;
+
+    /** 通知を実行するExecutor */
+    private final Executor executor;
+
+    /** 1回の実行で通知する最大件数 */
+    private final int batchSize;
+
+    /** サブスクライバ登録済みフラグ */
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    /**
+     * コンストラクタ。<br>
+     * バッチサイズはデフォルト値とする。
+     * @param source 入力コレクタ
+     * @param executor 通知を実行するExecutor
+     */
+    public CollectorPublisher(Collector<P> source, Executor executor) {
+        this(source, executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * コンストラクタ。<br>
+     * @param source 入力コレクタ
+     * @param executor 通知を実行するExecutor
+     * @param batchSize 1回の実行で通知する最大件数
+     */
+    public CollectorPublisher(Collector<P> source, Executor executor,
+            int batchSize) {
+        if (source == null || executor == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size is invalid.");
+        }
+        this.source = source;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Subscriber<? super P> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException();
+        }
+        if (!this.subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException(
+                    "The publisher allows only one subscriber."));
+            return;
+        }
+        CollectorSubscription subscription = new CollectorSubscription(
+                subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * 入力コレクタのデータをサブスクライバに通知する購読。<br>
+     * <p>
+     * 要求と取り消しは任意のスレッドから行われるが、通知処理({@link #drain()})は同時に1スレッドのみが実行する。
+     * 実行中に要求や取り消しがあった場合は、実行中のスレッドが続けて処理する。
+     * </p>
+     */
+    private class CollectorSubscription implements Subscription, Runnable {
+
+        /** サブスクライバ */
+        private final Subscriber<? super P> subscriber;
+
+        /** 未通知の要求件数 */
+        private final AtomicLong requested = new AtomicLong();
+
+        /** 通知処理の実行要求数（0の場合は実行中のスレッドがない） */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /** 取り消しフラグ */
+        private volatile boolean cancelled = false;
+
+        /** 不正な要求件数が指定された場合の例外 */
+        private volatile Throwable invalidRequest = null;
+
+        /** 終了フラグ（通知処理のスレッドのみが使用する） */
+        private boolean terminated = false;
+
+        /**
+         * コンストラクタ。<br>
+         * @param subscriber サブスクライバ
+         */
+        CollectorSubscription(Subscriber<? super P> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0L) {
+                this.invalidRequest = new IllegalArgumentException(
+                        "The number of requested items must be positive. n:"
+                                + n);
+            } else {
+                // 要求件数は累積し、Long.MAX_VALUEで頭打ちにする
+                long current;
+                long next;
+                do {
+                    current = this.requested.get();
+                    if (current == Long.MAX_VALUE) {
+                        break;
+                    }
+                    next = current + n;
+                    if (next < 0L) {
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!this.requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            // 入力コレクタのクローズは通知処理のスレッドで行う
+            schedule();
+        }
+
+        /**
+         * 通知処理をExecutorに依頼する。実行中のスレッドがある場合は、そのスレッドが続けて処理する。
+         */
+        private void schedule() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            submit();
+        }
+
+        /**
+         * 通知処理をExecutorに依頼する。<br>
+         * Executorが実行を受け付けない場合は、呼び出し元のスレッドで異常終了を通知する。
+         */
+        private void submit() {
+            try {
+                CollectorPublisher.this.executor.execute(this);
+            } catch (RuntimeException e) {
+                if (!this.terminated) {
+                    terminate();
+                    this.subscriber.onError(e);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            drain();
+        }
+
+        /**
+         * 要求件数の範囲で、入力コレクタのデータを通知する。
+         */
+        private void drain() {
+            int missed = 1;
+            int emitted = 0;
+            for (;;) {
+                if (this.terminated) {
+                    return;
+                }
+                long r = this.requested.get();
+                long e = 0L;
+                while (e != r) {
+                    if (checkTerminated()) {
+                        return;
+                    }
+                    if (emitted == CollectorPublisher.this.batchSize) {
+                        // 他のパブリッシャに譲るため、続きは改めてExecutorに依頼する
+                        produced(e);
+                        submit();
+                        return;
+                    }
+                    P item = null;
+                    try {
+                        if (!CollectorPublisher.this.source.hasNext()) {
+                            terminate();
+                            this.subscriber.onComplete();
+                            return;
+                        }
+                        item = CollectorPublisher.this.source.next();
+                    } catch (Throwable t) {
+                        terminate();
+                        this.subscriber.onError(t);
+                        return;
+                    }
+                    try {
+                        this.subscriber.onNext(item);
+                    } catch (Throwable t) {
+                        // サブスクライバの規約違反のため、購読を取り消す
+                        LOGGER.warn(LogId.WAL041008, t);
+                        terminate();
+                        return;
+                    }
+                    e++;
+                    emitted++;
+                }
+                if (checkTerminated()) {
+                    return;
+                }
+                produced(e);
+                missed = this.wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 取り消しと不正な要求を確認し、該当する場合は終了する。
+         * @return 終了した場合はtrue
+         */
+        private boolean checkTerminated() {
+            if (this.cancelled) {
+                terminate();
+                return true;
+            }
+            Throwable error = this.invalidRequest;
+            if (error != null) {
+                terminate();
+                this.subscriber.onError(error);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 通知した件数を要求件数から差し引く。件数を制限しない要求の場合は差し引かない。
+         * @param e 通知した件数
+         */
+        private void produced(long e) {
+            if (e != 0L && this.requested.get() != Long.MAX_VALUE) {
+                this.requested.addAndGet(-e);
+            }
+        }
+
+        /**
+         * 終了し、入力コレクタをクローズする。
+         */
+        private void terminate() {
+            this.terminated = true;
+            this.cancelled = true;
+            try {
+                CollectorPublisher.this.source.close();
+            } catch (Exception e) {
+                // 何もしない
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.reactive;
+
+/**
+ * データの提供元(パブリッシャ)のインタフェース。<br>
+ * <p>
+ * Reactive Streams(Java 9以降の{@code java.util.concurrent.Flow.Publisher})と同じ規約とする。
+ * サブスクライバが{@link Subscription#request(long)}で要求した件数を超えてデータを通知しない。
+ * </p>
+ * @param <T> 提供するデータの型
+ */
+public interface Publisher<T> {
+
+    /**
+     * サブスクライバを登録し、データの提供を開始する。<br>
+     * <p>
+     * 登録したサブスクライバには、まず{@link Subscriber#onSubscribe(Subscription)}が通知される。
+     * </p>
+     * @param subscriber サブスクライバ
+     * @throws NullPointerException subscriberがnullの場合
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.reactive;
+
+/**
+ * データの受け手(サブスクライバ)のインタフェース。<br>
+ * <p>
+ * Reactive Streams(Java 9以降の{@code java.util.concurrent.Flow.Subscriber})と同じ規約とする。
+ * 各メソッドは同時に呼び出されることはなく、{@link #onSubscribe(Subscription)}、
+ * 要求した件数以下の{@link #onNext(Object)}、{@link #onError(Throwable)}か{@link #onComplete()}のいずれか一方の順に通知される。
+ * </p>
+ * <p>
+ * 各メソッドは例外をスローしないこと。
+ * </p>
+ * @param <T> 受け取るデータの型
+ */
+public interface Subscriber<T> {
+
+    /**
+     * 購読の開始を通知する。<br>
+     * {@link Subscription#request(long)}を呼び出すまで、データは通知されない。
+     * @param subscription 購読
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * データを1件通知する。
+     * @param item データ
+     */
+    void onNext(T item);
+
+    /**
+     * 異常終了を通知する。<br>
+     * 以降、通知は行われない。
+     * @param throwable 発生した例外
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * 全てのデータの通知が完了したことを通知する。<br>
+     * 以降、通知は行われない。
+     */
+    void onComplete();
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.reactive;
+
+/**
+ * パブリッシャとサブスクライバの間の購読のインタフェース。<br>
+ * <p>
+ * Reactive Streams(Java 9以降の{@code java.util.concurrent.Flow.Subscription})と同じ規約とする。
+ * </p>
+ */
+public interface Subscription {
+
+    /**
+     * データの通知を要求する。<br>
+     * <p>
+     * 要求した件数は累積され、通知するたびに減る。{@link Long#MAX_VALUE}以上を要求した場合は件数を制限しない。
+     * 1未満を指定した場合は、{@link Subscriber#onError(Throwable)}でIllegalArgumentExceptionが通知される。
+     * </p>
+     * @param n 要求する件数
+     */
+    void request(long n);
+
+    /**
+     * 購読を取り消す。<br>
+     * 以降、データの通知は行われない(取り消しの時点で通知中のデータを除く)。
+     */
+    void cancel();
+}
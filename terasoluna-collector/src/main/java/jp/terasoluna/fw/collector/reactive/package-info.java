@@ -0,0 +1,4 @@
+/**
+ * リアクティブストリーム形式でデータを提供するコレクタ
+ */
+package jp.terasoluna.fw.collector.reactive;
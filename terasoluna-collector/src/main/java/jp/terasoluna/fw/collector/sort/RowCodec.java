@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.sort;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * SortingCollectorがメモリに収まらないデータを一時ファイルに書き出す際の、1件分のデータのバイナリ形式を定義するインタフェース。<br>
+ * <p>
+ * 書き出したデータは、書き出した順に{@link #read(DataInput)}で読み込まれる。
+ * データの項目を{@link DataOutput#writeInt(int)}や{@link DataOutput#writeUTF(String)}等で直接書き出すことで、
+ * Javaの直列化({@link SerializableRowCodec})よりも一時ファイルが小さくなり、書き出しと読み込みが速くなる。
+ * </p>
+ * <b>実装例</b><br>
+ * <code><pre>
+ * public class SalesRowCodec implements RowCodec&lt;Sales&gt; {
+ *     public void write(DataOutput out, Sales row) throws IOException {
+ *         out.writeUTF(row.getShopCode());
+ *         out.writeLong(row.getAmount());
+ *     }
+ *     public Sales read(DataInput in) throws IOException {
+ *         Sales row = new Sales();
+ *         row.setShopCode(in.readUTF());
+ *         row.setAmount(in.readLong());
+ *         return row;
+ *     }
+ * }
+ * </pre></code>
+ * @param <P> データの型
+ */
+public interface RowCodec<P> {
+
+    /**
+     * 1件分のデータを書き出す。
+     * @param out 出力先
+     * @param row データ
+     * @throws IOException 書き出しに失敗した場合
+     */
+    void write(DataOutput out, P row) throws IOException;
+
+    /**
+     * 1件分のデータを読み込む。
+     * @param in 入力元
+     * @return データ
+     * @throws IOException 読み込みに失敗した場合
+     */
+    P read(DataInput in) throws IOException;
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.sort;
+
+/**
+ * SortingCollectorのソートの統計情報。<br>
+ * <p>
+ * コレクタスレッドが更新し、ビジネスロジックのスレッドから参照できる。
+ * 一時ファイルへの書き出しが多い場合は、ソートバッファサイズの拡大やRowCodecの実装を検討する。
+ * </p>
+ */
+public class SortStatistics {
+
+    /** ソートしたデータ件数 */
+    private volatile long rowCount = 0L;
+
+    /** 一時ファイルに書き出したランの数 */
+    private volatile long spilledRunCount = 0L;
+
+    /** 一時ファイルに書き出したデータ件数 */
+    private volatile long spilledRowCount = 0L;
+
+    /** 一時ファイルに書き出したバイト数 */
+    private volatile long spilledBytes = 0L;
+
+    /** 中間マージの回数 */
+    private volatile long mergePassCount = 0L;
+
+    /** ソートが完了したか */
+    private volatile boolean completed = false;
+
+    /**
+     * ソートしたデータ件数を取得する。
+     * @return ソートしたデータ件数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 一時ファイルに書き出したランの数を取得する。<br>
+     * 全てのデータがソートバッファに収まった場合は0となる。
+     * @return 一時ファイルに書き出したランの数
+     */
+    public long getSpilledRunCount() {
+        return spilledRunCount;
+    }
+
+    /**
+     * 一時ファイルに書き出したデータ件数を取得する。<br>
+     * 中間マージで書き出したデータ件数を含む。
+     * @return 一時ファイルに書き出したデータ件数
+     */
+    public long getSpilledRowCount() {
+        return spilledRowCount;
+    }
+
+    /**
+     * 一時ファイルに書き出したバイト数を取得する。<br>
+     * 中間マージで書き出したバイト数を含む。
+     * @return 一時ファイルに書き出したバイト数
+     */
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * 中間マージの回数を取得する。<br>
+     * ランの数がマージ数を超えた場合に、ランを減らすために行ったマージの段数。
+     * @return 中間マージの回数
+     */
+    public long getMergePassCount() {
+        return mergePassCount;
+    }
+
+    /**
+     * ソートが完了したかを取得する。<br>
+     * 全てのデータを入力コレクタから読み込み、最初のデータをキューにつめられる状態になった場合にtrueとなる。
+     * @return ソートが完了した場合はtrue
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * ソートしたデータ件数を加算する。
+     */
+    void addRow() {
+        this.rowCount++;
+    }
+
+    /**
+     * 一時ファイルへの書き出しを加算する。
+     * @param runRows 書き出したデータ件数
+     * @param runBytes 書き出したバイト数
+     * @param intermediate 中間マージによる書き出しの場合はtrue
+     */
+    void addSpill(long runRows, long runBytes, boolean intermediate) {
+        if (!intermediate) {
+            this.spilledRunCount++;
+        }
+        this.spilledRowCount += runRows;
+        this.spilledBytes += runBytes;
+    }
+
+    /**
+     * 中間マージの回数を加算する。
+     */
+    void addMergePass() {
+        this.mergePassCount++;
+    }
+
+    /**
+     * ソートの完了を設定する。
+     */
+    void setCompleted() {
+        this.completed = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "SortStatistics[rowCount=" + rowCount + ", spilledRunCount="
+                + spilledRunCount + ", spilledRowCount=" + spilledRowCount
+                + ", spilledBytes=" + spilledBytes + ", mergePassCount="
+                + mergePassCount + ", completed=" + completed + "]";
+    }
+}
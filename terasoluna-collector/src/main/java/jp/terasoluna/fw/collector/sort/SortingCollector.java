@@ -0,0 +1,598 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.LogId;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+import jp.terasoluna.fw.logger.TLogger;
+
+/**
+ * SortingCollector.<br>
+ * <p>
+ * 入力コレクタから取得した全てのデータを指定した順序でソートし、ソート済みのデータを提供するコレクタ。
+ * ソートされていない入力に対して、事前にOSのsortコマンドやSQLのORDER BYでソートせずにコントロールブレイクを判定できる。
+ * 順序が等しいデータは、入力コレクタから読み込んだ順となる(安定ソート)。
+ * </p>
+ * <p>
+ * メモリ上に保持するデータはソートバッファサイズ(sortBufferSize)件までとし、超えた場合はソート済みのデータ(ラン)を
+ * 一時ファイルに書き出して、最後に全てのランをマージする(外部マージソート)。
+ * ランの数がマージ数(mergeFactor)を超えた場合は、マージ数ずつ中間マージしてから最後のマージを行う。
+ * 一時ファイルはRowCodecで定義したバイナリ形式で書き出し、コレクタの終了時に削除する。
+ * RowCodecを指定しない場合はJavaの直列化を使用するため、データはjava.io.Serializableを実装している必要がある。
+ * </p>
+ * <p>
+ * 全てのデータを読み込むまで最初のデータを提供できないため、hasNext()、next()は入力コレクタを読み終えるまで待つ。
+ * 入力コレクタで例外が発生した場合は、ソート結果の順序が保証できないため、ソートを中止して例外を提供する。
+ * ソートの件数や一時ファイルへの書き出し量は{@link #getStatistics()}で取得でき、コレクタの終了時にデバッグログにも出力する。
+ * </p>
+ * <p>
+ * 入力コレクタはコレクタスレッドから読み込むため、ビジネスロジックから入力コレクタを直接操作しないこと。
+ * 入力コレクタは本コレクタの終了時にクローズされる。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * Collector&lt;Sales&gt; source = new FileCollector&lt;Sales&gt;(
+ *     this.csvFileQueryDAO, &quot;sales.csv&quot;, Sales.class);
+ * Collector&lt;Sales&gt; col = new SortingCollector&lt;Sales&gt;(
+ *     new SortingCollectorConfig&lt;Sales&gt;(source, salesKeyComparator)
+ *         .addSortBufferSize(500000).addRowCodec(new SalesRowCodec()));
+ * try {
+ *     while (col.hasNext()) {
+ *         Sales sales = col.next();
+ *         // ソート済みのデータを使用した処理
+ *     }
+ * } finally {
+ *     CollectorUtility.closeQuietly(col);
+ * }
+ * </pre></code>
+ * @param <P> データの型
+ */
+public class SortingCollector<P> extends AbstractCollector<P> {
+
+    /**
+     * Log.
+     */
+    private static final TLogger LOGGER = TLogger
+            .getLogger(SortingCollector.class);
+
+    /** デフォルトのソートバッファサイズ */
+    public static final int DEFAULT_SORT_BUFFER_SIZE = 100000;
+
+    /** デフォルトのマージ数 */
+    public static final int DEFAULT_MERGE_FACTOR = 64;
+
+    /** 一時ファイルの入出力のバッファサイズ */
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    /** 入力データを提供するコレクタ */
+    protected Collector<P> source = null;
+
+    /** データの順序 */
+    protected Comparator<? super P> comparator = null;
+
+    /** ソートバッファサイズ */
+    protected int sortBufferSize = DEFAULT_SORT_BUFFER_SIZE;
+
+    /** マージ数 */
+    protected int mergeFactor = DEFAULT_MERGE_FACTOR;
+
+    /** 一時ファイルに書き出すデータのバイナリ形式 */
+    protected RowCodec<P> rowCodec = null;
+
+    /** 一時ファイルを作成するディレクトリ */
+    protected File tempDirectory = null;
+
+    /** ソートの統計情報 */
+    protected SortStatistics statistics = new SortStatistics();
+
+    /**
+     * SortingCollectorコンストラクタ.<br>
+     */
+    protected SortingCollector() {
+    }
+
+    /**
+     * SortingCollectorコンストラクタ.<br>
+     * @param source 入力データを提供するコレクタ
+     * @param comparator データの順序
+     */
+    public SortingCollector(Collector<P> source,
+            Comparator<? super P> comparator) {
+        this(new SortingCollectorConfig<P>(source, comparator));
+    }
+
+    /**
+     * SortingCollectorコンストラクタ.<br>
+     * @param config SortingCollectorConfig SortingCollector設定項目
+     */
+    public SortingCollector(SortingCollectorConfig<P> config) {
+        if (config == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+
+        this.source = config.getSource();
+        this.comparator = config.getComparator();
+        if (config.getSortBufferSize() > 0) {
+            this.sortBufferSize = config.getSortBufferSize();
+        }
+        if (config.getMergeFactor() > 1) {
+            this.mergeFactor = config.getMergeFactor();
+        }
+        this.rowCodec = config.getRowCodec();
+        if (this.rowCodec == null) {
+            this.rowCodec = new SerializableRowCodec<P>();
+        }
+        this.tempDirectory = config.getTempDirectory();
+        if (config.getQueueSize() > 0) {
+            setQueueSize(config.getQueueSize());
+        }
+        if (config.getChunkSize() > 1) {
+            setChunkSize(config.getChunkSize());
+        }
+        if (config.getAdaptiveQueueSizing() != null) {
+            setAdaptiveQueueSizing(config.getAdaptiveQueueSizing());
+        }
+        if (config.getCollectorExecutor() != null) {
+            setCollectorExecutor(config.getCollectorExecutor());
+        }
+        this.exceptionHandler = config.getExceptionHandler();
+        this.validator = config.getValidator();
+        this.validationErrorHandler = config.getValidationErrorHandler();
+
+        if (config.isExecuteByConstructor()) {
+            // 実行開始
+            execute();
+        }
+    }
+
+    /**
+     * コレクタスレッドのエントリポイント。
+     *
+     * @return 取得件数
+     * @throws Exception 汎用例外
+     */
+    @Override
+    public Integer call() throws Exception {
+        long start = System.currentTimeMillis();
+        List<SortRun> runs = new ArrayList<SortRun>();
+        long dataCount = 0;
+        try {
+            List<P> buffer = new ArrayList<P>(Math.min(this.sortBufferSize,
+                    1024));
+            while (this.source.hasNext()) {
+                // 入力コレクタの例外はソートを中止するため、そのままスローする
+                buffer.add(this.source.next());
+                this.statistics.addRow();
+                if (buffer.size() >= this.sortBufferSize) {
+                    // ソートバッファが満杯になったらランを書き出す
+                    runs.add(spill(buffer, false));
+                    buffer = new ArrayList<P>(Math.min(this.sortBufferSize,
+                            1024));
+                }
+            }
+            Collections.sort(buffer, this.comparator);
+
+            List<RunCursor> cursors = new ArrayList<RunCursor>();
+            try {
+                for (SortRun run : mergeRuns(runs)) {
+                    cursors.add(new FileRunCursor(run));
+                }
+                // 最後のランは書き出さずにメモリ上からマージする
+                cursors.add(new ListRunCursor(buffer));
+                this.statistics.setCompleted();
+
+                PriorityQueue<RunCursor> heads = openHeads(cursors);
+                while (!heads.isEmpty()) {
+                    RunCursor head = heads.poll();
+                    dataCount++;
+                    addQueue(new DataValueObject(head.value, dataCount));
+                    if (head.advance()) {
+                        heads.add(head);
+                    }
+                }
+            } finally {
+                for (RunCursor cursor : cursors) {
+                    cursor.close();
+                }
+            }
+        } catch (InterruptedException e) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace(LogId.TAL041002, Thread.currentThread()
+                        .getName());
+            }
+        } catch (Exception e) {
+            // シャットダウン中は発生した例外をキューに詰めない
+            if (!isFinish()) {
+                // 発生した例外をキューにつめる
+                try {
+                    addQueue(new DataValueObject(e, dataCount + 1));
+                } catch (InterruptedException ie) {
+                    LOGGER.warn(LogId.WAL041003, e);
+                    LOGGER.warn(LogId.WAL041003, ie);
+                }
+            }
+
+            return -1;
+        } finally {
+            for (SortRun run : runs) {
+                run.delete();
+            }
+            try {
+                // 入力コレクタのクローズ
+                if (this.source != null) {
+                    this.source.close();
+                }
+            } catch (Exception e) {
+                // 何もしない
+            } finally {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(LogId.DAL041007, this.statistics
+                            .getRowCount(), this.statistics
+                            .getSpilledRunCount(), this.statistics
+                            .getSpilledRowCount(), this.statistics
+                            .getSpilledBytes(), this.statistics
+                            .getMergePassCount(), System.currentTimeMillis()
+                            - start);
+                }
+                // 終了フラグを立てる
+                setFinish();
+            }
+        }
+
+        return Integer.valueOf(0);
+    }
+
+    /**
+     * ソートの統計情報を取得する。
+     * @return ソートの統計情報
+     */
+    public SortStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * ソートバッファのデータをソートし、一時ファイルに書き出す。<br>
+     * 書き出しに失敗した場合、書き出し中の一時ファイルは削除する。
+     * @param buffer ソートバッファ
+     * @param intermediate 中間マージによる書き出しの場合はtrue
+     * @return 書き出したラン
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private SortRun spill(List<P> buffer, boolean intermediate)
+                                                                throws IOException {
+        Collections.sort(buffer, this.comparator);
+        SortRun run = new SortRun(createTempFile());
+        boolean written = false;
+        try {
+            DataOutputStream out = run.openOutput();
+            try {
+                for (P row : buffer) {
+                    this.rowCodec.write(out, row);
+                    run.rows++;
+                }
+            } finally {
+                out.close();
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                run.delete();
+            }
+        }
+        this.statistics.addSpill(run.rows, run.file.length(), intermediate);
+        return run;
+    }
+
+    /**
+     * ランの数がマージ数以下になるまで、先頭からマージ数ずつ中間マージする。<br>
+     * 順序が等しいデータの順を保つため、隣り合うランどうしをマージし、マージ後のランも元の位置に置く。
+     * @param runs 一時ファイルに書き出したラン(中間マージで作成したランも追加される)
+     * @return 最後にマージするラン
+     * @throws IOException 一時ファイルの入出力に失敗した場合
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    private List<SortRun> mergeRuns(List<SortRun> runs) throws IOException,
+                                                        InterruptedException {
+        List<SortRun> level = new ArrayList<SortRun>(runs);
+        // 最後のマージではメモリ上のランも合わせてマージする
+        while (level.size() > this.mergeFactor - 1) {
+            List<SortRun> next = new ArrayList<SortRun>();
+            for (int i = 0; i < level.size(); i += this.mergeFactor) {
+                List<SortRun> group = level.subList(i, Math.min(i
+                        + this.mergeFactor, level.size()));
+                if (group.size() == 1) {
+                    next.add(group.get(0));
+                    continue;
+                }
+                SortRun merged = mergeToFile(group);
+                runs.add(merged);
+                next.add(merged);
+                for (SortRun run : group) {
+                    run.delete();
+                }
+            }
+            this.statistics.addMergePass();
+            level = next;
+        }
+        return level;
+    }
+
+    /**
+     * ランをマージし、一時ファイルに書き出す。<br>
+     * 書き出しに失敗した場合や割り込みが発生した場合、書き出し中の一時ファイルは削除する。
+     * @param group マージするラン
+     * @return 書き出したラン
+     * @throws IOException 一時ファイルの入出力に失敗した場合
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    private SortRun mergeToFile(List<SortRun> group) throws IOException,
+                                                     InterruptedException {
+        SortRun merged = new SortRun(createTempFile());
+        List<RunCursor> cursors = new ArrayList<RunCursor>(group.size());
+        DataOutputStream out = null;
+        boolean written = false;
+        try {
+            for (SortRun run : group) {
+                cursors.add(new FileRunCursor(run));
+            }
+            out = merged.openOutput();
+            PriorityQueue<RunCursor> heads = openHeads(cursors);
+            while (!heads.isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // クローズされた場合は中間マージも中断する
+                    throw new InterruptedException();
+                }
+                RunCursor head = heads.poll();
+                this.rowCodec.write(out, head.value);
+                merged.rows++;
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+            out.close();
+            written = true;
+        } finally {
+            try {
+                if (out != null && !written) {
+                    out.close();
+                }
+                for (RunCursor cursor : cursors) {
+                    cursor.close();
+                }
+            } finally {
+                if (!written) {
+                    merged.delete();
+                }
+            }
+        }
+        this.statistics.addSpill(merged.rows, merged.file.length(), true);
+        return merged;
+    }
+
+    /**
+     * 各ランの先頭のデータを読み込み、マージ用の優先度付きキューを作成する。<br>
+     * @param cursors ランのカーソル(ランの順)
+     * @return 先頭のデータの順に並んだカーソルのキュー
+     * @throws IOException 一時ファイルの読み込みに失敗した場合
+     */
+    private PriorityQueue<RunCursor> openHeads(List<RunCursor> cursors)
+                                                                        throws IOException {
+        PriorityQueue<RunCursor> heads = new PriorityQueue<RunCursor>(Math
+                .max(cursors.size(), 1), new RunCursorComparator());
+        for (int i = 0; i < cursors.size(); i++) {
+            RunCursor cursor = cursors.get(i);
+            cursor.index = i;
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return heads;
+    }
+
+    /**
+     * 一時ファイルを作成する。<br>
+     * @return 一時ファイル
+     * @throws IOException 一時ファイルの作成に失敗した場合
+     */
+    private File createTempFile() throws IOException {
+        return File.createTempFile("SortingCollector", ".run",
+                this.tempDirectory);
+    }
+
+    /**
+     * 一時ファイルに書き出したソート済みのデータ(ラン)。
+     */
+    private static class SortRun {
+
+        /** 一時ファイル */
+        private final File file;
+
+        /** データ件数 */
+        private long rows = 0L;
+
+        /**
+         * コンストラクタ。
+         * @param file 一時ファイル
+         */
+        SortRun(File file) {
+            this.file = file;
+        }
+
+        /**
+         * 書き出し用のストリームを開く。
+         * @return 書き出し用のストリーム
+         * @throws IOException ストリームを開けない場合
+         */
+        DataOutputStream openOutput() throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(this.file), IO_BUFFER_SIZE));
+        }
+
+        /**
+         * 一時ファイルを削除する。
+         */
+        void delete() {
+            if (this.file.exists() && !this.file.delete()) {
+                this.file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * マージ中のランの先頭のデータ。
+     */
+    private abstract class RunCursor {
+
+        /** ランの番号 */
+        private int index = 0;
+
+        /** 先頭のデータ */
+        protected P value = null;
+
+        /**
+         * ランの次のデータを先頭のデータにする。
+         * @return 次のデータがある場合はtrue、ランが終了した場合はfalse
+         * @throws IOException 一時ファイルの読み込みに失敗した場合
+         */
+        abstract boolean advance() throws IOException;
+
+        /**
+         * ランの読み込みを終了する。
+         */
+        void close() {
+        }
+    }
+
+    /**
+     * 一時ファイルに書き出したランのカーソル。
+     */
+    private class FileRunCursor extends RunCursor {
+
+        /** 入力ストリーム */
+        private final DataInputStream in;
+
+        /** 未読のデータ件数 */
+        private long remaining;
+
+        /**
+         * コンストラクタ。
+         * @param run ラン
+         * @throws IOException 一時ファイルを開けない場合
+         */
+        FileRunCursor(SortRun run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(run.file), IO_BUFFER_SIZE));
+            this.remaining = run.rows;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean advance() throws IOException {
+            if (this.remaining == 0) {
+                this.value = null;
+                return false;
+            }
+            this.remaining--;
+            this.value = rowCodec.read(this.in);
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        void close() {
+            try {
+                this.in.close();
+            } catch (IOException e) {
+                // 何もしない
+            }
+        }
+    }
+
+    /**
+     * メモリ上のランのカーソル。
+     */
+    private class ListRunCursor extends RunCursor {
+
+        /** ソート済みのデータ */
+        private final List<P> rows;
+
+        /** 次のデータの位置 */
+        private int position = 0;
+
+        /**
+         * コンストラクタ。
+         * @param rows ソート済みのデータ
+         */
+        ListRunCursor(List<P> rows) {
+            this.rows = rows;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean advance() {
+            if (this.position == this.rows.size()) {
+                this.value = null;
+                return false;
+            }
+            // 提供済みのデータへの参照は残さない
+            this.value = this.rows.set(this.position++, null);
+            return true;
+        }
+    }
+
+    /**
+     * ランの先頭のデータを比較するComparator。<br>
+     * 順序が等しい場合は、ランの番号順とする。
+     */
+    private class RunCursorComparator implements Comparator<RunCursor> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compare(RunCursor o1, RunCursor o2) {
+            int result = comparator.compare(o1.value, o2.value);
+            if (result != 0) {
+                return result;
+            }
+            return (o1.index < o2.index) ? -1 : ((o1.index == o2.index) ? 0
+                    : 1);
+        }
+    }
+}
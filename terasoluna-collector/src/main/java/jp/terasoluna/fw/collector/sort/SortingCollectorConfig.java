@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.sort;
+
+import java.io.File;
+import java.util.Comparator;
+
+import jp.terasoluna.fw.collector.AbstractCollectorConfig;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
+
+import org.springframework.validation.Validator;
+
+/**
+ * SortingCollector設定項目
+ * @param <P> データの型
+ */
+public class SortingCollectorConfig<P> extends AbstractCollectorConfig {
+    /** 入力データを提供するコレクタ */
+    protected Collector<P> source = null;
+
+    /** データの順序 */
+    protected Comparator<? super P> comparator = null;
+
+    /** ソートバッファサイズ（メモリ上でソートするデータの件数） */
+    protected int sortBufferSize = SortingCollector.DEFAULT_SORT_BUFFER_SIZE;
+
+    /** 一度にマージする一時ファイルの数 */
+    protected int mergeFactor = SortingCollector.DEFAULT_MERGE_FACTOR;
+
+    /** 一時ファイルに書き出すデータのバイナリ形式（nullの場合はJavaの直列化） */
+    protected RowCodec<P> rowCodec = null;
+
+    /** 一時ファイルを作成するディレクトリ（nullの場合はシステムの一時ディレクトリ） */
+    protected File tempDirectory = null;
+
+    /**
+     * コンストラクタ
+     * @param source 入力データを提供するコレクタ
+     * @param comparator データの順序
+     */
+    public SortingCollectorConfig(Collector<P> source,
+            Comparator<? super P> comparator) {
+        this.source = source;
+        this.comparator = comparator;
+    }
+
+    /**
+     * ソートバッファサイズを設定する
+     * @param sortBufferSize ソートバッファサイズ
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addSortBufferSize(int sortBufferSize) {
+        this.setSortBufferSize(sortBufferSize);
+        return this;
+    }
+
+    /**
+     * 一度にマージする一時ファイルの数を設定する
+     * @param mergeFactor 一度にマージする一時ファイルの数
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addMergeFactor(int mergeFactor) {
+        this.setMergeFactor(mergeFactor);
+        return this;
+    }
+
+    /**
+     * 一時ファイルに書き出すデータのバイナリ形式を設定する
+     * @param rowCodec 一時ファイルに書き出すデータのバイナリ形式
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addRowCodec(RowCodec<P> rowCodec) {
+        this.setRowCodec(rowCodec);
+        return this;
+    }
+
+    /**
+     * 一時ファイルを作成するディレクトリを設定する
+     * @param tempDirectory 一時ファイルを作成するディレクトリ
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addTempDirectory(File tempDirectory) {
+        this.setTempDirectory(tempDirectory);
+        return this;
+    }
+
+    /**
+     * キューサイズを設定する
+     * @param queueSize キューサイズ
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addQueueSize(int queueSize) {
+        this.setQueueSize(queueSize);
+        return this;
+    }
+
+    /**
+     * チャンクサイズを設定する
+     * @param chunkSize チャンクサイズ
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addChunkSize(int chunkSize) {
+        this.setChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * キューサイズの自動調整の設定を設定する
+     * @param adaptiveQueueSizing キューサイズの自動調整の設定
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addAdaptiveQueueSizing(AdaptiveQueueSizing adaptiveQueueSizing) {
+        this.setAdaptiveQueueSizing(adaptiveQueueSizing);
+        return this;
+    }
+
+    /**
+     * CollectorExecutorを設定する
+     * @param collectorExecutor CollectorExecutor
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addCollectorExecutor(
+            CollectorExecutor collectorExecutor) {
+        this.setCollectorExecutor(collectorExecutor);
+        return this;
+    }
+
+    /**
+     * CollectorExceptionHandlerを設定する
+     * @param exceptionHandler CollectorExceptionHandler
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addExceptionHandler(
+            CollectorExceptionHandler exceptionHandler) {
+        this.setExceptionHandler(exceptionHandler);
+        return this;
+    }
+
+    /**
+     * Validatorを設定する
+     * @param validator Validator
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addValidator(Validator validator) {
+        this.setValidator(validator);
+        return this;
+    }
+
+    /**
+     * ValidationErrorHandlerを設定する
+     * @param validationErrorHandler ValidationErrorHandler
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addValidationErrorHandler(
+            ValidationErrorHandler validationErrorHandler) {
+        this.setValidationErrorHandler(validationErrorHandler);
+        return this;
+    }
+
+    /**
+     * コンストラクタで処理を実行するフラグを設定する
+     * @param executeByConstructor コンストラクタで処理を実行するフラグ
+     * @return SortingCollectorConfig&lt;P&gt;
+     */
+    public SortingCollectorConfig<P> addExecuteByConstructor(
+            boolean executeByConstructor) {
+        this.setExecuteByConstructor(executeByConstructor);
+        return this;
+    }
+
+    /**
+     * 入力データを提供するコレクタ
+     * @return 入力データを提供するコレクタ
+     */
+    public Collector<P> getSource() {
+        return source;
+    }
+
+    /**
+     * 入力データを提供するコレクタ
+     * @param source 入力データを提供するコレクタ
+     */
+    public void setSource(Collector<P> source) {
+        this.source = source;
+    }
+
+    /**
+     * データの順序
+     * @return データの順序
+     */
+    public Comparator<? super P> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * データの順序
+     * @param comparator データの順序
+     */
+    public void setComparator(Comparator<? super P> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * ソートバッファサイズ
+     * @return ソートバッファサイズ
+     */
+    public int getSortBufferSize() {
+        return sortBufferSize;
+    }
+
+    /**
+     * ソートバッファサイズ
+     * @param sortBufferSize ソートバッファサイズ
+     */
+    public void setSortBufferSize(int sortBufferSize) {
+        this.sortBufferSize = sortBufferSize;
+    }
+
+    /**
+     * 一度にマージする一時ファイルの数
+     * @return 一度にマージする一時ファイルの数
+     */
+    public int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    /**
+     * 一度にマージする一時ファイルの数
+     * @param mergeFactor 一度にマージする一時ファイルの数
+     */
+    public void setMergeFactor(int mergeFactor) {
+        this.mergeFactor = mergeFactor;
+    }
+
+    /**
+     * 一時ファイルに書き出すデータのバイナリ形式
+     * @return 一時ファイルに書き出すデータのバイナリ形式
+     */
+    public RowCodec<P> getRowCodec() {
+        return rowCodec;
+    }
+
+    /**
+     * 一時ファイルに書き出すデータのバイナリ形式
+     * @param rowCodec 一時ファイルに書き出すデータのバイナリ形式
+     */
+    public void setRowCodec(RowCodec<P> rowCodec) {
+        this.rowCodec = rowCodec;
+    }
+
+    /**
+     * 一時ファイルを作成するディレクトリ
+     * @return 一時ファイルを作成するディレクトリ
+     */
+    public File getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * 一時ファイルを作成するディレクトリ
+     * @param tempDirectory 一時ファイルを作成するディレクトリ
+     */
+    public void setTempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+}
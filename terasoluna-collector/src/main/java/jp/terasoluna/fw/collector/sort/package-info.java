@@ -0,0 +1,4 @@
+/**
+ * ソートコレクタ
+ */
+package jp.terasoluna.fw.collector.sort;
@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.util.strategy.CompareStrategy;
+
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.beanutils.PropertyUtils;
+
+/**
+ * 事前に定義したキーでコントロールブレイクを判定するクラス.<br>
+ * <p>
+ * {@link ControlBreakChecker}はデータごとにキーのプロパティをリフレクションで取得するが、
+ * 本クラスはキーとCompareStrategyの対応を生成時に確定し、プロパティ名はデータのクラスごとに1度だけ
+ * getterのMethodHandleに変換する。以降の判定ではリフレクションによるプロパティの探索や配列・Mapの生成を行わない。
+ * ループの外で1度生成し、データごとに{@link #isBreak(Collector)}、{@link #isPreBreak(Collector)}を呼び出すこと。
+ * </p>
+ * <p>
+ * 判定結果はControlBreakCheckerの同名のメソッドと同じである。ただし、プロパティが見つからない場合の警告ログは、
+ * データのクラスごとに1度だけ出力する。
+ * ネストしたプロパティ("a.b")、インデックス・マップ形式のプロパティ、DynaBeanは、ControlBreakCheckerと同じくPropertyUtilsで取得する。
+ * </p>
+ * <p>
+ * キーの定義({@link #addKey(String)}等)はスレッドセーフでない。定義後の判定は複数スレッドから呼び出してよい。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * ControlBreak&lt;Customer&gt; branchBreak = new ControlBreak&lt;Customer&gt;(&quot;branchCode&quot;);
+ * while (col.hasNext()) {
+ *     Customer customer = col.next();
+ *     // 明細処理
+ *     if (branchBreak.isBreak(col)) {
+ *         // 支店ごとの集計処理
+ *     }
+ * }
+ * </pre></code>
+ * @param <P> データの型
+ */
+public class ControlBreak<P> {
+
+    /** PropertyUtilsでプロパティを取得できなかったことを示す値 */
+    private static final Object PROPERTY_NOT_FOUND = new Object();
+
+    /** キー名 */
+    private String[] keys = new String[0];
+
+    /** キー値の取得方法（nullの場合はプロパティ名から変換する） */
+    private KeyExtractor<? super P>[] extractors = newExtractors(0);
+
+    /** キーごとのCompareStrategy */
+    private CompareStrategy<?>[] compareStrategies = new CompareStrategy<?>[0];
+
+    /** 最後に変換したデータのクラスのキー値の取得方法 */
+    private volatile CompiledKeys compiled = null;
+
+    /**
+     * コンストラクタ.<br>
+     * キーは{@link #addKey(String)}等で定義する。
+     */
+    public ControlBreak() {
+    }
+
+    /**
+     * コンストラクタ.<br>
+     * @param keys キーのプロパティ名
+     */
+    public ControlBreak(String... keys) {
+        this(null, keys);
+    }
+
+    /**
+     * コンストラクタ.<br>
+     * keysの数とcompareStrategiesの数と、比較時に利用されるCompareStrategyの関係は
+     * {@link ControlBreakChecker#isBreak(Collector, CompareStrategy[], String[])}と同じである.
+     * @param compareStrategies CompareStrategy&lt;?&gt;[]
+     * @param keys キーのプロパティ名
+     */
+    public ControlBreak(CompareStrategy<?>[] compareStrategies, String[] keys) {
+        if (keys == null) {
+            return;
+        }
+        for (int keyIndex = 0; keyIndex < keys.length; keyIndex++) {
+            CompareStrategy<?> compareStrategy = null;
+            if (compareStrategies != null) {
+                if (compareStrategies.length == 1) {
+                    compareStrategy = compareStrategies[0];
+                } else if (keyIndex < compareStrategies.length) {
+                    compareStrategy = compareStrategies[keyIndex];
+                }
+            }
+            add(keys[keyIndex], null, compareStrategy);
+        }
+    }
+
+    /**
+     * キーを追加する.<br>
+     * @param key キーのプロパティ名
+     * @return ControlBreak&lt;P&gt;
+     */
+    public ControlBreak<P> addKey(String key) {
+        return add(key, null, null);
+    }
+
+    /**
+     * キーを追加する.<br>
+     * @param key キーのプロパティ名
+     * @param compareStrategy CompareStrategy
+     * @return ControlBreak&lt;P&gt;
+     */
+    public ControlBreak<P> addKey(String key, CompareStrategy<?> compareStrategy) {
+        return add(key, null, compareStrategy);
+    }
+
+    /**
+     * キーを追加する.<br>
+     * キー値はプロパティではなく、extractorで取得する。
+     * @param key キー名（{@link #getBreakKey(Collector)}の結果のキーとなる）
+     * @param extractor KeyExtractor
+     * @return ControlBreak&lt;P&gt;
+     */
+    public ControlBreak<P> addKey(String key, KeyExtractor<? super P> extractor) {
+        return addKey(key, extractor, null);
+    }
+
+    /**
+     * キーを追加する.<br>
+     * キー値はプロパティではなく、extractorで取得する。
+     * @param key キー名（{@link #getBreakKey(Collector)}の結果のキーとなる）
+     * @param extractor KeyExtractor
+     * @param compareStrategy CompareStrategy
+     * @return ControlBreak&lt;P&gt;
+     */
+    public ControlBreak<P> addKey(String key, KeyExtractor<? super P> extractor,
+            CompareStrategy<?> compareStrategy) {
+        if (extractor == null) {
+            throw new IllegalArgumentException("The extractor is null.");
+        }
+        return add(key, extractor, compareStrategy);
+    }
+
+    /**
+     * 前処理コントロールブレイク判定メソッド.<br>
+     * @param collector Collector
+     * @return true:コントロールブレイクを行う/false:コントロールブレイクしない
+     */
+    public boolean isPreBreak(Collector<? extends P> collector) {
+        if (collector != null) {
+            return isBreak(collector.getCurrent(), collector.getPrevious());
+        }
+        return false;
+    }
+
+    /**
+     * 後処理コントロールブレイク判定メソッド.<br>
+     * @param collector Collector
+     * @return true:コントロールブレイクを行う/false:コントロールブレイクしない
+     */
+    public boolean isBreak(Collector<? extends P> collector) {
+        if (collector != null) {
+            return isBreak(collector.getCurrent(), collector.getNext());
+        }
+        return false;
+    }
+
+    /**
+     * コントロールブレイク判定メソッド.<br>
+     * @param current 比較元オブジェクト
+     * @param other 比較先オブジェクト
+     * @return true:コントロールブレイクを行う/false:コントロールブレイクしない
+     */
+    public boolean isBreak(P current, P other) {
+        // keyリストが空の場合はfalse
+        if (this.keys.length == 0) {
+            // コントロールブレイクなし
+            return false;
+        }
+
+        // 片方がnullで、もう片方がnot nullの場合はtrue
+        if ((current != null && other == null)
+                || (current == null && other != null)) {
+            // コントロールブレイク発生
+            return true;
+        }
+
+        if (other != null && current != null) {
+            KeyExtractor<Object>[] currentAccessors = accessors(current);
+            KeyExtractor<Object>[] otherAccessors = accessors(other);
+
+            for (int keyIndex = 0; keyIndex < this.keys.length; keyIndex++) {
+                if (isEmptyKey(keyIndex)) {
+                    continue;
+                }
+                KeyExtractor<Object> currentAccessor = currentAccessors[keyIndex];
+                KeyExtractor<Object> otherAccessor = otherAccessors[keyIndex];
+                if (currentAccessor == null || otherAccessor == null) {
+                    // プロパティが存在しないキーはチェックしない
+                    continue;
+                }
+
+                Object currentValue = currentAccessor.getKey(current);
+                Object otherValue = otherAccessor.getKey(other);
+                if (currentValue == PROPERTY_NOT_FOUND
+                        || otherValue == PROPERTY_NOT_FOUND) {
+                    continue;
+                }
+
+                // 比較
+                if (!ControlBreakChecker.equalsObjects(currentValue,
+                        otherValue, this.compareStrategies[keyIndex])) {
+                    return true;
+                }
+            }
+        }
+        // コントロールブレイクなし
+        return false;
+    }
+
+    /**
+     * 前処理コントロールブレイクキー取得.<br>
+     * @param collector Collector
+     * @return コントロールブレイクキーリスト
+     */
+    public Map<String, Object> getPreBreakKey(Collector<? extends P> collector) {
+        if (collector != null) {
+            return getBreakKey(collector.getCurrent(), collector.getPrevious());
+        }
+        return new LinkedHashMap<String, Object>();
+    }
+
+    /**
+     * 後処理コントロールブレイクキー取得.<br>
+     * @param collector Collector
+     * @return コントロールブレイクキーリスト
+     */
+    public Map<String, Object> getBreakKey(Collector<? extends P> collector) {
+        if (collector != null) {
+            return getBreakKey(collector.getCurrent(), collector.getNext());
+        }
+        return new LinkedHashMap<String, Object>();
+    }
+
+    /**
+     * コントロールブレイクキー取得.<br>
+     * 最初にブレイクしたキー以降のキーについて、比較元オブジェクトのキー値を返す。
+     * @param current 比較元オブジェクト
+     * @param other 比較先オブジェクト
+     * @return コントロールブレイクキーリスト
+     */
+    public Map<String, Object> getBreakKey(P current, P other) {
+        boolean inBreak = false;
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+
+        KeyExtractor<Object>[] currentAccessors = (current != null) ? accessors(current)
+                : null;
+        KeyExtractor<Object>[] otherAccessors = (other != null) ? accessors(other)
+                : null;
+
+        for (int keyIndex = 0; keyIndex < this.keys.length; keyIndex++) {
+            Object currentValue = null;
+            Object otherValue = null;
+
+            if (isEmptyKey(keyIndex)) {
+                // キー名が空の場合は比較しない
+                if (inBreak) {
+                    result.put(this.keys[keyIndex], null);
+                }
+                continue;
+            }
+
+            if (currentAccessors != null) {
+                if (currentAccessors[keyIndex] == null) {
+                    continue;
+                }
+                currentValue = currentAccessors[keyIndex].getKey(current);
+                if (currentValue == PROPERTY_NOT_FOUND) {
+                    continue;
+                }
+            }
+            if (otherAccessors != null) {
+                if (otherAccessors[keyIndex] == null) {
+                    continue;
+                }
+                otherValue = otherAccessors[keyIndex].getKey(other);
+                if (otherValue == PROPERTY_NOT_FOUND) {
+                    continue;
+                }
+            }
+
+            if (!inBreak) {
+                // 片方がnullで、もう片方がnot nullの場合はtrue
+                if ((current != null && other == null)
+                        || (current == null && other != null)) {
+                    // コントロールブレイク発生
+                    inBreak = true;
+                }
+
+                // 比較
+                if (!ControlBreakChecker.equalsObjects(currentValue,
+                        otherValue, this.compareStrategies[keyIndex])) {
+                    // コントロールブレイク発生
+                    inBreak = true;
+                }
+            }
+
+            if (inBreak) {
+                result.put(this.keys[keyIndex], currentValue);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * キーを追加する.<br>
+     * キー名が空の場合は、ControlBreakCheckerと同じく判定の対象としない。
+     * @param key キー名
+     * @param extractor KeyExtractor
+     * @param compareStrategy CompareStrategy
+     * @return ControlBreak&lt;P&gt;
+     */
+    private ControlBreak<P> add(String key, KeyExtractor<? super P> extractor,
+            CompareStrategy<?> compareStrategy) {
+        int length = this.keys.length;
+        this.keys = Arrays.copyOf(this.keys, length + 1);
+        this.keys[length] = key;
+        this.extractors = Arrays.copyOf(this.extractors, length + 1);
+        this.extractors[length] = extractor;
+        this.compareStrategies = Arrays.copyOf(this.compareStrategies,
+                length + 1);
+        this.compareStrategies[length] = compareStrategy;
+        this.compiled = null;
+        return this;
+    }
+
+    /**
+     * キー名が空か確認する.<br>
+     * @param keyIndex キーのインデックス
+     * @return キー名が空の場合はtrue
+     */
+    private boolean isEmptyKey(int keyIndex) {
+        String key = this.keys[keyIndex];
+        return key == null || key.length() == 0;
+    }
+
+    /**
+     * データのクラスに対応したキー値の取得方法を返す.<br>
+     * 直前のデータと同じクラスの場合は、変換済みの取得方法を返す。
+     * @param bean データ
+     * @return キー値の取得方法（プロパティが存在しないキーはnull）
+     */
+    private KeyExtractor<Object>[] accessors(Object bean) {
+        CompiledKeys c = this.compiled;
+        Class<?> beanClass = bean.getClass();
+        if (c == null || c.beanClass != beanClass) {
+            c = new CompiledKeys(beanClass, compile(bean));
+            this.compiled = c;
+        }
+        return c.accessors;
+    }
+
+    /**
+     * キーをデータのクラスに対応したキー値の取得方法に変換する.<br>
+     * @param bean データ
+     * @return キー値の取得方法（プロパティが存在しないキーはnull）
+     */
+    @SuppressWarnings("unchecked")
+    private KeyExtractor<Object>[] compile(Object bean) {
+        KeyExtractor<Object>[] accessors = newExtractors(this.keys.length);
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.extractors[i] != null) {
+                accessors[i] = (KeyExtractor<Object>) this.extractors[i];
+            } else if (!isEmptyKey(i)) {
+                accessors[i] = compileProperty(bean, this.keys[i]);
+            }
+        }
+        return accessors;
+    }
+
+    /**
+     * プロパティ名をキー値の取得方法に変換する.<br>
+     * <p>
+     * 単純なプロパティ名の場合はgetterのMethodHandleに変換する。
+     * Map、DynaBean、ネストしたプロパティ等の場合は、PropertyUtilsで取得する。
+     * この場合、プロパティが存在するかは判定のたびに確認する。
+     * </p>
+     * @param bean データ
+     * @param key プロパティ名
+     * @return キー値の取得方法（プロパティが存在しない場合はnull）
+     */
+    private static KeyExtractor<Object> compileProperty(Object bean, String key) {
+        if (!(bean instanceof Map) && !(bean instanceof DynaBean)
+                && key.indexOf('.') < 0 && key.indexOf('[') < 0
+                && key.indexOf('(') < 0) {
+            try {
+                PropertyDescriptor descriptor = PropertyUtils
+                        .getPropertyDescriptor(bean, key);
+                Method readMethod = (descriptor == null) ? null
+                        : MethodUtils.getAccessibleMethod(bean.getClass(),
+                                descriptor.getReadMethod());
+                if (readMethod == null) {
+                    throw new NoSuchMethodException("Unknown property '"
+                            + key + "' on class '" + bean.getClass() + "'");
+                }
+                return new MethodHandleKeyExtractor(MethodHandles
+                        .publicLookup().unreflect(readMethod).asType(
+                                MethodType.methodType(Object.class,
+                                        Object.class)));
+            } catch (Exception e) {
+                ControlBreakChecker.logOutputPropNotFound(e, bean, key);
+                return null;
+            }
+        }
+        return new PropertyUtilsKeyExtractor(key);
+    }
+
+    /**
+     * KeyExtractorの配列を生成する.<br>
+     * @param length 配列の長さ
+     * @return KeyExtractorの配列
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> KeyExtractor<T>[] newExtractors(int length) {
+        return new KeyExtractor[length];
+    }
+
+    /**
+     * データのクラスと、そのクラスに対応したキー値の取得方法の組.
+     */
+    private static class CompiledKeys {
+
+        /** データのクラス */
+        final Class<?> beanClass;
+
+        /** キー値の取得方法 */
+        final KeyExtractor<Object>[] accessors;
+
+        /**
+         * コンストラクタ.
+         * @param beanClass データのクラス
+         * @param accessors キー値の取得方法
+         */
+        CompiledKeys(Class<?> beanClass, KeyExtractor<Object>[] accessors) {
+            this.beanClass = beanClass;
+            this.accessors = accessors;
+        }
+    }
+
+    /**
+     * getterのMethodHandleでキー値を取得するKeyExtractor.
+     */
+    private static class MethodHandleKeyExtractor implements
+                                                 KeyExtractor<Object> {
+
+        /** getterのMethodHandle((Object)Object) */
+        private final MethodHandle getter;
+
+        /**
+         * コンストラクタ.
+         * @param getter getterのMethodHandle
+         */
+        MethodHandleKeyExtractor(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object getKey(Object bean) {
+            try {
+                return (Object) this.getter.invokeExact(bean);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * PropertyUtilsでキー値を取得するKeyExtractor.<br>
+     * 取得できない場合は、警告ログを出力し{@link ControlBreak#PROPERTY_NOT_FOUND}を返す。
+     */
+    private static class PropertyUtilsKeyExtractor implements
+                                                  KeyExtractor<Object> {
+
+        /** プロパティ名 */
+        private final String key;
+
+        /**
+         * コンストラクタ.
+         * @param key プロパティ名
+         */
+        PropertyUtilsKeyExtractor(String key) {
+            this.key = key;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object getKey(Object bean) {
+            try {
+                return PropertyUtils.getProperty(bean, this.key);
+            } catch (Exception e) {
+                ControlBreakChecker.logOutputPropNotFound(e, bean, this.key);
+                return PROPERTY_NOT_FOUND;
+            }
+        }
+    }
+}
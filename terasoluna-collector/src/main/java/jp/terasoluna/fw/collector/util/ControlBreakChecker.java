@@ -31,6 +31,9 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 
 /**
  * コントロールブレイクチェッカー.<br>
+ * <p>
+ * 同じキーで繰り返し判定する場合は、キーを事前に変換する{@link ControlBreak}を使用すると判定ごとのリフレクションを削減できる。
+ * </p>
  */
 public class ControlBreakChecker {
 
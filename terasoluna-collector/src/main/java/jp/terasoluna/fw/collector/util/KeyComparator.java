@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 事前に定義したキーでデータの順序を比較するComparator.<br>
+ * <p>
+ * キー値は{@link KeyExtractor}で取得するため、比較のたびにリフレクションを使用しない。
+ * 先に追加したキーから順に比較し、等しくない最初のキーの比較結果を返す。
+ * キー値はComparableであるか、キーごとにComparatorを指定すること。nullは他の値より前とする。
+ * </p>
+ * <p>
+ * キーの定義({@link #addKey(KeyExtractor)}等)はスレッドセーフでない。定義後の比較は複数スレッドから呼び出してよい。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * KeyComparator&lt;Sales&gt; comparator = new KeyComparator&lt;Sales&gt;()
+ *     .addKey(new KeyExtractor&lt;Sales&gt;() {
+ *         public Object getKey(Sales bean) {
+ *             return bean.getBranchCode();
+ *         }
+ *     })
+ *     .addDescendingKey(new KeyExtractor&lt;Sales&gt;() {
+ *         public Object getKey(Sales bean) {
+ *             return bean.getSalesDate();
+ *         }
+ *     });
+ * </pre></code>
+ * @param <P> データの型
+ */
+public class KeyComparator<P> implements Comparator<P> {
+
+    /** キー値の取得方法 */
+    private KeyExtractor<? super P>[] extractors = newExtractors(0);
+
+    /** キーごとのComparator（nullの場合はキー値をComparableとして比較する） */
+    private Comparator<?>[] comparators = new Comparator<?>[0];
+
+    /** キーごとの降順フラグ */
+    private boolean[] descendings = new boolean[0];
+
+    /**
+     * 昇順のキーを追加する.<br>
+     * @param extractor KeyExtractor
+     * @return KeyComparator&lt;P&gt;
+     */
+    public KeyComparator<P> addKey(KeyExtractor<? super P> extractor) {
+        return add(extractor, null, false);
+    }
+
+    /**
+     * 昇順のキーを追加する.<br>
+     * キー値はcomparatorで比較する。
+     * @param extractor KeyExtractor
+     * @param comparator キー値のComparator
+     * @return KeyComparator&lt;P&gt;
+     */
+    public KeyComparator<P> addKey(KeyExtractor<? super P> extractor,
+            Comparator<?> comparator) {
+        if (comparator == null) {
+            throw new IllegalArgumentException("The comparator is null.");
+        }
+        return add(extractor, comparator, false);
+    }
+
+    /**
+     * 降順のキーを追加する.<br>
+     * @param extractor KeyExtractor
+     * @return KeyComparator&lt;P&gt;
+     */
+    public KeyComparator<P> addDescendingKey(KeyExtractor<? super P> extractor) {
+        return add(extractor, null, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(P o1, P o2) {
+        for (int keyIndex = 0; keyIndex < this.extractors.length; keyIndex++) {
+            int result = compareKey(keyIndex, this.extractors[keyIndex]
+                    .getKey(o1), this.extractors[keyIndex].getKey(o2));
+            if (result != 0) {
+                return this.descendings[keyIndex] ? -result : result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * キー値を比較する.<br>
+     * @param keyIndex キーのインデックス
+     * @param value1 キー値
+     * @param value2 キー値
+     * @return 比較結果
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private int compareKey(int keyIndex, Object value1, Object value2) {
+        if (value1 == value2) {
+            return 0;
+        }
+        if (value1 == null) {
+            return -1;
+        }
+        if (value2 == null) {
+            return 1;
+        }
+        Comparator comparator = this.comparators[keyIndex];
+        if (comparator != null) {
+            return comparator.compare(value1, value2);
+        }
+        return ((Comparable) value1).compareTo(value2);
+    }
+
+    /**
+     * キーを追加する.<br>
+     * @param extractor KeyExtractor
+     * @param comparator キー値のComparator
+     * @param descending 降順フラグ
+     * @return KeyComparator&lt;P&gt;
+     */
+    private KeyComparator<P> add(KeyExtractor<? super P> extractor,
+            Comparator<?> comparator, boolean descending) {
+        if (extractor == null) {
+            throw new IllegalArgumentException("The extractor is null.");
+        }
+        int length = this.extractors.length;
+        this.extractors = Arrays.copyOf(this.extractors, length + 1);
+        this.extractors[length] = extractor;
+        this.comparators = Arrays.copyOf(this.comparators, length + 1);
+        this.comparators[length] = comparator;
+        this.descendings = Arrays.copyOf(this.descendings, length + 1);
+        this.descendings[length] = descending;
+        return this;
+    }
+
+    /**
+     * KeyExtractorの配列を生成する.<br>
+     * @param length 配列の長さ
+     * @return KeyExtractorの配列
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> KeyExtractor<T>[] newExtractors(int length) {
+        return new KeyExtractor[length];
+    }
+}
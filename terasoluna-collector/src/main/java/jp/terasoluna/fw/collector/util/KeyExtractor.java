@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util;
+
+/**
+ * コントロールブレイクやソートのキー値を取得するインタフェース。<br>
+ * <p>
+ * {@link ControlBreak}にプロパティ名の代わりに指定することで、リフレクションを使用せずにキー値を取得できる。
+ * {@link KeyComparator}ではソートのキー値の取得に使用する。
+ * 複数スレッドから呼び出される可能性があるため、状態を持たないように実装すること。
+ * </p>
+ * @param <P> データの型
+ */
+public interface KeyExtractor<P> {
+
+    /**
+     * キー値を取得する。
+     * @param bean データ（null以外）
+     * @return キー値
+     */
+    Object getKey(P bean);
+}
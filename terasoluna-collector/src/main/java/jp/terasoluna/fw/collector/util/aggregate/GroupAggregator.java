@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util.aggregate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.util.ControlBreak;
+
+/**
+ * コントロールブレイクによるグループ集計クラス.<br>
+ * <p>
+ * キーでソートされたデータを1件ずつ受け取り、グループごとに件数・合計・最小・最大を集計する。
+ * {@link ControlBreak}でグループの終わりを判定し、グループの集計結果を{@link GroupHandler}に通知する。
+ * 保持するのは集計中のグループの集計値のみで、グループのデータをリスト等に蓄積しない。
+ * </p>
+ * <p>
+ * 集計値はlong値またはBigDecimal値で保持し、値は{@link LongValueExtractor}、{@link DecimalValueExtractor}で取得する。
+ * BigDecimal値の集計では、nullの値は集計しない。
+ * </p>
+ * <p>
+ * 複数の階層で集計する場合は、階層ごとに本クラスを生成し、1件ごとにすべての階層の{@link #add(Collector)}を呼び出す。
+ * 下位の階層から順に呼び出すと、下位のグループの集計結果が上位のグループより先に通知される。
+ * </p>
+ * <p>
+ * 本クラスはスレッドセーフでない。
+ * </p>
+ * <b>使用例</b><br>
+ * <code><pre>
+ * GroupAggregator&lt;Sales&gt; branchTotal = new GroupAggregator&lt;Sales&gt;(
+ *     new ControlBreak&lt;Sales&gt;(&quot;branchCode&quot;), new GroupHandler&lt;Sales&gt;() {
+ *         public void handleGroup(GroupResult&lt;Sales&gt; result) {
+ *             // result.getLast().getBranchCode()、result.getCount()、
+ *             // result.getDecimal(&quot;amount&quot;)を使用した支店ごとの出力処理
+ *         }
+ *     }).addSum(&quot;amount&quot;, new DecimalValueExtractor&lt;Sales&gt;() {
+ *         public BigDecimal getDecimal(Sales row) {
+ *             return row.getAmount();
+ *         }
+ *     });
+ * while (col.hasNext()) {
+ *     Sales sales = col.next();
+ *     // 明細処理
+ *     branchTotal.add(col);
+ * }
+ * </pre></code>
+ * @param <P> データの型
+ */
+public class GroupAggregator<P> {
+
+    /** 集計方法：合計 */
+    private static final int SUM = 0;
+
+    /** 集計方法：最小 */
+    private static final int MIN = 1;
+
+    /** 集計方法：最大 */
+    private static final int MAX = 2;
+
+    /** グループのコントロールブレイク定義 */
+    private final ControlBreak<P> controlBreak;
+
+    /** GroupHandler */
+    private final GroupHandler<P> handler;
+
+    /** 集計項目名と値の格納位置 */
+    private final Map<String, Integer> slots = new HashMap<String, Integer>();
+
+    /** long値の集計項目の集計方法 */
+    private final List<Integer> longOperationList = new ArrayList<Integer>();
+
+    /** long値の集計項目の値の取得方法 */
+    private final List<LongValueExtractor<? super P>> longExtractorList = new ArrayList<LongValueExtractor<? super P>>();
+
+    /** BigDecimal値の集計項目の集計方法 */
+    private final List<Integer> decimalOperationList = new ArrayList<Integer>();
+
+    /** BigDecimal値の集計項目の値の取得方法 */
+    private final List<DecimalValueExtractor<? super P>> decimalExtractorList = new ArrayList<DecimalValueExtractor<? super P>>();
+
+    /** long値の集計項目の集計方法（集計開始時に確定する） */
+    private int[] longOperations = null;
+
+    /** long値の集計項目の値の取得方法（集計開始時に確定する） */
+    private LongValueExtractor<? super P>[] longExtractors = null;
+
+    /** BigDecimal値の集計項目の集計方法（集計開始時に確定する） */
+    private int[] decimalOperations = null;
+
+    /** BigDecimal値の集計項目の値の取得方法（集計開始時に確定する） */
+    private DecimalValueExtractor<? super P>[] decimalExtractors = null;
+
+    /** 集計中のグループの集計結果 */
+    private GroupResult<P> result = null;
+
+    /** 通知したグループの数 */
+    private long groupCount = 0L;
+
+    /**
+     * コンストラクタ.<br>
+     * @param controlBreak グループのコントロールブレイク定義
+     * @param handler グループの集計結果を受け取るGroupHandler
+     */
+    public GroupAggregator(ControlBreak<P> controlBreak,
+            GroupHandler<P> handler) {
+        if (controlBreak == null || handler == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        this.controlBreak = controlBreak;
+        this.handler = handler;
+    }
+
+    /**
+     * long値の合計を集計項目に追加する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    public GroupAggregator<P> addSum(String name,
+            LongValueExtractor<? super P> extractor) {
+        return addLong(name, SUM, extractor);
+    }
+
+    /**
+     * long値の最小を集計項目に追加する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    public GroupAggregator<P> addMin(String name,
+            LongValueExtractor<? super P> extractor) {
+        return addLong(name, MIN, extractor);
+    }
+
+    /**
+     * long値の最大を集計項目に追加する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    public GroupAggregator<P> addMax(String name,
+            LongValueExtractor<? super P> extractor) {
+        return addLong(name, MAX, extractor);
+    }
+
+    /**
+     * BigDecimal値の合計を集計項目に追加する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    public GroupAggregator<P> addSum(String name,
+            DecimalValueExtractor<? super P> extractor) {
+        return addDecimal(name, SUM, extractor);
+    }
+
+    /**
+     * BigDecimal値の最小を集計項目に追加する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    public GroupAggregator<P> addMin(String name,
+            DecimalValueExtractor<? super P> extractor) {
+        return addDecimal(name, MIN, extractor);
+    }
+
+    /**
+     * BigDecimal値の最大を集計項目に追加する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    public GroupAggregator<P> addMax(String name,
+            DecimalValueExtractor<? super P> extractor) {
+        return addDecimal(name, MAX, extractor);
+    }
+
+    /**
+     * コレクタの現在の要素を集計する.<br>
+     * <p>
+     * 現在の要素を集計中のグループに加え、次の要素とのコントロールブレイク(後処理)を判定する。
+     * コントロールブレイクした場合は、グループの集計結果をGroupHandlerに通知し、次のグループの集計を開始する。
+     * 最後の要素(次の要素がない場合)では必ずグループを通知するため、キーを定義しないControlBreak(総計)でも最後のグループが通知される。
+     * </p>
+     * @param collector Collector
+     */
+    public void add(Collector<? extends P> collector) {
+        P current = collector.getCurrent();
+        add(current);
+        P next = collector.getNext();
+        if (next == null || this.controlBreak.isBreak(current, next)) {
+            flush();
+        }
+    }
+
+    /**
+     * データを集計中のグループに加える.<br>
+     * <p>
+     * コントロールブレイクは判定しないため、グループの終わりで{@link #flush()}を呼び出すこと。
+     * </p>
+     * @param row データ
+     */
+    public void add(P row) {
+        GroupResult<P> r = this.result;
+        if (r == null) {
+            r = start();
+        }
+        boolean first = r.getCount() == 0L;
+        r.addRow(row);
+
+        long[] longs = r.longs();
+        for (int i = 0; i < longs.length; i++) {
+            long value = this.longExtractors[i].getLong(row);
+            switch (this.longOperations[i]) {
+            case SUM:
+                longs[i] += value;
+                break;
+            case MIN:
+                if (first || value < longs[i]) {
+                    longs[i] = value;
+                }
+                break;
+            default:
+                if (first || value > longs[i]) {
+                    longs[i] = value;
+                }
+                break;
+            }
+        }
+
+        BigDecimal[] decimals = r.decimals();
+        for (int i = 0; i < decimals.length; i++) {
+            BigDecimal value = this.decimalExtractors[i].getDecimal(row);
+            if (value == null) {
+                continue;
+            }
+            BigDecimal total = decimals[i];
+            if (total == null) {
+                decimals[i] = value;
+                continue;
+            }
+            switch (this.decimalOperations[i]) {
+            case SUM:
+                decimals[i] = total.add(value);
+                break;
+            case MIN:
+                if (value.compareTo(total) < 0) {
+                    decimals[i] = value;
+                }
+                break;
+            default:
+                if (value.compareTo(total) > 0) {
+                    decimals[i] = value;
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * 集計中のグループの集計結果をGroupHandlerに通知し、次のグループの集計を開始する.<br>
+     * 集計中のデータがない場合は何もしない。
+     */
+    public void flush() {
+        GroupResult<P> r = this.result;
+        if (r == null || r.getCount() == 0L) {
+            return;
+        }
+        this.groupCount++;
+        try {
+            this.handler.handleGroup(r);
+        } finally {
+            r.clear();
+        }
+    }
+
+    /**
+     * コレクタの残りの要素をすべて集計する.<br>
+     * 集計を終えた時点で集計中のグループが残っている場合は、そのグループも通知する。
+     * @param collector Collector
+     */
+    public void aggregate(Collector<? extends P> collector) {
+        while (collector.hasNext()) {
+            collector.next();
+            add(collector);
+        }
+        flush();
+    }
+
+    /**
+     * 通知したグループの数を取得する.<br>
+     * @return 通知したグループの数
+     */
+    public long getGroupCount() {
+        return this.groupCount;
+    }
+
+    /**
+     * long値の集計項目を追加する.<br>
+     * @param name 集計項目名
+     * @param operation 集計方法
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    private GroupAggregator<P> addLong(String name, int operation,
+            LongValueExtractor<? super P> extractor) {
+        checkDefinition(name, extractor);
+        this.slots.put(name, Integer.valueOf(this.longOperationList.size()));
+        this.longOperationList.add(Integer.valueOf(operation));
+        this.longExtractorList.add(extractor);
+        return this;
+    }
+
+    /**
+     * BigDecimal値の集計項目を追加する.<br>
+     * @param name 集計項目名
+     * @param operation 集計方法
+     * @param extractor 値の取得方法
+     * @return GroupAggregator&lt;P&gt;
+     */
+    private GroupAggregator<P> addDecimal(String name, int operation,
+            DecimalValueExtractor<? super P> extractor) {
+        checkDefinition(name, extractor);
+        this.slots.put(name, Integer.valueOf(-this.decimalOperationList
+                .size() - 1));
+        this.decimalOperationList.add(Integer.valueOf(operation));
+        this.decimalExtractorList.add(extractor);
+        return this;
+    }
+
+    /**
+     * 集計項目の定義を検査する.<br>
+     * @param name 集計項目名
+     * @param extractor 値の取得方法
+     */
+    private void checkDefinition(String name, Object extractor) {
+        if (this.result != null) {
+            throw new IllegalStateException("The aggregation has already started.");
+        }
+        if (name == null || extractor == null) {
+            throw new IllegalArgumentException("The parameter is null.");
+        }
+        if (this.slots.containsKey(name)) {
+            throw new IllegalArgumentException("The name is already defined. name:" + name);
+        }
+    }
+
+    /**
+     * 集計項目の定義を確定し、集計を開始する.<br>
+     * @return 集計結果
+     */
+    @SuppressWarnings("unchecked")
+    private GroupResult<P> start() {
+        int longSize = this.longOperationList.size();
+        this.longOperations = new int[longSize];
+        this.longExtractors = new LongValueExtractor[longSize];
+        for (int i = 0; i < longSize; i++) {
+            this.longOperations[i] = this.longOperationList.get(i).intValue();
+            this.longExtractors[i] = this.longExtractorList.get(i);
+        }
+        int decimalSize = this.decimalOperationList.size();
+        this.decimalOperations = new int[decimalSize];
+        this.decimalExtractors = new DecimalValueExtractor[decimalSize];
+        for (int i = 0; i < decimalSize; i++) {
+            this.decimalOperations[i] = this.decimalOperationList.get(i)
+                    .intValue();
+            this.decimalExtractors[i] = this.decimalExtractorList.get(i);
+        }
+        this.result = new GroupResult<P>(this.slots, longSize, decimalSize);
+        return this.result;
+    }
+}
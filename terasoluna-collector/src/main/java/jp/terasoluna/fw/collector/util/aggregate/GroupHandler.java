@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util.aggregate;
+
+/**
+ * グループの集計結果を受け取るインタフェース。<br>
+ * @param <P> データの型
+ */
+public interface GroupHandler<P> {
+
+    /**
+     * グループの集計結果を処理する。<br>
+     * <p>
+     * GroupResultは次のグループの集計に再利用されるため、本メソッドの外で参照しないこと。
+     * </p>
+     * @param result グループの集計結果
+     */
+    void handleGroup(GroupResult<P> result);
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util.aggregate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * グループの集計結果.<br>
+ * <p>
+ * 集計項目の値は、{@link GroupAggregator}に定義した集計項目名で取得する。
+ * グループのキー値は、{@link #getFirst()}または{@link #getLast()}のデータから取得すること。
+ * </p>
+ * <p>
+ * 本クラスのインスタンスはグループごとに再利用される。
+ * </p>
+ * @param <P> データの型
+ */
+public class GroupResult<P> {
+
+    /** 集計項目名と値の格納位置（long値は0以上の位置、BigDecimal値は-(位置+1)） */
+    private final Map<String, Integer> slots;
+
+    /** long値の集計項目の値 */
+    private final long[] longs;
+
+    /** BigDecimal値の集計項目の値 */
+    private final BigDecimal[] decimals;
+
+    /** グループの最初のデータ */
+    private P first = null;
+
+    /** グループの最後のデータ */
+    private P last = null;
+
+    /** グループのデータ件数 */
+    private long count = 0L;
+
+    /**
+     * コンストラクタ.<br>
+     * @param slots 集計項目名と値の格納位置
+     * @param longSize long値の集計項目の数
+     * @param decimalSize BigDecimal値の集計項目の数
+     */
+    GroupResult(Map<String, Integer> slots, int longSize, int decimalSize) {
+        this.slots = slots;
+        this.longs = new long[longSize];
+        this.decimals = new BigDecimal[decimalSize];
+    }
+
+    /**
+     * グループの最初のデータを取得する.<br>
+     * @return グループの最初のデータ
+     */
+    public P getFirst() {
+        return first;
+    }
+
+    /**
+     * グループの最後のデータを取得する.<br>
+     * @return グループの最後のデータ
+     */
+    public P getLast() {
+        return last;
+    }
+
+    /**
+     * グループのデータ件数を取得する.<br>
+     * @return グループのデータ件数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * long値の集計項目の値を取得する.<br>
+     * @param name 集計項目名
+     * @return 集計項目の値
+     * @throws IllegalArgumentException long値の集計項目として定義されていない場合
+     */
+    public long getLong(String name) {
+        Integer slot = this.slots.get(name);
+        if (slot == null || slot.intValue() < 0) {
+            throw new IllegalArgumentException("The long item is not defined. name:" + name);
+        }
+        return this.longs[slot.intValue()];
+    }
+
+    /**
+     * BigDecimal値の集計項目の値を取得する.<br>
+     * @param name 集計項目名
+     * @return 集計項目の値（集計対象の値がすべてnullの場合はnull）
+     * @throws IllegalArgumentException BigDecimal値の集計項目として定義されていない場合
+     */
+    public BigDecimal getDecimal(String name) {
+        Integer slot = this.slots.get(name);
+        if (slot == null || slot.intValue() >= 0) {
+            throw new IllegalArgumentException("The decimal item is not defined. name:" + name);
+        }
+        return this.decimals[-slot.intValue() - 1];
+    }
+
+    /**
+     * 集計結果を初期化する.<br>
+     */
+    void clear() {
+        this.first = null;
+        this.last = null;
+        this.count = 0L;
+        Arrays.fill(this.longs, 0L);
+        Arrays.fill(this.decimals, null);
+    }
+
+    /**
+     * データを1件追加する.<br>
+     * @param row データ
+     */
+    void addRow(P row) {
+        if (this.count == 0L) {
+            this.first = row;
+        }
+        this.last = row;
+        this.count++;
+    }
+
+    /**
+     * long値の集計項目の値を格納する配列を取得する.<br>
+     * @return long値の集計項目の値
+     */
+    long[] longs() {
+        return this.longs;
+    }
+
+    /**
+     * BigDecimal値の集計項目の値を格納する配列を取得する.<br>
+     * @return BigDecimal値の集計項目の値
+     */
+    BigDecimal[] decimals() {
+        return this.decimals;
+    }
+}
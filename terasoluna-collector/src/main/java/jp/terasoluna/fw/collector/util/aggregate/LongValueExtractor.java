@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector.util.aggregate;
+
+/**
+ * 集計対象のlong値を取得するインタフェース。<br>
+ * @param <P> データの型
+ */
+public interface LongValueExtractor<P> {
+
+    /**
+     * 集計対象の値を取得する。
+     * @param row データ
+     * @return 集計対象の値
+     */
+    long getLong(P row);
+}
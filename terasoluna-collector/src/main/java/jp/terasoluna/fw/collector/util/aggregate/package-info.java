@@ -0,0 +1,4 @@
+/**
+ * コントロールブレイクによるグループ集計
+ */
+package jp.terasoluna.fw.collector.util.aggregate;
@@ -0,0 +1,264 @@
+package jp.terasoluna.fw.collector;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.file.SkipValidationErrorHandler;
+import jp.terasoluna.fw.collector.validate.ExceptionValidationErrorHandler;
+import jp.terasoluna.fw.collector.validate.ValidateErrorStatus;
+import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * チャンクサイズを指定した場合のAbstractCollectorのテスト。
+ */
+public class AbstractCollector004Test {
+
+    /**
+     * チャンクサイズの確認 デフォルトは1であり、設定した値を取得できること
+     */
+    @Test
+    public void testSetChunkSize001() throws Exception {
+        AbstractCollectorStub3<AbstractCollectorTestBean> collector = new AbstractCollectorStub3<AbstractCollectorTestBean>();
+
+        assertEquals(AbstractCollector.DEFAULT_CHUNK_SIZE, collector
+                .getChunkSize());
+
+        collector.setChunkSize(64);
+
+        assertEquals(64, collector.getChunkSize());
+    }
+
+    /**
+     * データがチャンクサイズの倍数でない場合
+     * チャンクサイズ：3
+     * 入力データ：[1, 2, 3, 4, 5, 6, 7]
+     * 出力データ：[1, 2, 3, 4, 5, 6, 7]
+     * ・チャンクの境界をまたいでも、hasNext()、next()、getPrevious()、getCurrent()、getNext()の結果が、出力データに則したものであること
+     * ・端数のデータも終了時にキューに詰められること
+     */
+    @Test
+    public void testNormal001() throws Exception {
+        Collector<AbstractCollectorTestBean> collector = createTestCollector(7,
+                3, Collections.<Integer> emptyList(),
+                new ExceptionValidationErrorHandler(), Collections
+                        .<Integer> emptyList(), null);
+
+        // 第1要素
+        assertTrue(collector.hasNext());
+        assertEquals("1", collector.next().getHoge());
+        assertNull(collector.getPrevious());
+        assertEquals("1", collector.getCurrent().getHoge());
+        assertEquals("2", collector.getNext().getHoge());
+
+        assertNextData(collector, "2", "1", "2", "3");
+        assertNextData(collector, "3", "2", "3", "4");
+        assertNextData(collector, "4", "3", "4", "5");
+        assertNextData(collector, "5", "4", "5", "6");
+        assertNextData(collector, "6", "5", "6", "7");
+
+        // 第7要素
+        assertTrue(collector.hasNext());
+        assertEquals("7", collector.next().getHoge());
+        assertEquals("6", collector.getPrevious().getHoge());
+        assertEquals("7", collector.getCurrent().getHoge());
+        assertNull(collector.getNext());
+
+        assertFalse(collector.hasNext());
+
+        try {
+            collector.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+
+        collector.close();
+    }
+
+    /**
+     * キューサイズより多くのチャンクを受け渡す場合
+     * チャンクサイズ：8、キューサイズ：2
+     * 入力データ：[1, 2, ..., 1000]
+     * ・欠落・重複なく順番に受け渡されること
+     */
+    @Test
+    public void testNormal002() throws Exception {
+        AbstractCollector<AbstractCollectorTestBean> collector = createTestCollector(
+                1000, 8, Collections.<Integer> emptyList(),
+                new ExceptionValidationErrorHandler(), Collections
+                        .<Integer> emptyList(), null);
+        collector.setQueueSize(2);
+
+        int expected = 0;
+        while (collector.hasNext()) {
+            expected++;
+            assertEquals(String.valueOf(expected), collector.next()
+                    .getHoge());
+        }
+        assertEquals(1000, expected);
+
+        collector.close();
+    }
+
+    /**
+     * 入力チェックエラーが発生した場合
+     * チャンクサイズ：4
+     * 入力データ：[1, 2, 3, 4, 5, 6(入力チェックエラー), 7, 8]
+     * ValidationErrorHandlerの返却値：ValidateErrorStatus.END
+     * 出力データ：[1, 2, 3, 4, 5]
+     * ・チャンクに蓄積中のデータも、入力チェックエラーの直前のデータまで取得できること
+     */
+    @Test
+    public void testOccurValidationErrorEnd001() throws Exception {
+        Collector<AbstractCollectorTestBean> collector = createTestCollector(8,
+                4, Arrays.asList(6), new SkipValidationErrorHandler(
+                        ValidateErrorStatus.END), Collections
+                        .<Integer> emptyList(), null);
+
+        assertNextData(collector, "1", null, "1", "2");
+        assertNextData(collector, "2", "1", "2", "3");
+        assertNextData(collector, "3", "2", "3", "4");
+        assertNextData(collector, "4", "3", "4", "5");
+
+        // 第5要素
+        assertTrue(collector.hasNext());
+        assertEquals("5", collector.next().getHoge());
+        assertEquals("4", collector.getPrevious().getHoge());
+        assertEquals("5", collector.getCurrent().getHoge());
+        assertNull(collector.getNext());
+
+        assertFalse(collector.hasNext());
+
+        collector.close();
+    }
+
+    /**
+     * 例外が発生した場合
+     * チャンクサイズ：2
+     * 入力データ：[1, 2, 3(例外), 4, 5]
+     * CollectorExceptionHandlerの結果：CollectorExceptionHandlerStatus.SKIP
+     * 出力データ：[1, 2, 4, 5]
+     * ・例外が発生したデータのみ読み捨てられ、チャンク内の後続のデータが取得できること
+     */
+    @Test
+    public void testOccurExceptionSkip001() throws Exception {
+        Collector<AbstractCollectorTestBean> collector = createTestCollector(5,
+                2, Collections.<Integer> emptyList(),
+                new ExceptionValidationErrorHandler(), Arrays.asList(3),
+                new CollectorExceptionHandler() {
+                    public CollectorExceptionHandlerStatus handleException(
+                            DataValueObject dataValueObject) {
+                        return CollectorExceptionHandlerStatus.SKIP;
+                    }
+                });
+
+        assertNextData(collector, "1", null, "1", "2");
+        assertNextData(collector, "2", "1", "2", "4");
+        assertNextData(collector, "4", "2", "4", "5");
+
+        assertTrue(collector.hasNext());
+        assertEquals("5", collector.next().getHoge());
+        assertNull(collector.getNext());
+
+        assertFalse(collector.hasNext());
+
+        collector.close();
+    }
+
+    /**
+     * 単純にデータが取得できる場合に使用できる簡易アサーションメソッド。<br>
+     * getPrevious()の期待値がnullの場合は、getPrevious()がnullであることを確認する。
+     * @param collector コレクタ
+     * @param nextExpectedHoge collector.next().getHoge()の期待値
+     * @param getPreviousExpectedHoge collector.getPrevious().getHoge()の期待値
+     * @param getCurrentExpectedHoge collector.getCurrent().getHoge()の期待値
+     * @param getNextExpectedHoge collector.getNext().getHoge()の期待値
+     */
+    private static void assertNextData(
+            Collector<AbstractCollectorTestBean> collector,
+            String nextExpectedHoge, String getPreviousExpectedHoge,
+            String getCurrentExpectedHoge, String getNextExpectedHoge) {
+        assertTrue(collector.hasNext());
+        assertEquals(nextExpectedHoge, collector.next().getHoge());
+        if (getPreviousExpectedHoge == null) {
+            assertNull(collector.getPrevious());
+        } else {
+            assertEquals(getPreviousExpectedHoge, collector.getPrevious()
+                    .getHoge());
+        }
+        assertEquals(getCurrentExpectedHoge, collector.getCurrent().getHoge());
+        assertEquals(getNextExpectedHoge, collector.getNext().getHoge());
+    }
+
+    /**
+     * テストデータを提供するコレクタを生成する。
+     * @param dataNum データの個数
+     * @param chunkSize チャンクサイズ
+     * @param validationErrorOccurPoints 入力チェックエラー発生ポイント
+     * @param argValidationErrorHandler ValidationErrorHandler
+     * @param exceptionOccurPoints 例外発生ポイント
+     * @param argExceptionHandler ExceptionHandler
+     * @return テストデータを提供するコレクタ
+     */
+    private static AbstractCollector<AbstractCollectorTestBean> createTestCollector(
+            final int dataNum, final int chunkSize,
+            final List<Integer> validationErrorOccurPoints,
+            final ValidationErrorHandler argValidationErrorHandler,
+            final List<Integer> exceptionOccurPoints,
+            final CollectorExceptionHandler argExceptionHandler) {
+        AbstractCollector<AbstractCollectorTestBean> collector = new AbstractCollector<AbstractCollectorTestBean>() {
+            {
+                this.validator = new Validator() {
+
+                    public void validate(Object target, Errors errors) {
+                        AbstractCollectorTestBean data = (AbstractCollectorTestBean) target;
+                        if (validationErrorOccurPoints.contains(Integer
+                                .valueOf(data.getHoge()))) {
+                            errors.rejectValue("hoge", "errors.required");
+                        }
+                    }
+
+                    public boolean supports(Class<?> clazz) {
+                        return (clazz == AbstractCollectorTestBean.class);
+                    }
+                };
+                this.validationErrorHandler = argValidationErrorHandler;
+                this.exceptionHandler = argExceptionHandler;
+                this.chunkSize = chunkSize;
+            }
+
+            public Integer call() throws Exception {
+                try {
+                    for (int count = 1; count <= dataNum; count++) {
+                        if (exceptionOccurPoints.contains(count)) {
+                            addQueue(new DataValueObject(new RuntimeException(
+                                    "test"), count));
+                        } else {
+                            AbstractCollectorTestBean bean = new AbstractCollectorTestBean();
+                            bean.setHoge(String.valueOf(count));
+                            addQueue(new DataValueObject(bean, count));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // 入力チェックエラーによる強制停止
+                } finally {
+                    setFinish();
+                }
+                return 0;
+            }
+
+        };
+
+        return collector;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.concurrent.SpscRingBlockingQueue;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * AdaptiveQueueSizingのテストケース。
+ */
+public class AdaptiveQueueSizingTest {
+
+    /**
+     * 最小キューサイズが1未満、あるいは最大キューサイズが最小キューサイズ未満の場合、IllegalArgumentExceptionがスローされること。
+     */
+    @Test
+    public void testAdaptiveQueueSizing01() {
+        try {
+            new AdaptiveQueueSizing(0, 10);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+        try {
+            new AdaptiveQueueSizing(10, 9);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+        try {
+            new AdaptiveQueueSizing().addMemoryBudget(0L, 100L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * メモリ予算を設定しない場合、容量の上限は最大キューサイズとなり、初期の容量はキューサイズを範囲内に収めた値となること。
+     */
+    @Test
+    public void testGetUpperLimit01() {
+        AdaptiveQueueSizing sizing = new AdaptiveQueueSizing(8, 256);
+
+        assertEquals(256, sizing.getUpperLimit(1));
+        assertEquals(256, sizing.getUpperLimit(64));
+        assertEquals(20, sizing.getInitialLimit(20, 1));
+        assertEquals(8, sizing.getInitialLimit(1, 1));
+        assertEquals(256, sizing.getInitialLimit(1000, 1));
+    }
+
+    /**
+     * メモリ予算を設定した場合、容量の上限は予算に収まる要素数に制限され、チャンクはチャンクサイズ件として見積もられること。
+     */
+    @Test
+    public void testGetUpperLimit02() {
+        // 1件1KBで1MBまで
+        AdaptiveQueueSizing sizing = new AdaptiveQueueSizing(4, 4096)
+                .addMemoryBudget(1024L * 1024L, 1024L);
+
+        assertEquals(1024, sizing.getUpperLimit(1));
+        assertEquals(16, sizing.getUpperLimit(64));
+        // 予算に収まる要素数が最小キューサイズを下回る場合は最小キューサイズとなる
+        assertEquals(4, sizing.getUpperLimit(1024));
+        assertEquals(16, sizing.getInitialLimit(20, 64));
+    }
+
+    /**
+     * 消費者が律速の場合、キューの容量は最小キューサイズまで縮小され、データは欠落なく受け渡されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testAdaptiveQueue01() throws Exception {
+        GeneratingCollector collector = new GeneratingCollector(300);
+        collector.setAdaptiveQueueSizing(new AdaptiveQueueSizing(4, 64));
+        int received = 0;
+        try {
+            while (collector.hasNext()) {
+                assertEquals(Integer.valueOf(received), collector.next());
+                received++;
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+        } finally {
+            collector.close();
+        }
+
+        CollectorStatistics statistics = collector.getQueueStatistics();
+        assertEquals(300, received);
+        assertEquals(4, statistics.getQueueCapacity());
+        assertTrue(statistics.getResizeCount() > 0L);
+        BlockingQueue<DataValueObject> queue = collector.queue;
+        assertTrue(queue instanceof SpscRingBlockingQueue);
+        assertEquals(4, ((SpscRingBlockingQueue<?>) queue).getCapacityLimit());
+    }
+
+    /**
+     * キューサイズの自動調整を行わない場合、キューの容量はキューサイズのまま変わらないこと。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testAdaptiveQueue02() throws Exception {
+        GeneratingCollector collector = new GeneratingCollector(100);
+        try {
+            while (collector.hasNext()) {
+                collector.next();
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+        } finally {
+            collector.close();
+        }
+
+        CollectorStatistics statistics = collector.getQueueStatistics();
+        assertEquals(AbstractCollector.DEFAULT_QUEUE_SIZE, statistics
+                .getQueueCapacity());
+        assertEquals(0L, statistics.getResizeCount());
+    }
+
+    /**
+     * 指定件数の整数を生成するコレクタ。
+     */
+    private static class GeneratingCollector extends
+                                             AbstractCollector<Integer> {
+
+        private final int count;
+
+        GeneratingCollector(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            try {
+                for (int i = 0; i < this.count; i++) {
+                    addQueue(new DataValueObject(Integer.valueOf(i), i + 1));
+                }
+            } finally {
+                setFinish();
+            }
+            return Integer.valueOf(0);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * CollectorExecutorのテストケース。
+ */
+public class CollectorExecutorTest {
+
+    private CollectorExecutor executor;
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * 名前が空の場合、IllegalArgumentExceptionがスローされること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testCollectorExecutor01() throws Exception {
+        try {
+            new CollectorExecutor("", 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * 最大スレッド数が0の場合、IllegalArgumentExceptionがスローされること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testCollectorExecutor02() throws Exception {
+        try {
+            new CollectorExecutor("test", 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * 名前を接頭辞とするスレッドで実行され、最大スレッド数を超えてスレッドが生成されないこと。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testSubmit01() throws Exception {
+        this.executor = new CollectorExecutor("customer", 2);
+
+        for (int i = 0; i < 5; i++) {
+            String name = this.executor.submit(new ThreadNameCallable())
+                    .get();
+            assertTrue(name, "customer-thread-1".equals(name)
+                    || "customer-thread-2".equals(name));
+        }
+
+        assertEquals(2, this.executor.getMaxThreads());
+        assertEquals(5L, this.executor.getSubmittedCount());
+        assertEquals(2, this.executor.getLargestPoolSize());
+    }
+
+    /**
+     * 最大スレッド数を超えた実行要求は、要求された順に実行を待つこと。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testSubmit02() throws Exception {
+        this.executor = new CollectorExecutor("bounded", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = this.executor.submit(new Callable<String>() {
+            public String call() throws Exception {
+                release.await();
+                return "first";
+            }
+        });
+        Future<String> second = this.executor.submit(new ThreadNameCallable());
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        assertEquals(1, this.executor.getActiveCount());
+        assertEquals(1, this.executor.getQueuedCount());
+        assertFalse(second.isDone());
+
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("bounded-thread-1", second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, this.executor.getQueuedCount());
+        assertTrue(this.executor.getMaxWaitTime() >= 150);
+        assertTrue(this.executor.getTotalWaitTime() >= this.executor
+                .getMaxWaitTime());
+    }
+
+    /**
+     * shutdown後は実行要求を受け付けないこと。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testShutdown01() throws Exception {
+        this.executor = new CollectorExecutor("shutdown", 1);
+        this.executor.shutdown();
+
+        assertTrue(this.executor.isShutdown());
+        try {
+            this.executor.submit(new ThreadNameCallable());
+            fail();
+        } catch (RuntimeException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * CollectorExecutorを指定したコレクタが、共有のスレッドでデータを取得できること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testCollector01() throws Exception {
+        this.executor = new CollectorExecutor("shared", 1);
+
+        for (int i = 0; i < 3; i++) {
+            ThreadNameCollector collector = new ThreadNameCollector();
+            collector.setCollectorExecutor(this.executor);
+            try {
+                assertTrue(collector.hasNext());
+                assertEquals("shared-thread-1", collector.next());
+                assertFalse(collector.hasNext());
+            } finally {
+                collector.close();
+            }
+        }
+
+        assertFalse(this.executor.isShutdown());
+        // 件数は概数のため、最後のコレクタの終了を待ってから確認する
+        for (int i = 0; i < 100 && this.executor.getCompletedCount() < 3L; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(3L, this.executor.getCompletedCount());
+        assertEquals(3L, this.executor.getSubmittedCount());
+        assertEquals(1, this.executor.getLargestPoolSize());
+    }
+
+    /**
+     * newTaskGroupで生成したExecutorServiceが、共有のスレッドで並列数までのタスクを同時に実行すること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testNewTaskGroup01() throws Exception {
+        this.executor = new CollectorExecutor("group", 4);
+        ExecutorService group = this.executor.newTaskGroup(2);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(group.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    int current = active.incrementAndGet();
+                    synchronized (maxActive) {
+                        maxActive.set(Math.max(maxActive.get(), current));
+                    }
+                    TimeUnit.MILLISECONDS.sleep(50);
+                    active.decrementAndGet();
+                    return Thread.currentThread().getName();
+                }
+            }));
+        }
+        for (Future<String> future : futures) {
+            String name = future.get(5, TimeUnit.SECONDS);
+            assertTrue(name, name.startsWith("group-thread-"));
+        }
+
+        assertEquals(2, maxActive.get());
+        group.shutdown();
+        assertTrue(group.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(group.isTerminated());
+        assertFalse(this.executor.isShutdown());
+    }
+
+    /**
+     * 並列数1のnewTaskGroupが、タスクを要求された順に1件ずつ実行すること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testNewTaskGroup02() throws Exception {
+        this.executor = new CollectorExecutor("serial", 4);
+        ExecutorService group = this.executor.newTaskGroup(1);
+        final List<Integer> order = Collections
+                .synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 20; i++) {
+            final int value = i;
+            group.execute(new Runnable() {
+                public void run() {
+                    order.add(value);
+                }
+            });
+        }
+        group.shutdown();
+        assertTrue(group.awaitTermination(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+    }
+
+    /**
+     * newTaskGroupのshutdownNowが、そのグループの実行待ちのタスクを破棄して実行中のタスクのみに割り込み、
+     * 共有のスレッドは割り込み状態を残さずに後続のコレクタを実行できること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testNewTaskGroup03() throws Exception {
+        this.executor = new CollectorExecutor("cancel", 1);
+        ExecutorService group = this.executor.newTaskGroup(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        Future<String> running = group.submit(new Callable<String>() {
+            public String call() throws Exception {
+                started.countDown();
+                TimeUnit.SECONDS.sleep(30);
+                return "not interrupted";
+            }
+        });
+        group.submit(new ThreadNameCallable());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, group.shutdownNow().size());
+        assertTrue(group.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(running.isDone());
+        try {
+            group.execute(new Runnable() {
+                public void run() {
+                }
+            });
+            fail();
+        } catch (RejectedExecutionException e) {
+            // 期待通り
+        }
+
+        assertFalse(this.executor.isShutdown());
+        assertEquals(Boolean.FALSE, this.executor.submit(
+                new Callable<Boolean>() {
+                    public Boolean call() throws Exception {
+                        return Thread.currentThread().isInterrupted();
+                    }
+                }).get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * CollectorExecutorを指定したコレクタの内部のタスクが、共有のスレッドで実行されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testCollector02() throws Exception {
+        this.executor = new CollectorExecutor("worker", 2);
+
+        WorkerThreadNameCollector collector = new WorkerThreadNameCollector();
+        collector.setCollectorExecutor(this.executor);
+        try {
+            assertTrue(collector.hasNext());
+            assertTrue(collector.next().startsWith("worker-thread-"));
+            assertFalse(collector.hasNext());
+        } finally {
+            collector.close();
+        }
+        assertFalse(this.executor.isShutdown());
+    }
+
+    /**
+     * 実行したスレッドの名前を返すCallable。
+     */
+    private static class ThreadNameCallable implements Callable<String> {
+        public String call() throws Exception {
+            return Thread.currentThread().getName();
+        }
+    }
+
+    /**
+     * コレクタスレッドの名前を1件返すコレクタ。
+     */
+    private static class ThreadNameCollector extends AbstractCollector<String> {
+        public Integer call() throws Exception {
+            try {
+                addQueue(new DataValueObject(Thread.currentThread().getName()));
+            } finally {
+                setFinish();
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 内部のタスクを実行したスレッドの名前を1件返すコレクタ。
+     */
+    private static class WorkerThreadNameCollector extends
+                                                   AbstractCollector<String> {
+        public Integer call() throws Exception {
+            ExecutorService worker = createWorkerExecutor(1);
+            try {
+                addQueue(new DataValueObject(worker.submit(
+                        new ThreadNameCallable()).get()));
+            } finally {
+                worker.shutdownNow();
+                setFinish();
+            }
+            return 0;
+        }
+    }
+}
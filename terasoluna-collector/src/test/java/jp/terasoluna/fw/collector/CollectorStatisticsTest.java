@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * CollectorStatisticsと、AbstractCollectorによる統計情報の集計のテストケース。
+ */
+public class CollectorStatisticsTest {
+
+    /**
+     * キュー使用率が10%刻みの区間に集計され、満杯は最後の区間に集計されること。
+     */
+    @Test
+    public void testAddOccupancy01() {
+        CollectorStatistics statistics = new CollectorStatistics();
+        statistics.addOccupancy(0, 20);
+        statistics.addOccupancy(1, 20);
+        statistics.addOccupancy(2, 20);
+        statistics.addOccupancy(19, 20);
+        statistics.addOccupancy(20, 20);
+        // キューサイズが不明な場合は集計しない
+        statistics.addOccupancy(0, 0);
+
+        long[] histogram = statistics.getOccupancyHistogram();
+        assertEquals(CollectorStatistics.OCCUPANCY_BUCKETS + 1,
+                histogram.length);
+        assertArrayEquals(new long[] { 2, 1, 0, 0, 0, 0, 0, 0, 0, 1, 1 },
+                histogram);
+    }
+
+    /**
+     * 待ち時間は回数とともに加算され、ミリ秒で取得できること。
+     */
+    @Test
+    public void testAddWait01() {
+        CollectorStatistics statistics = new CollectorStatistics();
+        statistics.addProducerBlocked(TimeUnit.MILLISECONDS.toNanos(3));
+        statistics.addProducerBlocked(TimeUnit.MILLISECONDS.toNanos(4));
+        statistics.addConsumerWait(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(2L, statistics.getProducerBlockedCount());
+        assertEquals(7L, statistics.getProducerBlockedMillis());
+        assertEquals(1L, statistics.getConsumerWaitCount());
+        assertEquals(5L, statistics.getConsumerWaitMillis());
+        assertTrue(statistics.toString().contains("producerBlockedMillis=7"));
+    }
+
+    /**
+     * 消費者が遅い場合、生産者のキューの空き待ちが集計され、キュー使用率は満杯に偏ること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testStatistics01() throws Exception {
+        GeneratingCollector collector = new GeneratingCollector(100, 0L, 1);
+        int received = 0;
+        try {
+            while (collector.hasNext()) {
+                collector.next();
+                received++;
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+        } finally {
+            collector.close();
+        }
+
+        CollectorStatistics statistics = collector.getQueueStatistics();
+        assertEquals(100, received);
+        assertEquals(100L, statistics.getProducedCount());
+        assertEquals(100L, statistics.getConsumedCount());
+        assertTrue(statistics.getProducerBlockedCount() > 0L);
+        assertTrue(statistics.getProducerBlockedMillis() > 0L);
+
+        long[] histogram = statistics.getOccupancyHistogram();
+        long total = 0L;
+        for (long count : histogram) {
+            total += count;
+        }
+        assertEquals(100L, total);
+        assertTrue(histogram[CollectorStatistics.OCCUPANCY_BUCKETS] > 0L);
+    }
+
+    /**
+     * 生産者が遅い場合、消費者のキューの要素待ちが集計されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testStatistics02() throws Exception {
+        GeneratingCollector collector = new GeneratingCollector(20,
+                TimeUnit.MILLISECONDS.toNanos(5), 1);
+        int received = 0;
+        try {
+            while (collector.hasNext()) {
+                collector.next();
+                received++;
+            }
+        } finally {
+            collector.close();
+        }
+
+        CollectorStatistics statistics = collector.getQueueStatistics();
+        assertEquals(20, received);
+        assertEquals(20L, statistics.getConsumedCount());
+        assertTrue(statistics.getConsumerWaitCount() > 0L);
+        assertTrue(statistics.getConsumerWaitMillis() > 0L);
+        assertEquals(0L, statistics.getProducerBlockedCount());
+    }
+
+    /**
+     * チャンクサイズが2以上の場合、件数はデータ単位、キュー使用率はチャンク単位で集計されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testStatistics03() throws Exception {
+        GeneratingCollector collector = new GeneratingCollector(100, 0L, 10);
+        try {
+            while (collector.hasNext()) {
+                collector.next();
+            }
+        } finally {
+            collector.close();
+        }
+
+        CollectorStatistics statistics = collector.getQueueStatistics();
+        assertEquals(100L, statistics.getProducedCount());
+        assertEquals(100L, statistics.getConsumedCount());
+        long total = 0L;
+        for (long count : statistics.getOccupancyHistogram()) {
+            total += count;
+        }
+        assertEquals(10L, total);
+    }
+
+    /**
+     * 実行前にクローズした場合、統計情報は0件のままであること。
+     */
+    @Test
+    public void testStatistics04() {
+        GeneratingCollector collector = new GeneratingCollector(10, 0L, 1);
+        collector.close();
+
+        CollectorStatistics statistics = collector.getQueueStatistics();
+        assertEquals(0L, statistics.getProducedCount());
+        assertEquals(0L, statistics.getConsumedCount());
+        assertFalse(collector.beginning);
+    }
+
+    /**
+     * 指定件数の整数を生成するコレクタ。
+     */
+    private static class GeneratingCollector extends
+                                             AbstractCollector<Integer> {
+
+        private final int count;
+
+        private final long produceNanos;
+
+        GeneratingCollector(int count, long produceNanos, int chunkSize) {
+            this.count = count;
+            this.produceNanos = produceNanos;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            try {
+                for (int i = 0; i < this.count; i++) {
+                    if (this.produceNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(this.produceNanos);
+                    }
+                    addQueue(new DataValueObject(Integer.valueOf(i), i + 1));
+                }
+            } finally {
+                setFinish();
+            }
+            return Integer.valueOf(0);
+        }
+    }
+}
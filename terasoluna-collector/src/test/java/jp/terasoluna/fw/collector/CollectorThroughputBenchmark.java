@@ -0,0 +1,136 @@
+package jp.terasoluna.fw.collector;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.concurrent.ArrayBlockingQueueEx;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+/**
+ * 何もしないBLogicでコレクタからデータを読み切るときの1秒あたりの件数を計測するベンチマーク。
+ * <p>
+ * コレクタスレッドは指定件数のデータを生成してキューに詰めるだけで、呼び出し元は{@code hasNext()}と{@code next()}で読み捨てる。
+ * 次のキューごとに計測する。
+ * <ul>
+ * <li>デフォルトのキュー({@link AbstractCollector#createQueue()})</li>
+ * <li>{@link ArrayBlockingQueueEx}</li>
+ * <li>デフォルトのキューで、チャンクサイズ({@link AbstractCollector#setChunkSize(int)})を指定した場合</li>
+ * </ul>
+ * また、生成のたびにわずかな待ちを入れ、呼び出し元がキューの空きで待つ場合の件数も計測する。
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数に件数を指定して実行する。省略時は1000000件で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:(依存jar) \
+ *     jp.terasoluna.fw.collector.CollectorThroughputBenchmark 1000000
+ * </pre>
+ */
+public class CollectorThroughputBenchmark {
+
+    private static final int ROUNDS = 4;
+
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * ベンチマークを実行する。
+     * @param args 件数
+     * @throws Exception 予期しない例外
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        System.out.println(String.format("%-24s %16s %16s", "queue",
+                "rows/sec", "slow rows/sec"));
+        for (int round = 0; round < ROUNDS; round++) {
+            long defaultQueue = measure(new GeneratingCollector(count, 0L,
+                    false, 1));
+            long exQueue = measure(new GeneratingCollector(count, 0L, true, 1));
+            long chunked = measure(new GeneratingCollector(count, 0L, false,
+                    CHUNK_SIZE));
+            long slowDefault = measure(new GeneratingCollector(count / 100,
+                    20000L, false, 1));
+            long slowEx = measure(new GeneratingCollector(count / 100, 20000L,
+                    true, 1));
+            long slowChunked = measure(new GeneratingCollector(count / 100,
+                    20000L, false, CHUNK_SIZE));
+            // 1回目はウォームアップとして結果を表示しない
+            if (round > 0) {
+                System.out.println(String.format("%-24s %16d %16d",
+                        "default", defaultQueue, slowDefault));
+                System.out.println(String.format("%-24s %16d %16d",
+                        "ArrayBlockingQueueEx", exQueue, slowEx));
+                System.out.println(String.format("%-24s %16d %16d",
+                        "default chunk(" + CHUNK_SIZE + ")", chunked,
+                        slowChunked));
+            }
+        }
+    }
+
+    private static long measure(GeneratingCollector collector) {
+        long start = System.nanoTime();
+        int received = 0;
+        try {
+            while (collector.hasNext()) {
+                collector.next();
+                received++;
+            }
+        } finally {
+            collector.close();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (received != collector.count) {
+            throw new IllegalStateException("received:" + received);
+        }
+        return received * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * 指定件数の整数を生成するコレクタ。
+     */
+    private static class GeneratingCollector extends
+                                             AbstractCollector<Integer> {
+
+        private final int count;
+
+        private final long produceNanos;
+
+        private final boolean exQueue;
+
+        GeneratingCollector(int count, long produceNanos, boolean exQueue,
+                int chunkSize) {
+            this.count = count;
+            this.produceNanos = produceNanos;
+            this.exQueue = exQueue;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected BlockingQueue<DataValueObject> createQueue() {
+            BlockingQueue<DataValueObject> queue = super.createQueue();
+            if (this.exQueue) {
+                return new ArrayBlockingQueueEx<DataValueObject>(this.queueSize);
+            }
+            return queue;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            try {
+                for (int i = 0; i < this.count; i++) {
+                    if (this.produceNanos > 0) {
+                        long until = System.nanoTime() + this.produceNanos;
+                        while (System.nanoTime() < until) {
+                            // ビジーウェイト
+                        }
+                    }
+                    addQueue(new DataValueObject(Integer.valueOf(i), i + 1));
+                }
+            } finally {
+                setFinish();
+            }
+            return Integer.valueOf(0);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package jp.terasoluna.fw.collector;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+/**
+ * 指定した整数を順に提供するテスト用のコレクタ。
+ */
+public class IntegerCollector extends AbstractCollector<Integer> {
+
+    /** クローズされた場合はtrue */
+    public volatile boolean closed = false;
+
+    /** 提供する整数 */
+    private final int[] values;
+
+    /**
+     * 1からcountまでの整数を提供するコレクタを生成する。
+     * @param count 件数
+     */
+    public IntegerCollector(int count) {
+        this.values = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.values[i] = i + 1;
+        }
+    }
+
+    /**
+     * 指定した整数を提供するコレクタを生成する。
+     * @param values 提供する整数
+     */
+    public IntegerCollector(int[] values) {
+        this.values = values.clone();
+    }
+
+    /**
+     * キューに追加するデータを生成する。
+     * @param value 整数
+     * @param number データ番号(1から)
+     * @return キューに追加するデータ
+     */
+    protected DataValueObject createRow(int value, int number) {
+        return new DataValueObject(Integer.valueOf(value), number);
+    }
+
+    public Integer call() throws Exception {
+        try {
+            for (int i = 0; i < this.values.length; i++) {
+                addQueue(createRow(this.values[i], i + 1));
+            }
+        } catch (InterruptedException e) {
+            // クローズによる停止
+        } finally {
+            setFinish();
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        super.close();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.collector;
+
+import static org.junit.Assert.assertEquals;
+
+import jp.terasoluna.fw.collector.concurrent.SpscRingBlockingQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * QueueSizeControllerのテストケース。
+ */
+public class QueueSizeControllerTest {
+
+    private SpscRingBlockingQueue<Integer> queue;
+
+    private CollectorStatistics statistics;
+
+    private QueueSizeController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        AdaptiveQueueSizing sizing = new AdaptiveQueueSizing(4, 64);
+        this.queue = new SpscRingBlockingQueue<Integer>(sizing
+                .getUpperLimit(1));
+        this.statistics = new CollectorStatistics();
+        this.controller = new QueueSizeController(sizing, this.queue,
+                this.statistics, 20, 1);
+    }
+
+    /**
+     * 生成時にキューの容量が初期の容量に設定されること。
+     */
+    @Test
+    public void testQueueSizeController01() {
+        assertEquals(20, this.queue.getCapacityLimit());
+        assertEquals(20, this.statistics.getQueueCapacity());
+    }
+
+    /**
+     * 生産者の空き待ちと消費者の要素待ちの両方が発生した場合、容量が2倍になり、上限で止まること。
+     */
+    @Test
+    public void testAfterEnqueue01() {
+        runWindow(true, true);
+        assertEquals(40, this.queue.getCapacityLimit());
+        runWindow(true, true);
+        assertEquals(64, this.queue.getCapacityLimit());
+        runWindow(true, true);
+        assertEquals(64, this.queue.getCapacityLimit());
+
+        assertEquals(64, this.statistics.getQueueCapacity());
+        assertEquals(2L, this.statistics.getResizeCount());
+    }
+
+    /**
+     * 生産者の空き待ちのみが発生した場合、容量が半分になり、最小キューサイズで止まること。
+     */
+    @Test
+    public void testAfterEnqueue02() {
+        runWindow(true, false);
+        assertEquals(10, this.queue.getCapacityLimit());
+        runWindow(true, false);
+        assertEquals(5, this.queue.getCapacityLimit());
+        runWindow(true, false);
+        assertEquals(4, this.queue.getCapacityLimit());
+        runWindow(true, false);
+        assertEquals(4, this.queue.getCapacityLimit());
+
+        assertEquals(3L, this.statistics.getResizeCount());
+    }
+
+    /**
+     * 消費者の要素待ちのみが発生した場合や、待ちが発生しなかった場合、容量は変わらないこと。
+     */
+    @Test
+    public void testAfterEnqueue03() {
+        runWindow(false, true);
+        assertEquals(20, this.queue.getCapacityLimit());
+        runWindow(false, false);
+        assertEquals(20, this.queue.getCapacityLimit());
+
+        assertEquals(0L, this.statistics.getResizeCount());
+    }
+
+    /**
+     * 容量を見直す間隔の件数を詰めるまでは、容量が変わらないこと。
+     */
+    @Test
+    public void testAfterEnqueue04() {
+        this.statistics.addProducerBlocked(1L);
+        this.statistics.addConsumerWait(1L);
+        for (int i = 0; i < 19; i++) {
+            this.controller.afterEnqueue();
+        }
+        assertEquals(20, this.queue.getCapacityLimit());
+        this.controller.afterEnqueue();
+        assertEquals(40, this.queue.getCapacityLimit());
+    }
+
+    /**
+     * 容量を見直す間隔(現在の容量、ただし{@link QueueSizeController#MIN_ADJUST_INTERVAL}以上)の件数を詰める間に、指定した待ちを発生させる。
+     */
+    private void runWindow(boolean producerBlocked, boolean consumerWaited) {
+        if (producerBlocked) {
+            this.statistics.addProducerBlocked(1L);
+        }
+        if (consumerWaited) {
+            this.statistics.addConsumerWait(1L);
+        }
+        int interval = Math.max(this.queue.getCapacityLimit(),
+                QueueSizeController.MIN_ADJUST_INTERVAL);
+        for (int i = 0; i < interval; i++) {
+            this.controller.afterEnqueue();
+        }
+    }
+}
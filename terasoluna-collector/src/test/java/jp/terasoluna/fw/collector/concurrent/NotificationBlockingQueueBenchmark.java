@@ -0,0 +1,150 @@
+package jp.terasoluna.fw.collector.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+/**
+ * NotificationBlockingQueueの実装ごとに、コレクタスレッドからBLogicへの受け渡し性能を計測するベンチマーク。
+ * <p>
+ * 生産者スレッドが{@code put}でDataValueObjectを詰め、消費者スレッドがAbstractCollectorと同じく
+ * {@code peek}、{@code isEmpty}、{@code poll(timeout)}の順で取り出す。次の2つを計測する。
+ * <ul>
+ * <li>スループット：全要素の受け渡しに要した時間から求めた1秒あたりの要素数</li>
+ * <li>レイテンシ：生産者が詰めてから消費者が取り出すまでの時間の中央値と99パーセンタイル(1要素ずつ間隔を空けて受け渡した場合)</li>
+ * </ul>
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数に要素数とキューサイズを指定して実行する。
+ * 省略時は1000000件、キューサイズ20(AbstractCollectorのデフォルト)で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes \
+ *     jp.terasoluna.fw.collector.concurrent.NotificationBlockingQueueBenchmark 1000000 20
+ * </pre>
+ */
+public class NotificationBlockingQueueBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static final int LATENCY_SAMPLES = 20000;
+
+    /**
+     * ベンチマークを実行する。
+     * @param args 要素数、キューサイズ
+     * @throws Exception 予期しない例外
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int queueSize = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        System.out.println(String.format("%-24s %16s %16s %16s", "queue",
+                "rows/sec", "p50 latency(ns)", "p99 latency(ns)"));
+        for (int round = 0; round < ROUNDS; round++) {
+            // 1回目はウォームアップとして結果を表示しない
+            boolean print = round > 0;
+            run("ArrayBlockingQueueEx",
+                    new ArrayBlockingQueueEx<DataValueObject>(queueSize),
+                    new ArrayBlockingQueueEx<DataValueObject>(queueSize),
+                    count, print);
+            run("SpscRingBlockingQueue",
+                    new SpscRingBlockingQueue<DataValueObject>(queueSize),
+                    new SpscRingBlockingQueue<DataValueObject>(queueSize),
+                    count, print);
+        }
+    }
+
+    private static void run(String name,
+            NotificationBlockingQueue<DataValueObject> throughputQueue,
+            NotificationBlockingQueue<DataValueObject> latencyQueue,
+            int count, boolean print) throws Exception {
+        long throughput = measureThroughput(throughputQueue, count);
+        long[] latency = measureLatency(latencyQueue);
+        if (print) {
+            System.out.println(String.format("%-24s %16d %16d %16d", name,
+                    throughput, latency[0], latency[1]));
+        }
+    }
+
+    private static long measureThroughput(
+            final NotificationBlockingQueue<DataValueObject> queue,
+            final int count) throws Exception {
+        final DataValueObject value = new DataValueObject(Integer.valueOf(0));
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        queue.put(value);
+                    }
+                } catch (InterruptedException e) {
+                    // 何もしない
+                } finally {
+                    queue.finishQueueing();
+                }
+            }
+        };
+        long start = System.nanoTime();
+        producer.start();
+        int received = 0;
+        while (consume(queue) != null) {
+            received++;
+        }
+        long elapsed = System.nanoTime() - start;
+        producer.join();
+        if (received != count) {
+            throw new IllegalStateException("received:" + received);
+        }
+        return count * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private static long[] measureLatency(
+            final NotificationBlockingQueue<DataValueObject> queue)
+            throws Exception {
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < LATENCY_SAMPLES; i++) {
+                        // 消費者が待ち状態に入る程度の間隔を空ける
+                        long until = System.nanoTime() + 20000L;
+                        while (System.nanoTime() < until) {
+                            // ビジーウェイト
+                        }
+                        queue.put(new DataValueObject(Long.valueOf(System
+                                .nanoTime())));
+                    }
+                } catch (InterruptedException e) {
+                    // 何もしない
+                } finally {
+                    queue.finishQueueing();
+                }
+            }
+        };
+        producer.start();
+        long[] latencies = new long[LATENCY_SAMPLES];
+        int n = 0;
+        DataValueObject value = null;
+        while ((value = consume(queue)) != null) {
+            latencies[n++] = System.nanoTime() - (Long) value.getValue();
+        }
+        producer.join();
+        Arrays.sort(latencies, 0, n);
+        return new long[] { latencies[n / 2], latencies[n * 99 / 100] };
+    }
+
+    /**
+     * AbstractCollector#getNextObjectとnextと同じ順序で1件取り出す。
+     */
+    private static DataValueObject consume(
+            NotificationBlockingQueue<DataValueObject> queue)
+            throws InterruptedException {
+        DataValueObject value = queue.peek();
+        if (value == null && queue.isEmpty()) {
+            return null;
+        }
+        return queue.poll(1, TimeUnit.MILLISECONDS);
+    }
+}
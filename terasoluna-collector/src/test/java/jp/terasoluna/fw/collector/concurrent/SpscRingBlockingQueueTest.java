@@ -0,0 +1,436 @@
+package jp.terasoluna.fw.collector.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SpscRingBlockingQueueTest {
+
+    /**
+     * コンストラクタの確認 容量が2のべき乗でない場合もキューサイズは指定どおりであること
+     */
+    @Test
+    public void testConstructor001() {
+        SpscRingBlockingQueue<DataValueObject> queue = new SpscRingBlockingQueue<DataValueObject>(3);
+
+        assertEquals(3, ((Integer) ReflectionTestUtils.getField(queue,
+                "capacity")).intValue());
+        assertEquals(3, queue.remainingCapacity());
+
+        assertTrue(queue.offer(new DataValueObject(1)));
+        assertTrue(queue.offer(new DataValueObject(2)));
+        assertTrue(queue.offer(new DataValueObject(3)));
+        assertFalse(queue.offer(new DataValueObject(4)));
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+    }
+
+    /**
+     * コンストラクタの確認 容量に0を指定した場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testConstructor002() {
+        try {
+            new SpscRingBlockingQueue<DataValueObject>(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * offer/poll のテスト 正常系：リングバッファを何周しても格納順に取り出せること
+     */
+    @Test
+    public void testOfferPoll001() {
+        SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(3);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(i * 2));
+            assertTrue(queue.offer(i * 2 + 1));
+            assertEquals(Integer.valueOf(i * 2), queue.poll());
+            assertEquals(Integer.valueOf(i * 2 + 1), queue.poll());
+        }
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    /**
+     * offer のテスト 異常系：nullを指定した場合はNullPointerExceptionが発生すること
+     */
+    @Test
+    public void testOffer001() {
+        SpscRingBlockingQueue<DataValueObject> queue = new SpscRingBlockingQueue<DataValueObject>(1);
+        try {
+            queue.offer(null);
+            fail();
+        } catch (NullPointerException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * offer(E o, long timeout, TimeUnit unit) のテスト 正常系：キューが満杯のままタイムアウトした場合にfalseを返す確認
+     */
+    @Test
+    public void testOffer002() throws Exception {
+        SpscRingBlockingQueue<DataValueObject> queue = new SpscRingBlockingQueue<DataValueObject>(1);
+        queue.put(new DataValueObject(1));
+
+        long timeStart = System.currentTimeMillis();
+        boolean result = queue.offer(new DataValueObject(2), 500,
+                TimeUnit.MILLISECONDS);
+        long timeDiff = System.currentTimeMillis() - timeStart;
+
+        assertFalse(result);
+        // 約500ミリ秒の待ち確認(50ミリ秒の誤差を許容)
+        assertTrue(timeDiff >= 450);
+    }
+
+    /**
+     * put のテスト 正常系：キューが満杯の場合、消費者が取り出すまで待つこと
+     */
+    @Test
+    public void testPut001() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(1);
+        queue.put(1);
+        final CountDownLatch putDone = new CountDownLatch(1);
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.put(2);
+                    putDone.countDown();
+                } catch (InterruptedException e) {
+                    // 何もしない
+                }
+            }
+        };
+        producer.start();
+
+        assertFalse(putDone.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertTrue(putDone.await(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(2), queue.poll());
+        producer.join();
+    }
+
+    /**
+     * put のテスト 異常系：待機中に割り込みが発生した場合にInterruptedExceptionが発生すること
+     */
+    @Test
+    public void testPut002() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(1);
+        queue.put(1);
+        final List<Throwable> thrown = new ArrayList<Throwable>();
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.put(2);
+                } catch (InterruptedException e) {
+                    thrown.add(e);
+                }
+            }
+        };
+        producer.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        producer.interrupt();
+        producer.join(5000);
+
+        assertEquals(1, thrown.size());
+        assertEquals(1, queue.size());
+    }
+
+    /**
+     * peek のテスト 正常系：キューが空の場合、要素が入るまで待ち、要素を削除せずに返すこと
+     */
+    @Test
+    public void testPeek001() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(2);
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(200);
+                    queue.put(7);
+                } catch (InterruptedException e) {
+                    // 何もしない
+                }
+            }
+        };
+        producer.start();
+
+        assertEquals(Integer.valueOf(7), queue.peek());
+        assertEquals(1, queue.size());
+        assertFalse(queue.isEmpty());
+        assertEquals(Integer.valueOf(7), queue.poll());
+        producer.join();
+    }
+
+    /**
+     * peek/isEmpty のテスト 正常系：キューイングの終了通知で待ちが解除されること
+     */
+    @Test
+    public void testPeek002() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(2);
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(200);
+                } catch (InterruptedException e) {
+                    // 何もしない
+                }
+                queue.finishQueueing();
+            }
+        };
+        producer.start();
+
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+        producer.join();
+    }
+
+    /**
+     * peek のテスト 異常系：待機中に割り込みが発生した場合にnullを返すこと
+     */
+    @Test
+    public void testPeek003() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(2);
+        final List<Object> result = new ArrayList<Object>();
+
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                result.add(queue.peek());
+            }
+        };
+        consumer.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        consumer.interrupt();
+        consumer.join(5000);
+
+        assertEquals(1, result.size());
+        assertNull(result.get(0));
+    }
+
+    /**
+     * poll(long timeout, TimeUnit unit) のテスト 正常系：タイムアウト後にキューが空の場合にnullを返す確認
+     */
+    @Test
+    public void testPoll001() throws Exception {
+        SpscRingBlockingQueue<DataValueObject> queue = new SpscRingBlockingQueue<DataValueObject>(1);
+
+        long timeStart = System.currentTimeMillis();
+        DataValueObject result = queue.poll(500, TimeUnit.MILLISECONDS);
+        long timeDiff = System.currentTimeMillis() - timeStart;
+
+        assertNull(result);
+        // 約500ミリ秒の待ち確認(50ミリ秒の誤差を許容)
+        assertTrue(timeDiff >= 450);
+    }
+
+    /**
+     * poll(long timeout, TimeUnit unit) のテスト 正常系：キューイングの終了通知後にキューが空の場合、即座にnullを返す確認
+     */
+    @Test
+    public void testPoll002() throws Exception {
+        SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(1);
+        queue.put(1);
+        queue.finishQueueing();
+
+        assertEquals(Integer.valueOf(1), queue.poll(20000,
+                TimeUnit.MILLISECONDS));
+
+        long timeStart = System.currentTimeMillis();
+        assertNull(queue.poll(20000, TimeUnit.MILLISECONDS));
+        assertTrue(System.currentTimeMillis() - timeStart < 1000);
+    }
+
+    /**
+     * poll(long timeout, TimeUnit unit) のテスト 異常系：待機中に割り込みが発生した場合にInterruptedExceptionが発生すること
+     */
+    @Test
+    public void testPoll003() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(1);
+        final List<Throwable> thrown = new ArrayList<Throwable>();
+
+        Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.poll(20000, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    thrown.add(e);
+                }
+            }
+        };
+        consumer.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        consumer.interrupt();
+        consumer.join(5000);
+
+        assertEquals(1, thrown.size());
+    }
+
+    /**
+     * setCapacityLimit のテスト 正常系：容量を減らした場合は減らした容量まで、増やした場合は増やした容量まで詰められること
+     */
+    @Test
+    public void testSetCapacityLimit001() {
+        SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(8);
+        assertEquals(8, queue.getCapacityLimit());
+
+        queue.setCapacityLimit(2);
+        assertEquals(2, queue.getCapacityLimit());
+        assertEquals(2, queue.remainingCapacity());
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+
+        // 要素数より小さい容量にした場合、空き容量は0となる
+        queue.setCapacityLimit(1);
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertFalse(queue.offer(3));
+
+        queue.setCapacityLimit(8);
+        assertEquals(7, queue.remainingCapacity());
+        for (int i = 3; i <= 9; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(10));
+        assertEquals(8, queue.size());
+    }
+
+    /**
+     * setCapacityLimit のテスト 正常系：容量を増やした場合、キューの空き待ちをしている生産者が再開すること
+     */
+    @Test
+    public void testSetCapacityLimit002() throws Exception {
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(4);
+        queue.setCapacityLimit(1);
+        queue.put(1);
+        final CountDownLatch putDone = new CountDownLatch(1);
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.put(2);
+                    putDone.countDown();
+                } catch (InterruptedException e) {
+                    // 何もしない
+                }
+            }
+        };
+        producer.start();
+
+        assertFalse(putDone.await(200, TimeUnit.MILLISECONDS));
+        queue.setCapacityLimit(2);
+        assertTrue(putDone.await(5, TimeUnit.SECONDS));
+        assertEquals(2, queue.size());
+        producer.join();
+    }
+
+    /**
+     * setCapacityLimit のテスト 異常系：1未満、あるいはキューサイズを超える容量を指定した場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testSetCapacityLimit003() {
+        SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(4);
+        try {
+            queue.setCapacityLimit(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+        try {
+            queue.setCapacityLimit(5);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+        assertEquals(4, queue.getCapacityLimit());
+    }
+
+    /**
+     * 生産者・消費者スレッド間の受け渡しのテスト 正常系：キューサイズより多い要素が欠落・重複なく順番に受け渡されること
+     */
+    @Test
+    public void testHandoff001() throws Exception {
+        final int count = 100000;
+        final SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(20);
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        queue.put(i);
+                    }
+                } catch (InterruptedException e) {
+                    // 何もしない
+                } finally {
+                    queue.finishQueueing();
+                }
+            }
+        };
+        producer.start();
+
+        int expected = 0;
+        while (queue.peek() != null) {
+            assertEquals(Integer.valueOf(expected), queue.poll(1,
+                    TimeUnit.MILLISECONDS));
+            expected++;
+        }
+        producer.join();
+
+        assertEquals(count, expected);
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * iterator/drainTo のテスト 正常系：格納順に走査・転送できること
+     */
+    @Test
+    public void testIteratorDrainTo001() {
+        SpscRingBlockingQueue<Integer> queue = new SpscRingBlockingQueue<Integer>(4);
+        queue.offer(1);
+        queue.poll();
+        queue.offer(2);
+        queue.offer(3);
+        queue.offer(4);
+
+        Iterator<Integer> it = queue.iterator();
+        assertEquals(Integer.valueOf(2), it.next());
+        assertEquals(Integer.valueOf(3), it.next());
+        assertEquals(Integer.valueOf(4), it.next());
+        assertFalse(it.hasNext());
+
+        List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(2, drained.size());
+        assertEquals(1, queue.drainTo(drained));
+        assertEquals(Integer.valueOf(4), drained.get(2));
+        assertEquals(0, queue.size());
+    }
+}
@@ -0,0 +1,8 @@
+package jp.terasoluna.fw.collector.dao;
+
+public interface UserLoadDao {
+
+    int insertUser(Object object);
+    int deleteAll();
+    int count();
+}
@@ -13,6 +13,9 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -417,4 +420,89 @@ public class DaoCollector002Test extends DaoTestCaseJunit4 {
         assertEquals(1, prepost.getPostCount());
     }
 
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollector#DaoCollector(jp.terasoluna.fw.collector.db.DaoCollectorConfig)}
+     * のためのテスト・メソッド。
+     * ネストした結果マッピング(1:N)使用時に親オブジェクト単位で取得できること
+     */
+    @Test
+    public void testDaoCollectorObjectStringObject009() throws Exception {
+        if (this.userListQueryResultHandleDao == null) {
+            fail("userListQueryResultHandleDaoがnullです。");
+        }
+
+        int count_first = 0;
+        int count_detail = 0;
+
+        DaoCollectorConfig config = new DaoCollectorConfig(this.userListQueryResultHandleDao, "collectOrder", null);
+        config.addQueueSize(1).addNestedResult(true);
+        Collector<OrderBean> col = new DaoCollector<OrderBean>(config);
+        try {
+            for (OrderBean order : col) {
+                List<OrderDetailBean> orderDetailList = order
+                        .getOrderDetailList();
+                count_detail += orderDetailList.size();
+                count_first++;
+            }
+        } finally {
+            DaoCollector.closeQuietly(col);
+        }
+
+        // コレクタスレッド数チェック
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(0
+                + this.previousThreadCount));
+
+        assertEquals(4, count_first);
+        assertEquals(12, count_detail);
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollector#DaoCollector(jp.terasoluna.fw.collector.db.DaoCollectorConfig)}
+     * のためのテスト・メソッド。
+     * フェッチサイズ、ResultSetの種類、タイムアウトを指定した場合もデータが全件取得でき、ステートメントに適用されること
+     */
+    @Test
+    public void testDaoCollectorObjectStringObject010() throws Exception {
+        if (this.userListQueryResultHandleDao == null) {
+            fail("userListQueryResultHandleDaoがnullです。");
+        }
+
+        final int[] expected = { 0 };
+        DaoCollectorStatementInterceptor.Settings settings = new DaoCollectorStatementInterceptor.Settings(2, ResultSetType.FORWARD_ONLY, 30);
+        DaoCollectorStatementInterceptor.begin(settings);
+        try {
+            this.userListQueryResultHandleDao.collect(null,
+                    new ResultHandler<Object>() {
+                        public void handleResult(
+                                ResultContext<? extends Object> context) {
+                            expected[0]++;
+                        }
+                    });
+        } finally {
+            DaoCollectorStatementInterceptor.end();
+        }
+        assertTrue(settings.isApplied());
+
+        int count = 0;
+        DaoCollectorConfig config = new DaoCollectorConfig(this.userListQueryResultHandleDao, "collect", null);
+        config.addFetchSize(2).addResultSetType(ResultSetType.FORWARD_ONLY)
+                .addQueryTimeout(30);
+        Collector<UserBean> col = new DaoCollector<UserBean>(config);
+        try {
+            while (col.hasNext()) {
+                col.next();
+                count++;
+            }
+        } finally {
+            DaoCollector.closeQuietly(col);
+        }
+
+        // コレクタスレッド数チェック
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(0
+                + this.previousThreadCount));
+
+        assertTrue(expected[0] > 0);
+        assertEquals(expected[0], count);
+    }
+
 }
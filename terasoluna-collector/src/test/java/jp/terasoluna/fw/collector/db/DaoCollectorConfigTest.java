@@ -4,12 +4,15 @@
 package jp.terasoluna.fw.collector.db;
 
 import static org.junit.Assert.*;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.CollectorExecutor;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
 import jp.terasoluna.fw.collector.validate.ValidateErrorStatus;
 import jp.terasoluna.fw.collector.validate.ValidationErrorHandler;
 import jp.terasoluna.fw.collector.vo.DataValueObject;
 
+import org.apache.ibatis.mapping.ResultSetType;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -107,6 +110,76 @@ public class DaoCollectorConfigTest {
         assertEquals(queueSize, config.getQueueSize());
     }
 
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addChunkSize(int)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddChunkSize001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        int chunkSize = 100;
+
+        // テスト
+        config.addChunkSize(chunkSize);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertEquals(chunkSize, config.getChunkSize());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addAdaptiveQueueSizing(AdaptiveQueueSizing)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddAdaptiveQueueSizing001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        AdaptiveQueueSizing adaptiveQueueSizing = new AdaptiveQueueSizing()
+                .addMemoryBudget(1024L * 1024L, 512L);
+
+        // テスト
+        config.addAdaptiveQueueSizing(adaptiveQueueSizing);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertSame(adaptiveQueueSizing, config.getAdaptiveQueueSizing());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addCollectorExecutor(jp.terasoluna.fw.collector.CollectorExecutor)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddCollectorExecutor001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        // テスト
+        config.addCollectorExecutor(collectorExecutor);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+    }
+
     /**
      * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addExceptionHandler(jp.terasoluna.fw.collector.exception.CollectorExceptionHandler)}
      * のためのテスト・メソッド。
@@ -221,6 +294,98 @@ public class DaoCollectorConfigTest {
         assertEquals(relation1n, config.isRelation1n());
     }
 
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addNestedResult(boolean)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddNestedResult001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        assertFalse(config.isNestedResult());
+
+        // テスト
+        config.addNestedResult(true);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertTrue(config.isNestedResult());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addFetchSize(int)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddFetchSize001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        assertEquals(0, config.getFetchSize());
+
+        // テスト
+        config.addFetchSize(1000);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertEquals(1000, config.getFetchSize());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addResultSetType(org.apache.ibatis.mapping.ResultSetType)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddResultSetType001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        assertEquals(null, config.getResultSetType());
+
+        // テスト
+        config.addResultSetType(ResultSetType.FORWARD_ONLY);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertEquals(ResultSetType.FORWARD_ONLY, config.getResultSetType());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addQueryTimeout(int)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddQueryTimeout001() {
+        Object queryResultHandleDao = new Object();
+        String methodName = "hoge";
+        Object bindParams = new Object();
+
+        DaoCollectorConfig config = new DaoCollectorConfig(queryResultHandleDao, methodName, bindParams);
+
+        assertEquals(0, config.getQueryTimeout());
+
+        // テスト
+        config.addQueryTimeout(30);
+
+        assertNotNull(config);
+        assertEquals(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals(methodName, config.getMethodName());
+        assertEquals(bindParams, config.getBindParams());
+        assertEquals(30, config.getQueryTimeout());
+    }
+
     /**
      * {@link jp.terasoluna.fw.collector.db.DaoCollectorConfig#addDaoCollectorPrePostProcess(jp.terasoluna.fw.collector.db.DaoCollectorPrePostProcess)}
      * のためのテスト・メソッド。
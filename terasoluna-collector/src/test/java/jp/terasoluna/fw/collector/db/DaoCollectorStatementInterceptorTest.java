@@ -0,0 +1,176 @@
+package jp.terasoluna.fw.collector.db;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * DaoCollectorStatementInterceptorのテストケース。
+ */
+public class DaoCollectorStatementInterceptorTest {
+
+    @After
+    public void tearDown() throws Exception {
+        DaoCollectorStatementInterceptor.end();
+    }
+
+    /**
+     * DaoCollectorの実行中でない場合、ステートメントに何もしないこと
+     */
+    @Test
+    public void testIntercept001() throws Throwable {
+        Connection connection = mockConnection("H2", true, null);
+        Statement statement = mockStatement(0, ResultSet.TYPE_FORWARD_ONLY);
+        StatementHandler handler = mockHandler(statement);
+
+        Object result = new DaoCollectorStatementInterceptor()
+                .intercept(invocation(handler, connection));
+
+        assertSame(statement, result);
+        verify(handler).prepare(connection, 10);
+        verify(statement, never()).setFetchSize(anyInt());
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    /**
+     * DaoCollectorの実行中の場合、フェッチサイズとタイムアウトがステートメントに適用されること
+     */
+    @Test
+    public void testIntercept002() throws Throwable {
+        Connection connection = mockConnection("H2", true, null);
+        Statement statement = mockStatement(500, ResultSet.TYPE_FORWARD_ONLY);
+        StatementHandler handler = mockHandler(statement);
+        DaoCollectorStatementInterceptor.Settings settings = new DaoCollectorStatementInterceptor.Settings(500, null, 30);
+
+        DaoCollectorStatementInterceptor.begin(settings);
+        new DaoCollectorStatementInterceptor().intercept(invocation(handler,
+                connection));
+
+        assertTrue(settings.isApplied());
+        verify(handler).prepare(connection, 10);
+        verify(statement).setFetchSize(500);
+        verify(statement).setQueryTimeout(30);
+    }
+
+    /**
+     * ResultSetの種類を指定した場合、ステートメント生成時のResultSetの種類が置き換えられること
+     */
+    @Test
+    public void testIntercept003() throws Throwable {
+        Connection connection = mockConnection("H2", true, null);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(connection.prepareStatement("SELECT 1",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+                .thenReturn(prepared);
+        StatementHandler handler = mockHandler(mockStatement(0,
+                ResultSet.TYPE_FORWARD_ONLY));
+
+        DaoCollectorStatementInterceptor.begin(new DaoCollectorStatementInterceptor.Settings(0, ResultSetType.FORWARD_ONLY, 0));
+        new DaoCollectorStatementInterceptor().intercept(invocation(handler,
+                connection));
+
+        ArgumentCaptor<Connection> captor = ArgumentCaptor
+                .forClass(Connection.class);
+        verify(handler).prepare(captor.capture(), eq(10));
+        Connection proxy = captor.getValue();
+        assertNotSame(connection, proxy);
+        assertSame(prepared, proxy.prepareStatement("SELECT 1"));
+        proxy.prepareStatement("SELECT 2", ResultSet.TYPE_SCROLL_INSENSITIVE,
+                ResultSet.CONCUR_UPDATABLE);
+        verify(connection).prepareStatement("SELECT 2",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
+        proxy.getAutoCommit();
+        verify(connection).getAutoCommit();
+    }
+
+    /**
+     * ドライバが結果全体を読み込む可能性がある場合、理由が取得できること
+     */
+    @Test
+    public void testCheckStreaming001() throws Exception {
+        DaoCollectorStatementInterceptor.Settings settings = new DaoCollectorStatementInterceptor.Settings(100, null, 0);
+
+        // フェッチサイズが反映され、ResultSetの種類がTYPE_FORWARD_ONLY
+        assertTrue(DaoCollectorStatementInterceptor.checkStreaming(
+                mockConnection("H2", true, null), mockStatement(100,
+                        ResultSet.TYPE_FORWARD_ONLY), settings).isEmpty());
+
+        // フェッチサイズが無視され、ResultSetの種類がスクロール可能
+        List<String> reasons = DaoCollectorStatementInterceptor
+                .checkStreaming(mockConnection("H2", true, null),
+                        mockStatement(0, ResultSet.TYPE_SCROLL_INSENSITIVE),
+                        settings);
+        assertEquals(2, reasons.size());
+        assertEquals("fetchSize is ignored by the driver. expected:100 actual:0",
+                reasons.get(0));
+        assertEquals("resultSetType is not TYPE_FORWARD_ONLY.", reasons.get(1));
+
+        // PostgreSQLで自動コミットが有効
+        reasons = DaoCollectorStatementInterceptor.checkStreaming(
+                mockConnection("PostgreSQL", true, null), mockStatement(100,
+                        ResultSet.TYPE_FORWARD_ONLY), settings);
+        assertEquals(1, reasons.size());
+        assertEquals("autoCommit is enabled.", reasons.get(0));
+        assertTrue(DaoCollectorStatementInterceptor.checkStreaming(
+                mockConnection("PostgreSQL", false, null), mockStatement(100,
+                        ResultSet.TYPE_FORWARD_ONLY), settings).isEmpty());
+
+        // MySQLでフェッチサイズがInteger.MIN_VALUEでなく、useCursorFetchも指定されていない
+        assertEquals(1, DaoCollectorStatementInterceptor.checkStreaming(
+                mockConnection("MySQL", true, "jdbc:mysql://localhost/test"),
+                mockStatement(100, ResultSet.TYPE_FORWARD_ONLY), settings)
+                .size());
+        assertTrue(DaoCollectorStatementInterceptor.checkStreaming(
+                mockConnection("MySQL", true,
+                        "jdbc:mysql://localhost/test?useCursorFetch=true"),
+                mockStatement(100, ResultSet.TYPE_FORWARD_ONLY), settings)
+                .isEmpty());
+    }
+
+    private static Invocation invocation(StatementHandler handler,
+            Connection connection) throws Exception {
+        return new Invocation(handler, StatementHandler.class.getMethod(
+                "prepare", Connection.class, Integer.class), new Object[] {
+                connection, Integer.valueOf(10) });
+    }
+
+    private static StatementHandler mockHandler(
+            Statement statement) throws Exception {
+        StatementHandler handler = mock(StatementHandler.class);
+        when(handler.prepare(any(Connection.class), any(Integer.class)))
+                .thenReturn(statement);
+        return handler;
+    }
+
+    private static Statement mockStatement(int fetchSize,
+            int resultSetType) throws Exception {
+        Statement statement = mock(Statement.class);
+        when(statement.getFetchSize()).thenReturn(fetchSize);
+        when(statement.getResultSetType()).thenReturn(resultSetType);
+        return statement;
+    }
+
+    private static Connection mockConnection(String product,
+            boolean autoCommit, String url) throws Exception {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn(product);
+        when(metaData.getURL()).thenReturn(url);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.getAutoCommit()).thenReturn(autoCommit);
+        return connection;
+    }
+}
@@ -0,0 +1,81 @@
+package jp.terasoluna.fw.collector.db;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * KeyRangeのテストケース。
+ */
+public class KeyRangeTest {
+
+    /**
+     * 件数がほぼ等しく、重複・欠落のない範囲に昇順で分割されること
+     */
+    @Test
+    public void testSplit001() {
+        List<KeyRange> ranges = KeyRange.split(1L, 10L, 3);
+
+        assertEquals(3, ranges.size());
+        assertRange(1L, 4L, ranges.get(0));
+        assertRange(5L, 7L, ranges.get(1));
+        assertRange(8L, 10L, ranges.get(2));
+    }
+
+    /**
+     * キーの数が分割数より少ない場合、キーの数の範囲に分割されること
+     */
+    @Test
+    public void testSplit002() {
+        List<KeyRange> ranges = KeyRange.split(5L, 6L, 4);
+
+        assertEquals(2, ranges.size());
+        assertRange(5L, 5L, ranges.get(0));
+        assertRange(6L, 6L, ranges.get(1));
+    }
+
+    /**
+     * longの最小値から最大値までを分割できること
+     */
+    @Test
+    public void testSplit003() {
+        List<KeyRange> ranges = KeyRange.split(Long.MIN_VALUE,
+                Long.MAX_VALUE, 2);
+
+        assertEquals(2, ranges.size());
+        assertRange(Long.MIN_VALUE, -1L, ranges.get(0));
+        assertRange(0L, Long.MAX_VALUE, ranges.get(1));
+    }
+
+    /**
+     * 範囲・分割数が不正な場合、IllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testSplit004() {
+        try {
+            KeyRange.split(10L, 1L, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+        try {
+            KeyRange.split(1L, 10L, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+        try {
+            new KeyRange(2L, 1L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    private static void assertRange(long from, long to, KeyRange range) {
+        assertEquals(from, range.getFrom());
+        assertEquals(to, range.getTo());
+    }
+}
@@ -0,0 +1,134 @@
+package jp.terasoluna.fw.collector.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.apache.ibatis.session.ResultContext;
+
+/**
+ * 1:Nマッピング用のQueueingResultHandlerごとに、親オブジェクトをキューに格納する1秒あたりの件数を計測するベンチマーク。
+ * <p>
+ * MyBatisが1:Nマッピングで親オブジェクトごとに{@code handleResult}を呼び出す状況を模して、
+ * 子オブジェクトを持つ親オブジェクトを生成してハンドラに渡す。キューへの格納は件数を数えるだけとする。
+ * 次のハンドラを計測する。
+ * <ul>
+ * <li>{@link Queueing1NRelationResultHandlerImpl}(シャローコピーと初期化)</li>
+ * <li>{@link QueueingNestedResultHandlerImpl}(インスタンスの受け渡し)</li>
+ * </ul>
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数に親オブジェクトの件数と親オブジェクトあたりの子オブジェクトの件数を指定して実行する。
+ * 省略時は1000000件、子オブジェクト3件で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:(依存jar) \
+ *     jp.terasoluna.fw.collector.db.NestedResultHandlerBenchmark 1000000 3
+ * </pre>
+ */
+public class NestedResultHandlerBenchmark {
+
+    private static final int ROUNDS = 4;
+
+    /**
+     * ベンチマークを実行する。
+     * @param args 親オブジェクトの件数、子オブジェクトの件数
+     * @throws Exception 予期しない例外
+     */
+    @SuppressWarnings("deprecation")
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int details = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        System.out.println(String.format("%-40s %16s", "handler",
+                "parents/sec"));
+        for (int round = 0; round < ROUNDS; round++) {
+            long relation1n = measure(
+                    new Queueing1NRelationResultHandlerImpl<OrderBean>(),
+                    count, details);
+            long nested = measure(
+                    new QueueingNestedResultHandlerImpl<OrderBean>(), count,
+                    details);
+            // 1回目はウォームアップとして結果を表示しない
+            if (round > 0) {
+                System.out.println(String.format("%-40s %16d",
+                        "Queueing1NRelationResultHandlerImpl", relation1n));
+                System.out.println(String.format("%-40s %16d",
+                        "QueueingNestedResultHandlerImpl", nested));
+            }
+        }
+    }
+
+    private static long measure(QueueingResultHandler<OrderBean> handler,
+            int count, int details) {
+        CountingDaoCollector collector = new CountingDaoCollector();
+        handler.setDaoCollector(collector);
+        OrderResultContext context = new OrderResultContext();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            OrderBean order = new OrderBean();
+            order.setOrdrId(Integer.toString(i));
+            order.setCustId("C001");
+            order.setCustName("customer");
+            order.setOrderDate("2016-01-01");
+            List<OrderDetailBean> detailList = new ArrayList<OrderDetailBean>(details);
+            for (int j = 0; j < details; j++) {
+                detailList.add(new OrderDetailBean());
+            }
+            order.setOrderDetailList(detailList);
+            context.object = order;
+            handler.handleResult(context);
+        }
+        handler.delayCollect();
+        long elapsed = System.nanoTime() - start;
+
+        if (collector.received != count) {
+            throw new IllegalStateException("received:" + collector.received);
+        }
+        return count * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * キューに格納されたデータの件数を数えるDaoCollector。
+     */
+    private static class CountingDaoCollector extends DaoCollector<OrderBean> {
+
+        private int received = 0;
+
+        @Override
+        protected void addQueue(DataValueObject dataValueObject) {
+            if (!(dataValueObject.getValue() instanceof OrderBean)) {
+                throw new IllegalStateException();
+            }
+            this.received++;
+        }
+    }
+
+    /**
+     * 親オブジェクトを返すResultContext。
+     */
+    private static class OrderResultContext implements
+                                            ResultContext<OrderBean> {
+
+        private OrderBean object = null;
+
+        public OrderBean getResultObject() {
+            return this.object;
+        }
+
+        public int getResultCount() {
+            return 0;
+        }
+
+        public boolean isStopped() {
+            return false;
+        }
+
+        public void stop() {
+        }
+    }
+}
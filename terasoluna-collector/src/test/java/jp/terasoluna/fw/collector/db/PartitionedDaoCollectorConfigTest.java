@@ -0,0 +1,74 @@
+package jp.terasoluna.fw.collector.db;
+
+import static org.junit.Assert.*;
+
+import java.util.Comparator;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * PartitionedDaoCollectorConfigのテストケース。
+ */
+public class PartitionedDaoCollectorConfigTest {
+
+    /**
+     * {@link PartitionedDaoCollectorConfig#PartitionedDaoCollectorConfig(Object, String, List)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testPartitionedDaoCollectorConfig001() {
+        Object queryResultHandleDao = new Object();
+        List<KeyRange> ranges = KeyRange.split(1L, 100L, 2);
+
+        PartitionedDaoCollectorConfig<Object> config = new PartitionedDaoCollectorConfig<Object>(queryResultHandleDao, "hoge", ranges);
+
+        assertSame(queryResultHandleDao, config.getQueryResultHandleDao());
+        assertEquals("hoge", config.getMethodName());
+        assertSame(ranges, config.getPartitionBindParams());
+        assertNull(config.getComparator());
+        assertEquals(AbstractCollector.DEFAULT_QUEUE_SIZE, config.getPartitionQueueSize());
+        assertEquals(AbstractCollector.DEFAULT_QUEUE_SIZE, config.getQueueSize());
+    }
+
+    /**
+     * add*メソッドのためのテスト・メソッド。
+     */
+    @Test
+    public void testAdd001() {
+        Comparator<Object> comparator = new Comparator<Object>() {
+            public int compare(Object o1, Object o2) {
+                return 0;
+            }
+        };
+        CollectorExceptionHandler exceptionHandler = new CollectorExceptionHandler() {
+            public CollectorExceptionHandlerStatus handleException(
+                    DataValueObject dataValueObject) {
+                return CollectorExceptionHandlerStatus.SKIP;
+            }
+        };
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        PartitionedDaoCollectorConfig<Object> config = new PartitionedDaoCollectorConfig<Object>(null, null, null)
+                .addComparator(comparator).addPartitionQueueSize(5)
+                .addQueueSize(50).addChunkSize(10)
+                .addCollectorExecutor(collectorExecutor)
+                .addExceptionHandler(exceptionHandler)
+                .addExecuteByConstructor(true);
+
+        assertSame(comparator, config.getComparator());
+        assertEquals(5, config.getPartitionQueueSize());
+        assertEquals(50, config.getQueueSize());
+        assertEquals(10, config.getChunkSize());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+        assertSame(exceptionHandler, config.getExceptionHandler());
+        assertTrue(config.isExecuteByConstructor());
+
+        collectorExecutor.shutdown();
+    }
+}
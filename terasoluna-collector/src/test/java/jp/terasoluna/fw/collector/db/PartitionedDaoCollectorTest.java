@@ -0,0 +1,319 @@
+package jp.terasoluna.fw.collector.db;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.Test;
+
+/**
+ * PartitionedDaoCollectorのテストケース。
+ */
+public class PartitionedDaoCollectorTest {
+
+    private static final Comparator<Long> ASC = new Comparator<Long>() {
+        public int compare(Long o1, Long o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    /**
+     * コンストラクタの確認 引数がnullの場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testPartitionedDaoCollector001() {
+        try {
+            new PartitionedDaoCollector<Long>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * 順序を指定しない場合、全パーティションのデータが欠落・重複なく取得でき、
+     * パーティションごとに別のスレッドで実行されること
+     * 入力データ：1～1000を4つの範囲に分割
+     */
+    @Test
+    public void testNext001() throws Exception {
+        RangeDao dao = new RangeDao();
+        Collector<Long> collector = new PartitionedDaoCollector<Long>(dao,
+                "collect", KeyRange.split(1L, 1000L, 4));
+        List<Long> values = new ArrayList<Long>();
+        try {
+            while (collector.hasNext()) {
+                values.add(collector.next());
+            }
+        } finally {
+            collector.close();
+        }
+        Collections.sort(values);
+        assertEquals(1000, values.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Long.valueOf(i + 1), values.get(i));
+        }
+        assertEquals(4, dao.threads.size());
+    }
+
+    /**
+     * パーティション数がパーティション実行スレッド数を超える場合、順序を指定しなければ
+     * パーティション実行スレッド数までのスレッドで全パーティションのデータが取得できること
+     * 入力データ：1～600を6つの範囲に分割、パーティション実行スレッド数：2
+     */
+    @Test
+    public void testNext005() throws Exception {
+        RangeDao dao = new RangeDao();
+        Collector<Long> collector = new PartitionedDaoCollector<Long>(
+                new PartitionedDaoCollectorConfig<Long>(dao, "collect",
+                        KeyRange.split(1L, 600L, 6)).addPartitionThreads(2)
+                        .addPartitionQueueSize(2));
+        List<Long> values = new ArrayList<Long>();
+        try {
+            while (collector.hasNext()) {
+                values.add(collector.next());
+            }
+        } finally {
+            collector.close();
+        }
+        Collections.sort(values);
+        assertEquals(600, values.size());
+        for (int i = 0; i < 600; i++) {
+            assertEquals(Long.valueOf(i + 1), values.get(i));
+        }
+        assertTrue(dao.threads.toString(), dao.threads.size() <= 2);
+    }
+
+    /**
+     * 順序を指定した場合に、パーティション数がパーティション実行スレッド数を超えると、
+     * IllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testPartitionedDaoCollector002() {
+        try {
+            new PartitionedDaoCollector<Long>(
+                    new PartitionedDaoCollectorConfig<Long>(new RangeDao(),
+                            "collect", KeyRange.split(1L, 300L, 3))
+                            .addComparator(ASC).addPartitionThreads(2));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "The number of partitions exceeds the partitionThreads.",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * 順序を指定した場合、パーティションの処理速度が異なっても、全体が順序どおりに取得できること
+     * （コントロールブレイクが判定できること）
+     * 入力データ：0～299を3件おきに3つのパーティションに分割
+     */
+    @Test
+    public void testNext002() throws Exception {
+        RangeDao dao = new RangeDao();
+        List<Stride> strides = Arrays.asList(new Stride(0, 3, 100, 0),
+                new Stride(1, 3, 100, 7), new Stride(2, 3, 100, 13));
+        Collector<Long> collector = new PartitionedDaoCollector<Long>(
+                new PartitionedDaoCollectorConfig<Long>(dao, "collect",
+                        strides).addComparator(ASC).addPartitionQueueSize(2));
+        try {
+            for (long i = 0; i < 300; i++) {
+                assertTrue(collector.hasNext());
+                assertEquals(Long.valueOf(i), collector.next());
+                assertEquals(i == 0 ? null : Long.valueOf(i - 1), collector
+                        .getPrevious());
+                assertEquals(i == 299 ? null : Long.valueOf(i + 1), collector
+                        .getNext());
+            }
+            assertFalse(collector.hasNext());
+        } finally {
+            collector.close();
+        }
+    }
+
+    /**
+     * パーティションで例外が発生した場合、CollectorExceptionHandlerの判定に従い、他のパーティションのデータは取得できること
+     * CollectorExceptionHandlerの結果：CollectorExceptionHandlerStatus.SKIP
+     */
+    @Test
+    public void testNext003() throws Exception {
+        final List<DataValueObject> handled = new ArrayList<DataValueObject>();
+        RangeDao dao = new RangeDao();
+        List<Object> params = new ArrayList<Object>();
+        params.add(new KeyRange(1L, 5L));
+        params.add(new Stride(6, 1, 3, 0, true));
+        params.add(new KeyRange(20L, 24L));
+        Collector<Long> collector = new PartitionedDaoCollector<Long>(
+                new PartitionedDaoCollectorConfig<Long>(dao, "collect",
+                        params).addComparator(ASC).addExceptionHandler(
+                        new CollectorExceptionHandler() {
+                            public CollectorExceptionHandlerStatus handleException(
+                                    DataValueObject dataValueObject) {
+                                handled.add(dataValueObject);
+                                return CollectorExceptionHandlerStatus.SKIP;
+                            }
+                        }));
+        List<Long> values = new ArrayList<Long>();
+        try {
+            while (collector.hasNext()) {
+                values.add(collector.next());
+            }
+        } finally {
+            collector.close();
+        }
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 20L, 21L,
+                22L, 23L, 24L), values);
+        assertEquals(1, handled.size());
+        assertEquals("error:6", handled.get(0).getThrowable().getMessage());
+    }
+
+    /**
+     * パーティションが0件の場合、データが取得されないこと
+     */
+    @Test
+    public void testNext004() throws Exception {
+        Collector<Long> collector = new PartitionedDaoCollector<Long>(
+                new RangeDao(), "collect", new ArrayList<KeyRange>());
+        try {
+            assertFalse(collector.hasNext());
+        } finally {
+            collector.close();
+        }
+    }
+
+    /**
+     * 途中でクローズした場合、実行中のパーティションが中断されること
+     */
+    @Test
+    public void testClose001() throws Exception {
+        RangeDao dao = new RangeDao();
+        for (Comparator<Long> comparator : Arrays.asList(null, ASC)) {
+            dao.finished = new CountDownLatch(3);
+            Collector<Long> collector = new PartitionedDaoCollector<Long>(
+                    new PartitionedDaoCollectorConfig<Long>(dao, "collect",
+                            KeyRange.split(1L, 30000000L, 3)).addComparator(
+                            comparator).addPartitionQueueSize(1)
+                            .addQueueSize(1));
+            try {
+                for (int i = 0; i < 10; i++) {
+                    collector.next();
+                }
+            } finally {
+                collector.close();
+            }
+            assertTrue(dao.finished.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * 一定間隔で並んだ値を返すパーティション条件。
+     */
+    private static class Stride {
+
+        private final long start;
+
+        private final long step;
+
+        private final int count;
+
+        private final long sleepEvery;
+
+        private final boolean failAfterCount;
+
+        Stride(long start, long step, int count, long sleepEvery) {
+            this(start, step, count, sleepEvery, false);
+        }
+
+        Stride(long start, long step, int count, long sleepEvery,
+                boolean failAfterCount) {
+            this.start = start;
+            this.step = step;
+            this.count = count;
+            this.sleepEvery = sleepEvery;
+            this.failAfterCount = failAfterCount;
+        }
+    }
+
+    /**
+     * パーティション条件に応じた値を返すQueryResultHandleDao。
+     */
+    public static class RangeDao {
+
+        private final Set<String> threads = Collections
+                .synchronizedSet(new HashSet<String>());
+
+        private volatile CountDownLatch finished = new CountDownLatch(0);
+
+        public void collect(Object bindParams, ResultHandler<Long> handler)
+                                                                          throws Exception {
+            this.threads.add(Thread.currentThread().getName());
+            LongResultContext context = new LongResultContext();
+            try {
+                if (bindParams instanceof KeyRange) {
+                    KeyRange range = (KeyRange) bindParams;
+                    for (long i = range.getFrom(); i <= range.getTo()
+                            && !context.stopped; i++) {
+                        context.value = Long.valueOf(i);
+                        handler.handleResult(context);
+                    }
+                    return;
+                }
+                Stride stride = (Stride) bindParams;
+                for (int i = 0; i < stride.count && !context.stopped; i++) {
+                    if (stride.sleepEvery > 0 && i % stride.sleepEvery == 0) {
+                        TimeUnit.MILLISECONDS.sleep(1);
+                    }
+                    context.value = Long.valueOf(stride.start + i
+                            * stride.step);
+                    handler.handleResult(context);
+                }
+                if (stride.failAfterCount) {
+                    throw new IllegalStateException("error:" + stride.start);
+                }
+            } finally {
+                this.finished.countDown();
+            }
+        }
+    }
+
+    /**
+     * 値を1件ずつ返すResultContext。
+     */
+    private static class LongResultContext implements ResultContext<Long> {
+
+        private Long value = null;
+
+        private boolean stopped = false;
+
+        public Long getResultObject() {
+            return this.value;
+        }
+
+        public int getResultCount() {
+            return 0;
+        }
+
+        public boolean isStopped() {
+            return this.stopped;
+        }
+
+        public void stop() {
+            this.stopped = true;
+        }
+    }
+}
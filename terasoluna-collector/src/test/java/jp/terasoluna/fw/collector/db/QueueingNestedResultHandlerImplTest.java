@@ -0,0 +1,108 @@
+package jp.terasoluna.fw.collector.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class QueueingNestedResultHandlerImplTest {
+
+    @After
+    public void tearDown() throws Exception {
+        Thread.interrupted();
+    }
+
+    /**
+     * testHandleResult001
+     * 異なるインスタンスが渡された時点で前のインスタンスがそのままキューに格納されること
+     */
+    @Test
+    public void testHandleResult001() throws Exception {
+        QueueingNestedResultHandlerImpl<HogeBean> drh = new QueueingNestedResultHandlerImpl<>();
+        DaoCollectorStub004 daoCollector = new DaoCollectorStub004(5);
+        drh.setDaoCollector(daoCollector);
+        BlockingQueue<DataValueObject> queue = daoCollector.getQueue();
+
+        HogeBean hoge1 = HogeBean.buider().hoge("hoge1").build();
+        HogeBean hoge2 = HogeBean.buider().hoge("hoge2").build();
+        DummyResultContext context = new DummyResultContext();
+
+        context.setResultObject(hoge1);
+        drh.handleResult(context);
+        assertEquals(0, queue.size());
+
+        // 同じインスタンスは1件として扱う
+        drh.handleResult(context);
+        assertEquals(0, queue.size());
+
+        context.setResultObject(hoge2);
+        drh.handleResult(context);
+        assertEquals(1, queue.size());
+
+        drh.delayCollect();
+        assertEquals(2, queue.size());
+
+        // 格納済みのインスタンスを重複して格納しないこと
+        drh.delayCollect();
+        assertEquals(2, queue.size());
+
+        DataValueObject dvo1 = queue.poll();
+        assertSame(hoge1, dvo1.getValue());
+        assertEquals(1L, dvo1.getDataCount());
+        DataValueObject dvo2 = queue.poll();
+        assertSame(hoge2, dvo2.getValue());
+        assertEquals(2L, dvo2.getDataCount());
+        assertEquals("hoge1", hoge1.getHoge());
+    }
+
+    /**
+     * testHandleResult002
+     * nullが渡された場合はキューに格納しないこと
+     */
+    @Test
+    public void testHandleResult002() throws Exception {
+        QueueingNestedResultHandlerImpl<HogeBean> drh = new QueueingNestedResultHandlerImpl<>();
+        DaoCollectorStub004 daoCollector = new DaoCollectorStub004(5);
+        drh.setDaoCollector(daoCollector);
+
+        DummyResultContext context = new DummyResultContext();
+        context.setResultObject(null);
+        drh.handleResult(context);
+        drh.handleResult(context);
+        context.setResultObject(HogeBean.buider().hoge("hoge1").build());
+        drh.handleResult(context);
+        context.setResultObject(null);
+        drh.handleResult(context);
+        drh.delayCollect();
+
+        assertEquals(1, daoCollector.getQueue().size());
+    }
+
+    /**
+     * testHandleResult003
+     * 割り込みが発生している場合はキューに格納せず、取得を中断すること
+     */
+    @Test
+    public void testHandleResult003() throws Exception {
+        QueueingNestedResultHandlerImpl<HogeBean> drh = new QueueingNestedResultHandlerImpl<>();
+        DaoCollectorStub004 daoCollector = new DaoCollectorStub004(5);
+        drh.setDaoCollector(daoCollector);
+
+        DummyResultContext context = new DummyResultContext();
+        context.setResultObject(HogeBean.buider().hoge("hoge1").build());
+        drh.handleResult(context);
+
+        Thread.currentThread().interrupt();
+        context.setResultObject(HogeBean.buider().hoge("hoge2").build());
+        drh.handleResult(context);
+
+        assertTrue(context.isStopped());
+        assertEquals(0, daoCollector.getQueue().size());
+    }
+}
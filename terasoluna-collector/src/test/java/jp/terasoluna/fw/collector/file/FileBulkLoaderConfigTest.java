@@ -0,0 +1,51 @@
+package jp.terasoluna.fw.collector.file;
+
+import static org.junit.Assert.*;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+import jp.terasoluna.fw.file.dao.FileUpdateDAO;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class FileBulkLoaderConfigTest {
+
+    @Test
+    public void testFileBulkLoaderConfig001() throws Exception {
+        FileQueryDAO fileQueryDAO = new FileQueryDAOStub();
+        FileBulkLoaderConfig<B000002Data> config = new FileBulkLoaderConfig<B000002Data>(
+                fileQueryDAO, "in.csv", B000002Data.class, null, "stmt");
+
+        assertSame(fileQueryDAO, config.getFileQueryDAO());
+        assertEquals("in.csv", config.getFileName());
+        assertEquals(B000002Data.class, config.getClazz());
+        assertNull(config.getSqlSessionFactory());
+        assertEquals("stmt", config.getStatementId());
+        assertEquals(FileBulkLoader.DEFAULT_THREAD_SIZE, config.getThreadSize());
+        assertEquals(FileBulkLoader.DEFAULT_COMMIT_SIZE, config.getCommitSize());
+        assertNull(config.getErrorFileUpdateDAO());
+        assertNull(config.getErrorFileName());
+    }
+
+    @Test
+    public void testAddMethods001() throws Exception {
+        FileUpdateDAO fileUpdateDAO = new FileUpdateDAO() {
+            public <T> jp.terasoluna.fw.file.dao.FileLineWriter<T> execute(
+                    String fileName, Class<T> clazz) {
+                return null;
+            }
+        };
+        FileBulkLoaderConfig<B000002Data> config = new FileBulkLoaderConfig<B000002Data>(
+                null, null, B000002Data.class, null, null);
+
+        assertSame(config, config.addThreadSize(8));
+        assertSame(config, config.addCommitSize(500));
+        assertSame(config, config.addErrorFile(fileUpdateDAO, "err.csv"));
+
+        assertEquals(8, config.getThreadSize());
+        assertEquals(500, config.getCommitSize());
+        assertSame(fileUpdateDAO, config.getErrorFileUpdateDAO());
+        assertEquals("err.csv", config.getErrorFileName());
+    }
+}
@@ -0,0 +1,212 @@
+package jp.terasoluna.fw.collector.file;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.CollectorTestUtil;
+import jp.terasoluna.fw.collector.dao.UserLoadDao;
+import jp.terasoluna.fw.collector.unit.testcase.junit4.DaoTestCaseJunit4;
+import jp.terasoluna.fw.collector.unit.testcase.junit4.loader.DaoTestCaseContextLoader;
+import jp.terasoluna.fw.collector.util.MemoryInfo;
+import jp.terasoluna.fw.file.dao.FileException;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+import jp.terasoluna.fw.file.dao.FileUpdateDAO;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+@ContextConfiguration(locations = {
+        "classpath:jp/terasoluna/fw/collector/db/dataSource.xml" }, loader = DaoTestCaseContextLoader.class)
+public class FileBulkLoaderTest extends DaoTestCaseJunit4 {
+    /**
+     * Log.
+     */
+    private static Log logger = LogFactory.getLog(FileBulkLoaderTest.class);
+
+    private static final String STATEMENT_ID = "jp.terasoluna.fw.collector.dao.UserLoadDao.insertUser";
+
+    private FileQueryDAO csvFileQueryDAO = null;
+
+    private SqlSessionFactory sqlSessionFactory = null;
+
+    private UserLoadDao userLoadDao = null;
+
+    private int previousThreadCount = 0;
+
+    public void setCsvFileQueryDAO(FileQueryDAO csvFileQueryDAO) {
+        this.csvFileQueryDAO = csvFileQueryDAO;
+    }
+
+    public void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    public void setUserLoadDao(UserLoadDao userLoadDao) {
+        this.userLoadDao = userLoadDao;
+    }
+
+    @Override
+    protected void onSetUpBeforeTransaction() throws Exception {
+        // 登録スレッドは別コネクションでコミットするため、トランザクション外で初期化する
+        this.userLoadDao.deleteAll();
+        super.onSetUpBeforeTransaction();
+    }
+
+    @Override
+    protected void onTearDownAfterTransaction() throws Exception {
+        this.userLoadDao.deleteAll();
+        super.onTearDownAfterTransaction();
+    }
+
+    @Before
+    public void onSetUp() throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        this.previousThreadCount = CollectorTestUtil.getCollectorThreadCount();
+    }
+
+    @After
+    public void onTearDown() throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        CollectorTestUtil.allInterrupt();
+    }
+
+    /**
+     * 設定項目がnullの場合はIllegalArgumentExceptionとなること
+     */
+    @Test
+    public void testFileBulkLoader001() throws Exception {
+        try {
+            new FileBulkLoader<B000002Data>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+
+        try {
+            new FileBulkLoader<B000002Data>(new FileBulkLoaderConfig<B000002Data>(
+                    this.csvFileQueryDAO, "dummy.csv", B000002Data.class,
+                    this.sqlSessionFactory, null));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * 全件が複数の登録スレッドで登録されること
+     */
+    @Test
+    public void testFileBulkLoader002() throws Exception {
+        URL url = getClass().getClassLoader().getResource("USER_TEST.csv");
+        assertNotNull(url);
+
+        FileBulkLoaderConfig<B000002Data> config = new FileBulkLoaderConfig<B000002Data>(
+                this.csvFileQueryDAO, url.getPath(), B000002Data.class,
+                this.sqlSessionFactory, STATEMENT_ID).addThreadSize(4)
+                .addCommitSize(100);
+
+        FileBulkLoadResult result = new FileBulkLoader<B000002Data>(config)
+                .load();
+
+        assertEquals(1000, result.getReadCount());
+        assertEquals(1000, result.getLoadedCount());
+        assertEquals(0, result.getRejectedCount());
+        assertTrue(result.getElapsedTime() >= 0);
+        assertEquals(1000, this.userLoadDao.count());
+
+        // 登録スレッドが残っていないこと
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(1
+                + this.previousThreadCount));
+    }
+
+    /**
+     * 変換に失敗した行と登録に失敗した行が拒否され、登録に失敗した行がエラーファイルに出力されること
+     */
+    @Test
+    public void testFileBulkLoader003() throws Exception {
+        URL url = getClass().getClassLoader().getResource(
+                "USER_LOAD_TEST.csv");
+        assertNotNull(url);
+        File errorFile = File.createTempFile("USER_LOAD_TEST", ".err");
+        errorFile.deleteOnExit();
+
+        FileUpdateDAO csvFileUpdateDAO = getBean("csvFileUpdateDAO");
+        FileBulkLoaderConfig<B000002Data> config = new FileBulkLoaderConfig<B000002Data>(
+                this.csvFileQueryDAO, url.getPath(), B000002Data.class,
+                this.sqlSessionFactory, STATEMENT_ID).addThreadSize(2)
+                .addCommitSize(10).addErrorFile(csvFileUpdateDAO, errorFile
+                        .getPath());
+
+        FileBulkLoadResult result = new FileBulkLoader<B000002Data>(config)
+                .load();
+
+        assertEquals(6, result.getReadCount());
+        assertEquals(4, result.getLoadedCount());
+        assertEquals(2, result.getRejectedCount());
+        assertEquals(4, this.userLoadDao.count());
+
+        List<String> lines = Files.readAllLines(errorFile.toPath(),
+                Charset.forName("UTF-8"));
+        assertEquals(1, lines.size());
+        assertEquals("2,田中,次郎,25", lines.get(0));
+    }
+
+    /**
+     * セグメントの途中の行がフラッシュ前(パラメータの設定時)に失敗した場合、
+     * JDBCバッチに残った行が1件ずつの登録し直しで重複して登録されず、失敗した行のみが拒否されること
+     */
+    @Test
+    public void testFileBulkLoader005() throws Exception {
+        URL url = getClass().getClassLoader().getResource("USER_TEST.csv");
+        assertNotNull(url);
+
+        FileBulkLoaderConfig<B000002Data> config = new FileBulkLoaderConfig<B000002Data>(
+                this.csvFileQueryDAO, url.getPath(), B000002Data.class,
+                this.sqlSessionFactory,
+                "jp.terasoluna.fw.collector.dao.UserLoadDao.insertUserFailOnId5")
+                .addThreadSize(1).addCommitSize(10);
+
+        FileBulkLoadResult result = new FileBulkLoader<B000002Data>(config)
+                .load();
+
+        assertEquals(1000, result.getReadCount());
+        assertEquals(999, result.getLoadedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(999, this.userLoadDao.count());
+    }
+
+    /**
+     * 入力ファイルが存在しない場合は例外がスローされ、登録スレッドが終了すること
+     */
+    @Test
+    public void testFileBulkLoader004() throws Exception {
+        FileBulkLoaderConfig<B000002Data> config = new FileBulkLoaderConfig<B000002Data>(
+                this.csvFileQueryDAO, "notfound.csv", B000002Data.class,
+                this.sqlSessionFactory, STATEMENT_ID);
+
+        try {
+            new FileBulkLoader<B000002Data>(config).load();
+            fail();
+        } catch (FileException e) {
+            assertNotNull(e);
+        }
+
+        assertEquals(0, this.userLoadDao.count());
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(1
+                + this.previousThreadCount));
+    }
+}
@@ -0,0 +1,146 @@
+package jp.terasoluna.fw.collector.file;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorTestUtil;
+import jp.terasoluna.fw.collector.util.MemoryInfo;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.springframework.test.context.ContextConfiguration;
+import jp.terasoluna.fw.collector.unit.testcase.junit4.DaoTestCaseJunit4;
+import jp.terasoluna.fw.collector.unit.testcase.junit4.loader.DaoTestCaseContextLoader;
+
+@ContextConfiguration(locations = {
+        "classpath:jp/terasoluna/fw/collector/db/dataSource.xml" }, loader = DaoTestCaseContextLoader.class)
+public class FileCollector020Test extends DaoTestCaseJunit4 {
+    /**
+     * Log.
+     */
+    private static Log logger = LogFactory.getLog(FileCollector020Test.class);
+
+    private FileQueryDAO csvFileQueryDAO = null;
+
+    private int previousThreadCount = 0;
+
+    public void setCsvFileQueryDAO(FileQueryDAO csvFileQueryDAO) {
+        this.csvFileQueryDAO = csvFileQueryDAO;
+    }
+
+    @Before
+    public void onSetUp() throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        System.gc();
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        this.previousThreadCount = CollectorTestUtil.getCollectorThreadCount();
+    }
+
+    @After
+    public void onTearDown() throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        System.gc();
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        CollectorTestUtil.allInterrupt();
+    }
+
+    /**
+     * 変換スレッド数を指定した場合、全件が行の順序どおりに取得できること
+     */
+    @Test
+    public void testFileCollector020001() throws Exception {
+        if (this.csvFileQueryDAO == null) {
+            fail("csvFileQueryDAOがnullです。");
+        }
+
+        URL url = getClass().getClassLoader().getResource("USER_TEST.csv");
+        if (url == null) {
+            fail("urlがnullです。");
+        }
+
+        List<Object> expected = collect(new FileCollectorConfig<B000001Data>(this.csvFileQueryDAO, url
+                .getPath(), B000001Data.class));
+        List<Object> actual = collect(new FileCollectorConfig<B000001Data>(this.csvFileQueryDAO, url
+                .getPath(), B000001Data.class).addParserThreads(4)
+                .addParseBatchSize(7));
+
+        // コレクタスレッド数チェック
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(0
+                + this.previousThreadCount));
+
+        assertEquals(1000, expected.size());
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * 変換スレッド数を指定した場合、変換に失敗した行の例外が行の順序どおりに取得できること
+     */
+    @Test
+    public void testFileCollector020002() throws Exception {
+        if (this.csvFileQueryDAO == null) {
+            fail("csvFileQueryDAOがnullです。");
+        }
+
+        URL url = getClass().getClassLoader().getResource("USER_TEST4.csv");
+        if (url == null) {
+            fail("urlがnullです。");
+        }
+
+        List<Object> expected = collect(new FileCollectorConfig<B000001Data>(this.csvFileQueryDAO, url
+                .getPath(), B000001Data.class));
+        List<Object> actual = collect(new FileCollectorConfig<B000001Data>(this.csvFileQueryDAO, url
+                .getPath(), B000001Data.class).addParserThreads(3)
+                .addParseBatchSize(10));
+
+        // コレクタスレッド数チェック
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(0
+                + this.previousThreadCount));
+
+        assertEquals(1000, expected.size());
+        assertEquals(expected, actual);
+        int exceptionCount = 0;
+        for (Object o : actual) {
+            if (o instanceof Class) {
+                exceptionCount++;
+            }
+        }
+        assertEquals(2, exceptionCount);
+    }
+
+    /**
+     * コレクタから全件取得し、IDまたは発生した例外のクラスのリストを返す
+     */
+    private List<Object> collect(FileCollectorConfig<B000001Data> config) {
+        List<Object> result = new ArrayList<Object>();
+        Collector<B000001Data> it = new FileCollector<B000001Data>(config);
+        try {
+            while (it.hasNext()) {
+                try {
+                    result.add(Integer.valueOf(it.next().getId()));
+                } catch (Exception e) {
+                    result.add(e.getClass());
+                }
+            }
+        } finally {
+            // クローズ
+            FileCollector.closeQuietly(it);
+        }
+        return result;
+    }
+
+}
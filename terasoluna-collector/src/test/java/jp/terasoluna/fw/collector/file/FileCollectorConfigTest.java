@@ -4,6 +4,8 @@
 package jp.terasoluna.fw.collector.file;
 
 import static org.junit.Assert.*;
+import jp.terasoluna.fw.collector.AdaptiveQueueSizing;
+import jp.terasoluna.fw.collector.CollectorExecutor;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
 import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
 import jp.terasoluna.fw.collector.validate.ValidateErrorStatus;
@@ -122,6 +124,146 @@ public class FileCollectorConfigTest {
         assertEquals(queueSize, config.getQueueSize());
     }
 
+    /**
+     * {@link jp.terasoluna.fw.collector.file.FileCollectorConfig#addChunkSize(int)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddChunkSize001() {
+        FileQueryDAO fileQueryDAO = new FileQueryDAO() {
+            public <T> FileLineIterator<T> execute(String fileName,
+                    Class<T> clazz) {
+                return null;
+            }
+        };
+        String fileName = "hoge";
+        Class<B000001Data> clazz = B000001Data.class;
+
+        FileCollectorConfig<B000001Data> config = new FileCollectorConfig<B000001Data>(fileQueryDAO, fileName, clazz);
+
+        int chunkSize = 50;
+
+        // テスト
+        config.addChunkSize(chunkSize);
+
+        assertNotNull(config);
+        assertEquals(fileQueryDAO, config.getFileQueryDAO());
+        assertEquals(fileName, config.getFileName());
+        assertEquals(clazz, config.getClazz());
+        assertEquals(chunkSize, config.getChunkSize());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.file.FileCollectorConfig#addAdaptiveQueueSizing(AdaptiveQueueSizing)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddAdaptiveQueueSizing001() {
+        FileQueryDAO fileQueryDAO = new FileQueryDAO() {
+            public <T> FileLineIterator<T> execute(String fileName,
+                    Class<T> clazz) {
+                return null;
+            }
+        };
+        String fileName = "hoge";
+        Class<B000001Data> clazz = B000001Data.class;
+
+        FileCollectorConfig<B000001Data> config = new FileCollectorConfig<B000001Data>(fileQueryDAO, fileName, clazz);
+
+        AdaptiveQueueSizing adaptiveQueueSizing = new AdaptiveQueueSizing(4, 64);
+
+        // テスト
+        config.addAdaptiveQueueSizing(adaptiveQueueSizing);
+
+        assertNotNull(config);
+        assertEquals(fileQueryDAO, config.getFileQueryDAO());
+        assertEquals(fileName, config.getFileName());
+        assertEquals(clazz, config.getClazz());
+        assertSame(adaptiveQueueSizing, config.getAdaptiveQueueSizing());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.file.FileCollectorConfig#addParserThreads(int)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddParserThreads001() {
+        FileQueryDAO fileQueryDAO = new FileQueryDAO() {
+            public <T> FileLineIterator<T> execute(String fileName,
+                    Class<T> clazz) {
+                return null;
+            }
+        };
+        String fileName = "hoge";
+        Class<B000001Data> clazz = B000001Data.class;
+
+        FileCollectorConfig<B000001Data> config = new FileCollectorConfig<B000001Data>(fileQueryDAO, fileName, clazz);
+
+        int parserThreads = 4;
+
+        // テスト
+        config.addParserThreads(parserThreads);
+
+        assertNotNull(config);
+        assertEquals(fileQueryDAO, config.getFileQueryDAO());
+        assertEquals(fileName, config.getFileName());
+        assertEquals(clazz, config.getClazz());
+        assertEquals(parserThreads, config.getParserThreads());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.file.FileCollectorConfig#addParseBatchSize(int)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddParseBatchSize001() {
+        FileQueryDAO fileQueryDAO = new FileQueryDAO() {
+            public <T> FileLineIterator<T> execute(String fileName,
+                    Class<T> clazz) {
+                return null;
+            }
+        };
+        String fileName = "hoge";
+        Class<B000001Data> clazz = B000001Data.class;
+
+        FileCollectorConfig<B000001Data> config = new FileCollectorConfig<B000001Data>(fileQueryDAO, fileName, clazz);
+
+        int parseBatchSize = 100;
+
+        // テスト
+        config.addParseBatchSize(parseBatchSize);
+
+        assertNotNull(config);
+        assertEquals(fileQueryDAO, config.getFileQueryDAO());
+        assertEquals(fileName, config.getFileName());
+        assertEquals(clazz, config.getClazz());
+        assertEquals(parseBatchSize, config.getParseBatchSize());
+    }
+
+    /**
+     * {@link jp.terasoluna.fw.collector.file.FileCollectorConfig#addCollectorExecutor(jp.terasoluna.fw.collector.CollectorExecutor)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testAddCollectorExecutor001() {
+        FileQueryDAO fileQueryDAO = new FileQueryDAO() {
+            public <T> FileLineIterator<T> execute(String fileName,
+                    Class<T> clazz) {
+                return null;
+            }
+        };
+        String fileName = "hoge";
+        Class<B000001Data> clazz = B000001Data.class;
+
+        FileCollectorConfig<B000001Data> config = new FileCollectorConfig<B000001Data>(fileQueryDAO, fileName, clazz);
+
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        // テスト
+        config.addCollectorExecutor(collectorExecutor);
+
+        assertNotNull(config);
+        assertEquals(fileQueryDAO, config.getFileQueryDAO());
+        assertEquals(fileName, config.getFileName());
+        assertEquals(clazz, config.getClazz());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+    }
+
     /**
      * {@link jp.terasoluna.fw.collector.file.FileCollectorConfig#addExceptionHandler(jp.terasoluna.fw.collector.exception.CollectorExceptionHandler)}
      * のためのテスト・メソッド。
@@ -0,0 +1,99 @@
+package jp.terasoluna.fw.collector.file;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.file.dao.standard.CSVFileQueryDAO;
+import jp.terasoluna.fw.file.dao.standard.ColumnParser;
+import jp.terasoluna.fw.file.dao.standard.IntColumnParser;
+import jp.terasoluna.fw.file.dao.standard.NullColumnParser;
+
+/**
+ * FileCollectorでCSVファイルを読み切るときの1秒あたりの行数を、変換スレッド数ごとに計測するベンチマーク。
+ * <p>
+ * 指定行数のCSVファイル(B000001Data形式)を一時ファイルに生成し、変換スレッド数を0(コレクタスレッドで変換)、2、4、
+ * 利用可能なプロセッサ数とした場合のそれぞれで、呼び出し元が{@code hasNext()}と{@code next()}で読み捨てる。
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数に行数を指定して実行する。省略時は1000000行で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:(依存jar) \
+ *     jp.terasoluna.fw.collector.file.FileCollectorParseBenchmark 1000000
+ * </pre>
+ */
+public class FileCollectorParseBenchmark {
+
+    private static final int ROUNDS = 4;
+
+    /**
+     * ベンチマークを実行する。
+     * @param args 行数
+     * @throws Exception 予期しない例外
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        File file = File.createTempFile("FileCollectorParseBenchmark", ".csv");
+        file.deleteOnExit();
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), "UTF-8"));
+        try {
+            for (int i = 1; i <= count; i++) {
+                writer.write(i + ",山田,太郎," + (i % 100) + "\r\n");
+            }
+        } finally {
+            writer.close();
+        }
+
+        Map<String, ColumnParser> columnParserMap = new HashMap<String, ColumnParser>();
+        columnParserMap.put("java.lang.String", new NullColumnParser());
+        columnParserMap.put("int", new IntColumnParser());
+        CSVFileQueryDAO dao = new CSVFileQueryDAO();
+        dao.setColumnParserMap(columnParserMap);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int[] parserThreads = { 0, 2, 4, processors };
+
+        System.out.println(String.format("%-16s %16s", "parserThreads",
+                "rows/sec"));
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int threads : parserThreads) {
+                long rows = measure(new FileCollectorConfig<B000001Data>(dao,
+                        file.getPath(), B000001Data.class)
+                        .addParserThreads(threads), count);
+                // 1回目はウォームアップとして結果を表示しない
+                if (round > 0) {
+                    System.out.println(String.format("%-16d %16d", threads,
+                            rows));
+                }
+            }
+        }
+    }
+
+    private static long measure(FileCollectorConfig<B000001Data> config,
+            int count) {
+        long start = System.nanoTime();
+        int received = 0;
+        FileCollector<B000001Data> collector = new FileCollector<B000001Data>(config);
+        try {
+            while (collector.hasNext()) {
+                collector.next();
+                received++;
+            }
+        } finally {
+            collector.close();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (received != count) {
+            throw new IllegalStateException("received:" + received);
+        }
+        return received * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+}
@@ -0,0 +1,89 @@
+package jp.terasoluna.fw.collector.file;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * MultiFileCollectorConfigのテストケース。
+ */
+public class MultiFileCollectorConfigTest {
+
+    /**
+     * {@link MultiFileCollectorConfig#MultiFileCollectorConfig(jp.terasoluna.fw.file.dao.FileQueryDAO, List, Class)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testMultiFileCollectorConfig001() {
+        List<String> fileNames = new ArrayList<String>();
+
+        MultiFileCollectorConfig<Object> config = new MultiFileCollectorConfig<Object>(null, fileNames, Object.class);
+
+        assertSame(fileNames, config.getFileNames());
+        assertNull(config.getDirectory());
+        assertNull(config.getFileNamePattern());
+        assertEquals(Object.class, config.getClazz());
+        assertNull(config.getComparator());
+        assertEquals(MultiFileCollectorConfig.DEFAULT_READER_THREADS, config.getReaderThreads());
+        assertEquals(AbstractCollector.DEFAULT_QUEUE_SIZE, config.getFileQueueSize());
+    }
+
+    /**
+     * {@link MultiFileCollectorConfig#MultiFileCollectorConfig(jp.terasoluna.fw.file.dao.FileQueryDAO, String, String, Class)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testMultiFileCollectorConfig002() {
+        MultiFileCollectorConfig<Object> config = new MultiFileCollectorConfig<Object>(null, "input", "*.csv", Object.class);
+
+        assertNull(config.getFileNames());
+        assertEquals("input", config.getDirectory());
+        assertEquals("*.csv", config.getFileNamePattern());
+        assertEquals(Object.class, config.getClazz());
+    }
+
+    /**
+     * add*メソッドのためのテスト・メソッド。
+     */
+    @Test
+    public void testAdd001() {
+        Comparator<Object> comparator = new Comparator<Object>() {
+            public int compare(Object o1, Object o2) {
+                return 0;
+            }
+        };
+        CollectorExceptionHandler exceptionHandler = new CollectorExceptionHandler() {
+            public CollectorExceptionHandlerStatus handleException(
+                    DataValueObject dataValueObject) {
+                return CollectorExceptionHandlerStatus.SKIP;
+            }
+        };
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        MultiFileCollectorConfig<Object> config = new MultiFileCollectorConfig<Object>(null, (List<String>) null, Object.class)
+                .addComparator(comparator).addReaderThreads(4)
+                .addFileQueueSize(5).addQueueSize(50).addChunkSize(10)
+                .addCollectorExecutor(collectorExecutor)
+                .addExceptionHandler(exceptionHandler)
+                .addExecuteByConstructor(true);
+
+        assertSame(comparator, config.getComparator());
+        assertEquals(4, config.getReaderThreads());
+        assertEquals(5, config.getFileQueueSize());
+        assertEquals(50, config.getQueueSize());
+        assertEquals(10, config.getChunkSize());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+        assertSame(exceptionHandler, config.getExceptionHandler());
+        assertTrue(config.isExecuteByConstructor());
+
+        collectorExecutor.shutdown();
+    }
+}
@@ -0,0 +1,302 @@
+package jp.terasoluna.fw.collector.file;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.CollectorTestUtil;
+import jp.terasoluna.fw.collector.util.KeyComparator;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+import jp.terasoluna.fw.collector.util.MemoryInfo;
+import jp.terasoluna.fw.file.dao.FileQueryDAO;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.springframework.test.context.ContextConfiguration;
+import jp.terasoluna.fw.collector.unit.testcase.junit4.DaoTestCaseJunit4;
+import jp.terasoluna.fw.collector.unit.testcase.junit4.loader.DaoTestCaseContextLoader;
+
+@ContextConfiguration(locations = {
+        "classpath:jp/terasoluna/fw/collector/db/dataSource.xml" }, loader = DaoTestCaseContextLoader.class)
+public class MultiFileCollectorTest extends DaoTestCaseJunit4 {
+    /**
+     * Log.
+     */
+    private static Log logger = LogFactory.getLog(MultiFileCollectorTest.class);
+
+    private static final KeyComparator<B000001Data> ID_COMPARATOR = new KeyComparator<B000001Data>()
+            .addKey(new KeyExtractor<B000001Data>() {
+                public Object getKey(B000001Data bean) {
+                    return Integer.valueOf(bean.getId());
+                }
+            });
+
+    private FileQueryDAO csvFileQueryDAO = null;
+
+    private int previousThreadCount = 0;
+
+    private List<File> tempFiles = new ArrayList<File>();
+
+    public void setCsvFileQueryDAO(FileQueryDAO csvFileQueryDAO) {
+        this.csvFileQueryDAO = csvFileQueryDAO;
+    }
+
+    @Before
+    public void onSetUp() throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        System.gc();
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        this.previousThreadCount = CollectorTestUtil.getCollectorThreadCount();
+    }
+
+    @After
+    public void onTearDown() throws Exception {
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        System.gc();
+        if (logger.isInfoEnabled()) {
+            logger.info(MemoryInfo.getMemoryInfo());
+        }
+        CollectorTestUtil.allInterrupt();
+        Collections.reverse(this.tempFiles);
+        for (File file : this.tempFiles) {
+            file.delete();
+        }
+    }
+
+    /**
+     * 順序を指定しない場合、ファイルの順に連結して取得できること
+     */
+    @Test
+    public void testMultiFileCollector001() throws Exception {
+        String file1 = getResourcePath("USER_TEST.csv");
+        String file2 = getResourcePath("USER_TEST2.csv");
+
+        List<Object> expected = collect(new FileCollector<B000001Data>(this.csvFileQueryDAO, file1, B000001Data.class));
+        expected.addAll(collect(new FileCollector<B000001Data>(this.csvFileQueryDAO, file2, B000001Data.class)));
+        List<Object> actual = collect(new MultiFileCollector<B000001Data>(new MultiFileCollectorConfig<B000001Data>(this.csvFileQueryDAO, Arrays
+                .asList(file1, file2, file1), B000001Data.class)
+                .addReaderThreads(2).addFileQueueSize(3)));
+
+        // コレクタスレッド数チェック
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(0
+                + this.previousThreadCount));
+
+        assertEquals(2000, expected.size());
+        assertEquals(3000, actual.size());
+        assertEquals(expected, actual.subList(0, 2000));
+        assertEquals(expected.subList(0, 1000), actual.subList(2000, 3000));
+    }
+
+    /**
+     * 変換に失敗した行の例外が、ファイルの行の位置で取得できること
+     */
+    @Test
+    public void testMultiFileCollector002() throws Exception {
+        String file1 = getResourcePath("USER_TEST4.csv");
+        String file2 = getResourcePath("USER_TEST.csv");
+
+        List<Object> expected = collect(new FileCollector<B000001Data>(this.csvFileQueryDAO, file1, B000001Data.class));
+        expected.addAll(collect(new FileCollector<B000001Data>(this.csvFileQueryDAO, file2, B000001Data.class)));
+        List<Object> actual = collect(new MultiFileCollector<B000001Data>(this.csvFileQueryDAO, Arrays
+                .asList(file1, file2), B000001Data.class));
+
+        assertEquals(2000, actual.size());
+        assertEquals(expected, actual);
+        assertTrue(actual.contains(Integer.valueOf(1013)));
+        assertEquals(2, countExceptions(actual));
+    }
+
+    /**
+     * 順序を指定した場合、ファイルごとのデータが順序どおりにマージされ、順序が等しいデータはファイルの順となること
+     */
+    @Test
+    public void testMultiFileCollector003() throws Exception {
+        File file1 = createFile(null, "merge1.csv", "1,a,x,20", "3,a,x,20",
+                "5,a,x,20", "6,a,x,20");
+        File file2 = createFile(null, "merge2.csv", "2,b,x,20", "4,b,x,20",
+                "6,b,x,20");
+        File file3 = createFile(null, "merge3.csv");
+        File file4 = createFile(null, "merge4.csv", "6,d,x,20", "7,d,x,20");
+
+        List<String> names = new ArrayList<String>();
+        Collector<B000001Data> it = new MultiFileCollector<B000001Data>(new MultiFileCollectorConfig<B000001Data>(this.csvFileQueryDAO, Arrays
+                .asList(file1.getPath(), file2.getPath(), file3.getPath(),
+                        file4.getPath()), B000001Data.class).addComparator(
+                ID_COMPARATOR).addFileQueueSize(1));
+        try {
+            while (it.hasNext()) {
+                B000001Data data = it.next();
+                names.add(data.getId() + data.getFamilyname());
+            }
+        } finally {
+            // クローズ
+            MultiFileCollector.closeQuietly(it);
+        }
+
+        // コレクタスレッド数チェック
+        assertTrue(CollectorTestUtil.lessThanCollectorThreadCount(0
+                + this.previousThreadCount));
+
+        assertEquals(Arrays.asList("1a", "2b", "3a", "4b", "5a", "6a", "6b",
+                "6d", "7d"), names);
+    }
+
+    /**
+     * 順序を指定した場合に、ファイル数がファイル読み込みスレッド数を超えても、
+     * 読み込みスレッド数を超えてスレッドを使用せずに順序どおりにマージされること
+     * （コレクタスレッドと読み込みスレッドの合計の最大スレッド数を持つCollectorExecutorで完了すること）
+     */
+    @Test(timeout = 30000)
+    public void testMultiFileCollector008() throws Exception {
+        List<String> files = new ArrayList<String>();
+        files.add(createFile(null, "bounded1.csv", "1,a,x,20", "6,a,x,20")
+                .getPath());
+        files.add(createFile(null, "bounded2.csv", "2,b,x,20", "7,b,x,20")
+                .getPath());
+        files.add(createFile(null, "bounded3.csv", "3,c,x,20", "8,c,x,20")
+                .getPath());
+        files.add(createFile(null, "bounded4.csv", "4,d,x,20", "9,d,x,20")
+                .getPath());
+        files.add(createFile(null, "bounded5.csv", "5,e,x,20", "10,e,x,20")
+                .getPath());
+
+        CollectorExecutor collectorExecutor = new CollectorExecutor("merge", 3);
+        try {
+            List<Object> actual = collect(new MultiFileCollector<B000001Data>(new MultiFileCollectorConfig<B000001Data>(this.csvFileQueryDAO, files, B000001Data.class)
+                    .addComparator(ID_COMPARATOR).addReaderThreads(2)
+                    .addFileQueueSize(1).addCollectorExecutor(
+                            collectorExecutor)));
+
+            assertEquals(Arrays.<Object> asList(1, 2, 3, 4, 5, 6, 7, 8, 9,
+                    10), actual);
+            assertTrue(collectorExecutor.getLargestPoolSize() <= 3);
+        } finally {
+            collectorExecutor.shutdown();
+        }
+    }
+
+    /**
+     * ディレクトリとファイル名のパターンを指定した場合、一致したファイルをファイル名の順に読み込むこと
+     */
+    @Test
+    public void testMultiFileCollector004() throws Exception {
+        File dir = Files.createTempDirectory("MultiFileCollectorTest").toFile();
+        this.tempFiles.add(dir);
+        createFile(dir, "sales_02.csv", "3,a,x,20");
+        createFile(dir, "sales_01.csv", "1,a,x,20", "2,a,x,20");
+        createFile(dir, "other.csv", "9,a,x,20");
+
+        List<Object> actual = collect(new MultiFileCollector<B000001Data>(new MultiFileCollectorConfig<B000001Data>(this.csvFileQueryDAO, dir
+                .getPath(), "sales_*.csv", B000001Data.class)));
+
+        assertEquals(Arrays.<Object> asList(1, 2, 3), actual);
+    }
+
+    /**
+     * 存在しないファイルを指定した場合、例外が取得できること
+     */
+    @Test
+    public void testMultiFileCollector005() throws Exception {
+        String file1 = getResourcePath("USER_TEST.csv");
+
+        List<Object> actual = collect(new MultiFileCollector<B000001Data>(new MultiFileCollectorConfig<B000001Data>(this.csvFileQueryDAO, Arrays
+                .asList(file1, "notfound.csv"), B000001Data.class)
+                .addComparator(ID_COMPARATOR)));
+
+        assertEquals(1001, actual.size());
+        assertEquals(1, countExceptions(actual));
+    }
+
+    /**
+     * 読み込むファイルがない場合、データが取得できないこと
+     */
+    @Test
+    public void testMultiFileCollector006() throws Exception {
+        List<Object> actual = collect(new MultiFileCollector<B000001Data>(this.csvFileQueryDAO, new ArrayList<String>(), B000001Data.class));
+
+        assertTrue(actual.isEmpty());
+    }
+
+    /**
+     * 引数にnullを指定した場合、IllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testMultiFileCollector007() throws Exception {
+        try {
+            new MultiFileCollector<B000001Data>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    private String getResourcePath(String name) {
+        URL url = getClass().getClassLoader().getResource(name);
+        if (url == null) {
+            fail("urlがnullです。");
+        }
+        return url.getPath();
+    }
+
+    private File createFile(File dir, String name, String... lines)
+                                                                   throws Exception {
+        File file = (dir == null) ? File.createTempFile("MultiFileCollectorTest", name)
+                : new File(dir, name);
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append("\r\n");
+        }
+        Files.write(file.toPath(), sb.toString().getBytes(Charset
+                .forName("UTF-8")));
+        this.tempFiles.add(file);
+        return file;
+    }
+
+    private int countExceptions(List<Object> list) {
+        int exceptionCount = 0;
+        for (Object o : list) {
+            if (o instanceof Class) {
+                exceptionCount++;
+            }
+        }
+        return exceptionCount;
+    }
+
+    /**
+     * コレクタから全件取得し、IDまたは発生した例外のクラスのリストを返す
+     */
+    private List<Object> collect(Collector<B000001Data> it) {
+        List<Object> result = new ArrayList<Object>();
+        try {
+            while (it.hasNext()) {
+                try {
+                    result.add(Integer.valueOf(it.next().getId()));
+                } catch (Exception e) {
+                    result.add(e.getClass());
+                }
+            }
+        } finally {
+            // クローズ
+            MultiFileCollector.closeQuietly(it);
+        }
+        return result;
+    }
+
+}
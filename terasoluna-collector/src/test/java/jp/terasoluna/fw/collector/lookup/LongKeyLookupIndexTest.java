@@ -0,0 +1,79 @@
+package jp.terasoluna.fw.collector.lookup;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * LongKeyLookupIndexのテストケース。
+ */
+public class LongKeyLookupIndexTest {
+
+    /**
+     * 容量の見込みを超えて登録しても、全てのキーで検索できること
+     */
+    @Test
+    public void testAddGet001() {
+        LongKeyLookupIndex<String> index = new LongKeyLookupIndex<String>(1);
+        assertEquals(16, index.getCapacity());
+
+        for (long i = 0; i < 10000; i++) {
+            assertTrue(index.add(i * 1000003L - 5000000L, "v" + i));
+        }
+
+        assertEquals(10000, index.size());
+        assertEquals(16384, index.getCapacity());
+        for (long i = 0; i < 10000; i++) {
+            assertEquals("v" + i, index.get(i * 1000003L - 5000000L));
+        }
+        assertNull(index.get(1L));
+        assertNull(index.get(0L));
+        assertEquals(16L + 8L * 16384 + 16L + 8L * 16384, index
+                .getEstimatedBytes());
+    }
+
+    /**
+     * 登録済みのキーは登録されず、最初の参照データが残ること
+     */
+    @Test
+    public void testAdd001() {
+        LongKeyLookupIndex<String> index = new LongKeyLookupIndex<String>(10);
+
+        assertTrue(index.add(0L, "first"));
+        assertFalse(index.add(0L, "second"));
+        assertTrue(index.add(-1L, "first"));
+        assertFalse(index.add(-1L, "second"));
+
+        assertEquals(2, index.size());
+        assertEquals("first", index.get(0L));
+        assertEquals("first", index.get(-1L));
+    }
+
+    /**
+     * 参照データにnullを指定した場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testAdd002() {
+        try {
+            new LongKeyLookupIndex<String>(10).add(1L, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * 数値のキーは型によらず整数値で検索でき、数値以外のキーはnullを返すこと
+     */
+    @Test
+    public void testGet001() {
+        LongKeyLookupIndex<String> index = new LongKeyLookupIndex<String>(10);
+        index.add(42L, "hoge");
+
+        assertEquals("hoge", index.get(Integer.valueOf(42)));
+        assertEquals("hoge", index.get(Long.valueOf(42)));
+        assertEquals("hoge", index.get(new java.math.BigDecimal("42")));
+        assertNull(index.get("42"));
+        assertNull(index.get(null));
+    }
+}
@@ -0,0 +1,129 @@
+package jp.terasoluna.fw.collector.lookup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LongKeyLookupIndexとjava.util.HashMapで、数値キーの参照データの登録・検索性能とヒープ使用量を比較するベンチマーク。
+ * <p>
+ * 参照データは全て同じオブジェクトとし、ハッシュ表自体のヒープ使用量(登録前後のGC後の使用量の差)を計測する。
+ * 検索は登録順によるメモリの局所性が効かないよう、登録と異なる順序で行う。
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数にキーの数を指定して実行する。省略時は5000000件で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -Xmx2g -cp target/test-classes:target/classes:(依存jar) \
+ *     jp.terasoluna.fw.collector.lookup.LookupIndexBenchmark 5000000
+ * </pre>
+ */
+public class LookupIndexBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    private static final Object VALUE = new Object();
+
+    /** 検索順を決める素数(キーの数の約数でないこと) */
+    private static final long PROBE_STEP = 1000003L;
+
+    /**
+     * ベンチマークを実行する。
+     * @param args キーの数
+     * @throws Exception 予期しない例外
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+
+        System.out.println(String.format("%-20s %16s %16s %16s", "index",
+                "puts/sec", "gets/sec", "heap(bytes)"));
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] index = measureIndex(count);
+            long[] map = measureMap(count);
+            // 1回目はウォームアップとして結果を表示しない
+            if (round > 0) {
+                System.out.println(String.format("%-20s %16d %16d %16d",
+                        "LongKeyLookupIndex", index[0], index[1], index[2]));
+                System.out.println(String.format("%-20s %16d %16d %16d",
+                        "HashMap", map[0], map[1], map[2]));
+            }
+        }
+    }
+
+    private static long[] measureIndex(int count) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        LongKeyLookupIndex<Object> index = new LongKeyLookupIndex<Object>(count);
+        for (int i = 0; i < count; i++) {
+            index.add(key(i), VALUE);
+        }
+        long put = System.nanoTime() - start;
+        long heap = usedHeap() - before;
+        start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (index.get(key(probe(i, count))) != null) {
+                hits++;
+            }
+        }
+        long get = System.nanoTime() - start;
+        check(hits, count, index.size());
+        return new long[] { perSecond(count, put), perSecond(count, get),
+                heap };
+    }
+
+    private static long[] measureMap(int count) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        Map<Long, Object> map = new HashMap<Long, Object>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            map.put(Long.valueOf(key(i)), VALUE);
+        }
+        long put = System.nanoTime() - start;
+        long heap = usedHeap() - before;
+        start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (map.get(Long.valueOf(key(probe(i, count)))) != null) {
+                hits++;
+            }
+        }
+        long get = System.nanoTime() - start;
+        check(hits, count, map.size());
+        return new long[] { perSecond(count, put), perSecond(count, get),
+                heap };
+    }
+
+    /**
+     * 商品コードを模した、連続しない数値のキー
+     */
+    private static long key(int i) {
+        return 4900000000000L + i * 7L;
+    }
+
+    /**
+     * 0からcount-1までを登録と異なる順序で一巡する
+     */
+    private static int probe(int i, int count) {
+        return (int) ((long) i * PROBE_STEP % count);
+    }
+
+    private static void check(int hits, int count, int size) {
+        if (hits != count || size != count) {
+            throw new IllegalStateException("hits:" + hits + " size:" + size);
+        }
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return count * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1L);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,143 @@
+package jp.terasoluna.fw.collector.lookup;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * LookupIndexLoaderのテストケース。
+ */
+public class LookupIndexLoaderTest {
+
+    private static final KeyExtractor<String[]> CODE = new KeyExtractor<String[]>() {
+        public Object getKey(String[] bean) {
+            return bean[0];
+        }
+    };
+
+    private static final KeyExtractor<String[]> NUMERIC_CODE = new KeyExtractor<String[]>() {
+        public Object getKey(String[] bean) {
+            return (bean[0] == null) ? null : Long.valueOf(bean[0]);
+        }
+    };
+
+    /**
+     * コンストラクタの確認 引数がnullの場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testLookupIndexLoader001() {
+        try {
+            new LookupIndexLoader<String[]>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+        try {
+            new LookupIndexLoader<String[]>(new LookupIndexLoaderConfig<String[]>(null, CODE));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * 参照データが登録され、重複したキーとnullのキーが件数に含まれること
+     */
+    @Test
+    public void testLoad001() {
+        ListCollector source = new ListCollector(Arrays.asList(
+                new String[] { "A", "1" }, new String[] { "B", "2" },
+                new String[] { "A", "3" }, new String[] { null, "4" },
+                new String[] { "C", "5" }));
+
+        LookupIndexLoadResult<String[]> result = new LookupIndexLoader<String[]>(new LookupIndexLoaderConfig<String[]>(source, CODE))
+                .load();
+
+        assertTrue(result.getIndex() instanceof ObjectKeyLookupIndex);
+        assertEquals(5L, result.getReadCount());
+        assertEquals(3L, result.getIndexedCount());
+        assertEquals(1L, result.getDuplicateCount());
+        assertEquals(1L, result.getSkippedCount());
+        assertEquals(3, result.getIndex().size());
+        assertEquals("1", result.getIndex().get("A")[1]);
+        assertEquals("5", result.getIndex().get("C")[1]);
+        assertEquals(result.getIndex().getEstimatedBytes(), result
+                .getEstimatedBytes());
+        assertTrue(result.getElapsedTime() >= 0);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * キーを数値として扱う場合、LongKeyLookupIndexに登録されること
+     */
+    @Test
+    public void testLoad002() {
+        ListCollector source = new ListCollector(Arrays.asList(
+                new String[] { "100", "a" }, new String[] { "200", "b" }));
+
+        LookupIndexLoadResult<String[]> result = new LookupIndexLoader<String[]>(new LookupIndexLoaderConfig<String[]>(source, NUMERIC_CODE)
+                .addLongKey(true).addExpectedSize(1000)).load();
+
+        assertTrue(result.getIndex() instanceof LongKeyLookupIndex);
+        assertEquals(2048, result.getIndex().getCapacity());
+        assertEquals("b", result.getIndex().get(Integer.valueOf(200))[1]);
+    }
+
+    /**
+     * キーを数値として扱う場合に数値以外のキーを読み込んだ場合、IllegalArgumentExceptionが発生しコレクタがクローズされること
+     */
+    @Test
+    public void testLoad003() {
+        List<String[]> rows = Arrays.<String[]> asList(new String[] { "X",
+                "a" });
+        ListCollector source = new ListCollector(rows);
+        try {
+            new LookupIndexLoader<String[]>(new LookupIndexLoaderConfig<String[]>(source, CODE)
+                    .addLongKey(true)).load();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("The key is not a number."));
+        }
+        assertTrue(source.closed);
+    }
+
+    /**
+     * リストのデータを提供するコレクタ。
+     */
+    private static class ListCollector extends AbstractCollector<String[]> {
+
+        private final List<String[]> rows;
+
+        volatile boolean closed = false;
+
+        ListCollector(List<String[]> rows) {
+            this.rows = rows;
+        }
+
+        public Integer call() throws Exception {
+            try {
+                for (int i = 0; i < this.rows.size(); i++) {
+                    addQueue(new DataValueObject(this.rows.get(i), i + 1));
+                }
+            } catch (InterruptedException e) {
+                // クローズによる停止
+            } finally {
+                setFinish();
+            }
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            super.close();
+        }
+    }
+}
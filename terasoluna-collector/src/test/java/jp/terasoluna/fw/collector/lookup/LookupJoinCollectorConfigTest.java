@@ -0,0 +1,52 @@
+package jp.terasoluna.fw.collector.lookup;
+
+import static org.junit.Assert.*;
+
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+
+import org.junit.Test;
+
+/**
+ * LookupJoinCollectorConfigのテストケース。
+ */
+public class LookupJoinCollectorConfigTest {
+
+    /**
+     * コンストラクタとadd*メソッドのためのテスト・メソッド。
+     */
+    @Test
+    public void testAdd001() {
+        LookupIndex<Object> index = new ObjectKeyLookupIndex<Object>(0);
+        KeyExtractor<Object> keyExtractor = new KeyExtractor<Object>() {
+            public Object getKey(Object bean) {
+                return bean;
+            }
+        };
+        LookupJoiner<Object, Object, Object> joiner = new LookupJoiner<Object, Object, Object>() {
+            public Object join(Object row, Object match) {
+                return row;
+            }
+        };
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        LookupJoinCollectorConfig<Object, Object, Object> config = new LookupJoinCollectorConfig<Object, Object, Object>(null, index, keyExtractor, joiner);
+        assertFalse(config.isInnerJoin());
+
+        config.addInnerJoin(true).addQueueSize(50).addChunkSize(10)
+                .addCollectorExecutor(collectorExecutor)
+                .addExecuteByConstructor(true);
+
+        assertNull(config.getSource());
+        assertSame(index, config.getIndex());
+        assertSame(keyExtractor, config.getKeyExtractor());
+        assertSame(joiner, config.getJoiner());
+        assertTrue(config.isInnerJoin());
+        assertEquals(50, config.getQueueSize());
+        assertEquals(10, config.getChunkSize());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+        assertTrue(config.isExecuteByConstructor());
+
+        collectorExecutor.shutdown();
+    }
+}
@@ -0,0 +1,130 @@
+package jp.terasoluna.fw.collector.lookup;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.IntegerCollector;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.util.KeyExtractor;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * LookupJoinCollectorのテストケース。
+ */
+public class LookupJoinCollectorTest {
+
+    private static final KeyExtractor<Integer> IDENTITY = new KeyExtractor<Integer>() {
+        public Object getKey(Integer bean) {
+            return bean;
+        }
+    };
+
+    private static final LookupJoiner<Integer, String, String> JOINER = new LookupJoiner<Integer, String, String>() {
+        public String join(Integer row, String match) {
+            return row + ":" + match;
+        }
+    };
+
+    /**
+     * コンストラクタの確認 引数がnullの場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testLookupJoinCollector001() {
+        try {
+            new LookupJoinCollector<Integer, String, String>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * 参照データが存在しない入力データは、参照データをnullとして結合されること(外部結合)
+     */
+    @Test
+    public void testNext001() throws Exception {
+        LookupJoinCollector<Integer, String, String> collector = new LookupJoinCollector<Integer, String, String>(
+                new IntegerCollector(new int[] { 1, 2, 3, 4 }), createIndex(),
+                IDENTITY, JOINER);
+
+        assertEquals(Arrays.asList("1:one", "2:null", "3:three", "4:null"),
+                collect(collector));
+        assertEquals(4L, collector.getStatistics().getRowCount());
+        assertEquals(2L, collector.getStatistics().getHitCount());
+        assertEquals(2L, collector.getStatistics().getMissCount());
+    }
+
+    /**
+     * innerJoinを指定した場合、参照データが存在しない入力データが除外されること(内部結合)
+     */
+    @Test
+    public void testNext002() throws Exception {
+        LookupJoinCollector<Integer, String, String> collector = new LookupJoinCollector<Integer, String, String>(
+                new LookupJoinCollectorConfig<Integer, String, String>(
+                        new IntegerCollector(new int[] { 1, 2, 3, 4 }),
+                        createIndex(), IDENTITY, JOINER).addInnerJoin(true));
+
+        assertEquals(Arrays.asList("1:one", "3:three"), collect(collector));
+        assertEquals(2L, collector.getStatistics().getMissCount());
+    }
+
+    /**
+     * LookupJoinerで例外が発生した場合、そのデータの位置の例外として提供され、次のデータの結合が継続されること
+     */
+    @Test
+    public void testNext003() throws Exception {
+        final List<DataValueObject> handled = new ArrayList<DataValueObject>();
+        LookupJoiner<Integer, String, String> joiner = new LookupJoiner<Integer, String, String>() {
+            public String join(Integer row, String match) throws Exception {
+                if (row == 2) {
+                    throw new Exception("error:" + row);
+                }
+                return row + ":" + match;
+            }
+        };
+        IntegerCollector source = new IntegerCollector(new int[] { 1, 2, 3 });
+        Collector<String> collector = new LookupJoinCollector<Integer, String, String>(
+                new LookupJoinCollectorConfig<Integer, String, String>(source,
+                        createIndex(), IDENTITY, joiner)
+                        .addExceptionHandler(new CollectorExceptionHandler() {
+                            public CollectorExceptionHandlerStatus handleException(
+                                    DataValueObject dataValueObject) {
+                                handled.add(dataValueObject);
+                                return CollectorExceptionHandlerStatus.SKIP;
+                            }
+                        }));
+
+        assertEquals(Arrays.asList("1:one", "3:three"), collect(collector));
+        assertEquals(1, handled.size());
+        assertEquals(2L, handled.get(0).getDataCount());
+        assertEquals("error:2", handled.get(0).getThrowable().getMessage());
+        assertTrue(source.closed);
+    }
+
+    private static LookupIndex<String> createIndex() {
+        LongKeyLookupIndex<String> index = new LongKeyLookupIndex<String>(10);
+        index.add(1L, "one");
+        index.add(3L, "three");
+        return index;
+    }
+
+    private static List<String> collect(Collector<String> collector)
+                                                                    throws Exception {
+        List<String> result = new ArrayList<String>();
+        try {
+            while (collector.hasNext()) {
+                result.add(collector.next());
+            }
+        } finally {
+            collector.close();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package jp.terasoluna.fw.collector.lookup;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * ObjectKeyLookupIndexのテストケース。
+ */
+public class ObjectKeyLookupIndexTest {
+
+    /**
+     * 容量の見込みを超えて登録しても、全てのキーで検索できること
+     */
+    @Test
+    public void testAddGet001() {
+        ObjectKeyLookupIndex<Integer> index = new ObjectKeyLookupIndex<Integer>(100);
+        assertEquals(256, index.getCapacity());
+
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(index.add("key" + i, Integer.valueOf(i)));
+        }
+
+        assertEquals(5000, index.size());
+        assertEquals(8192, index.getCapacity());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(Integer.valueOf(i), index.get("key" + i));
+        }
+        assertNull(index.get("key5000"));
+        assertNull(index.get(null));
+        assertEquals((16L + 8L * 8192) * 2, index.getEstimatedBytes());
+    }
+
+    /**
+     * 登録済みのキーは登録されず、最初の参照データが残ること
+     */
+    @Test
+    public void testAdd001() {
+        ObjectKeyLookupIndex<String> index = new ObjectKeyLookupIndex<String>(0);
+
+        assertTrue(index.add("A001", "first"));
+        assertFalse(index.add(new String("A001"), "second"));
+
+        assertEquals(1, index.size());
+        assertEquals("first", index.get("A001"));
+    }
+
+    /**
+     * キーまたは参照データにnullを指定した場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testAdd002() {
+        ObjectKeyLookupIndex<String> index = new ObjectKeyLookupIndex<String>(0);
+        try {
+            index.add(null, "hoge");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+        try {
+            index.add("hoge", null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+}
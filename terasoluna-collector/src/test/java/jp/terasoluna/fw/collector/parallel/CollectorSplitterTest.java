@@ -0,0 +1,203 @@
+package jp.terasoluna.fw.collector.parallel;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import jp.terasoluna.fw.collector.IntegerCollector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * CollectorSplitterのテストケース。
+ */
+public class CollectorSplitterTest {
+
+    /**
+     * コンストラクタの確認 入力コレクタがnull、バッチサイズが1未満の場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testCollectorSplitter001() {
+        try {
+            new CollectorSplitter<Integer>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+        try {
+            new CollectorSplitter<Integer>(new IntegerCollector(1), 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * trySplit()でバッチサイズ件ずつ入力順に取り出せ、終端に達した後はnullが返ること
+     * 入力データ：[1, 2, ..., 10]、バッチサイズ：4
+     */
+    @Test
+    public void testTrySplit001() throws Exception {
+        IntegerCollector source = new IntegerCollector(10);
+        CollectorSplitter<Integer> splitter = new CollectorSplitter<Integer>(
+                source, 4);
+        try {
+            assertEquals(Arrays.asList(1, 2, 3, 4), splitter.trySplit());
+            assertEquals(Arrays.asList(5, 6, 7, 8), splitter.trySplit());
+            List<Integer> last = splitter.trySplit();
+            assertEquals(Arrays.asList(9, 10), last);
+            assertNull(splitter.trySplit());
+            try {
+                last.add(11);
+                fail();
+            } catch (UnsupportedOperationException e) {
+                // 期待通り
+            }
+            assertFalse(source.closed);
+        } finally {
+            splitter.close();
+        }
+        assertTrue(source.closed);
+
+        // クローズ済みの場合は何もしない
+        source.closed = false;
+        splitter.close();
+        assertFalse(source.closed);
+    }
+
+    /**
+     * trySplit()のテスト 件数がバッチサイズの倍数の場合も、最後のバッチの次はnullが返ること
+     */
+    @Test
+    public void testTrySplit002() throws Exception {
+        CollectorSplitter<Integer> splitter = new CollectorSplitter<Integer>(
+                new IntegerCollector(6), 3);
+        try {
+            assertEquals(3, splitter.trySplit().size());
+            assertEquals(3, splitter.trySplit().size());
+            assertNull(splitter.trySplit());
+        } finally {
+            splitter.close();
+        }
+    }
+
+    /**
+     * forEach()で全てのデータが1回ずつ処理され、入力コレクタがクローズされること
+     * 入力データ：[1, 2, ..., 1000]、並列数：4、バッチサイズ：16
+     */
+    @Test
+    public void testForEach001() throws Exception {
+        IntegerCollector source = new IntegerCollector(1000);
+        final AtomicIntegerArray processed = new AtomicIntegerArray(1001);
+        new CollectorSplitter<Integer>(source, 16).forEach(4,
+                new RowConsumer<Integer>() {
+                    public void accept(Integer row) throws Exception {
+                        processed.incrementAndGet(row);
+                    }
+                });
+
+        for (int i = 1; i <= 1000; i++) {
+            assertEquals(1, processed.get(i));
+        }
+        assertTrue(source.closed);
+    }
+
+    /**
+     * forEach()のテスト 1件ごとの処理で例外が発生した場合、同じ例外がスローされ、処理が中断されること
+     */
+    @Test
+    public void testForEach002() throws Exception {
+        IntegerCollector source = new IntegerCollector(10000);
+        final Exception failure = new Exception("row 50");
+        final AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new CollectorSplitter<Integer>(source, 10).forEach(executor, 2,
+                    new RowConsumer<Integer>() {
+                        public void accept(Integer row) throws Exception {
+                            count.incrementAndGet();
+                            if (row.intValue() == 50) {
+                                throw failure;
+                            }
+                        }
+                    });
+            fail();
+        } catch (Exception e) {
+            assertSame(failure, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(count.get() < 10000);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * forEach()のテスト 入力コレクタで例外が発生した場合、その例外がスローされ、入力コレクタがクローズされること
+     */
+    @Test
+    public void testForEach003() throws Exception {
+        IntegerCollector source = new IntegerCollector(100) {
+            @Override
+            protected DataValueObject createRow(int value, int number) {
+                if (value == 30) {
+                    return new DataValueObject(new IllegalStateException(
+                            "row 30"), number);
+                }
+                return super.createRow(value, number);
+            }
+        };
+        try {
+            new CollectorSplitter<Integer>(source, 8).forEach(3,
+                    new RowConsumer<Integer>() {
+                        public void accept(Integer row) throws Exception {
+                        }
+                    });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("row 30", e.getMessage());
+        }
+        assertTrue(source.closed);
+    }
+
+    /**
+     * forEach()のテスト CollectorExecutorを指定した場合、タスクがその共有スレッドで実行され、
+     * CollectorExecutorはシャットダウンされないこと
+     */
+    @Test
+    public void testForEach004() throws Exception {
+        CollectorExecutor collectorExecutor = new CollectorExecutor(
+                "splitter", 2);
+        try {
+            IntegerCollector source = new IntegerCollector(500);
+            final AtomicInteger count = new AtomicInteger();
+            final Set<String> threadNames = java.util.Collections
+                    .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            new CollectorSplitter<Integer>(source, 8, collectorExecutor)
+                    .forEach(2, new RowConsumer<Integer>() {
+                        public void accept(Integer row) throws Exception {
+                            count.incrementAndGet();
+                            threadNames.add(Thread.currentThread().getName());
+                        }
+                    });
+
+            assertEquals(500, count.get());
+            for (String name : threadNames) {
+                assertTrue(name, name.startsWith("splitter-thread-"));
+            }
+            assertTrue(collectorExecutor.getLargestPoolSize() <= 2);
+            assertFalse(collectorExecutor.isShutdown());
+            assertTrue(source.closed);
+        } finally {
+            collectorExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package jp.terasoluna.fw.collector.parallel;
+
+import static org.junit.Assert.*;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * ParallelCollectorConfigのテストケース。
+ */
+public class ParallelCollectorConfigTest {
+
+    /**
+     * {@link ParallelCollectorConfig#ParallelCollectorConfig(Collector, RowProcessor)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testParallelCollectorConfig001() {
+        RowProcessor<Object, Object> rowProcessor = new RowProcessor<Object, Object>() {
+            public Object process(Object row) {
+                return row;
+            }
+        };
+
+        ParallelCollectorConfig<Object, Object> config = new ParallelCollectorConfig<Object, Object>(null, rowProcessor);
+
+        assertNull(config.getSource());
+        assertSame(rowProcessor, config.getRowProcessor());
+        assertEquals(0, config.getWorkers());
+        assertEquals(ParallelCollector.DEFAULT_BATCH_SIZE, config.getBatchSize());
+        assertEquals(0, config.getMaxInFlight());
+        assertNull(config.getPartitionKeyResolver());
+        assertEquals(AbstractCollector.DEFAULT_QUEUE_SIZE, config.getQueueSize());
+    }
+
+    /**
+     * add*メソッドのためのテスト・メソッド。
+     */
+    @Test
+    public void testAdd001() {
+        PartitionKeyResolver<Object> partitionKeyResolver = new PartitionKeyResolver<Object>() {
+            public Object getPartitionKey(Object row) {
+                return row;
+            }
+        };
+        CollectorExceptionHandler exceptionHandler = new CollectorExceptionHandler() {
+            public CollectorExceptionHandlerStatus handleException(
+                    DataValueObject dataValueObject) {
+                return CollectorExceptionHandlerStatus.SKIP;
+            }
+        };
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        ParallelCollectorConfig<Object, Object> config = new ParallelCollectorConfig<Object, Object>(null, null)
+                .addWorkers(3).addBatchSize(16).addMaxInFlight(8)
+                .addPartitionKeyResolver(partitionKeyResolver)
+                .addQueueSize(50).addChunkSize(10)
+                .addCollectorExecutor(collectorExecutor)
+                .addExceptionHandler(exceptionHandler)
+                .addExecuteByConstructor(true);
+
+        assertEquals(3, config.getWorkers());
+        assertEquals(16, config.getBatchSize());
+        assertEquals(8, config.getMaxInFlight());
+        assertSame(partitionKeyResolver, config.getPartitionKeyResolver());
+        assertEquals(50, config.getQueueSize());
+        assertEquals(10, config.getChunkSize());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+        assertSame(exceptionHandler, config.getExceptionHandler());
+        assertTrue(config.isExecuteByConstructor());
+
+        collectorExecutor.shutdown();
+    }
+}
@@ -0,0 +1,346 @@
+package jp.terasoluna.fw.collector.parallel;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.IntegerCollector;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * ParallelCollectorのテストケース。
+ */
+public class ParallelCollectorTest {
+
+    /**
+     * コンストラクタの確認 引数がnullの場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testParallelCollector001() {
+        try {
+            new ParallelCollector<Integer, String>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * 処理時間がデータごとに異なっても、処理結果が入力と同じ順序で取得できること
+     * 入力データ：[1, 2, ..., 200]
+     * 出力データ：["1", "2", ..., "200"]
+     */
+    @Test
+    public void testNext001() throws Exception {
+        Collector<String> collector = new ParallelCollector<Integer, String>(
+                new ParallelCollectorConfig<Integer, String>(
+                        new IntegerCollector(200), new SleepingProcessor())
+                        .addWorkers(4));
+        try {
+            int expected = 0;
+            while (collector.hasNext()) {
+                expected++;
+                assertEquals(String.valueOf(expected), collector.next());
+            }
+            assertEquals(200, expected);
+        } finally {
+            collector.close();
+        }
+    }
+
+    /**
+     * バッチサイズ・処理中のバッチの上限数を指定した場合も、getPrevious()、getCurrent()、getNext()が入力順に則したものであること
+     * 入力データ：[1, 2, ..., 50]
+     */
+    @Test
+    public void testNext002() throws Exception {
+        Collector<String> collector = new ParallelCollector<Integer, String>(
+                new ParallelCollectorConfig<Integer, String>(
+                        new IntegerCollector(50), new SleepingProcessor())
+                        .addWorkers(3).addBatchSize(4).addMaxInFlight(2));
+        try {
+            assertTrue(collector.hasNext());
+            assertEquals("1", collector.next());
+            assertNull(collector.getPrevious());
+            assertEquals("1", collector.getCurrent());
+            assertEquals("2", collector.getNext());
+            for (int i = 2; i < 50; i++) {
+                assertEquals(String.valueOf(i), collector.next());
+                assertEquals(String.valueOf(i - 1), collector.getPrevious());
+                assertEquals(String.valueOf(i), collector.getCurrent());
+                assertEquals(String.valueOf(i + 1), collector.getNext());
+            }
+            assertEquals("50", collector.next());
+            assertNull(collector.getNext());
+            assertFalse(collector.hasNext());
+            try {
+                collector.next();
+                fail();
+            } catch (NoSuchElementException e) {
+                // 期待通り
+            }
+        } finally {
+            collector.close();
+        }
+    }
+
+    /**
+     * パーティションキーを指定した場合、同じキーのデータは同じワーカスレッドで読み込んだ順に処理され、
+     * 処理結果は入力と同じ順序で取得できること（コントロールブレイクが判定できること）
+     * 入力データ：[1, 2, ..., 120]（キーは10件ごとに変わる）
+     */
+    @Test
+    public void testNext003() throws Exception {
+        final Map<Integer, List<String>> threads = Collections
+                .synchronizedMap(new HashMap<Integer, List<String>>());
+        final Map<Integer, List<Integer>> orders = Collections
+                .synchronizedMap(new HashMap<Integer, List<Integer>>());
+        RowProcessor<Integer, Integer> processor = new RowProcessor<Integer, Integer>() {
+            public Integer process(Integer row) throws Exception {
+                Integer key = Integer.valueOf((row - 1) / 10);
+                List<String> t = threads.get(key);
+                List<Integer> o = orders.get(key);
+                if (t == null) {
+                    t = new ArrayList<String>();
+                    o = new ArrayList<Integer>();
+                    threads.put(key, t);
+                    orders.put(key, o);
+                }
+                t.add(Thread.currentThread().getName());
+                o.add(row);
+                if (row % 3 == 0) {
+                    TimeUnit.MILLISECONDS.sleep(1);
+                }
+                return row;
+            }
+        };
+        Collector<Integer> collector = new ParallelCollector<Integer, Integer>(
+                new ParallelCollectorConfig<Integer, Integer>(
+                        new IntegerCollector(120), processor).addWorkers(3)
+                        .addBatchSize(4).addPartitionKeyResolver(
+                                new PartitionKeyResolver<Integer>() {
+                                    public Object getPartitionKey(Integer row) {
+                                        return Integer.valueOf((row - 1) / 10);
+                                    }
+                                }));
+        try {
+            int expected = 0;
+            int breaks = 0;
+            while (collector.hasNext()) {
+                expected++;
+                assertEquals(Integer.valueOf(expected), collector.next());
+                Integer next = collector.getNext();
+                if (next == null || (next - 1) / 10 != (expected - 1) / 10) {
+                    breaks++;
+                }
+            }
+            assertEquals(120, expected);
+            assertEquals(12, breaks);
+        } finally {
+            collector.close();
+        }
+
+        assertEquals(12, threads.size());
+        for (Integer key : threads.keySet()) {
+            List<String> t = threads.get(key);
+            assertEquals(10, t.size());
+            assertEquals(1, new HashSet<String>(t).size());
+            List<Integer> o = orders.get(key);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(Integer.valueOf(key * 10 + i + 1), o.get(i));
+            }
+        }
+    }
+
+    /**
+     * CollectorExecutorを指定した場合、ワーカが共有のスレッドで実行され、
+     * パーティションキーを指定しても同じキーのデータが読み込んだ順に処理されること
+     * 入力データ：[1, 2, ..., 120]（キーは10件ごとに変わる）
+     */
+    @Test
+    public void testNext006() throws Exception {
+        CollectorExecutor collectorExecutor = new CollectorExecutor("parallel",
+                4);
+        final Map<Integer, List<Integer>> orders = Collections
+                .synchronizedMap(new HashMap<Integer, List<Integer>>());
+        final Set<String> threadNames = Collections
+                .synchronizedSet(new HashSet<String>());
+        RowProcessor<Integer, Integer> processor = new RowProcessor<Integer, Integer>() {
+            public Integer process(Integer row) throws Exception {
+                Integer key = Integer.valueOf((row - 1) / 10);
+                List<Integer> o = orders.get(key);
+                if (o == null) {
+                    o = new ArrayList<Integer>();
+                    orders.put(key, o);
+                }
+                o.add(row);
+                threadNames.add(Thread.currentThread().getName());
+                if (row % 3 == 0) {
+                    TimeUnit.MILLISECONDS.sleep(1);
+                }
+                return row;
+            }
+        };
+        Collector<Integer> collector = new ParallelCollector<Integer, Integer>(
+                new ParallelCollectorConfig<Integer, Integer>(
+                        new IntegerCollector(120), processor).addWorkers(3)
+                        .addBatchSize(4).addPartitionKeyResolver(
+                                new PartitionKeyResolver<Integer>() {
+                                    public Object getPartitionKey(Integer row) {
+                                        return Integer.valueOf((row - 1) / 10);
+                                    }
+                                }).addCollectorExecutor(collectorExecutor));
+        try {
+            int expected = 0;
+            while (collector.hasNext()) {
+                expected++;
+                assertEquals(Integer.valueOf(expected), collector.next());
+            }
+            assertEquals(120, expected);
+        } finally {
+            collector.close();
+            collectorExecutor.shutdown();
+        }
+
+        for (String name : threadNames) {
+            assertTrue(name, name.startsWith("parallel-thread-"));
+        }
+        assertTrue(collectorExecutor.getLargestPoolSize() <= 4);
+        assertEquals(12, orders.size());
+        for (Integer key : orders.keySet()) {
+            List<Integer> o = orders.get(key);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(Integer.valueOf(key * 10 + i + 1), o.get(i));
+            }
+        }
+    }
+
+    /**
+     * RowProcessorで例外が発生した場合、CollectorExceptionHandlerの判定に従うこと
+     * 入力データ：[1, 2, 3(例外), 4, 5]
+     * CollectorExceptionHandlerの結果：CollectorExceptionHandlerStatus.SKIP
+     * 出力データ：["1", "2", "4", "5"]
+     */
+    @Test
+    public void testNext004() throws Exception {
+        final List<DataValueObject> handled = new ArrayList<DataValueObject>();
+        RowProcessor<Integer, String> processor = new RowProcessor<Integer, String>() {
+            public String process(Integer row) throws Exception {
+                if (row == 3) {
+                    throw new IllegalStateException("error:" + row);
+                }
+                return String.valueOf(row);
+            }
+        };
+        Collector<String> collector = new ParallelCollector<Integer, String>(
+                new ParallelCollectorConfig<Integer, String>(
+                        new IntegerCollector(5), processor).addWorkers(2)
+                        .addExceptionHandler(new CollectorExceptionHandler() {
+                            public CollectorExceptionHandlerStatus handleException(
+                                    DataValueObject dataValueObject) {
+                                handled.add(dataValueObject);
+                                return CollectorExceptionHandlerStatus.SKIP;
+                            }
+                        }));
+        try {
+            assertEquals("1", collector.next());
+            assertEquals("2", collector.next());
+            assertEquals("4", collector.next());
+            assertEquals("5", collector.next());
+            assertFalse(collector.hasNext());
+        } finally {
+            collector.close();
+        }
+
+        assertEquals(1, handled.size());
+        assertEquals(3L, handled.get(0).getDataCount());
+        assertEquals("error:3", handled.get(0).getThrowable().getMessage());
+    }
+
+    /**
+     * 呼び出し元が遅い場合も、入力コレクタからの先読みが処理中のバッチの上限数×バッチサイズ程度で止まること
+     */
+    @Test
+    public void testNext005() throws Exception {
+        final AtomicInteger read = new AtomicInteger(0);
+        IntegerCollector source = new IntegerCollector(300) {
+            @Override
+            protected DataValueObject createRow(int value, int number) {
+                read.set(value);
+                return super.createRow(value, number);
+            }
+        };
+        Collector<Integer> collector = new ParallelCollector<Integer, Integer>(
+                new ParallelCollectorConfig<Integer, Integer>(source,
+                        new RowProcessor<Integer, Integer>() {
+                            public Integer process(Integer row) {
+                                return row;
+                            }
+                        }).addWorkers(2).addBatchSize(5).addMaxInFlight(3)
+                        .addQueueSize(1));
+        try {
+            int count = 0;
+            int maxOutstanding = 0;
+            while (collector.hasNext()) {
+                collector.next();
+                count++;
+                TimeUnit.MILLISECONDS.sleep(1);
+                maxOutstanding = Math.max(maxOutstanding, read.get() - count);
+            }
+            assertEquals(300, count);
+            // 入力コレクタのキュー、組み立て中のバッチ、処理中のバッチ、本コレクタのキュー分のみ先行すること
+            int limit = AbstractCollector.DEFAULT_QUEUE_SIZE + 5 + 3 * 5 + 1
+                    + 2;
+            assertTrue(String.valueOf(maxOutstanding), maxOutstanding <= limit);
+        } finally {
+            collector.close();
+        }
+    }
+
+    /**
+     * 呼び出し元がクローズした場合、入力コレクタもクローズされワーカスレッドが終了すること
+     */
+    @Test
+    public void testClose001() throws Exception {
+        IntegerCollector source = new IntegerCollector(100000);
+        Collector<String> collector = new ParallelCollector<Integer, String>(
+                new ParallelCollectorConfig<Integer, String>(source,
+                        new SleepingProcessor()).addWorkers(2));
+        assertEquals("1", collector.next());
+        collector.close();
+
+        for (int i = 0; i < 100 && !source.closed; i++) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        assertTrue(source.closed);
+    }
+
+    /**
+     * データの値に応じて処理時間を変え、文字列に変換するRowProcessor。
+     */
+    private static class SleepingProcessor implements
+                                           RowProcessor<Integer, String> {
+        public String process(Integer row) throws Exception {
+            if (row % 7 == 0) {
+                TimeUnit.MILLISECONDS.sleep(2);
+            }
+            return String.valueOf(row);
+        }
+    }
+}
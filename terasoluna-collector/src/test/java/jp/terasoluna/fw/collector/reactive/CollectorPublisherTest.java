@@ -0,0 +1,303 @@
+package jp.terasoluna.fw.collector.reactive;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.IntegerCollector;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * CollectorPublisherのテストケース。
+ */
+public class CollectorPublisherTest {
+
+    /**
+     * 呼び出し元のスレッドで実行するExecutor。
+     */
+    private static final Executor DIRECT = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private ExecutorService executor;
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * コンストラクタの確認 引数がnull、バッチサイズが1未満の場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testCollectorPublisher001() {
+        try {
+            new CollectorPublisher<Integer>(null, DIRECT);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+        try {
+            new CollectorPublisher<Integer>(new IntegerCollector(1), null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+        try {
+            new CollectorPublisher<Integer>(new IntegerCollector(1), DIRECT, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 期待通り
+        }
+    }
+
+    /**
+     * 要求した件数だけデータが通知され、終端に達した後に完了が通知されること
+     * 入力データ：[1, 2, ..., 10]
+     */
+    @Test
+    public void testRequest001() throws Exception {
+        IntegerCollector source = new IntegerCollector(10);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        new CollectorPublisher<Integer>(source, DIRECT).subscribe(subscriber);
+
+        assertNotNull(subscriber.subscription);
+        assertEquals(0, subscriber.items.size());
+
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.items.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(10, subscriber.items.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i + 1), subscriber.items.get(i));
+        }
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * onNextの中から1件ずつ要求した場合も、バッチサイズを超えて全てのデータが順に通知されること
+     * 入力データ：[1, 2, ..., 1000]、バッチサイズ：16
+     */
+    @Test
+    public void testRequest002() throws Exception {
+        IntegerCollector source = new IntegerCollector(1000);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        new CollectorPublisher<Integer>(source, DIRECT, 16)
+                .subscribe(subscriber);
+
+        assertEquals(1000, subscriber.items.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i + 1), subscriber.items.get(i));
+        }
+        assertTrue(subscriber.completed);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * Executorのスレッドで通知され、要求件数を超えて通知されないこと
+     * 入力データ：[1, 2, ..., 500]、バッチサイズ：8
+     */
+    @Test
+    public void testRequest003() throws Exception {
+        this.executor = Executors.newFixedThreadPool(2);
+        IntegerCollector source = new IntegerCollector(500);
+        RecordingSubscriber subscriber = new RecordingSubscriber(4);
+        new CollectorPublisher<Integer>(source, this.executor, 8)
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(500, subscriber.items.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(Integer.valueOf(i + 1), subscriber.items.get(i));
+        }
+        assertFalse(subscriber.overflow);
+        assertTrue(subscriber.completed);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * 要求がない間はコレクタスレッドがキューの空きを待ち、データを読み進めないこと
+     */
+    @Test
+    public void testRequest004() throws Exception {
+        this.executor = Executors.newSingleThreadExecutor();
+        IntegerCollector source = new IntegerCollector(10000);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        new CollectorPublisher<Integer>(source, this.executor)
+                .subscribe(subscriber);
+        subscriber.subscription.request(5);
+
+        TimeUnit.MILLISECONDS.sleep(300);
+        assertEquals(5, subscriber.items.size());
+        // 通知済み、キュー、次の要素の確認で読み込んだデータのみ
+        assertTrue(source.getQueueStatistics().getProducedCount() <= 5
+                + AbstractCollector.DEFAULT_QUEUE_SIZE + 2);
+
+        subscriber.subscription.cancel();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(source.closed);
+        assertFalse(subscriber.completed);
+    }
+
+    /**
+     * 購読を取り消した場合、以降のデータは通知されず、コレクタがクローズされること
+     */
+    @Test
+    public void testCancel001() throws Exception {
+        IntegerCollector source = new IntegerCollector(100);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        new CollectorPublisher<Integer>(source, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(5);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+
+        assertEquals(5, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * 1未満の件数を要求した場合、IllegalArgumentExceptionが通知され、コレクタがクローズされること
+     */
+    @Test
+    public void testRequest005() throws Exception {
+        IntegerCollector source = new IntegerCollector(100);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        new CollectorPublisher<Integer>(source, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertEquals(0, subscriber.items.size());
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * コレクタで例外が発生した場合、その例外が通知されること
+     */
+    @Test
+    public void testError001() throws Exception {
+        IntegerCollector source = new IntegerCollector(100) {
+            @Override
+            protected DataValueObject createRow(int value, int number) {
+                if (value == 30) {
+                    return new DataValueObject(new IllegalStateException(
+                            "row 30"), number);
+                }
+                return super.createRow(value, number);
+            }
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        new CollectorPublisher<Integer>(source, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(29, subscriber.items.size());
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertEquals("row 30", subscriber.error.getMessage());
+        assertFalse(subscriber.completed);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * 2つ目のサブスクライバにはIllegalStateExceptionが通知されること
+     */
+    @Test
+    public void testSubscribe001() throws Exception {
+        IntegerCollector source = new IntegerCollector(10);
+        CollectorPublisher<Integer> publisher = new CollectorPublisher<Integer>(
+                source, DIRECT);
+        RecordingSubscriber first = new RecordingSubscriber(0);
+        RecordingSubscriber second = new RecordingSubscriber(0);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        assertNotNull(second.subscription);
+        assertTrue(second.error instanceof IllegalStateException);
+        assertNull(first.error);
+
+        try {
+            publisher.subscribe(null);
+            fail();
+        } catch (NullPointerException e) {
+            // 期待通り
+        }
+        first.subscription.cancel();
+    }
+
+    /**
+     * 通知を記録するサブスクライバ。<br>
+     * 追加要求件数を指定した場合は、開始時と、その件数を受け取るたびに同じ件数を要求する。
+     */
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+
+        private final long batch;
+
+        final List<Integer> items = new ArrayList<Integer>();
+
+        final CountDownLatch done = new CountDownLatch(1);
+
+        volatile Subscription subscription;
+
+        volatile boolean completed = false;
+
+        volatile Throwable error;
+
+        volatile boolean overflow = false;
+
+        private long outstanding = 0L;
+
+        RecordingSubscriber(long batch) {
+            this.batch = batch;
+        }
+
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            if (this.batch > 0) {
+                this.outstanding = this.batch;
+                subscription.request(this.batch);
+            }
+        }
+
+        public void onNext(Integer item) {
+            this.items.add(item);
+            if (this.batch > 0) {
+                if (--this.outstanding < 0) {
+                    this.overflow = true;
+                }
+                if (this.outstanding == 0) {
+                    this.outstanding = this.batch;
+                    this.subscription.request(this.batch);
+                }
+            }
+        }
+
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+            this.done.countDown();
+        }
+
+        public void onComplete() {
+            this.completed = true;
+            this.done.countDown();
+        }
+    }
+}
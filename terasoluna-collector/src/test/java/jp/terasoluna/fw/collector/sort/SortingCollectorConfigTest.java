@@ -0,0 +1,76 @@
+package jp.terasoluna.fw.collector.sort;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Comparator;
+
+import jp.terasoluna.fw.collector.CollectorExecutor;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.Test;
+
+/**
+ * SortingCollectorConfigのテストケース。
+ */
+public class SortingCollectorConfigTest {
+
+    /**
+     * {@link SortingCollectorConfig#SortingCollectorConfig(jp.terasoluna.fw.collector.Collector, Comparator)} のためのテスト・メソッド。
+     */
+    @Test
+    public void testSortingCollectorConfig001() {
+        Comparator<Object> comparator = new Comparator<Object>() {
+            public int compare(Object o1, Object o2) {
+                return 0;
+            }
+        };
+
+        SortingCollectorConfig<Object> config = new SortingCollectorConfig<Object>(null, comparator);
+
+        assertNull(config.getSource());
+        assertSame(comparator, config.getComparator());
+        assertEquals(SortingCollector.DEFAULT_SORT_BUFFER_SIZE, config.getSortBufferSize());
+        assertEquals(SortingCollector.DEFAULT_MERGE_FACTOR, config.getMergeFactor());
+        assertNull(config.getRowCodec());
+        assertNull(config.getTempDirectory());
+    }
+
+    /**
+     * add*メソッドのためのテスト・メソッド。
+     */
+    @Test
+    public void testAdd001() {
+        RowCodec<Object> rowCodec = new SerializableRowCodec<Object>();
+        File tempDirectory = new File("tmp");
+        CollectorExceptionHandler exceptionHandler = new CollectorExceptionHandler() {
+            public CollectorExceptionHandlerStatus handleException(
+                    DataValueObject dataValueObject) {
+                return CollectorExceptionHandlerStatus.SKIP;
+            }
+        };
+        CollectorExecutor collectorExecutor = new CollectorExecutor("test", 1);
+
+        SortingCollectorConfig<Object> config = new SortingCollectorConfig<Object>(null, null)
+                .addSortBufferSize(1000).addMergeFactor(8)
+                .addRowCodec(rowCodec).addTempDirectory(tempDirectory)
+                .addQueueSize(50).addChunkSize(10)
+                .addCollectorExecutor(collectorExecutor)
+                .addExceptionHandler(exceptionHandler)
+                .addExecuteByConstructor(true);
+
+        assertEquals(1000, config.getSortBufferSize());
+        assertEquals(8, config.getMergeFactor());
+        assertSame(rowCodec, config.getRowCodec());
+        assertSame(tempDirectory, config.getTempDirectory());
+        assertEquals(50, config.getQueueSize());
+        assertEquals(10, config.getChunkSize());
+        assertSame(collectorExecutor, config.getCollectorExecutor());
+        assertSame(exceptionHandler, config.getExceptionHandler());
+        assertTrue(config.isExecuteByConstructor());
+
+        collectorExecutor.shutdown();
+    }
+}
@@ -0,0 +1,378 @@
+package jp.terasoluna.fw.collector.sort;
+
+import static org.junit.Assert.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jp.terasoluna.fw.collector.AbstractCollector;
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandler;
+import jp.terasoluna.fw.collector.exception.CollectorExceptionHandlerStatus;
+import jp.terasoluna.fw.collector.vo.DataValueObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * SortingCollectorのテストケース。
+ */
+public class SortingCollectorTest {
+
+    private static final Comparator<Row> KEY_COMPARATOR = new Comparator<Row>() {
+        public int compare(Row o1, Row o2) {
+            return (o1.key < o2.key) ? -1 : ((o1.key == o2.key) ? 0 : 1);
+        }
+    };
+
+    private File tempDirectory = null;
+
+    @Before
+    public void setUp() throws Exception {
+        this.tempDirectory = Files.createTempDirectory("SortingCollectorTest")
+                .toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = this.tempDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.tempDirectory.delete();
+    }
+
+    /**
+     * コンストラクタの確認 引数がnullの場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testSortingCollector001() {
+        try {
+            new SortingCollector<Row>(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * 全てのデータがソートバッファに収まる場合、一時ファイルに書き出さずにソートできること
+     */
+    @Test
+    public void testNext001() throws Exception {
+        List<Row> input = createRows(1000, 50);
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(new ListCollector(input),
+                        KEY_COMPARATOR).addTempDirectory(this.tempDirectory));
+
+        assertSorted(input, collector);
+
+        SortStatistics statistics = collector.getStatistics();
+        assertTrue(statistics.isCompleted());
+        assertEquals(1000L, statistics.getRowCount());
+        assertEquals(0L, statistics.getSpilledRunCount());
+        assertEquals(0L, statistics.getSpilledRowCount());
+        assertEquals(0L, statistics.getSpilledBytes());
+        assertEquals(0, this.tempDirectory.list().length);
+    }
+
+    /**
+     * ソートバッファを超える場合、ランを一時ファイルに書き出してマージし、順序が等しいデータは入力の順となること
+     */
+    @Test
+    public void testNext002() throws Exception {
+        List<Row> input = createRows(1050, 30);
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(new ListCollector(input),
+                        KEY_COMPARATOR).addSortBufferSize(100).addRowCodec(
+                        new RowRowCodec()).addTempDirectory(
+                        this.tempDirectory));
+
+        assertSorted(input, collector);
+
+        SortStatistics statistics = collector.getStatistics();
+        assertEquals(1050L, statistics.getRowCount());
+        assertEquals(10L, statistics.getSpilledRunCount());
+        assertEquals(1000L, statistics.getSpilledRowCount());
+        // キーと連番の2つのint
+        assertEquals(8000L, statistics.getSpilledBytes());
+        assertEquals(0L, statistics.getMergePassCount());
+        assertEquals(0, this.tempDirectory.list().length);
+    }
+
+    /**
+     * ランの数がマージ数を超える場合、中間マージしてもソート結果が安定であること
+     */
+    @Test
+    public void testNext003() throws Exception {
+        List<Row> input = createRows(2000, 20);
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(new ListCollector(input),
+                        KEY_COMPARATOR).addSortBufferSize(30).addMergeFactor(
+                        3).addRowCodec(new RowRowCodec()).addTempDirectory(
+                        this.tempDirectory));
+
+        assertSorted(input, collector);
+
+        SortStatistics statistics = collector.getStatistics();
+        assertEquals(66L, statistics.getSpilledRunCount());
+        assertTrue(statistics.getMergePassCount() >= 3);
+        assertTrue(statistics.getSpilledRowCount() > 1980L);
+        assertEquals(0, this.tempDirectory.list().length);
+    }
+
+    /**
+     * RowCodecを指定しない場合、Javaの直列化で一時ファイルに書き出せること
+     */
+    @Test
+    public void testNext004() throws Exception {
+        List<Row> input = createRows(500, 500);
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(new ListCollector(input),
+                        KEY_COMPARATOR).addSortBufferSize(64)
+                        .addTempDirectory(this.tempDirectory));
+
+        assertSorted(input, collector);
+        assertEquals(7L, collector.getStatistics().getSpilledRunCount());
+        assertEquals(0, this.tempDirectory.list().length);
+    }
+
+    /**
+     * 入力コレクタで例外が発生した場合、ソートを中止して例外を提供し、一時ファイルが削除されること
+     */
+    @Test
+    public void testNext005() throws Exception {
+        final List<DataValueObject> handled = new ArrayList<DataValueObject>();
+        ListCollector source = new ListCollector(createRows(300, 10));
+        source.failAt = 250;
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(source, KEY_COMPARATOR)
+                        .addSortBufferSize(100).addRowCodec(new RowRowCodec())
+                        .addTempDirectory(this.tempDirectory)
+                        .addExceptionHandler(new CollectorExceptionHandler() {
+                            public CollectorExceptionHandlerStatus handleException(
+                                    DataValueObject dataValueObject) {
+                                handled.add(dataValueObject);
+                                return CollectorExceptionHandlerStatus.SKIP;
+                            }
+                        }));
+        try {
+            assertFalse(collector.hasNext());
+        } finally {
+            collector.close();
+        }
+
+        assertEquals(1, handled.size());
+        assertEquals("error:250", handled.get(0).getThrowable().getMessage());
+        assertFalse(collector.getStatistics().isCompleted());
+        assertEquals(2L, collector.getStatistics().getSpilledRunCount());
+        assertEquals(0, this.tempDirectory.list().length);
+        assertTrue(source.closed);
+    }
+
+    /**
+     * ランの書き出し中に一時ファイルへの書き込みに失敗した場合、書き出し中の一時ファイルも削除されること
+     */
+    @Test
+    public void testNext006() throws Exception {
+        assertTempFilesDeletedOnWriteError(createRows(300, 10), 100, 150);
+    }
+
+    /**
+     * 中間マージの書き出し中に一時ファイルへの書き込みに失敗した場合、書き出し中の一時ファイルも削除されること
+     */
+    @Test
+    public void testNext007() throws Exception {
+        // 1000件を10個のランに書き出した後、中間マージの途中で失敗させる
+        assertTempFilesDeletedOnWriteError(createRows(1000, 10), 100, 1050);
+    }
+
+    /**
+     * 呼び出し元がクローズした場合、入力コレクタがクローズされ一時ファイルが削除されること
+     */
+    @Test
+    public void testClose001() throws Exception {
+        ListCollector source = new ListCollector(createRows(5000, 100));
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(source, KEY_COMPARATOR)
+                        .addSortBufferSize(100).addRowCodec(new RowRowCodec())
+                        .addTempDirectory(this.tempDirectory).addQueueSize(1));
+        assertEquals(0, collector.next().key);
+        collector.close();
+
+        for (int i = 0; i < 100
+                && (!source.closed || this.tempDirectory.list().length > 0); i++) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        assertTrue(source.closed);
+        assertEquals(0, this.tempDirectory.list().length);
+    }
+
+    /**
+     * 指定した件数目の書き込みで失敗させた場合に、例外が提供され一時ファイルが残らないことを確認する
+     */
+    private void assertTempFilesDeletedOnWriteError(List<Row> input,
+            int sortBufferSize, int failAt) throws Exception {
+        final List<DataValueObject> handled = new ArrayList<DataValueObject>();
+        FailingRowCodec rowCodec = new FailingRowCodec();
+        rowCodec.failAt = failAt;
+        SortingCollector<Row> collector = new SortingCollector<Row>(
+                new SortingCollectorConfig<Row>(new ListCollector(input),
+                        KEY_COMPARATOR).addSortBufferSize(sortBufferSize)
+                        .addMergeFactor(3).addRowCodec(rowCodec)
+                        .addTempDirectory(this.tempDirectory)
+                        .addExceptionHandler(new CollectorExceptionHandler() {
+                            public CollectorExceptionHandlerStatus handleException(
+                                    DataValueObject dataValueObject) {
+                                handled.add(dataValueObject);
+                                return CollectorExceptionHandlerStatus.SKIP;
+                            }
+                        }));
+        try {
+            assertFalse(collector.hasNext());
+        } finally {
+            collector.close();
+        }
+
+        assertEquals(1, handled.size());
+        assertEquals("write error:" + failAt, handled.get(0).getThrowable()
+                .getMessage());
+        assertEquals(0, this.tempDirectory.list().length);
+    }
+
+    /**
+     * ソート結果がキーの順で、同じキーの中では入力の順であることを確認する
+     */
+    private void assertSorted(List<Row> input, Collector<Row> collector)
+                                                                        throws Exception {
+        int count = 0;
+        Row previous = null;
+        try {
+            while (collector.hasNext()) {
+                Row row = collector.next();
+                if (previous != null) {
+                    assertTrue(previous.key <= row.key);
+                    if (previous.key == row.key) {
+                        assertTrue(previous.seq < row.seq);
+                    }
+                }
+                previous = row;
+                count++;
+            }
+        } finally {
+            collector.close();
+        }
+        assertEquals(input.size(), count);
+    }
+
+    /**
+     * 0からkeys-1までのランダムなキーと、入力順の連番を持つデータを作成する
+     */
+    private static List<Row> createRows(int count, int keys) {
+        Random random = new Random(count);
+        List<Row> rows = new ArrayList<Row>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(random.nextInt(keys), i));
+        }
+        return rows;
+    }
+
+    /**
+     * ソートするデータ。
+     */
+    @SuppressWarnings("serial")
+    private static class Row implements java.io.Serializable {
+
+        final int key;
+
+        final int seq;
+
+        Row(int key, int seq) {
+            this.key = key;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * Rowのキーと連番をintで書き出すRowCodec。
+     */
+    private static class RowRowCodec implements RowCodec<Row> {
+        public void write(DataOutput out, Row row) throws IOException {
+            out.writeInt(row.key);
+            out.writeInt(row.seq);
+        }
+
+        public Row read(DataInput in) throws IOException {
+            return new Row(in.readInt(), in.readInt());
+        }
+    }
+
+    /**
+     * 指定した件数目の書き込みでIOExceptionをスローするRowCodec。
+     */
+    private static class FailingRowCodec extends RowRowCodec {
+
+        int failAt = -1;
+
+        private int written = 0;
+
+        @Override
+        public void write(DataOutput out, Row row) throws IOException {
+            if (++this.written == this.failAt) {
+                throw new IOException("write error:" + this.failAt);
+            }
+            super.write(out, row);
+        }
+    }
+
+    /**
+     * リストのデータを提供するコレクタ。
+     */
+    private static class ListCollector extends AbstractCollector<Row> {
+
+        private final List<Row> rows;
+
+        int failAt = -1;
+
+        volatile boolean closed = false;
+
+        ListCollector(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        public Integer call() throws Exception {
+            try {
+                for (int i = 0; i < this.rows.size(); i++) {
+                    if (i == this.failAt) {
+                        addQueue(new DataValueObject(new IllegalStateException(
+                                "error:" + i), i + 1));
+                    } else {
+                        addQueue(new DataValueObject(this.rows.get(i), i + 1));
+                    }
+                }
+            } catch (InterruptedException e) {
+                // クローズによる停止
+            } finally {
+                setFinish();
+            }
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jp.terasoluna.fw.collector.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * コントロールブレイク判定の1秒あたりの回数を、ControlBreakCheckerとControlBreakで比較するベンチマーク。
+ * <p>
+ * 2つのキー(文字列、数値)を持つデータに対し、後処理コントロールブレイク判定(isBreak)を繰り返す。
+ * キーは10件ごとに変わる。
+ * </p>
+ * <p>
+ * JUnitのテストではないため、ビルドでは実行されない。引数に判定回数を指定して実行する。省略時は5000000回で計測する。
+ * </p>
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:(依存jar) \
+ *     jp.terasoluna.fw.collector.util.ControlBreakBenchmark 5000000
+ * </pre>
+ */
+public class ControlBreakBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static final int ROWS = 1000;
+
+    private static final String[] KEYS = { "hogeString", "hogeInteger" };
+
+    /**
+     * ベンチマークを実行する。
+     * @param args 判定回数
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+
+        HogeBean[] rows = new HogeBean[ROWS + 1];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new HogeBean();
+            rows[i].setHogeString("branch" + (i / 100));
+            rows[i].setHogeInteger(Integer.valueOf(i / 10));
+        }
+        CollectorStub<HogeBean> collector = new CollectorStub<HogeBean>();
+        ControlBreak<HogeBean> controlBreak = new ControlBreak<HogeBean>(KEYS);
+
+        System.out.println(String.format("%-24s %16s", "api", "checks/sec"));
+        for (int round = 0; round < ROUNDS; round++) {
+            long checker = measureChecker(collector, rows, count);
+            long compiled = measureControlBreak(collector, controlBreak, rows,
+                    count);
+            // 1回目はウォームアップとして結果を表示しない
+            if (round > 0) {
+                System.out.println(String.format("%-24s %16d",
+                        "ControlBreakChecker", checker));
+                System.out.println(String.format("%-24s %16d", "ControlBreak",
+                        compiled));
+            }
+        }
+    }
+
+    private static long measureChecker(CollectorStub<HogeBean> collector,
+            HogeBean[] rows, int count) {
+        int breaks = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int index = i % ROWS;
+            collector.setCurrent(rows[index]);
+            collector.setFollowing(rows[index + 1]);
+            if (ControlBreakChecker.isBreak(collector, KEYS)) {
+                breaks++;
+            }
+        }
+        return result(start, count, breaks);
+    }
+
+    private static long measureControlBreak(CollectorStub<HogeBean> collector,
+            ControlBreak<HogeBean> controlBreak, HogeBean[] rows, int count) {
+        int breaks = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int index = i % ROWS;
+            collector.setCurrent(rows[index]);
+            collector.setFollowing(rows[index + 1]);
+            if (controlBreak.isBreak(collector)) {
+                breaks++;
+            }
+        }
+        return result(start, count, breaks);
+    }
+
+    private static long result(long start, int count, int breaks) {
+        long elapsed = System.nanoTime() - start;
+        if (breaks != count / 10) {
+            throw new IllegalStateException("breaks:" + breaks);
+        }
+        return count * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+}
@@ -0,0 +1,220 @@
+package jp.terasoluna.fw.collector.util;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jp.terasoluna.fw.collector.util.strategy.CompareStrategy;
+
+import org.junit.Test;
+
+/**
+ * ControlBreakのテストケース。
+ */
+public class ControlBreakTest {
+
+    /**
+     * キーを定義しない場合、コントロールブレイクしないこと
+     */
+    @Test
+    public void testIsBreak001() {
+        CollectorStub<HogeBean> collector = createCollector(null, bean("A", 1),
+                bean("B", 2));
+
+        assertFalse(new ControlBreak<HogeBean>().isBreak(collector));
+        assertFalse(new ControlBreak<HogeBean>((String[]) null)
+                .isBreak(collector));
+        assertTrue(new ControlBreak<HogeBean>().getBreakKey(collector)
+                .isEmpty());
+    }
+
+    /**
+     * collectorがnullの場合、コントロールブレイクしないこと
+     */
+    @Test
+    public void testIsBreak002() {
+        ControlBreak<HogeBean> controlBreak = new ControlBreak<HogeBean>(
+                "hogeString");
+
+        assertFalse(controlBreak.isBreak((CollectorStub<HogeBean>) null));
+        assertFalse(controlBreak.isPreBreak((CollectorStub<HogeBean>) null));
+        assertTrue(controlBreak.getBreakKey((CollectorStub<HogeBean>) null)
+                .isEmpty());
+        assertTrue(controlBreak.getPreBreakKey((CollectorStub<HogeBean>) null)
+                .isEmpty());
+    }
+
+    /**
+     * 判定結果・キー取得結果がControlBreakCheckerと同じであること
+     * 前後のデータ、キー値のnull、CompareStrategyの有無を組み合わせて確認する
+     */
+    @Test
+    public void testIsBreak003() {
+        HogeBean[] beans = { null, bean("A", 1), bean("A", 2), bean("B", 1),
+                bean(null, 1), bean(null, null) };
+        String[][] keysList = { { "hogeString" }, { "hogeInteger" },
+                { "hogeString", "hogeInteger" },
+                { "hogeString", "", "hogeInteger" } };
+        CompareStrategy<?>[][] strategiesList = { null,
+                { new CompareStrategyStub1() },
+                { null, new CompareStrategyStub1() } };
+
+        for (HogeBean previous : beans) {
+            for (HogeBean current : beans) {
+                for (HogeBean next : beans) {
+                    CollectorStub<HogeBean> collector = createCollector(
+                            previous, current, next);
+                    for (String[] keys : keysList) {
+                        for (CompareStrategy<?>[] strategies : strategiesList) {
+                            ControlBreak<HogeBean> controlBreak = new ControlBreak<HogeBean>(
+                                    strategies, keys);
+                            String message = previous + "," + current + ","
+                                    + next + "," + keys.length + ","
+                                    + (strategies == null ? 0
+                                            : strategies.length);
+                            assertEquals(message, ControlBreakChecker.isBreak(
+                                    collector, strategies, keys),
+                                    controlBreak.isBreak(collector));
+                            assertEquals(message, ControlBreakChecker
+                                    .isPreBreak(collector, strategies, keys),
+                                    controlBreak.isPreBreak(collector));
+                            assertEquals(message, ControlBreakChecker
+                                    .getBreakKey(collector, strategies, keys),
+                                    controlBreak.getBreakKey(collector));
+                            assertEquals(message, ControlBreakChecker
+                                    .getPreBreakKey(collector, strategies,
+                                            keys), controlBreak
+                                    .getPreBreakKey(collector));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 存在しないプロパティのキーは判定の対象とならないこと
+     */
+    @Test
+    public void testIsBreak004() {
+        CollectorStub<HogeBean> collector = createCollector(null, bean("A", 1),
+                bean("A", 2));
+        ControlBreak<HogeBean> controlBreak = new ControlBreak<HogeBean>(
+                "hogeString", "notExist");
+
+        assertFalse(controlBreak.isBreak(collector));
+
+        collector.setFollowing(bean("B", 2));
+
+        assertTrue(controlBreak.isBreak(collector));
+        Map<String, Object> breakKey = controlBreak.getBreakKey(collector);
+        assertEquals(1, breakKey.size());
+        assertEquals("A", breakKey.get("hogeString"));
+    }
+
+    /**
+     * ネストしたプロパティ・Mapのデータも判定できること（途中のプロパティがnullの場合は判定の対象とならないこと）
+     */
+    @Test
+    public void testIsBreak005() {
+        HogeBean current = bean("A", 1);
+        current.setHogeHogeBean2(new HogeBean2());
+        current.getHogeHogeBean2().setHogeString("X");
+        HogeBean next = bean("A", 1);
+        next.setHogeHogeBean2(new HogeBean2());
+        next.getHogeHogeBean2().setHogeString("Y");
+        CollectorStub<HogeBean> collector = createCollector(null, current,
+                next);
+        ControlBreak<HogeBean> controlBreak = new ControlBreak<HogeBean>(
+                "hogeHogeBean2.hogeString");
+
+        assertTrue(controlBreak.isBreak(collector));
+
+        next.setHogeHogeBean2(null);
+
+        assertEquals(ControlBreakChecker.isBreak(collector,
+                "hogeHogeBean2.hogeString"), controlBreak.isBreak(collector));
+        assertFalse(controlBreak.isBreak(collector));
+
+        Map<String, Object> map1 = new HashMap<String, Object>();
+        map1.put("code", "001");
+        Map<String, Object> map2 = new HashMap<String, Object>();
+        map2.put("code", "002");
+        CollectorStub<Map<String, Object>> mapCollector = createCollector(
+                null, map1, map2);
+
+        assertTrue(new ControlBreak<Map<String, Object>>("code")
+                .isBreak(mapCollector));
+    }
+
+    /**
+     * KeyExtractorを指定したキーは、KeyExtractorで取得した値で判定すること
+     */
+    @Test
+    public void testAddKey001() {
+        CollectorStub<HogeBean> collector = createCollector(null, bean("A", 1),
+                bean("a", 1));
+        ControlBreak<HogeBean> controlBreak = new ControlBreak<HogeBean>()
+                .addKey("upper", new KeyExtractor<HogeBean>() {
+                    public Object getKey(HogeBean bean) {
+                        return bean.getHogeString().toUpperCase();
+                    }
+                });
+
+        assertFalse(controlBreak.isBreak(collector));
+
+        controlBreak.addKey("hogeString");
+
+        assertTrue(controlBreak.isBreak(collector));
+        Map<String, Object> breakKey = controlBreak.getBreakKey(collector);
+        assertEquals(1, breakKey.size());
+        assertEquals("A", breakKey.get("hogeString"));
+    }
+
+    /**
+     * KeyExtractorにnullを指定した場合、IllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testAddKey002() {
+        try {
+            new ControlBreak<HogeBean>().addKey("key",
+                    (KeyExtractor<HogeBean>) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The extractor is null.", e.getMessage());
+        }
+    }
+
+    /**
+     * データのクラスが途中で変わっても判定できること
+     */
+    @Test
+    public void testIsBreak006() {
+        ControlBreak<Object> controlBreak = new ControlBreak<Object>(
+                "hogeString");
+        HogeBean2 other = new HogeBean2();
+        other.setHogeString("A");
+
+        assertFalse(controlBreak.isBreak(bean("A", 1), bean("A", 2)));
+        assertFalse(controlBreak.isBreak(bean("A", 1), other));
+        other.setHogeString("B");
+        assertTrue(controlBreak.isBreak(other, bean("A", 1)));
+    }
+
+    private static HogeBean bean(String hogeString, Integer hogeInteger) {
+        HogeBean bean = new HogeBean();
+        bean.setHogeString(hogeString);
+        bean.setHogeInteger(hogeInteger);
+        return bean;
+    }
+
+    private static <T> CollectorStub<T> createCollector(T previous, T current,
+            T next) {
+        CollectorStub<T> collector = new CollectorStub<T>();
+        collector.setPrevious(previous);
+        collector.setCurrent(current);
+        collector.setFollowing(next);
+        return collector;
+    }
+}
@@ -0,0 +1,104 @@
+package jp.terasoluna.fw.collector.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * KeyComparatorのテストケース。
+ */
+public class KeyComparatorTest {
+
+    private static final KeyExtractor<HogeBean> HOGE = new KeyExtractor<HogeBean>() {
+        public Object getKey(HogeBean bean) {
+            return bean.getHogeString();
+        }
+    };
+
+    private static final KeyExtractor<HogeBean> FUGA = new KeyExtractor<HogeBean>() {
+        public Object getKey(HogeBean bean) {
+            return bean.getHogeInteger();
+        }
+    };
+
+    /**
+     * 指定したキーの順に比較し、nullは先頭となること
+     */
+    @Test
+    public void testCompare001() {
+        KeyComparator<HogeBean> comparator = new KeyComparator<HogeBean>()
+                .addKey(HOGE).addKey(FUGA);
+
+        assertTrue(comparator.compare(bean("a", 2), bean("b", 1)) < 0);
+        assertTrue(comparator.compare(bean("b", 1), bean("a", 2)) > 0);
+        assertTrue(comparator.compare(bean("a", 1), bean("a", 2)) < 0);
+        assertEquals(0, comparator.compare(bean("a", 1), bean("a", 1)));
+        assertTrue(comparator.compare(bean(null, 1), bean("a", 1)) < 0);
+        assertTrue(comparator.compare(bean("a", 1), bean(null, 1)) > 0);
+        assertEquals(0, comparator.compare(bean(null, null), bean(null, null)));
+    }
+
+    /**
+     * 降順のキー、キーごとのComparatorを指定できること
+     */
+    @Test
+    public void testCompare002() {
+        Comparator<Integer> absolute = new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return Math.abs(o1.intValue()) - Math.abs(o2.intValue());
+            }
+        };
+        KeyComparator<HogeBean> comparator = new KeyComparator<HogeBean>()
+                .addDescendingKey(HOGE).addKey(FUGA, absolute);
+
+        List<HogeBean> list = new ArrayList<HogeBean>();
+        list.add(bean("a", -3));
+        list.add(bean("b", 2));
+        list.add(bean("a", 1));
+        Collections.sort(list, comparator);
+
+        assertEquals("b", list.get(0).getHogeString());
+        assertEquals(Integer.valueOf(1), list.get(1).getHogeInteger());
+        assertEquals(Integer.valueOf(-3), list.get(2).getHogeInteger());
+    }
+
+    /**
+     * キーを指定しない場合は常に等しいこと
+     */
+    @Test
+    public void testCompare003() {
+        assertEquals(0, new KeyComparator<HogeBean>().compare(bean("a", 1),
+                bean("b", 2)));
+    }
+
+    /**
+     * 引数にnullを指定した場合はIllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testAddKey001() {
+        try {
+            new KeyComparator<HogeBean>().addKey(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The extractor is null.", e.getMessage());
+        }
+        try {
+            new KeyComparator<HogeBean>().addKey(HOGE, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The comparator is null.", e.getMessage());
+        }
+    }
+
+    private static HogeBean bean(String hogeString, Integer hogeInteger) {
+        HogeBean bean = new HogeBean();
+        bean.setHogeString(hogeString);
+        bean.setHogeInteger(hogeInteger);
+        return bean;
+    }
+}
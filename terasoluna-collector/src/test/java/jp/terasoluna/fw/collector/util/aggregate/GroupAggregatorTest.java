@@ -0,0 +1,358 @@
+package jp.terasoluna.fw.collector.util.aggregate;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import jp.terasoluna.fw.collector.Collector;
+import jp.terasoluna.fw.collector.util.ControlBreak;
+import jp.terasoluna.fw.collector.util.HogeBean;
+
+import org.junit.Test;
+
+/**
+ * GroupAggregatorのテストケース。
+ */
+public class GroupAggregatorTest {
+
+    private static final LongValueExtractor<HogeBean> INTEGER = new LongValueExtractor<HogeBean>() {
+        public long getLong(HogeBean row) {
+            return row.getHogeInteger().longValue();
+        }
+    };
+
+    private static final DecimalValueExtractor<HogeBean> DECIMAL = new DecimalValueExtractor<HogeBean>() {
+        public BigDecimal getDecimal(HogeBean row) {
+            return row.getHogeBigDecimal();
+        }
+    };
+
+    /**
+     * キーごとに件数・合計・最小・最大が集計され、グループの終わりで通知されること
+     */
+    @Test
+    public void testAggregate001() {
+        RecordingHandler handler = new RecordingHandler();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"), handler).addSum(
+                "sum", INTEGER).addMin("min", INTEGER).addMax("max", INTEGER)
+                .addSum("amount", DECIMAL).addMin("minAmount", DECIMAL)
+                .addMax("maxAmount", DECIMAL);
+
+        aggregator.aggregate(new ListCollector<HogeBean>(bean("A", 3, "1.5"),
+                bean("A", -2, "0.25"), bean("A", 5, "2"), bean("B", 7,
+                        "10"), bean("C", 1, null), bean("C", 4, "3")));
+
+        assertEquals(3L, aggregator.getGroupCount());
+        assertEquals(Arrays.asList(
+                "A,A,3,6,-2,5,3.75,0.25,2",
+                "B,B,1,7,7,7,10,10,10",
+                "C,C,2,5,1,4,3,3,3"), handler.results);
+    }
+
+    /**
+     * データが0件の場合、通知されないこと
+     */
+    @Test
+    public void testAggregate002() {
+        RecordingHandler handler = new RecordingHandler();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"), handler).addSum(
+                "sum", INTEGER).addMin("min", INTEGER).addMax("max", INTEGER)
+                .addSum("amount", DECIMAL).addMin("minAmount", DECIMAL)
+                .addMax("maxAmount", DECIMAL);
+
+        aggregator.aggregate(new ListCollector<HogeBean>());
+        aggregator.flush();
+
+        assertEquals(0L, aggregator.getGroupCount());
+        assertTrue(handler.results.isEmpty());
+    }
+
+    /**
+     * キーを定義しないControlBreakの場合、全件が1つのグループ(総計)として最後に通知されること
+     */
+    @Test
+    public void testAggregate005() {
+        RecordingHandler handler = new RecordingHandler();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>(), handler).addSum("sum", INTEGER)
+                .addMin("min", INTEGER).addMax("max", INTEGER).addSum(
+                        "amount", DECIMAL).addMin("minAmount", DECIMAL)
+                .addMax("maxAmount", DECIMAL);
+
+        aggregator.aggregate(new ListCollector<HogeBean>(bean("A", 3, "1.5"),
+                bean("B", -2, "0.25"), bean("C", 5, "2")));
+
+        assertEquals(1L, aggregator.getGroupCount());
+        assertEquals(Arrays.asList("A,C,3,6,-2,5,3.75,0.25,2"),
+                handler.results);
+    }
+
+    /**
+     * キーを定義しないControlBreakでadd(Collector)を呼び出した場合、最後の要素で総計が通知されること
+     */
+    @Test
+    public void testAdd001() {
+        RecordingHandler handler = new RecordingHandler();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>(), handler).addSum("sum", INTEGER)
+                .addMin("min", INTEGER).addMax("max", INTEGER).addSum(
+                        "amount", DECIMAL).addMin("minAmount", DECIMAL)
+                .addMax("maxAmount", DECIMAL);
+
+        Collector<HogeBean> collector = new ListCollector<HogeBean>(bean("A",
+                1, "1"), bean("B", 2, "2"));
+        collector.next();
+        aggregator.add(collector);
+        assertTrue(handler.results.isEmpty());
+        collector.next();
+        aggregator.add(collector);
+
+        assertEquals(Arrays.asList("A,B,2,3,1,2,3,1,2"), handler.results);
+    }
+
+    /**
+     * BigDecimal値がすべてnullのグループは、集計値がnullであること
+     */
+    @Test
+    public void testAggregate003() {
+        final List<BigDecimal> amounts = new ArrayList<BigDecimal>();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"),
+                new GroupHandler<HogeBean>() {
+                    public void handleGroup(GroupResult<HogeBean> result) {
+                        amounts.add(result.getDecimal("amount"));
+                    }
+                }).addSum("amount", DECIMAL);
+
+        aggregator.aggregate(new ListCollector<HogeBean>(bean("A", 1, null),
+                bean("A", 2, null), bean("B", 3, "1")));
+
+        assertEquals(Arrays.asList(null, new BigDecimal("1")), amounts);
+    }
+
+    /**
+     * add(P)で集計し、flushで通知されること
+     */
+    @Test
+    public void testFlush001() {
+        RecordingHandler handler = new RecordingHandler();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"), handler).addSum(
+                "sum", INTEGER).addMin("min", INTEGER).addMax("max", INTEGER)
+                .addSum("amount", DECIMAL).addMin("minAmount", DECIMAL)
+                .addMax("maxAmount", DECIMAL);
+
+        aggregator.add(bean("A", 1, "1"));
+        aggregator.add(bean("B", 2, "2"));
+        aggregator.flush();
+        aggregator.flush();
+        aggregator.add(bean("C", 3, "3"));
+        aggregator.flush();
+
+        assertEquals(2L, aggregator.getGroupCount());
+        assertEquals(Arrays.asList("A,B,2,3,1,2,3,1,2",
+                "C,C,1,3,3,3,3,3,3"), handler.results);
+    }
+
+    /**
+     * 階層ごとに生成した集計が、下位のグループから順に通知されること
+     */
+    @Test
+    public void testAggregate004() {
+        final List<String> events = new ArrayList<String>();
+        GroupAggregator<HogeBean> detail = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString", "hogeInteger"),
+                new GroupHandler<HogeBean>() {
+                    public void handleGroup(GroupResult<HogeBean> result) {
+                        events.add("detail:" + result.getFirst().getHogeString()
+                                + result.getFirst().getHogeInteger() + "="
+                                + result.getDecimal("amount"));
+                    }
+                }).addSum("amount", DECIMAL);
+        GroupAggregator<HogeBean> total = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"),
+                new GroupHandler<HogeBean>() {
+                    public void handleGroup(GroupResult<HogeBean> result) {
+                        events.add("total:" + result.getFirst().getHogeString()
+                                + "=" + result.getDecimal("amount") + "/"
+                                + result.getCount());
+                    }
+                }).addSum("amount", DECIMAL);
+
+        Collector<HogeBean> collector = new ListCollector<HogeBean>(bean("A",
+                1, "1"), bean("A", 1, "2"), bean("A", 2, "4"), bean("B", 1,
+                "8"));
+        while (collector.hasNext()) {
+            collector.next();
+            detail.add(collector);
+            total.add(collector);
+        }
+
+        assertEquals(Arrays.asList("detail:A1=3", "detail:A2=4",
+                "total:A=7/3", "detail:B1=8", "total:B=8/1"), events);
+    }
+
+    /**
+     * 定義していない集計項目名・型違いの集計項目名を指定した場合、IllegalArgumentExceptionが発生すること
+     */
+    @Test
+    public void testGetLong001() {
+        final List<String> messages = new ArrayList<String>();
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"),
+                new GroupHandler<HogeBean>() {
+                    public void handleGroup(GroupResult<HogeBean> result) {
+                        try {
+                            result.getLong("amount");
+                            fail();
+                        } catch (IllegalArgumentException e) {
+                            messages.add(e.getMessage());
+                        }
+                        try {
+                            result.getDecimal("sum");
+                            fail();
+                        } catch (IllegalArgumentException e) {
+                            messages.add(e.getMessage());
+                        }
+                        try {
+                            result.getLong("none");
+                            fail();
+                        } catch (IllegalArgumentException e) {
+                            messages.add(e.getMessage());
+                        }
+                    }
+                }).addSum("sum", INTEGER).addSum("amount", DECIMAL);
+
+        aggregator.add(bean("A", 1, "1"));
+        aggregator.flush();
+
+        assertEquals(Arrays.asList(
+                "The long item is not defined. name:amount",
+                "The decimal item is not defined. name:sum",
+                "The long item is not defined. name:none"), messages);
+    }
+
+    /**
+     * 集計項目の定義が不正な場合、例外が発生すること
+     */
+    @Test
+    public void testAddSum001() {
+        GroupHandler<HogeBean> handler = new RecordingHandler();
+        try {
+            new GroupAggregator<HogeBean>(null, handler);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+
+        GroupAggregator<HogeBean> aggregator = new GroupAggregator<HogeBean>(
+                new ControlBreak<HogeBean>("hogeString"), handler).addSum(
+                "sum", INTEGER);
+        try {
+            aggregator.addSum("sum", DECIMAL);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The name is already defined. name:sum", e
+                    .getMessage());
+        }
+        try {
+            aggregator.addMax("max", (LongValueExtractor<HogeBean>) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("The parameter is null.", e.getMessage());
+        }
+
+        aggregator.add(bean("A", 1, "1"));
+        try {
+            aggregator.addMin("min", INTEGER);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("The aggregation has already started.", e
+                    .getMessage());
+        }
+    }
+
+    private static HogeBean bean(String hogeString, Integer hogeInteger,
+            String hogeBigDecimal) {
+        HogeBean bean = new HogeBean();
+        bean.setHogeString(hogeString);
+        bean.setHogeInteger(hogeInteger);
+        bean.setHogeBigDecimal(hogeBigDecimal == null ? null : new BigDecimal(
+                hogeBigDecimal));
+        return bean;
+    }
+
+    /**
+     * 集計結果を文字列で記録するGroupHandler。
+     */
+    private static class RecordingHandler implements GroupHandler<HogeBean> {
+
+        private final List<String> results = new ArrayList<String>();
+
+        public void handleGroup(GroupResult<HogeBean> result) {
+            results.add(result.getFirst().getHogeString() + ","
+                    + result.getLast().getHogeString() + ","
+                    + result.getCount() + "," + result.getLong("sum") + ","
+                    + result.getLong("min") + "," + result.getLong("max")
+                    + "," + result.getDecimal("amount").toPlainString() + ","
+                    + result.getDecimal("minAmount").toPlainString() + ","
+                    + result.getDecimal("maxAmount").toPlainString());
+        }
+    }
+
+    /**
+     * リストの要素を順に返すコレクタ。
+     */
+    private static class ListCollector<P> implements Collector<P> {
+
+        private final List<P> list;
+
+        private int index = -1;
+
+        ListCollector(P... rows) {
+            this.list = Arrays.asList(rows);
+        }
+
+        public P getPrevious() {
+            return get(this.index - 1);
+        }
+
+        public P getCurrent() {
+            return get(this.index);
+        }
+
+        public P getNext() {
+            return get(this.index + 1);
+        }
+
+        public boolean hasNext() {
+            return this.index + 1 < this.list.size();
+        }
+
+        public P next() {
+            return this.list.get(++this.index);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Iterator<P> iterator() {
+            return this;
+        }
+
+        public void close() throws IOException {
+        }
+
+        private P get(int i) {
+            return i >= 0 && i < this.list.size() ? this.list.get(i) : null;
+        }
+    }
+}
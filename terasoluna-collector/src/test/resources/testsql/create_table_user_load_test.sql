@@ -0,0 +1,10 @@
+DROP TABLE IF EXISTS user_load_test;
+
+CREATE TABLE user_load_test
+(
+  user_id INT NOT NULL,
+  user_family_name VARCHAR2(20),
+  user_first_name VARCHAR2(20),
+  user_age VARCHAR2(3),
+  CONSTRAINT pk_user_load_test PRIMARY KEY (user_id)
+);
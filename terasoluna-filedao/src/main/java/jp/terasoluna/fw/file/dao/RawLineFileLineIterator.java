@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 NTT DATA Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jp.terasoluna.fw.file.dao;
+
+/**
+ * 1行分の文字列の読み込みと、ファイル行オブジェクトへの変換を分けて実行できるイテレータインタフェース。
+ * <p>
+ * {@link #next()}は1行分の文字列の読み込みと変換を続けて実行する。
+ * 本インタフェースでは、読み込みを{@link #readRawLine()}、変換を{@link #parseRawLine(String, int)}として分けて提供し、
+ * 読み込みは1スレッドで順に行い、変換は複数のスレッドで並列に行うといった使い方ができるようにする。
+ * </p>
+ * <p>
+ * {@link #readRawLine()}は{@link #next()}と同じく、呼び出し元の1スレッドから順に呼び出すこと。
+ * {@link #parseRawLine(String, int)}はイテレータの状態を変更しないため、複数のスレッドから同時に呼び出してよい。
+ * ただし、ファイル行オブジェクトの属性に対応するColumnParser、StringConverterはスレッドセーフであること。
+ * </p>
+ * @param <T> ファイル行オブジェクト。
+ */
+public interface RawLineFileLineIterator<T> extends FileLineIterator<T> {
+
+    /**
+     * データ部の1行分の文字列を読み込む。
+     * <p>
+     * {@link #next()}と同じく、データ部の次の1行を読み込んで行番号を進めるが、ファイル行オブジェクトへの変換は行わない。
+     * </p>
+     * @return データ部の1行分の文字列
+     * @throws FileException データ行の読み込みに失敗した場合。
+     * @throws FileLineException 取得できるデータ行が存在しない場合。
+     */
+    String readRawLine();
+
+    /**
+     * {@link #readRawLine()}で読み込んだ1行分の文字列をファイル行オブジェクトに変換する。
+     * <p>
+     * 変換の内容は{@link #next()}と同じ。
+     * </p>
+     * @param rawLine データ部の1行分の文字列
+     * @param lineNumber 行番号（変換に失敗した場合の例外に設定する）
+     * @return ファイル行オブジェクト
+     * @throws FileException ファイル行オブジェクトの生成に失敗した場合。
+     * @throws FileLineException ファイル行オブジェクトへの変換に失敗した場合。
+     */
+    T parseRawLine(String rawLine, int lineNumber);
+}
@@ -41,7 +41,7 @@ import jp.terasoluna.fw.file.annotation.StringConverter;
 import jp.terasoluna.fw.file.annotation.TrimType;
 import jp.terasoluna.fw.file.dao.FileException;
 import jp.terasoluna.fw.file.dao.FileLineException;
-import jp.terasoluna.fw.file.dao.FileLineIterator;
+import jp.terasoluna.fw.file.dao.RawLineFileLineIterator;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -68,7 +68,7 @@ import org.apache.commons.lang3.StringUtils;
  * @param <T> ファイル行オブジェクト。
  */
 public abstract class AbstractFileLineIterator<T> implements
-                                              FileLineIterator<T> {
+                                              RawLineFileLineIterator<T> {
 
     /**
      * 初期化処理をあらわす行番号。
@@ -345,6 +345,21 @@ public abstract class AbstractFileLineIterator<T> implements
      */
     @Override
     public T next() {
+        String currentString = readRawLine();
+        return parseRawLine(currentString, currentLineCount);
+    }
+
+    /**
+     * データ部の1行分の文字列を読み込む。<br>
+     * <p>
+     * 次の行のレコードを読み込んで行番号を進める。ファイル行オブジェクトへの変換は行わない。
+     * </p>
+     * @return データ部の1行分の文字列
+     * @throws FileException データ行取得処理で失敗した場合。
+     * @throws FileLineException 取得できるデータ行が存在しない場合。
+     */
+    @Override
+    public String readRawLine() {
         if (readTrailer) {
             throw new FileLineException("Data part should be called before trailer part.", new IllegalStateException(), fileName, currentLineCount);
         }
@@ -354,11 +369,26 @@ public abstract class AbstractFileLineIterator<T> implements
                     + 1);
         }
 
-        T fileLineObject = null;
-
         // 次の行データを読む。hasNext()チェックを行ったため、nullの場合ない。
         String currentString = readLine();
         currentLineCount++;
+        return currentString;
+    }
+
+    /**
+     * 1行分の文字列をファイル行オブジェクトに変換する。<br>
+     * <p>
+     * 変換の内容は{@link #next()}と同じ。イテレータの状態を変更しないため、複数のスレッドから同時に呼び出してよい。
+     * </p>
+     * @param currentString データ部の1行分の文字列
+     * @param lineNumber 行番号
+     * @return ファイル行オブジェクト
+     * @throws FileException ファイル行オブジェクトの生成に失敗した場合。
+     * @throws FileLineException ファイル行オブジェクトへの変換に失敗した場合。
+     */
+    @Override
+    public T parseRawLine(String currentString, int lineNumber) {
+        T fileLineObject = null;
 
         // ファイル行オブジェクトを新たに生成する処理。
         try {
@@ -376,7 +406,7 @@ public abstract class AbstractFileLineIterator<T> implements
         // ファイルから読み取ったカラム数とファイル行オブジェクトのカラム数を比較する。
         if (fields.length != columns.length) {
             throw new FileLineException("Column Count is different from "
-                    + "FileLineObject's column counts", new IllegalStateException(), fileName, currentLineCount);
+                    + "FileLineObject's column counts", new IllegalStateException(), fileName, lineNumber);
         }
 
         int columnIndex = -1;
@@ -396,7 +426,7 @@ public abstract class AbstractFileLineIterator<T> implements
                     if (columnString.getBytes(
                             fileEncoding).length != columnBytes[i]) {
                         throw new FileLineException("Data size is different from a set point "
-                                + "of a column.", new IllegalStateException(), fileName, currentLineCount, fields[i]
+                                + "of a column.", new IllegalStateException(), fileName, lineNumber, fields[i]
                                         .getName(), columnIndex);
                     }
                 } catch (UnsupportedEncodingException e) {
@@ -423,16 +453,16 @@ public abstract class AbstractFileLineIterator<T> implements
                 columnParser.parse(columnString, fileLineObject, methods[i],
                         columnFormats[i]);
             } catch (IllegalArgumentException e) {
-                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, currentLineCount, fields[i]
+                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, lineNumber, fields[i]
                         .getName(), columnIndex);
             } catch (IllegalAccessException e) {
-                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, currentLineCount, fields[i]
+                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, lineNumber, fields[i]
                         .getName(), columnIndex);
             } catch (InvocationTargetException e) {
-                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, currentLineCount, fields[i]
+                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, lineNumber, fields[i]
                         .getName(), columnIndex);
             } catch (ParseException e) {
-                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, currentLineCount, fields[i]
+                throw new FileLineException("Failed in coluomn data parsing.", e, fileName, lineNumber, fields[i]
                         .getName(), columnIndex);
             }
 
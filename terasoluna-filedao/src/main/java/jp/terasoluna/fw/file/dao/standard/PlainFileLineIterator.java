@@ -140,6 +140,32 @@ public class PlainFileLineIterator extends AbstractFileLineIterator<Object> {
         return readLine();
     }
 
+    /**
+     * データ部の1行分の文字列を読み込む。
+     * <p>
+     * {@link #next()}と同じく、ファイルの１行分の文字列を返却する。
+     * </p>
+     * @return ファイルの１行分の文字列
+     */
+    @Override
+    public String readRawLine() {
+        return next();
+    }
+
+    /**
+     * 1行分の文字列をファイル行オブジェクトに変換する。
+     * <p>
+     * ファイル行オブジェクトを使わないため、1行分の文字列をそのまま返却する。
+     * </p>
+     * @param rawLine ファイルの１行分の文字列
+     * @param lineNumber 行番号
+     * @return ファイルの１行分の文字列
+     */
+    @Override
+    public Object parseRawLine(String rawLine, int lineNumber) {
+        return rawLine;
+    }
+
     /**
      * データ部のデータを読み飛ばす処理を行う。<br>
      * @param skipLines 読み飛ばす行数。
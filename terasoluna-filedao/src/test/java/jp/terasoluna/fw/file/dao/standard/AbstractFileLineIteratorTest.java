@@ -3747,6 +3747,139 @@ public class AbstractFileLineIteratorTest {
         }
     }
 
+    /**
+     * testReadRawLine01() <br>
+     * <br>
+     * (正常系) <br>
+     * 観点：E <br>
+     * <br>
+     * 入力値：(状態) this.clazz:AbstractFileLineIterator_Stub10<br>
+     * (状態) 対象ファイル:以下の内容を持つ"AbstractFileLineIterator_next13.txt"ファイルが存在する。<br>
+     * -------------------<br>
+     * ABCDE,12345<br>
+     * -------------------<br>
+     * <br>
+     * 期待値：(戻り値) String:"ABCDE,12345"<br>
+     * (状態変化) this.separateColumns(String):呼ばれない<br>
+     * (状態変化) this.currentLineCount:1<br>
+     * <br>
+     * 1行分の文字列が変換されずに返却され、行番号が進むことを確認する。 <br>
+     * @throws Exception このメソッドで発生した例外
+     */
+    @Test
+    public void testReadRawLine01() throws Exception {
+        // テスト対象のインスタンス化
+        URL url = this.getClass().getResource(
+                "AbstractFileLineIterator_next13.txt");
+        String fileName = url.getPath();
+        Map<String, ColumnParser> columnParserMap = new HashMap<String, ColumnParser>();
+        columnParserMap.put("java.lang.String", new NullColumnParser());
+
+        AbstractFileLineIteratorImpl01<AbstractFileLineIterator_Stub10> fileLineIterator = Mockito.spy(
+                new AbstractFileLineIteratorImpl01<AbstractFileLineIterator_Stub10>(
+                fileName, AbstractFileLineIterator_Stub10.class,
+                columnParserMap));
+
+        // テスト実施
+        String result = fileLineIterator.readRawLine();
+
+        // 返却値の確認
+        assertEquals("ABCDE,12345", result);
+
+        // 状態変化の確認
+        Mockito.verify(fileLineIterator, Mockito.never()).separateColumns(Mockito.anyString());
+        assertEquals("currentLineCount", 1, ReflectionTestUtils.getField(
+                fileLineIterator, "currentLineCount"));
+        assertFalse(fileLineIterator.hasNext());
+    }
+
+    /**
+     * testParseRawLine01() <br>
+     * <br>
+     * (正常系) <br>
+     * 観点：E <br>
+     * <br>
+     * 入力値：(引数) rawLine:"ABCDE,12345"<br>
+     * (引数) lineNumber:10<br>
+     * (状態) this.clazz:AbstractFileLineIterator_Stub10<br>
+     * (状態) this.currentLineCount:0<br>
+     * <br>
+     * 期待値：(戻り値) AbstractFileLineIterator_Stub10:column1="ABCDE"、column2="12345"<br>
+     * (状態変化) this.readLine():呼ばれない<br>
+     * (状態変化) this.currentLineCount:0<br>
+     * <br>
+     * ファイルを読み込まずに、引数の文字列がファイル行オブジェクトに変換されることを確認する。 <br>
+     * @throws Exception このメソッドで発生した例外
+     */
+    @Test
+    public void testParseRawLine01() throws Exception {
+        // テスト対象のインスタンス化
+        URL url = this.getClass().getResource(
+                "AbstractFileLineIterator_next13.txt");
+        String fileName = url.getPath();
+        Map<String, ColumnParser> columnParserMap = new HashMap<String, ColumnParser>();
+        columnParserMap.put("java.lang.String", new NullColumnParser());
+
+        AbstractFileLineIteratorImpl01<AbstractFileLineIterator_Stub10> fileLineIterator = Mockito.spy(
+                new AbstractFileLineIteratorImpl01<AbstractFileLineIterator_Stub10>(
+                fileName, AbstractFileLineIterator_Stub10.class,
+                columnParserMap));
+
+        // テスト実施
+        AbstractFileLineIterator_Stub10 result = fileLineIterator.parseRawLine(
+                "ABCDE,12345", 10);
+
+        // 返却値の確認
+        assertEquals("ABCDE", result.getColumn1());
+        assertEquals("12345", result.getColumn2());
+
+        // 状態変化の確認
+        Mockito.verify(fileLineIterator, Mockito.never()).readLine();
+        assertEquals("currentLineCount", 0, ReflectionTestUtils.getField(
+                fileLineIterator, "currentLineCount"));
+    }
+
+    /**
+     * testParseRawLine02() <br>
+     * <br>
+     * (異常系) <br>
+     * 観点：G <br>
+     * <br>
+     * 入力値：(引数) rawLine:"ABCDE,123"<br>
+     * (引数) lineNumber:10<br>
+     * (状態) this.clazz:AbstractFileLineIterator_Stub10<br>
+     * <br>
+     * 期待値：(状態変化) 例外:以下の情報を持つFileLineExceptionが発生することを確認する。<br>
+     * ・行番号：10<br>
+     * <br>
+     * 例外。<br>
+     * 変換に失敗した場合、引数の行番号を持つFileLineExceptionが発生することを確認する。 <br>
+     * @throws Exception このメソッドで発生した例外
+     */
+    @Test
+    public void testParseRawLine02() throws Exception {
+        // テスト対象のインスタンス化
+        URL url = this.getClass().getResource(
+                "AbstractFileLineIterator_next13.txt");
+        String fileName = url.getPath();
+        Map<String, ColumnParser> columnParserMap = new HashMap<String, ColumnParser>();
+        columnParserMap.put("java.lang.String", new NullColumnParser());
+
+        AbstractFileLineIteratorImpl01<AbstractFileLineIterator_Stub10> fileLineIterator = new AbstractFileLineIteratorImpl01<AbstractFileLineIterator_Stub10>(
+                fileName, AbstractFileLineIterator_Stub10.class,
+                columnParserMap);
+
+        // テスト実施
+        try {
+            fileLineIterator.parseRawLine("ABCDE,123", 10);
+            fail("FileLineExceptionがスローされませんでした");
+        } catch (FileLineException e) {
+            assertEquals(10, e.getLineNo());
+            assertEquals("column2", e.getColumnName());
+            assertEquals(fileName, e.getFileName());
+        }
+    }
+
     /**
      * testRemove01() <br>
      * <br>